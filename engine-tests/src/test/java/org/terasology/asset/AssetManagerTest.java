@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.asset;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.terasology.asset.sources.AbstractSource;
+import org.terasology.engine.module.Module;
+import org.terasology.engine.module.ModuleManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AssetManagerTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private AssetManager assetManager;
+    private TestSource source;
+
+    @Before
+    public void setup() {
+        assetManager = new AssetManager(mock(ModuleManager.class));
+        assetManager.register(AssetType.TEXTURE, "txt", new TestLoader());
+        assetManager.register(AssetType.PREFAB, "txt", new TestLoader());
+        assetManager.setAssetFactory(AssetType.TEXTURE, new TestFactory());
+        assetManager.setAssetFactory(AssetType.PREFAB, new TestFactory());
+        source = new TestSource();
+        assetManager.addAssetSource(source);
+    }
+
+    @Test
+    public void loadAssetDataAsync() throws Exception {
+        AssetUri uri = new AssetUri(AssetType.TEXTURE, "test", "first");
+        source.add(uri, "content");
+
+        TestData data = (TestData) assetManager.loadAssetDataAsync(uri).get();
+        assertEquals("content", data.content);
+        assertTrue(data.loadingThread.startsWith("Asset-Loader"));
+    }
+
+    @Test
+    public void loadAssetDataAsyncOfMissingAsset() throws Exception {
+        assertNull(assetManager.loadAssetDataAsync(new AssetUri(AssetType.TEXTURE, "test", "missing")).get());
+    }
+
+    @Test
+    public void preloadedAssetsAreBuiltOnLoadingThread() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "one");
+        source.add(second, "two");
+
+        assetManager.preload(Arrays.asList(first, second));
+        TestAsset asset = assetManager.loadAsset(second, TestAsset.class);
+
+        assertNotNull(asset);
+        assertEquals("two", asset.data.content);
+        assertTrue(asset.data.loadingThread.startsWith("Asset-Loader"));
+        assertEquals(Thread.currentThread().getName(), asset.buildingThread);
+        assertEquals(asset, assetManager.loadAsset(second, TestAsset.class));
+    }
+
+    @Test
+    public void preloadSkipsTypesThatCannotLoadInBackground() throws Exception {
+        AssetUri uri = new AssetUri(AssetType.PREFAB, "test", "prefab");
+        source.add(uri, "content");
+
+        assetManager.preload(Arrays.asList(uri));
+        TestAsset asset = assetManager.loadAsset(uri, TestAsset.class);
+
+        assertEquals(Thread.currentThread().getName(), asset.data.loadingThread);
+    }
+
+    @Test
+    public void cacheStatisticsCountHitsAndMisses() throws Exception {
+        AssetUri uri = new AssetUri(AssetType.TEXTURE, "test", "first");
+        source.add(uri, "content");
+
+        assetManager.loadAsset(uri);
+        assetManager.loadAsset(uri);
+        assetManager.loadAsset(uri);
+
+        AssetCacheStatistics statistics = assetManager.getCacheStatistics(AssetType.TEXTURE);
+        assertEquals(1, statistics.getMisses());
+        assertEquals(2, statistics.getHits());
+        assertEquals(1, statistics.getResidentCount());
+        assertEquals("content".length(), statistics.getResidentSize());
+    }
+
+    @Test
+    public void releasedAssetsAreEvictedOverBudget() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "aaaa");
+        source.add(second, "bbbb");
+        assetManager.setCacheBudget(AssetType.TEXTURE, 6);
+
+        TestAsset firstAsset = assetManager.acquire(first, TestAsset.class);
+        assetManager.release(firstAsset);
+        TestAsset secondAsset = assetManager.acquire(second, TestAsset.class);
+
+        assertTrue(firstAsset.isDisposed());
+        assertFalse(secondAsset.isDisposed());
+        assertEquals(1, assetManager.getCacheStatistics(AssetType.TEXTURE).getEvictions());
+        assertEquals(4, assetManager.getCacheStatistics(AssetType.TEXTURE).getResidentSize());
+
+        // The evicted instance is still held here, so it is loaded again in place
+        TestAsset reloadedAsset = assetManager.acquire(first, TestAsset.class);
+        assertSame(firstAsset, reloadedAsset);
+        assertEquals("aaaa", reloadedAsset.data.content);
+    }
+
+    @Test
+    public void retainedAssetsAreReloadedInPlaceAfterEviction() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "aaaa");
+        source.add(second, "bbbb");
+        assetManager.setCacheBudget(AssetType.TEXTURE, 6);
+
+        TestAsset firstAsset = (TestAsset) assetManager.resolveAndLoadUnpinned(AssetType.TEXTURE, "test:first");
+        assertTrue(assetManager.retain(firstAsset));
+        assetManager.release(firstAsset);
+        TestAsset secondAsset = assetManager.acquire(second, TestAsset.class);
+        assertTrue(firstAsset.isDisposed());
+
+        assetManager.release(secondAsset);
+        assertTrue(assetManager.retain(firstAsset));
+        assertFalse(firstAsset.isDisposed());
+        assertEquals("aaaa", firstAsset.data.content);
+        assertTrue(secondAsset.isDisposed());
+    }
+
+    @Test
+    public void assetsDisposedExplicitlyAreNotRetained() throws Exception {
+        AssetUri uri = new AssetUri(AssetType.TEXTURE, "test", "first");
+        source.add(uri, "aaaa");
+
+        TestAsset asset = assetManager.loadAsset(uri, TestAsset.class);
+        assetManager.dispose(asset);
+
+        assertFalse(assetManager.retain(asset));
+        assertTrue(asset.isDisposed());
+    }
+
+    @Test
+    public void referencedAssetsAreNotEvicted() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "aaaa");
+        source.add(second, "bbbb");
+        assetManager.setCacheBudget(AssetType.TEXTURE, 6);
+
+        TestAsset firstAsset = assetManager.acquire(first, TestAsset.class);
+        TestAsset secondAsset = assetManager.acquire(second, TestAsset.class);
+
+        assertFalse(firstAsset.isDisposed());
+        assertFalse(secondAsset.isDisposed());
+        assertEquals(0, assetManager.getCacheStatistics(AssetType.TEXTURE).getEvictions());
+    }
+
+    @Test
+    public void assetsThatWereNeverAcquiredAreNotEvicted() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "aaaa");
+        source.add(second, "bbbb");
+        assetManager.setCacheBudget(AssetType.TEXTURE, 6);
+
+        TestAsset firstAsset = assetManager.loadAsset(first, TestAsset.class);
+        TestAsset secondAsset = assetManager.acquire(second, TestAsset.class);
+        assetManager.release(secondAsset);
+
+        assertFalse(firstAsset.isDisposed());
+        assertTrue(secondAsset.isDisposed());
+    }
+
+    @Test
+    public void loadedAssetsAreNotEvictedWhenAcquiredAndReleasedElsewhere() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "aaaa");
+        source.add(second, "bbbb");
+        assetManager.setCacheBudget(AssetType.TEXTURE, 6);
+
+        TestAsset loadedAsset = assetManager.loadAsset(first, TestAsset.class);
+        assetManager.release(assetManager.acquire(first, TestAsset.class));
+        assetManager.acquire(second, TestAsset.class);
+
+        assertFalse(loadedAsset.isDisposed());
+        assertEquals(0, assetManager.getCacheStatistics(AssetType.TEXTURE).getEvictions());
+    }
+
+    @Test
+    public void acquiredAssetsLoadedBeforeReleaseAreNotEvicted() throws Exception {
+        AssetUri first = new AssetUri(AssetType.TEXTURE, "test", "first");
+        AssetUri second = new AssetUri(AssetType.TEXTURE, "test", "second");
+        source.add(first, "aaaa");
+        source.add(second, "bbbb");
+        assetManager.setCacheBudget(AssetType.TEXTURE, 6);
+
+        TestAsset acquiredAsset = assetManager.acquire(first, TestAsset.class);
+        assetManager.loadAsset(first);
+        assetManager.release(acquiredAsset);
+        assetManager.acquire(second, TestAsset.class);
+
+        assertFalse(acquiredAsset.isDisposed());
+    }
+
+    private class TestSource extends AbstractSource {
+
+        public TestSource() {
+            super("test");
+        }
+
+        public void add(AssetUri uri, String content) throws IOException {
+            File file = tempFolder.newFile(uri.getAssetName() + ".txt");
+            Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            addItem(uri, file.toURI().toURL());
+        }
+    }
+
+    private static class TestData implements AssetData {
+        private String content;
+        private String loadingThread;
+
+        public TestData(String content) {
+            this.content = content;
+            this.loadingThread = Thread.currentThread().getName();
+        }
+    }
+
+    private static class TestLoader implements AssetLoader<TestData> {
+
+        @Override
+        public TestData load(Module module, InputStream stream, List<URL> urls) throws IOException {
+            byte[] buffer = new byte[256];
+            int length = stream.read(buffer);
+            return new TestData(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class TestAsset extends AbstractAsset<TestData> implements SizedAsset {
+        private TestData data;
+        private String buildingThread = Thread.currentThread().getName();
+
+        public TestAsset(AssetUri uri, TestData data) {
+            super(uri);
+            this.data = data;
+        }
+
+        @Override
+        public void reload(TestData newData) {
+            this.data = newData;
+        }
+
+        @Override
+        public void dispose() {
+            data = null;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return data == null;
+        }
+
+        @Override
+        public long getResidentSize() {
+            return data.content.length();
+        }
+    }
+
+    private static class TestFactory implements AssetFactory<TestData, TestAsset> {
+
+        @Override
+        public TestAsset buildAsset(AssetUri uri, TestData data) {
+            return new TestAsset(uri, data);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.engine.modes;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LoadProcessSchedulerTest {
+
+    private LoadProcessScheduler scheduler = new LoadProcessScheduler();
+    private List<String> finishOrder = Collections.synchronizedList(Lists.<String>newArrayList());
+
+    @After
+    public void teardown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    public void processesWithoutDependenciesRunInOrderOnMainThread() throws Exception {
+        TestProcess first = new TestProcess("first", 3);
+        TestProcess second = new TestProcess("second", 2);
+        scheduler.add(first);
+        scheduler.add(second);
+
+        runToCompletion();
+
+        assertEquals(Lists.newArrayList("first", "second"), finishOrder);
+        assertSame(Thread.currentThread(), first.thread);
+        assertSame(Thread.currentThread(), second.thread);
+        assertTrue(scheduler.getTimings().containsKey(TestProcess.class.getSimpleName()));
+        assertEquals(1.0f, scheduler.getProgress(), 0.0001f);
+    }
+
+    @Test
+    public void backgroundProcessesRunInParallel() throws Exception {
+        // Each of these waits for the other to start, so they can only finish when run in parallel
+        CountDownLatch started = new CountDownLatch(2);
+        Set<Class<? extends LoadProcess>> afterSetup = ImmutableSet.<Class<? extends LoadProcess>>of(TestProcess.class);
+        BackgroundProcess first = new BackgroundProcess("first", started, afterSetup);
+        BackgroundProcess second = new BackgroundProcess("second", started, afterSetup);
+        scheduler.add(new TestProcess("setup", 1));
+        scheduler.add(first);
+        scheduler.add(second);
+
+        runToCompletion();
+
+        assertTrue(first.bothStarted);
+        assertTrue(second.bothStarted);
+        assertNotSame(Thread.currentThread(), first.thread);
+        assertNotSame(Thread.currentThread(), second.thread);
+    }
+
+    @Test
+    public void mainThreadProcessWaitsForItsDependencies() throws Exception {
+        // The background process counts down once, and then waits for the release
+        CountDownLatch release = new CountDownLatch(2);
+        BackgroundProcess background = new BackgroundProcess("background", release);
+        TestProcess independent = new TestProcess("independent", 1, ImmutableSet.<Class<? extends LoadProcess>>of());
+        TestProcess dependent = new TestProcess("dependent", 1, ImmutableSet.<Class<? extends LoadProcess>>of(BackgroundProcess.class));
+        scheduler.add(background);
+        scheduler.add(independent);
+        scheduler.add(dependent);
+
+        assertFalse(scheduler.update(10));
+        assertEquals(Lists.newArrayList("independent"), finishOrder);
+
+        release.countDown();
+        runToCompletion();
+        assertEquals(Lists.newArrayList("independent", "background", "dependent"), finishOrder);
+    }
+
+    @Test
+    public void dependenciesAddedLaterAreWaitedFor() throws Exception {
+        TestProcess dependent = new TestProcess("dependent", 1, ImmutableSet.<Class<? extends LoadProcess>>of(BackgroundProcess.class));
+        CountDownLatch release = new CountDownLatch(2);
+        BackgroundProcess background = new BackgroundProcess("background", release);
+        scheduler.add(dependent);
+        scheduler.add(background);
+
+        assertFalse(scheduler.update(10));
+        assertTrue(finishOrder.isEmpty());
+
+        release.countDown();
+        runToCompletion();
+        assertEquals(Lists.newArrayList("background", "dependent"), finishOrder);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingDependencyIsRejected() throws Exception {
+        scheduler.add(new TestProcess("dependent", 1, ImmutableSet.<Class<? extends LoadProcess>>of(BackgroundProcess.class)));
+        scheduler.update(10);
+    }
+
+    @Test
+    public void backgroundFailureIsRethrown() throws Exception {
+        scheduler.add(new BackgroundProcess("failing", null));
+        try {
+            runToCompletion();
+            fail("Expected the failure of the background process");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof UnsupportedOperationException);
+        }
+    }
+
+    private void runToCompletion() throws InterruptedException {
+        long giveUpTime = System.currentTimeMillis() + 10000;
+        while (!scheduler.update(5)) {
+            assertTrue("Loading didn't finish", System.currentTimeMillis() < giveUpTime);
+            Thread.sleep(1);
+        }
+    }
+
+    private class TestProcess implements LoadProcess {
+        private final String name;
+        private final int steps;
+        private final Set<Class<? extends LoadProcess>> dependencies;
+        private int stepsDone;
+        // Not private, so that it can be read through the subclass
+        Thread thread;
+
+        public TestProcess(String name, int steps) {
+            this(name, steps, null);
+        }
+
+        public TestProcess(String name, int steps, Set<Class<? extends LoadProcess>> dependencies) {
+            this.name = name;
+            this.steps = steps;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public String getMessage() {
+            return name;
+        }
+
+        @Override
+        public boolean step() {
+            thread = Thread.currentThread();
+            if (++stepsDone == steps) {
+                finishOrder.add(name);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public float getProgress() {
+            return (float) stepsDone / steps;
+        }
+
+        @Override
+        public int getExpectedCost() {
+            return 1;
+        }
+
+        @Override
+        public Set<Class<? extends LoadProcess>> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public boolean canRunInBackground() {
+            return false;
+        }
+    }
+
+    private class BackgroundProcess extends TestProcess {
+        private final CountDownLatch latch;
+        private boolean bothStarted;
+
+        public BackgroundProcess(String name, CountDownLatch latch) {
+            this(name, latch, ImmutableSet.<Class<? extends LoadProcess>>of());
+        }
+
+        /**
+         * @param latch Counted down, then awaited before finishing. Fails when null.
+         */
+        public BackgroundProcess(String name, CountDownLatch latch, Set<Class<? extends LoadProcess>> dependencies) {
+            super(name, 1, dependencies);
+            this.latch = latch;
+        }
+
+        @Override
+        public boolean step() {
+            if (latch == null) {
+                throw new UnsupportedOperationException();
+            }
+            latch.countDown();
+            try {
+                bothStarted = latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.step();
+        }
+
+        @Override
+        public boolean canRunInBackground() {
+            return true;
+        }
+    }
+}
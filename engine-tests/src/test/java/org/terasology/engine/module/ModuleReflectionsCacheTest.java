@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.engine.module;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ModuleReflectionsCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path cacheRoot;
+    private Path moduleJar;
+
+    @Before
+    public void setup() throws IOException {
+        cacheRoot = tempFolder.getRoot().toPath().resolve("cache");
+        moduleJar = tempFolder.getRoot().toPath().resolve("module.jar");
+        writeJar(moduleJar, BaseType.class, SubType.class);
+    }
+
+    @Test
+    public void cachedScanMatchesScan() {
+        ModuleReflectionsCache cache = new ModuleReflectionsCache(cacheRoot, "engine");
+        assertNull(cache.load("module-1.0.0", moduleJar));
+
+        cache.save("module-1.0.0", moduleJar, scan(moduleJar));
+        Reflections cached = cache.load("module-1.0.0", moduleJar);
+
+        assertNotNull(cached);
+        assertEquals(scan(moduleJar).getStore().getSubTypesOf(BaseType.class.getName()), cached.getStore().getSubTypesOf(BaseType.class.getName()));
+        assertEquals(1, cached.getStore().getSubTypesOf(BaseType.class.getName()).size());
+    }
+
+    @Test
+    public void changedCodeReplacesCacheFile() throws IOException {
+        ModuleReflectionsCache cache = new ModuleReflectionsCache(cacheRoot, "engine");
+        cache.save("module-1.0.0", moduleJar, scan(moduleJar));
+
+        writeJar(moduleJar, BaseType.class, SubType.class, OtherSubType.class);
+        assertNull(cache.load("module-1.0.0", moduleJar));
+
+        cache.save("module-1.0.0", moduleJar, scan(moduleJar));
+        assertEquals(2, cache.load("module-1.0.0", moduleJar).getStore().getSubTypesOf(BaseType.class.getName()).size());
+        assertEquals(1, countFiles(cacheRoot));
+    }
+
+    @Test
+    public void changedEngineVersionInvalidatesCache() {
+        new ModuleReflectionsCache(cacheRoot, "engine").save("module-1.0.0", moduleJar, scan(moduleJar));
+
+        assertNull(new ModuleReflectionsCache(cacheRoot, "newEngine").load("module-1.0.0", moduleJar));
+    }
+
+    @Test
+    public void otherModulesKeepTheirCacheFiles() throws IOException {
+        ModuleReflectionsCache cache = new ModuleReflectionsCache(cacheRoot, "engine");
+        cache.save("module-1.0.0", moduleJar, scan(moduleJar));
+        cache.save("module-1.0.0-extra", moduleJar, scan(moduleJar));
+
+        assertNotNull(cache.load("module-1.0.0", moduleJar));
+        assertEquals(2, countFiles(cacheRoot));
+    }
+
+    private static Reflections scan(Path jar) {
+        try {
+            return new Reflections(new ConfigurationBuilder().addUrls(jar.toUri().toURL()).setScanners(new TypeAnnotationsScanner(), new SubTypesScanner()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void writeJar(Path jar, Class<?>... classes) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            for (Class<?> type : classes) {
+                String name = type.getName().replace('.', '/') + ".class";
+                jarOut.putNextEntry(new ZipEntry(name));
+                try (InputStream in = ModuleReflectionsCacheTest.class.getClassLoader().getResourceAsStream(name)) {
+                    ByteStreams.copy(in, jarOut);
+                }
+                jarOut.closeEntry();
+            }
+        }
+    }
+
+    private static int countFiles(Path folder) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path path : stream) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static class BaseType {
+    }
+
+    public static class SubType extends BaseType {
+    }
+
+    public static class OtherSubType extends BaseType {
+    }
+}
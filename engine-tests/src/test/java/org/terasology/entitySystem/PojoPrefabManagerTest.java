@@ -15,6 +15,7 @@
  */
 package org.terasology.entitySystem;
 
+import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 import org.terasology.asset.AssetFactory;
@@ -22,6 +23,7 @@
 import org.terasology.asset.AssetType;
 import org.terasology.asset.AssetUri;
 import org.terasology.asset.Assets;
+import org.terasology.config.Config;
 import org.terasology.reflection.copy.CopyStrategyLibrary;
 import org.terasology.reflection.reflect.ReflectFactory;
 import org.terasology.reflection.reflect.ReflectionReflectFactory;
@@ -34,6 +36,7 @@
 import org.terasology.entitySystem.metadata.EntitySystemLibrary;
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.entitySystem.prefab.PrefabData;
+import org.terasology.entitySystem.stubs.IntegerComponent;
 import org.terasology.entitySystem.stubs.StringComponent;
 import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
 import org.terasology.persistence.typeHandling.mathTypes.Quat4fTypeHandler;
@@ -41,10 +44,13 @@
 
 import javax.vecmath.Quat4f;
 import javax.vecmath.Vector3f;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Immortius <immortius@gmail.com>
@@ -67,6 +73,7 @@ public void setup() {
         entitySystemLibrary = new EntitySystemLibrary(reflectFactory, copyStrategyLibrary, lib);
         componentLibrary = entitySystemLibrary.getComponentLibrary();
         prefabManager = new PojoPrefabManager();
+        CoreRegistry.put(Config.class, new Config());
         AssetManager assetManager = new AssetManager(new ModuleManagerImpl(new ModuleSecurityManager()));
         assetManager.setAssetFactory(AssetType.PREFAB, new AssetFactory<PrefabData, Prefab>() {
             @Override
@@ -92,5 +99,54 @@ public void retrievePrefab() {
         assertEquals(PREFAB_NAME, ref.getName());
     }
 
+    @Test
+    public void listPrefabsWithComponent() {
+        Prefab stringPrefab = generatePrefab("unittest:string", new StringComponent("Test"));
+        Prefab bothPrefab = generatePrefab("unittest:both", new StringComponent("Test"), new IntegerComponent(1));
+
+        assertEquals(Sets.newHashSet(stringPrefab, bothPrefab), prefabManager.listPrefabs(StringComponent.class));
+        assertEquals(Sets.newHashSet(bothPrefab), prefabManager.listPrefabs(IntegerComponent.class));
+    }
+
+    @Test
+    public void listPrefabsWithAllComponents() {
+        generatePrefab("unittest:string", new StringComponent("Test"));
+        generatePrefab("unittest:integer", new IntegerComponent(1));
+        Prefab bothPrefab = generatePrefab("unittest:both", new StringComponent("Test"), new IntegerComponent(1));
+
+        assertEquals(Sets.newHashSet(bothPrefab),
+                prefabManager.listPrefabs(Arrays.<Class<? extends Component>>asList(StringComponent.class, IntegerComponent.class)));
+        assertEquals(3, prefabManager.listPrefabs(Collections.<Class<? extends Component>>emptyList()).size());
+    }
+
+    @Test
+    public void listPrefabsWithNoComponentsIncludesEmptyPrefabs() {
+        Prefab emptyPrefab = generatePrefab("unittest:empty");
+        Prefab stringPrefab = generatePrefab("unittest:string", new StringComponent("Test"));
+
+        assertEquals(Sets.newHashSet(emptyPrefab, stringPrefab), prefabManager.listPrefabs(Collections.<Class<? extends Component>>emptyList()));
+    }
+
+    @Test
+    public void prefabListingFollowsReloadAndDispose() {
+        Prefab prefab = generatePrefab("unittest:changing", new StringComponent("Test"));
+        assertEquals(Sets.newHashSet(prefab), prefabManager.listPrefabs(StringComponent.class));
+
+        generatePrefab("unittest:changing", new IntegerComponent(1));
+        assertTrue(prefabManager.listPrefabs(StringComponent.class).isEmpty());
+        assertEquals(Sets.newHashSet(prefab), prefabManager.listPrefabs(IntegerComponent.class));
+
+        CoreRegistry.get(AssetManager.class).dispose(prefab);
+        assertTrue(prefabManager.listPrefabs(IntegerComponent.class).isEmpty());
+    }
+
+    private Prefab generatePrefab(String name, Component... components) {
+        PrefabData data = new PrefabData();
+        for (Component component : components) {
+            data.addComponent(component);
+        }
+        return Assets.generateAsset(new AssetUri(AssetType.PREFAB, name), data, Prefab.class);
+    }
+
 
 }
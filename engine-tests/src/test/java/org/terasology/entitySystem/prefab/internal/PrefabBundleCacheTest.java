@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.prefab.internal;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.terasology.protobuf.EntityData;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PrefabBundleCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path cacheRoot;
+    private EntityData.Prefab prefab = EntityData.Prefab.newBuilder().setName("test:prefab").setParentName("test:parent").build();
+    private HashCode hash = Hashing.sha1().hashInt(1);
+
+    @Before
+    public void setup() throws Exception {
+        cacheRoot = tempFolder.getRoot().toPath().resolve("prefabs");
+    }
+
+    @Test
+    public void savedPrefabsAreReadBack() {
+        PrefabBundleCache cache = new PrefabBundleCache(cacheRoot, "1");
+        cache.put("test", hash, prefab);
+        cache.save();
+
+        PrefabBundleCache newCache = new PrefabBundleCache(cacheRoot, "1");
+        assertEquals(prefab, newCache.get("test", hash));
+        assertNull(newCache.get("test", Hashing.sha1().hashInt(2)));
+        assertNull(newCache.get("other", hash));
+    }
+
+    @Test
+    public void bundlesOfOtherEngineVersionsAreDiscarded() {
+        PrefabBundleCache cache = new PrefabBundleCache(cacheRoot, "1");
+        cache.put("test", hash, prefab);
+        cache.save();
+
+        assertNull(new PrefabBundleCache(cacheRoot, "2").get("test", hash));
+    }
+
+    @Test
+    public void bundlesOfOtherFormatVersionsAreDiscarded() throws Exception {
+        PrefabBundleCache cache = new PrefabBundleCache(cacheRoot, "1");
+        Path path = cache.getBundlePath("test");
+        Files.createDirectories(path.getParent());
+        try (OutputStream stream = Files.newOutputStream(path)) {
+            CodedOutputStream output = CodedOutputStream.newInstance(stream);
+            output.writeRawVarint32(PrefabBundleCache.FORMAT_VERSION + 1);
+            output.writeStringNoTag("1");
+            output.writeRawVarint32(1);
+            output.writeBytesNoTag(ByteString.copyFrom(hash.asBytes()));
+            output.writeMessageNoTag(prefab);
+            output.flush();
+        }
+
+        assertNull(cache.get("test", hash));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownEngineVersionIsRejected() {
+        new PrefabBundleCache(cacheRoot, "");
+    }
+
+    @Test
+    public void unusedPrefabsAreDroppedOnSave() {
+        HashCode otherHash = Hashing.sha1().hashInt(2);
+        PrefabBundleCache cache = new PrefabBundleCache(cacheRoot, "1");
+        cache.put("test", hash, prefab);
+        cache.put("test", otherHash, prefab);
+        cache.save();
+
+        PrefabBundleCache secondCache = new PrefabBundleCache(cacheRoot, "1");
+        assertEquals(prefab, secondCache.get("test", hash));
+        secondCache.save();
+
+        PrefabBundleCache thirdCache = new PrefabBundleCache(cacheRoot, "1");
+        assertEquals(prefab, thirdCache.get("test", hash));
+        assertNull(thirdCache.get("test", otherHash));
+    }
+
+    @Test
+    public void corruptBundlesAreDiscarded() throws Exception {
+        PrefabBundleCache cache = new PrefabBundleCache(cacheRoot, "1");
+        Files.createDirectories(cacheRoot);
+        Files.write(cache.getBundlePath("test"), new byte[]{1, 49, 5, 1, 2});
+
+        assertNull(cache.get("test", hash));
+    }
+}
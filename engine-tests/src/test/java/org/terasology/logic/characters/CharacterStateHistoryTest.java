@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.logic.characters;
+
+import org.junit.Test;
+
+import javax.vecmath.Quat4f;
+import javax.vecmath.Vector3f;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CharacterStateHistoryTest {
+
+    @Test
+    public void dropsOldestWhenFull() {
+        CharacterStateHistory history = new CharacterStateHistory(4);
+        for (int i = 0; i < 10; ++i) {
+            history.add(createState(i * 100, i));
+            assertEquals(i, history.getLast().getSequenceNumber());
+        }
+        assertEquals(4, history.size());
+        assertEquals(600, history.getTime(0));
+        assertEquals(900, history.getTime(3));
+    }
+
+    @Test
+    public void findsStateAtOrBeforeTime() {
+        CharacterStateHistory history = new CharacterStateHistory(4);
+        for (int i = 0; i < 6; ++i) {
+            history.add(createState(i * 100, i));
+        }
+        assertEquals(-1, history.indexAtOrBefore(150));
+        assertEquals(0, history.indexAtOrBefore(200));
+        assertEquals(1, history.indexAtOrBefore(350));
+        assertEquals(3, history.indexAtOrBefore(10000));
+    }
+
+    @Test
+    public void readsStoredState() {
+        CharacterStateHistory history = new CharacterStateHistory(2);
+        history.add(createState(100, 1));
+        history.add(createState(200, 2));
+        history.add(createState(300, 3));
+
+        CharacterStateEvent state = history.read(1, new CharacterStateEvent());
+        assertEquals(300, state.getTime());
+        assertEquals(3, state.getSequenceNumber());
+        assertEquals(new Vector3f(3, 6, 9), state.getPosition());
+        assertEquals(new Vector3f(0, -3, 0), state.getVelocity());
+        assertEquals(MovementMode.WALKING, state.getMode());
+        assertTrue(state.isGrounded());
+        assertEquals(30f, state.getYaw(), 0.0001f);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndexPastNewest() {
+        CharacterStateHistory history = new CharacterStateHistory(4);
+        history.add(createState(100, 1));
+        history.getTime(1);
+    }
+
+    private CharacterStateEvent createState(long time, int sequenceNumber) {
+        return new CharacterStateEvent(time, sequenceNumber, new Vector3f(sequenceNumber, 2 * sequenceNumber, 3 * sequenceNumber),
+                new Quat4f(0, 0, 0, 1), new Vector3f(0, -sequenceNumber, 0), 10 * sequenceNumber, 0, MovementMode.WALKING, true);
+    }
+}
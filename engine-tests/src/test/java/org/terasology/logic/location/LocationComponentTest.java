@@ -21,6 +21,7 @@
 import org.terasology.TerasologyTestingEnvironment;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.math.TeraMath;
 import org.terasology.testUtil.TeraAssert;
 
@@ -289,6 +290,46 @@ public void positionMaintainedWhenParentDestroyed() {
         TeraAssert.assertEquals(new Vector3f(2, 0, 0), loc.getWorldPosition(), 0.000001f);
     }
 
+    @Test
+    public void worldPositionFollowsParentAfterBeingRead() {
+        LocationComponent parent = giveParent(loc);
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1, loc.getWorldPosition());
+        parent.setLocalPosition(pos2);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+    }
+
+    @Test
+    public void worldTransformFollowsGrandparentAfterBeingRead() {
+        LocationComponent parent = giveParent(loc);
+        EntityRef parentEntity = loc.getParent();
+        LocationComponent grandparent = new LocationComponent();
+        EntityRef grandparentEntity = mock(EntityRef.class);
+        when(grandparentEntity.getComponent(LocationComponent.class)).thenReturn(grandparent);
+        when(grandparentEntity.exists()).thenReturn(true);
+        Location.attachChild(grandparentEntity, parentEntity);
+
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1, loc.getWorldPosition());
+        assertEquals(1.0f, loc.getWorldScale(), 0.000001f);
+
+        grandparent.setLocalRotation(yawRotation);
+        grandparent.setLocalScale(2.0f);
+        TeraAssert.assertEquals(new Vector3f(2 * pos1.z, 2 * pos1.y, -2 * pos1.x), loc.getWorldPosition(), 0.00001f);
+        TeraAssert.assertEquals(yawRotation, loc.getWorldRotation(), 0.00001f);
+        assertEquals(2.0f, loc.getWorldScale(), 0.000001f);
+        assertEquals(yawRotation, parent.getWorldRotation());
+    }
+
+    @Test
+    public void worldPositionFollowsDirectModificationOnceSaved() {
+        LocationComponent parent = giveParent(loc);
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1, loc.getWorldPosition());
+        parent.getLocalPosition().set(pos2);
+        new Location().onChanged(OnChangedComponent.newInstance(), loc.getParent(), parent);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+    }
 
     private LocationComponent giveParent(LocationComponent location) {
         LocationComponent parent = new LocationComponent();
@@ -20,17 +20,22 @@
 import org.jboss.shrinkwrap.api.nio.file.ShrinkWrapFileSystems;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.terasology.TerasologyTestingEnvironment;
 import org.terasology.asset.AssetManager;
 import org.terasology.reflection.reflect.ReflectionReflectFactory;
 import org.terasology.config.Config;
 import org.terasology.registry.CoreRegistry;
+import org.terasology.engine.SimpleUri;
+import org.terasology.engine.TerasologyConstants;
 import org.terasology.engine.bootstrap.EntitySystemBuilder;
 import org.terasology.engine.module.ModuleManager;
 import org.terasology.engine.module.ModuleManagerImpl;
 import org.terasology.engine.module.ModuleSecurityManager;
 import org.terasology.engine.paths.PathManager;
+import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.entitySystem.stubs.EntityRefComponent;
@@ -40,6 +45,12 @@
 import org.terasology.network.NetworkMode;
 import org.terasology.network.NetworkSystem;
 import org.terasology.persistence.internal.StorageManagerInternal;
+import org.terasology.persistence.typeHandling.DeserializationContext;
+import org.terasology.persistence.typeHandling.PersistedData;
+import org.terasology.persistence.typeHandling.SerializationContext;
+import org.terasology.persistence.typeHandling.SimpleTypeHandler;
+import org.terasology.protobuf.EntityData;
+import org.terasology.utilities.compression.CompressionCodecs;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.block.BlockUri;
@@ -50,14 +61,18 @@
 import org.terasology.world.chunks.internal.ChunkImpl;
 
 import javax.vecmath.Vector3f;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -69,6 +84,9 @@ public class StorageManagerTest extends TerasologyTestingEnvironment {
     public static final String PLAYER_ID = "someId";
     public static final Vector3i CHUNK_POS = new Vector3i(1, 2, 3);
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     private ModuleManager moduleManager;
     private NetworkSystem networkSystem;
     private StorageManagerInternal esm;
@@ -217,6 +235,84 @@ public void globalEntitiesStoredAndRestored() throws Exception {
     }
 
 
+    @Test
+    public void manyGlobalEntitiesStoredAndRestored() throws Exception {
+        for (int i = 0; i < 1000; ++i) {
+            entityManager.create(new StringComponent("Test" + i));
+        }
+        entityManager.create().setPersistent(false);
+
+        esm.flush();
+
+        EngineEntityManager newEntityManager = new EntitySystemBuilder().build(moduleManager, networkSystem, new ReflectionReflectFactory());
+        StorageManager newSM = new StorageManagerInternal(moduleManager, newEntityManager, false);
+        newSM.loadGlobalStore();
+
+        for (EntityRef entity : entityManager.getEntitiesWith(StringComponent.class)) {
+            EntityRef restored = newEntityManager.getEntity(entity.getId());
+            assertEquals(entity.getComponent(StringComponent.class).value, restored.getComponent(StringComponent.class).value);
+        }
+        assertEquals(entityManager.getNextId(), newEntityManager.getNextId());
+    }
+
+    @Test
+    public void failedGlobalStoreFlushKeepsPreviousStore() throws Exception {
+        // The virtual file system only writes files once they are closed, so this needs a real one
+        PathManager.getInstance().useOverrideHomePath(tempFolder.getRoot().toPath());
+        PathManager.getInstance().setCurrentSaveTitle("testSave");
+        esm.shutdown();
+        esm = new StorageManagerInternal(moduleManager, entityManager, false);
+
+        EntityRef entity = entityManager.create(new StringComponent("Test"));
+        esm.flush();
+
+        entityManager.getTypeSerializerLibrary().add(UnserializableValue.class, new SimpleTypeHandler<UnserializableValue>() {
+            @Override
+            public PersistedData serialize(UnserializableValue value, SerializationContext context) {
+                throw new IllegalStateException("Cannot be serialized");
+            }
+
+            @Override
+            public UnserializableValue deserialize(PersistedData data, DeserializationContext context) {
+                return null;
+            }
+        });
+        entityManager.getComponentLibrary().register(new SimpleUri("test", "unserializable"), UnserializableComponent.class);
+        entityManager.create(new UnserializableComponent());
+        try {
+            esm.flush();
+            fail("Expected the flush to fail");
+        } catch (IOException | RuntimeException expected) {
+            // The serialization failure is reported
+        }
+
+        Path savePath = PathManager.getInstance().getCurrentSavePath();
+        assertFalse(Files.exists(savePath.resolve("global.dat.tmp")));
+        EngineEntityManager newEntityManager = new EntitySystemBuilder().build(moduleManager, networkSystem, new ReflectionReflectFactory());
+        StorageManager newSM = new StorageManagerInternal(moduleManager, newEntityManager, false);
+        newSM.loadGlobalStore();
+        assertEquals("Test", newEntityManager.getEntity(entity.getId()).getComponent(StringComponent.class).value);
+        newSM.shutdown();
+    }
+
+    @Test
+    public void globalStoreWrittenAsSingleMessageRestored() throws Exception {
+        EntityData.GlobalStore.Builder globalStore = EntityData.GlobalStore.newBuilder();
+        globalStore.addEntity(EntityData.Entity.newBuilder().setId(5).addComponent(EntityData.Component.newBuilder().setTypeIndex(0)
+                .addField(EntityData.NameValue.newBuilder().setName("value").setValue(EntityData.Value.newBuilder().addString("Test")))));
+        globalStore.addComponentClass(entityManager.getComponentLibrary().getMetadata(StringComponent.class).getUri().toString());
+        globalStore.setNextEntityId(6);
+        try (OutputStream out = Files.newOutputStream(PathManager.getInstance().getCurrentSavePath().resolve("global.dat"))) {
+            globalStore.build().writeTo(out);
+        }
+
+        esm.loadGlobalStore();
+
+        EntityRef restored = entityManager.getEntity(5);
+        assertEquals("Test", restored.getComponent(StringComponent.class).value);
+        assertEquals(6, entityManager.getNextId());
+    }
+
     @Test
     public void referenceRemainsValidOverStorageRestoral() throws Exception {
         EntityRef someEntity = entityManager.create();
@@ -278,6 +374,52 @@ public void chunkSurvivesStorageSaveAndRestore() throws Exception {
         assertEquals(testBlock, restored.getChunk().getBlock(0, 0, 0));
     }
 
+    @Test
+    public void chunkCompressedWithOtherCodecSurvivesStorageSaveAndRestore() throws Exception {
+        esm.setChunkCompression(CompressionCodecs.LZ4);
+        ChunkImpl chunk = new ChunkImpl(CHUNK_POS);
+        chunk.setBlock(0, 0, 0, testBlock);
+        ChunkStore chunkStore = esm.createChunkStoreForSave(chunk);
+        chunkStore.save();
+        esm.createGlobalStoreForSave().save();
+        esm.flush();
+
+        EngineEntityManager newEntityManager = new EntitySystemBuilder().build(moduleManager, networkSystem, new ReflectionReflectFactory());
+        StorageManager newSM = new StorageManagerInternal(moduleManager, newEntityManager, false);
+        newSM.loadGlobalStore();
+
+        ChunkStore restored = newSM.loadChunkStore(CHUNK_POS);
+        assertNotNull(restored);
+        assertEquals(testBlock, restored.getChunk().getBlock(0, 0, 0));
+    }
+
+    @Test
+    public void storedChunkFoundAfterRestart() throws Exception {
+        ChunkImpl chunk = new ChunkImpl(CHUNK_POS);
+        ChunkStore chunkStore = esm.createChunkStoreForSave(chunk);
+        chunkStore.save();
+        assertTrue(esm.containsChunkStoreFor(CHUNK_POS));
+        esm.flush();
+        assertTrue(esm.containsChunkStoreFor(CHUNK_POS));
+
+        StorageManager newSM = new StorageManagerInternal(moduleManager, entityManager, false);
+        assertTrue(newSM.containsChunkStoreFor(CHUNK_POS));
+        assertFalse(newSM.containsChunkStoreFor(new Vector3i(CHUNK_POS.x + 1, CHUNK_POS.y, CHUNK_POS.z)));
+    }
+
+    @Test
+    public void chunkIndexRebuiltWhenMissing() throws Exception {
+        ChunkImpl chunk = new ChunkImpl(CHUNK_POS);
+        ChunkStore chunkStore = esm.createChunkStoreForSave(chunk);
+        chunkStore.save();
+        esm.flush();
+        Files.delete(PathManager.getInstance().getCurrentSavePath().resolve("worlds").resolve(TerasologyConstants.MAIN_WORLD).resolve("chunks.index"));
+
+        StorageManager newSM = new StorageManagerInternal(moduleManager, entityManager, false);
+        assertTrue(newSM.containsChunkStoreFor(CHUNK_POS));
+        assertFalse(newSM.containsChunkStoreFor(new Vector3i(CHUNK_POS.x + 1, CHUNK_POS.y, CHUNK_POS.z)));
+    }
+
     @Test
     public void entitySurvivesStorageInChunkStore() throws Exception {
         ChunkImpl chunk = new ChunkImpl(CHUNK_POS);
@@ -317,4 +459,11 @@ public void canSavePlayerWithoutUnloading() throws Exception {
     public void ignoresDestroyOfUnreferencedEntity() {
         esm.onEntityDestroyed(3);
     }
+
+    public static class UnserializableValue {
+    }
+
+    public static class UnserializableComponent implements Component {
+        public UnserializableValue value = new UnserializableValue();
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import org.junit.Test;
+import org.terasology.math.Vector3i;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StoredChunkIndexTest {
+
+    @Test
+    public void containsAddedChunks() {
+        StoredChunkIndex index = new StoredChunkIndex();
+        index.add(new Vector3i(1, 0, 2));
+        index.add(new Vector3i(-1, 0, -33));
+        index.add(new Vector3i(40, 3, 0));
+
+        assertTrue(index.contains(new Vector3i(1, 0, 2)));
+        assertTrue(index.contains(new Vector3i(-1, 0, -33)));
+        assertTrue(index.contains(new Vector3i(40, 3, 0)));
+        assertFalse(index.contains(new Vector3i(2, 0, 1)));
+        assertFalse(index.contains(new Vector3i(-1, 0, -1)));
+        assertFalse(index.contains(new Vector3i(8, 3, 0)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void addingChunkTwiceCountedOnce() {
+        StoredChunkIndex index = new StoredChunkIndex();
+        index.add(new Vector3i(5, 0, 5));
+        index.add(new Vector3i(5, 0, 5));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void clearRemovesAllChunks() {
+        StoredChunkIndex index = new StoredChunkIndex();
+        index.add(new Vector3i(5, 0, 5));
+        index.clear();
+        assertFalse(index.contains(new Vector3i(5, 0, 5)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void survivesWriteAndRead() throws IOException {
+        StoredChunkIndex index = new StoredChunkIndex();
+        for (int x = -40; x < 40; x += 3) {
+            for (int z = -40; z < 40; z += 7) {
+                index.add(new Vector3i(x, 0, z));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+
+        StoredChunkIndex restored = StoredChunkIndex.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(index.size(), restored.size());
+        for (int x = -40; x < 40; ++x) {
+            for (int z = -40; z < 40; ++z) {
+                Vector3i pos = new Vector3i(x, 0, z);
+                assertEquals(index.contains(pos), restored.contains(pos));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherData() throws IOException {
+        StoredChunkIndex.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.typeHandling.protobuf;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.engine.SimpleUri;
+import org.terasology.entitySystem.metadata.ComponentLibrary;
+import org.terasology.entitySystem.metadata.ComponentMetadata;
+import org.terasology.entitySystem.stubs.StringComponent;
+import org.terasology.logic.health.HealthComponent;
+import org.terasology.persistence.typeHandling.PersistedData;
+import org.terasology.persistence.typeHandling.Serializer;
+import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
+import org.terasology.protobuf.EntityData;
+import org.terasology.reflection.copy.CopyStrategyLibrary;
+import org.terasology.reflection.metadata.FieldMetadata;
+import org.terasology.reflection.reflect.ReflectFactory;
+import org.terasology.reflection.reflect.ReflectionReflectFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ProtobufSerializerTest {
+
+    private ComponentLibrary componentLibrary;
+    private TypeSerializationLibrary typeSerializationLibrary;
+    private ProtobufSerializationContext serializationContext;
+    private ProtobufDeserializationContext deserializationContext;
+
+    @Before
+    public void setup() {
+        ReflectFactory reflectFactory = new ReflectionReflectFactory();
+        CopyStrategyLibrary copyStrategyLibrary = new CopyStrategyLibrary(reflectFactory);
+        typeSerializationLibrary = new TypeSerializationLibrary(reflectFactory, copyStrategyLibrary);
+        componentLibrary = new ComponentLibrary(reflectFactory, copyStrategyLibrary);
+        componentLibrary.register(new SimpleUri("test", "health"), HealthComponent.class);
+        componentLibrary.register(new SimpleUri("test", "string"), StringComponent.class);
+        serializationContext = new ProtobufSerializationContext(typeSerializationLibrary);
+        deserializationContext = new ProtobufDeserializationContext(typeSerializationLibrary);
+    }
+
+    @Test
+    public void serializeMatchesTypeHandlers() {
+        ComponentMetadata<HealthComponent> metadata = componentLibrary.getMetadata(HealthComponent.class);
+        Serializer handlerSerializer = typeSerializationLibrary.getSerializerFor(metadata);
+        ProtobufSerializer serializer = createSerializer(metadata);
+
+        HealthComponent health = new HealthComponent(45, 2.5f, 1.5f);
+        health.nextRegenTick = 12345L;
+        health.destroyEntityOnNoHealth = true;
+        for (FieldMetadata<?, ?> field : metadata.getFields()) {
+            PersistedData expected = handlerSerializer.serialize(field, health, serializationContext);
+            assertEquals(field.getName(), ((ProtobufPersistedData) expected).getValue(), serializer.serialize(field, health));
+        }
+    }
+
+    @Test
+    public void serializeNullField() {
+        ComponentMetadata<StringComponent> metadata = componentLibrary.getMetadata(StringComponent.class);
+        ProtobufSerializer serializer = createSerializer(metadata);
+
+        assertNull(serializer.serialize(metadata.getField("value"), new StringComponent()));
+    }
+
+    @Test
+    public void roundTrip() {
+        ComponentMetadata<HealthComponent> metadata = componentLibrary.getMetadata(HealthComponent.class);
+        ProtobufSerializer serializer = createSerializer(metadata);
+
+        HealthComponent original = new HealthComponent(45, 2.5f, 1.5f);
+        original.currentHealth = 3;
+        original.nextRegenTick = 12345L;
+        original.destroyEntityOnNoHealth = true;
+        HealthComponent result = new HealthComponent();
+        for (FieldMetadata<?, ?> field : metadata.getFields()) {
+            serializer.deserializeOnto(result, field, serializer.serialize(field, original));
+        }
+
+        assertEquals(original.maxHealth, result.maxHealth);
+        assertEquals(original.currentHealth, result.currentHealth);
+        assertEquals(original.regenRate, result.regenRate, 0.0001f);
+        assertEquals(original.waitBeforeRegen, result.waitBeforeRegen, 0.0001f);
+        assertEquals(original.nextRegenTick, result.nextRegenTick);
+        assertEquals(original.destroyEntityOnNoHealth, result.destroyEntityOnNoHealth);
+    }
+
+    @Test
+    public void deserializeFallsBackToTypeHandler() {
+        ComponentMetadata<HealthComponent> metadata = componentLibrary.getMetadata(HealthComponent.class);
+        ProtobufSerializer serializer = createSerializer(metadata);
+
+        HealthComponent result = new HealthComponent();
+        serializer.deserializeOnto(result, metadata.getField("maxHealth"), EntityData.Value.newBuilder().addFloat(7.0f).build());
+        assertEquals(7, result.maxHealth);
+    }
+
+    @Test
+    public void deserializeIgnoresNullValue() {
+        ComponentMetadata<StringComponent> metadata = componentLibrary.getMetadata(StringComponent.class);
+        ProtobufSerializer serializer = createSerializer(metadata);
+
+        StringComponent result = new StringComponent("Original");
+        serializer.deserializeOnto(result, metadata.getField("value"), EntityData.Value.newBuilder().build());
+        assertEquals("Original", result.value);
+    }
+
+    private ProtobufSerializer createSerializer(ComponentMetadata<?> metadata) {
+        return new ProtobufSerializer(metadata, typeSerializationLibrary.getSerializerFor(metadata), serializationContext, deserializationContext);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.logic;
+
+import gnu.trove.list.TFloatList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.terasology.asset.AbstractAsset;
+import org.terasology.asset.AssetFactory;
+import org.terasology.asset.AssetLoader;
+import org.terasology.asset.AssetManager;
+import org.terasology.asset.AssetType;
+import org.terasology.asset.AssetUri;
+import org.terasology.asset.SizedAsset;
+import org.terasology.asset.sources.AbstractSource;
+import org.terasology.engine.module.Module;
+import org.terasology.engine.module.ModuleManager;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.AABB;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.registry.InjectionHelper;
+import org.terasology.rendering.assets.material.Material;
+import org.terasology.rendering.assets.mesh.Mesh;
+import org.terasology.rendering.assets.mesh.MeshData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MeshRendererTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private AssetManager assetManager;
+    private MeshRenderer renderer;
+    private Material material;
+
+    @Before
+    public void setup() throws IOException {
+        assetManager = new AssetManager(mock(ModuleManager.class));
+        assetManager.register(AssetType.MESH, "txt", new TestMeshLoader());
+        assetManager.setAssetFactory(AssetType.MESH, new AssetFactory<MeshData, TestMesh>() {
+            @Override
+            public TestMesh buildAsset(AssetUri uri, MeshData data) {
+                return new TestMesh(uri, (TestMeshData) data);
+            }
+        });
+        TestSource source = new TestSource();
+        source.add(new AssetUri(AssetType.MESH, "test", "first"), "aaaa");
+        source.add(new AssetUri(AssetType.MESH, "test", "second"), "bbbb");
+        assetManager.addAssetSource(source);
+        assetManager.setCacheBudget(AssetType.MESH, 6);
+        CoreRegistry.put(AssetManager.class, assetManager);
+
+        material = mock(Material.class);
+        when(material.getURI()).thenReturn(new AssetUri(AssetType.MATERIAL, "test", "material"));
+
+        renderer = new MeshRenderer();
+        InjectionHelper.inject(renderer);
+    }
+
+    @After
+    public void teardown() {
+        CoreRegistry.clear();
+    }
+
+    @Test
+    public void meshesAreEvictedOnceNoLongerRendered() {
+        // Loaded as the mesh of a component would be
+        TestMesh firstMesh = loadMesh("test:first");
+        TestMesh secondMesh = loadMesh("test:second");
+        EntityRef firstEntity = createEntity(firstMesh);
+        EntityRef secondEntity = createEntity(secondMesh);
+
+        renderer.onNewMesh(null, firstEntity);
+        renderer.onNewMesh(null, secondEntity);
+        assertFalse(firstMesh.isDisposed());
+        assertEquals(0, assetManager.getCacheStatistics(AssetType.MESH).getEvictions());
+
+        renderer.onDestroyMesh(null, firstEntity);
+        assertTrue(firstMesh.isDisposed());
+        assertFalse(secondMesh.isDisposed());
+        assertEquals(1, assetManager.getCacheStatistics(AssetType.MESH).getEvictions());
+        assertEquals(4, assetManager.getCacheStatistics(AssetType.MESH).getResidentSize());
+    }
+
+    @Test
+    public void evictedMeshesAreReloadedInPlaceWhenRenderedAgain() {
+        TestMesh firstMesh = loadMesh("test:first");
+        EntityRef firstEntity = createEntity(firstMesh);
+        renderer.onNewMesh(null, firstEntity);
+        renderer.onDestroyMesh(null, firstEntity);
+        renderer.onNewMesh(null, createEntity(loadMesh("test:second")));
+        assertTrue(firstMesh.isDisposed());
+
+        renderer.onNewMesh(null, firstEntity);
+
+        assertFalse(firstMesh.isDisposed());
+        assertSame(firstMesh, assetManager.loadAsset(new AssetUri(AssetType.MESH, "test", "first")));
+    }
+
+    private TestMesh loadMesh(String name) {
+        return (TestMesh) assetManager.resolveAndLoadUnpinned(AssetType.MESH, name);
+    }
+
+    private EntityRef createEntity(Mesh mesh) {
+        MeshComponent meshComp = new MeshComponent();
+        meshComp.mesh = mesh;
+        meshComp.material = material;
+        EntityRef entity = mock(EntityRef.class);
+        when(entity.getComponent(MeshComponent.class)).thenReturn(meshComp);
+        when(entity.getComponent(LocationComponent.class)).thenReturn(new LocationComponent());
+        return entity;
+    }
+
+    private class TestSource extends AbstractSource {
+
+        public TestSource() {
+            super("test");
+        }
+
+        public void add(AssetUri uri, String content) throws IOException {
+            File file = tempFolder.newFile(uri.getAssetName() + ".txt");
+            Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            addItem(uri, file.toURI().toURL());
+        }
+    }
+
+    private static class TestMeshData extends MeshData {
+        private final int size;
+
+        public TestMeshData(int size) {
+            this.size = size;
+        }
+    }
+
+    private static class TestMeshLoader implements AssetLoader<TestMeshData> {
+
+        @Override
+        public TestMeshData load(Module module, InputStream stream, List<URL> urls) throws IOException {
+            int size = 0;
+            while (stream.read() != -1) {
+                size++;
+            }
+            return new TestMeshData(size);
+        }
+    }
+
+    private static class TestMesh extends AbstractAsset<MeshData> implements Mesh, SizedAsset {
+        private TestMeshData data;
+
+        public TestMesh(AssetUri uri, TestMeshData data) {
+            super(uri);
+            this.data = data;
+        }
+
+        @Override
+        public void reload(MeshData newData) {
+            this.data = (TestMeshData) newData;
+        }
+
+        @Override
+        public void dispose() {
+            data = null;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return data == null;
+        }
+
+        @Override
+        public long getResidentSize() {
+            return data.size;
+        }
+
+        @Override
+        public AABB getAABB() {
+            return null;
+        }
+
+        @Override
+        public TFloatList getVertices() {
+            return null;
+        }
+
+        @Override
+        public void render() {
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.logic;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.logic.location.LocationComponent;
+
+import javax.vecmath.Vector3f;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NearestSortingListTest {
+
+    private NearestSortingList list;
+    private EntityRef near;
+    private EntityRef middle;
+    private EntityRef far;
+
+    @Before
+    public void setup() {
+        list = new NearestSortingList();
+        near = createEntity(new Vector3f(1, 0, 0));
+        middle = createEntity(new Vector3f(0, 2, 0));
+        far = createEntity(new Vector3f(0, 0, 3));
+    }
+
+    private EntityRef createEntity(Vector3f position) {
+        EntityRef entity = mock(EntityRef.class);
+        when(entity.getComponent(LocationComponent.class)).thenReturn(new LocationComponent(position));
+        return entity;
+    }
+
+    @Test
+    public void addedEntitiesAreOrderedByDistance() {
+        list.add(far);
+        list.add(near);
+        list.add(middle);
+
+        assertArrayEquals(new EntityRef[]{near, middle, far}, list.getNearest(3));
+    }
+
+    @Test
+    public void getNearestReturnsOnlyTheNearest() {
+        list.add(far);
+        list.add(middle);
+        list.add(near);
+
+        assertArrayEquals(new EntityRef[]{near, middle}, list.getNearest(2));
+        assertEquals(3, list.getNearest(5).length);
+    }
+
+    @Test
+    public void updateReordersMovedEntities() {
+        list.add(near);
+        list.add(middle);
+        list.add(far);
+
+        near.getComponent(LocationComponent.class).setWorldPosition(new Vector3f(0, 0, 10));
+        list.update(new Vector3f());
+
+        assertArrayEquals(new EntityRef[]{middle, far, near}, list.getNearest(3));
+    }
+
+    @Test
+    public void updateReordersAroundNewOrigin() {
+        list.add(near);
+        list.add(middle);
+        list.add(far);
+
+        list.update(new Vector3f(0, 0, 3));
+
+        assertArrayEquals(new EntityRef[]{far, near, middle}, list.getNearest(3));
+    }
+
+    @Test
+    public void entitiesWithoutLocationAreLast() {
+        EntityRef noLocation = mock(EntityRef.class);
+        list.add(noLocation);
+        list.add(far);
+
+        assertArrayEquals(new EntityRef[]{far, noLocation}, list.getNearest(2));
+    }
+
+    @Test
+    public void removeKeepsOrder() {
+        list.add(near);
+        list.add(middle);
+        list.add(far);
+
+        list.remove(middle);
+
+        assertFalse(list.contains(middle));
+        assertArrayEquals(new EntityRef[]{near, far}, list.getNearest(3));
+    }
+}
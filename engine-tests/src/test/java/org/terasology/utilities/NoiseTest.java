@@ -19,10 +19,16 @@
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.utilities.procedural.BrownianNoise2D;
+import org.terasology.utilities.procedural.BrownianNoise3D;
+import org.terasology.utilities.procedural.Noise2D;
+import org.terasology.utilities.procedural.Noise3D;
 import org.terasology.utilities.procedural.PerlinNoise;
 import org.terasology.utilities.procedural.SimplexNoise;
 import org.terasology.utilities.random.FastRandom;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * A simple test for {@link SimplexNoise}
  * @author Martin Steiger
@@ -83,4 +89,37 @@ public void speedTest() {
         logger.info("Simplex Noise : " + (System.nanoTime() - start) / 1000000 + "ms.");
         
     }
+
+    @Test
+    public void batchMatchesSingleValues() {
+        int seed = "asdf".hashCode();
+        double[] xs = {-13.7, -0.5, 0, 0.25, 3.99, 250.5};
+        double[] ys = {0, 0.02, 0.04, 1.5, 1.51, 77.3, 300.1};
+        double[] zs = {-2.2, 0.5, 255.9};
+
+        assertBatchMatches(new PerlinNoise(seed), xs, ys, zs);
+        assertBatchMatches(new SimplexNoise(seed), xs, ys, zs);
+        assertBatchMatches(new BrownianNoise3D(new PerlinNoise(seed), 8), xs, ys, zs);
+        assertBatchMatches(new BrownianNoise2D(new SimplexNoise(seed), 4), xs, ys);
+    }
+
+    private void assertBatchMatches(Noise3D noise, double[] xs, double[] ys, double[] zs) {
+        double[] output = noise.noise(xs, ys, zs, new double[xs.length * ys.length * zs.length]);
+        for (int i = 0; i < xs.length; i++) {
+            for (int j = 0; j < ys.length; j++) {
+                for (int k = 0; k < zs.length; k++) {
+                    assertEquals(noise.noise(xs[i], ys[j], zs[k]), output[(i * zs.length + k) * ys.length + j], 0.0);
+                }
+            }
+        }
+    }
+
+    private void assertBatchMatches(Noise2D noise, double[] xs, double[] ys) {
+        double[] output = noise.noise(xs, ys, new double[xs.length * ys.length]);
+        for (int i = 0; i < xs.length; i++) {
+            for (int j = 0; j < ys.length; j++) {
+                assertEquals(noise.noise(xs[i], ys[j]), output[i * ys.length + j], 0.0);
+            }
+        }
+    }
 }
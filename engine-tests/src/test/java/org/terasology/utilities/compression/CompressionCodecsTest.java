@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.compression;
+
+import org.junit.Test;
+import org.terasology.utilities.random.FastRandom;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionCodecsTest {
+
+    @Test
+    public void emptyDataRoundTrips() throws IOException {
+        assertRoundTrips(new byte[0]);
+    }
+
+    @Test
+    public void shortDataRoundTrips() throws IOException {
+        assertRoundTrips(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+    }
+
+    @Test
+    public void randomDataRoundTrips() throws IOException {
+        byte[] data = new byte[100000];
+        FastRandom random = new FastRandom(1);
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) random.nextInt();
+        }
+        assertRoundTrips(data);
+    }
+
+    @Test
+    public void repetitiveDataRoundTrips() throws IOException {
+        byte[] data = new byte[100000];
+        FastRandom random = new FastRandom(1);
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) ((i % 4096 < 3000) ? 0 : random.nextInt(4));
+        }
+        assertRoundTrips(data);
+        assertTrue(CompressionCodecs.compress(CompressionCodecs.LZ4, data).length < data.length / 4);
+    }
+
+    @Test
+    public void shortRepeatingPatternRoundTrips() throws IOException {
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i % 3);
+        }
+        assertRoundTrips(data);
+    }
+
+    @Test
+    public void legacyGzipDataDecompressed() throws IOException {
+        byte[] data = "Some chunk data, some chunk data".getBytes("UTF-8");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
+            gzipOut.write(data);
+        }
+        assertArrayEquals(data, CompressionCodecs.decompress(baos.toByteArray()));
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownFormatRejected() throws IOException {
+        CompressionCodecs.decompress(new byte[]{1, 2, 3, 4});
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedLz4DataRejected() throws IOException {
+        byte[] data = new byte[1000];
+        byte[] compressed = CompressionCodecs.compress(CompressionCodecs.LZ4, data);
+        byte[] truncated = new byte[compressed.length - 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+        CompressionCodecs.decompress(truncated);
+    }
+
+    @Test
+    public void codecsLookedUpByName() {
+        assertEquals(CompressionCodecs.LZ4, CompressionCodecs.getCodec("LZ4"));
+        assertEquals(CompressionCodecs.DEFLATE, CompressionCodecs.getCodec("deflate"));
+        assertNull(CompressionCodecs.getCodec("bzip2"));
+    }
+
+    private void assertRoundTrips(byte[] data) throws IOException {
+        for (CompressionCodec codec : new CompressionCodec[]{CompressionCodecs.DEFLATE, CompressionCodecs.LZ4}) {
+            assertArrayEquals(codec.getName(), data, CompressionCodecs.decompress(CompressionCodecs.compress(codec, data)));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world;
+
+import org.junit.After;
+import org.junit.Test;
+import org.terasology.math.Vector3i;
+import org.terasology.persistence.StorageManager;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.chunks.pregeneration.PregenerationRequest;
+import org.terasology.world.chunks.pregeneration.PregenerationShape;
+import org.terasology.world.generator.WorldGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorldCommandsTest {
+
+    @After
+    public void teardown() {
+        CoreRegistry.remove(PregenerationRequest.class);
+        CoreRegistry.clear();
+    }
+
+    @Test
+    public void pregenerationRequestSurvivesStateChangeAndStartsPregeneration() throws Exception {
+        // As registered by the headless setup state, which then clears the registry when the game is loaded
+        CoreRegistry.putPermanently(PregenerationRequest.class, new PregenerationRequest(1, PregenerationShape.SQUARE));
+        CoreRegistry.clear();
+
+        StorageManager storageManager = mock(StorageManager.class);
+        when(storageManager.containsChunkStoreFor(any(Vector3i.class))).thenReturn(true);
+        CoreRegistry.put(StorageManager.class, storageManager);
+        GeneratingChunkProvider chunkProvider = mock(GeneratingChunkProvider.class);
+        when(chunkProvider.getWorldGenerator()).thenReturn(mock(WorldGenerator.class));
+
+        WorldCommands worldCommands = new WorldCommands(chunkProvider);
+        worldCommands.postBegin();
+        assertNull(CoreRegistry.get(PregenerationRequest.class));
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!worldCommands.pregenerationStatus().endsWith("(finished)") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Pregenerated 9/9 chunks (finished)", worldCommands.pregenerationStatus());
+        worldCommands.shutdown();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.pipeline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.terasology.TerasologyTestingEnvironment;
+import org.terasology.config.Config;
+import org.terasology.math.Vector3i;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.world.ChunkView;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.block.family.DefaultBlockFamilyFactoryRegistry;
+import org.terasology.world.block.family.SymmetricFamily;
+import org.terasology.world.block.internal.BlockManagerImpl;
+import org.terasology.world.block.loader.NullWorldAtlas;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.generator.WorldGenerator;
+
+import java.io.IOException;
+import java.util.Comparator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkGenerationPipelineTest extends TerasologyTestingEnvironment {
+
+    private static final Vector3i NEIGHBOUR_POS = new Vector3i(-1, 0, 0);
+
+    private Block stone;
+    private GeneratingChunkProvider provider;
+    private ChunkGenerationPipeline pipeline;
+
+    @Before
+    public void setup() throws IOException {
+        BlockManagerImpl blockManager = new BlockManagerImpl(new NullWorldAtlas(), new DefaultBlockFamilyFactoryRegistry());
+        CoreRegistry.put(BlockManager.class, blockManager);
+        Block block = new Block();
+        block.setDisplayName("engine:stone");
+        block.setUri(new BlockUri("engine:stone"));
+        block.setId((short) 1);
+        blockManager.addBlockFamily(new SymmetricFamily(block.getURI(), block), true);
+        stone = blockManager.getBlock(block.getURI());
+
+        Config config = new Config();
+        config.getWorldGeneration().setDeterministicSecondPass(true);
+        CoreRegistry.put(Config.class, config);
+
+        // Every second pass places a block just past the western border of its chunk
+        WorldGenerator generator = mock(WorldGenerator.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                ((ChunkView) invocation.getArguments()[1]).setBlock(-1, 60, 0, stone);
+                return null;
+            }
+        }).when(generator).applySecondPass(any(Vector3i.class), any(ChunkView.class));
+        provider = mock(GeneratingChunkProvider.class);
+        pipeline = new ChunkGenerationPipeline(provider, generator, new Comparator<ChunkTask>() {
+            @Override
+            public int compare(ChunkTask o1, ChunkTask o2) {
+                return 0;
+            }
+        }, 1, true);
+    }
+
+    @After
+    public void teardown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void blocksForCompleteNeighbourAreWrittenDirectly() {
+        ChunkImpl neighbour = new ChunkImpl(NEIGHBOUR_POS);
+        neighbour.setChunkState(ChunkImpl.State.COMPLETE);
+        when(provider.getChunkForProcessing(NEIGHBOUR_POS)).thenReturn(neighbour);
+
+        pipeline.generateChunk(new ChunkImpl(Vector3i.zero()));
+
+        assertEquals(stone, neighbour.getBlock(15, 60, 0));
+        assertTrue(neighbour.isDirty());
+        assertFalse(pipeline.getFeatureBuffer().hasPendingBlocks(NEIGHBOUR_POS));
+    }
+
+    @Test
+    public void blocksForNeighbourAwaitingMergeAreKept() {
+        ChunkImpl neighbour = new ChunkImpl(NEIGHBOUR_POS);
+        when(provider.getChunkForProcessing(NEIGHBOUR_POS)).thenReturn(neighbour);
+
+        pipeline.generateChunk(new ChunkImpl(Vector3i.zero()));
+
+        assertEquals(BlockManager.getAir(), neighbour.getBlock(15, 60, 0));
+        assertTrue(pipeline.getFeatureBuffer().hasPendingBlocks(NEIGHBOUR_POS));
+    }
+
+    @Test
+    public void blocksForUnloadedNeighbourAreAppliedOnLoad() {
+        pipeline.generateChunk(new ChunkImpl(Vector3i.zero()));
+        assertTrue(pipeline.getFeatureBuffer().hasPendingBlocks(NEIGHBOUR_POS));
+
+        ChunkImpl loaded = new ChunkImpl(NEIGHBOUR_POS);
+        loaded.setChunkState(ChunkImpl.State.COMPLETE);
+        pipeline.applyLateFeatures(loaded);
+
+        assertEquals(stone, loaded.getBlock(15, 60, 0));
+        assertFalse(pipeline.getFeatureBuffer().hasPendingBlocks(NEIGHBOUR_POS));
+    }
+
+    @Test
+    public void blocksForDiscardedNeighbourAreDropped() {
+        pipeline.generateChunk(new ChunkImpl(Vector3i.zero()));
+
+        pipeline.discardPendingFeatures(NEIGHBOUR_POS);
+
+        assertFalse(pipeline.getFeatureBuffer().hasPendingBlocks(NEIGHBOUR_POS));
+    }
+}
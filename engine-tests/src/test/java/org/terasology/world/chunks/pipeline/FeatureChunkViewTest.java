@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pipeline;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.TerasologyTestingEnvironment;
+import org.terasology.math.Vector3i;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.block.family.DefaultBlockFamilyFactoryRegistry;
+import org.terasology.world.block.family.SymmetricFamily;
+import org.terasology.world.block.internal.BlockManagerImpl;
+import org.terasology.world.block.loader.NullWorldAtlas;
+import org.terasology.world.chunks.internal.ChunkImpl;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FeatureChunkViewTest extends TerasologyTestingEnvironment {
+
+    private Block stone;
+    private Block dirt;
+
+    @Before
+    public void setup() throws IOException {
+        BlockManagerImpl blockManager = new BlockManagerImpl(new NullWorldAtlas(), new DefaultBlockFamilyFactoryRegistry());
+        CoreRegistry.put(BlockManager.class, blockManager);
+        stone = createBlock(blockManager, "engine:stone", 1);
+        dirt = createBlock(blockManager, "engine:dirt", 2);
+    }
+
+    private Block createBlock(BlockManagerImpl blockManager, String uri, int id) {
+        Block block = new Block();
+        block.setDisplayName(uri);
+        block.setUri(new BlockUri(uri));
+        block.setId((short) id);
+        blockManager.addBlockFamily(new SymmetricFamily(block.getURI(), block), true);
+        return blockManager.getBlock(block.getURI());
+    }
+
+    @Test
+    public void blocksInsideChunkAreSetDirectly() {
+        PendingFeatureBuffer buffer = new PendingFeatureBuffer();
+        ChunkImpl chunk = new ChunkImpl(new Vector3i(2, 0, 3));
+        FeatureChunkView view = new FeatureChunkView(chunk, buffer);
+        view.lock();
+        view.setBlock(4, 60, 5, stone);
+        view.unlock();
+
+        assertEquals(stone, chunk.getBlock(4, 60, 5));
+        assertEquals(stone, view.getBlock(4, 60, 5));
+        assertFalse(buffer.hasPendingBlocks(new Vector3i(2, 0, 3)));
+    }
+
+    @Test
+    public void blocksOutsideChunkAreBuffered() {
+        PendingFeatureBuffer buffer = new PendingFeatureBuffer();
+        FeatureChunkView view = new FeatureChunkView(new ChunkImpl(new Vector3i(2, 0, 3)), buffer);
+        view.lock();
+        view.setBlock(-1, 60, 17, stone);
+        view.unlock();
+
+        assertEquals(BlockManager.getAir(), view.getBlock(-1, 60, 17));
+        assertTrue(buffer.hasPendingBlocks(new Vector3i(1, 0, 4)));
+
+        ChunkImpl neighbour = new ChunkImpl(new Vector3i(1, 0, 4));
+        assertEquals(1, buffer.applyTo(neighbour));
+        assertEquals(stone, neighbour.getBlock(15, 60, 1));
+        assertFalse(buffer.hasPendingBlocks(new Vector3i(1, 0, 4)));
+    }
+
+    @Test
+    public void mergeOrderDoesNotDependOnGenerationOrder() {
+        PendingFeatureBuffer first = new PendingFeatureBuffer();
+        PendingFeatureBuffer second = new PendingFeatureBuffer();
+        // Both neighbours place a block at the same position of the chunk between them
+        placeFromChunk(first, new Vector3i(-1, 0, 0), 16, stone);
+        placeFromChunk(first, new Vector3i(1, 0, 0), -16, dirt);
+        placeFromChunk(second, new Vector3i(1, 0, 0), -16, dirt);
+        placeFromChunk(second, new Vector3i(-1, 0, 0), 16, stone);
+
+        ChunkImpl firstChunk = new ChunkImpl(Vector3i.zero());
+        ChunkImpl secondChunk = new ChunkImpl(Vector3i.zero());
+        first.applyTo(firstChunk);
+        second.applyTo(secondChunk);
+        assertEquals(dirt, firstChunk.getBlock(0, 60, 0));
+        assertEquals(dirt, secondChunk.getBlock(0, 60, 0));
+    }
+
+    private void placeFromChunk(PendingFeatureBuffer buffer, Vector3i chunkPos, int x, Block block) {
+        FeatureChunkView view = new FeatureChunkView(new ChunkImpl(chunkPos), buffer);
+        view.lock();
+        view.setBlock(x, 60, 0, block);
+        view.unlock();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pregeneration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PregenerationRequestTest {
+
+    @Test
+    public void parseRadiusOnlyDefaultsToSquare() {
+        PregenerationRequest request = PregenerationRequest.parse("16");
+        assertEquals(16, request.getRadius());
+        assertEquals(PregenerationShape.SQUARE, request.getShape());
+    }
+
+    @Test
+    public void parseRadiusAndShape() {
+        PregenerationRequest request = PregenerationRequest.parse("8, Circle");
+        assertEquals(8, request.getRadius());
+        assertEquals(PregenerationShape.CIRCLE, request.getShape());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseUnknownShapeFails() {
+        PregenerationRequest.parse("8,triangle");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseNegativeRadiusFails() {
+        PregenerationRequest.parse("-1");
+    }
+
+    @Test
+    public void circleExcludesCorners() {
+        assertTrue(PregenerationShape.SQUARE.contains(4, 4, 4));
+        assertFalse(PregenerationShape.CIRCLE.contains(4, 4, 4));
+        assertTrue(PregenerationShape.CIRCLE.contains(0, 4, 4));
+        assertFalse(PregenerationShape.CIRCLE.contains(0, 5, 4));
+    }
+}
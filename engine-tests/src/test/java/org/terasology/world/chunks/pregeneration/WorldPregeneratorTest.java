@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.pregeneration;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.nio.file.ShrinkWrapFileSystems;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.config.Config;
+import org.terasology.engine.bootstrap.EntitySystemBuilder;
+import org.terasology.engine.module.ModuleManager;
+import org.terasology.engine.module.ModuleManagerImpl;
+import org.terasology.engine.module.ModuleSecurityManager;
+import org.terasology.engine.paths.PathManager;
+import org.terasology.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.math.Vector3i;
+import org.terasology.network.NetworkMode;
+import org.terasology.network.NetworkSystem;
+import org.terasology.persistence.ChunkStore;
+import org.terasology.persistence.StorageManager;
+import org.terasology.persistence.internal.StorageManagerInternal;
+import org.terasology.reflection.reflect.ReflectionReflectFactory;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.world.chunks.ChunkProvider;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.generator.WorldGenerator;
+
+import java.nio.file.FileSystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorldPregeneratorTest {
+    private static final long TIMEOUT = 30000;
+
+    private ModuleManager moduleManager;
+    private EngineEntityManager entityManager;
+    private StorageManagerInternal storageManager;
+    private WorldGenerator generator;
+
+    @Before
+    public void setup() throws Exception {
+        JavaArchive homeArchive = ShrinkWrap.create(JavaArchive.class);
+        FileSystem vfs = ShrinkWrapFileSystems.newFileSystem(homeArchive);
+        PathManager.getInstance().useOverrideHomePath(vfs.getPath(""));
+        PathManager.getInstance().setCurrentSaveTitle("pregeneration");
+
+        CoreRegistry.put(Config.class, new Config());
+        NetworkSystem networkSystem = mock(NetworkSystem.class);
+        when(networkSystem.getMode()).thenReturn(NetworkMode.NONE);
+        CoreRegistry.put(NetworkSystem.class, networkSystem);
+
+        moduleManager = new ModuleManagerImpl(new ModuleSecurityManager());
+        entityManager = new EntitySystemBuilder().build(moduleManager, networkSystem, new ReflectionReflectFactory());
+        storageManager = new StorageManagerInternal(moduleManager, entityManager, false);
+        generator = mock(WorldGenerator.class);
+    }
+
+    @After
+    public void teardown() {
+        storageManager.shutdown();
+        CoreRegistry.clear();
+    }
+
+    @Test
+    public void regionGeneratedAndSaved() throws Exception {
+        WorldPregenerator pregenerator = new WorldPregenerator(generator, storageManager, null, Vector3i.zero(), 1, PregenerationShape.SQUARE);
+        runToCompletion(pregenerator);
+
+        assertEquals(9, pregenerator.getCompletedChunks());
+        StorageManager restartedStorage = new StorageManagerInternal(moduleManager, entityManager, false);
+        for (int z = -1; z <= 1; ++z) {
+            for (int x = -1; x <= 1; ++x) {
+                assertTrue(restartedStorage.containsChunkStoreFor(new Vector3i(x, 0, z)));
+            }
+        }
+        assertFalse(restartedStorage.containsChunkStoreFor(new Vector3i(2, 0, 0)));
+        assertFalse(restartedStorage.containsChunkStoreFor(new Vector3i(0, 0, -2)));
+        restartedStorage.shutdown();
+    }
+
+    @Test
+    public void existingChunksSkipped() throws Exception {
+        Vector3i existingPos = new Vector3i(0, 0, 0);
+        ChunkImpl existing = new ChunkImpl(existingPos);
+        existing.setChunkState(ChunkImpl.State.COMPLETE);
+        storageManager.createChunkStoreForSave(existing).save(false);
+        storageManager.flushChunks();
+
+        WorldPregenerator pregenerator = new WorldPregenerator(generator, storageManager, null, Vector3i.zero(), 1, PregenerationShape.SQUARE);
+        runToCompletion(pregenerator);
+
+        assertEquals(9, pregenerator.getCompletedChunks());
+        // Only chunks stored as complete are loaded with their initial generation complete
+        ChunkStore existingStore = storageManager.loadChunkStore(existingPos);
+        assertTrue(existingStore.getChunk().isInitialGenerationComplete());
+        ChunkStore generatedStore = storageManager.loadChunkStore(new Vector3i(1, 0, 0));
+        assertFalse(generatedStore.getChunk().isInitialGenerationComplete());
+    }
+
+    @Test
+    public void chunksLoadedByLiveWorldDuringBandAreNotOverwritten() throws Exception {
+        Vector3i livePos = new Vector3i(0, 0, 0);
+        ChunkProvider liveChunkProvider = mock(ChunkProvider.class);
+        // Not loaded when the band starts, but loaded by the time its generation is finished
+        when(liveChunkProvider.getChunk(livePos)).thenReturn(null, new ChunkImpl(livePos));
+
+        WorldPregenerator pregenerator = new WorldPregenerator(generator, storageManager, liveChunkProvider, Vector3i.zero(), 1,
+                PregenerationShape.SQUARE);
+        runToCompletion(pregenerator);
+
+        assertEquals(9, pregenerator.getCompletedChunks());
+        assertFalse(storageManager.containsChunkStoreFor(livePos));
+        assertTrue(storageManager.containsChunkStoreFor(new Vector3i(1, 0, 0)));
+    }
+
+    private void runToCompletion(WorldPregenerator pregenerator) throws InterruptedException {
+        pregenerator.start();
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!pregenerator.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Pregeneration did not finish", pregenerator.isFinished());
+    }
+}
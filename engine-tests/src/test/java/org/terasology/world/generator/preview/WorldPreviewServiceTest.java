@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator.preview;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.engine.SimpleUri;
+import org.terasology.math.Rect2i;
+import org.terasology.math.Vector2i;
+import org.terasology.rendering.nui.Color;
+import org.terasology.world.generator.WorldGenerator2DPreview;
+import org.terasology.world.generator.WorldGenerator2DRegionPreview;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorldPreviewServiceTest {
+
+    private static final PreviewKey KEY = new PreviewKey(new SimpleUri("test:preview"), "seed", "layer", 3);
+
+    private WorldPreviewService previewService;
+
+    @Before
+    public void setup() {
+        previewService = new WorldPreviewService(4);
+    }
+
+    @After
+    public void teardown() {
+        previewService.shutdown();
+    }
+
+    @Test
+    public void renderedImageMatchesPointSampling() throws Exception {
+        Rect2i area = Rect2i.createFromMinAndSize(-45, -20, 100, 70);
+        int[] pixels = previewService.renderImage(new RegionPreview(), KEY, area);
+
+        for (int z = 0; z < area.height(); ++z) {
+            for (int x = 0; x < area.width(); ++x) {
+                int expected = colorAt((area.minX() + x) * KEY.getZoom(), (area.minY() + z) * KEY.getZoom()).rgba();
+                assertEquals(expected, pixels[z * area.width() + x]);
+            }
+        }
+    }
+
+    @Test
+    public void pointPreviewRendersLikeRegionPreview() throws Exception {
+        Rect2i area = Rect2i.createFromMinAndSize(-40, 7, 80, 50);
+        int[] regionPixels = previewService.renderImage(new RegionPreview(), KEY, area);
+        previewService.clearCache();
+        int[] pointPixels = previewService.renderImage(new PointPreview(), KEY, area);
+
+        assertArrayEquals(regionPixels, pointPixels);
+    }
+
+    @Test
+    public void tilesAreCachedByKey() {
+        RegionPreview generator = new RegionPreview();
+        previewService.getTile(generator, KEY, 1, -1);
+        previewService.getTile(generator, KEY, 1, -1);
+        assertEquals(1, generator.regionsSampled.get());
+
+        previewService.getTile(generator, new PreviewKey(KEY.getGeneratorUri(), "otherSeed", KEY.getLayer(), KEY.getZoom()), 1, -1);
+        previewService.getTile(generator, new PreviewKey(KEY.getGeneratorUri(), KEY.getSeed(), KEY.getLayer(), 4), 1, -1);
+        assertEquals(3, generator.regionsSampled.get());
+    }
+
+    @Test
+    public void coarseTilesNeverFollowRefinedTiles() throws Exception {
+        Rect2i area = Rect2i.createFromMinAndSize(-64, -64, 128, 128);
+        final int numTiles = 16;
+        final CountDownLatch refinedTiles = new CountDownLatch(numTiles);
+        final Set<Vector2i> refined = Collections.synchronizedSet(Sets.<Vector2i>newHashSet());
+        final List<Vector2i> coarseAfterRefined = Collections.synchronizedList(Lists.<Vector2i>newArrayList());
+
+        PreviewRendering rendering = previewService.render(new RegionPreview(), KEY, area, new PreviewListener() {
+            @Override
+            public void onTileRendered(int tileX, int tileZ, int[] pixels, boolean isRefined) {
+                Vector2i pos = new Vector2i(tileX, tileZ);
+                if (isRefined) {
+                    refined.add(pos);
+                    refinedTiles.countDown();
+                } else if (refined.contains(pos)) {
+                    coarseAfterRefined.add(pos);
+                }
+            }
+        });
+
+        assertTrue(refinedTiles.await(10, TimeUnit.SECONDS));
+        // The tasks finish just after passing on their tiles
+        long giveUpTime = System.currentTimeMillis() + 10000;
+        while (!rendering.isDone()) {
+            assertTrue(System.currentTimeMillis() < giveUpTime);
+            Thread.sleep(1);
+        }
+        assertEquals(numTiles, refined.size());
+        assertTrue(coarseAfterRefined.isEmpty());
+    }
+
+    private static Color colorAt(int x, int z) {
+        return new Color(x & 0xFF, z & 0xFF, (x ^ z) >>> 24, 0xFF);
+    }
+
+    private static class PointPreview implements WorldGenerator2DPreview {
+
+        @Override
+        public Color get(String layerName, int x, int z) {
+            return colorAt(x, z);
+        }
+
+        @Override
+        public Iterable<String> getLayers() {
+            return Collections.singletonList("layer");
+        }
+    }
+
+    private static class RegionPreview extends PointPreview implements WorldGenerator2DRegionPreview {
+        private final AtomicInteger regionsSampled = new AtomicInteger();
+
+        @Override
+        public void get(String layerName, int x, int z, int width, int height, int step, int[] result) {
+            regionsSampled.incrementAndGet();
+            for (int j = 0; j < height; ++j) {
+                for (int i = 0; i < width; ++i) {
+                    result[j * width + i] = colorAt(x + i * step, z + j * step).rgba();
+                }
+            }
+        }
+    }
+}
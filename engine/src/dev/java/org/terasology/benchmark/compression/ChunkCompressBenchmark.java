@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.compression;
+
+import org.terasology.utilities.compression.CompressionCodec;
+import org.terasology.utilities.compression.CompressionCodecs;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compresses a set of chunk stores with a given codec, as is done when chunks are stored.
+ */
+public class ChunkCompressBenchmark extends ChunkCompressionBenchmark {
+
+    private final CompressionCodec codec;
+    private List<byte[]> chunkData;
+
+    public ChunkCompressBenchmark(CompressionCodec codec) {
+        super("Compress " + CHUNK_COUNT + " chunks with " + codec.getName());
+        this.codec = codec;
+    }
+
+    @Override
+    public void setup() {
+        chunkData = createChunkData();
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (byte[] data : chunkData) {
+                CompressionCodecs.compress(codec, data);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress chunk", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.compression;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.Vector3i;
+import org.terasology.utilities.random.FastRandom;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.world.chunks.internal.ChunkImpl;
+
+import java.util.List;
+
+/**
+ * Base for benchmarks of compressing serialized chunk stores, using chunks with terrain-like content: layers of
+ * stone, dirt and grass under a rolling surface, scattered ore and water filling the low ground.
+ */
+public abstract class ChunkCompressionBenchmark extends AbstractBenchmark {
+    public static final int CHUNK_COUNT = 16;
+
+    private static final int SEA_LEVEL = 100;
+
+    private static final int STONE = 1;
+    private static final int DIRT = 2;
+    private static final int GRASS = 3;
+    private static final int WATER = 4;
+    private static final int ORE = 5;
+    private static final int WATER_DEPTH = 7;
+
+    public ChunkCompressionBenchmark(String title) {
+        super(title, 10, new int[]{20, 100});
+    }
+
+    /**
+     * @return The serialized chunk stores of {@link #CHUNK_COUNT} chunks
+     */
+    public static List<byte[]> createChunkData() {
+        FastRandom random = new FastRandom(1);
+        ChunkImpl.ProtobufHandler handler = new ChunkImpl.ProtobufHandler();
+        List<byte[]> result = Lists.newArrayList();
+        for (int i = 0; i < CHUNK_COUNT; ++i) {
+            TeraArray blocks = new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+            TeraArray liquid = new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+            for (int x = 0; x < ChunkConstants.SIZE_X; ++x) {
+                for (int z = 0; z < ChunkConstants.SIZE_Z; ++z) {
+                    int worldX = i * ChunkConstants.SIZE_X + x;
+                    int height = SEA_LEVEL + (int) (10 * Math.sin(worldX / 7.0) + 8 * Math.cos(z / 5.0));
+                    for (int y = 0; y < ChunkConstants.SIZE_Y; ++y) {
+                        if (y < height - 4) {
+                            blocks.set(x, y, z, (random.nextInt(50) == 0) ? ORE : STONE);
+                        } else if (y < height) {
+                            blocks.set(x, y, z, DIRT);
+                        } else if (y == height) {
+                            blocks.set(x, y, z, GRASS);
+                        } else if (y < SEA_LEVEL) {
+                            blocks.set(x, y, z, WATER);
+                            liquid.set(x, y, z, WATER_DEPTH);
+                        }
+                    }
+                }
+            }
+            TeraArray sunlight = new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+            TeraArray light = new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+            ChunkImpl chunk = new ChunkImpl(new Vector3i(i, 0, 0), ChunkImpl.State.COMPLETE, blocks, sunlight, light, liquid, true);
+            result.add(handler.encode(chunk, false).build().toByteArray());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.compression;
+
+import com.google.common.collect.Lists;
+import org.terasology.utilities.compression.CompressionCodec;
+import org.terasology.utilities.compression.CompressionCodecs;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decompresses a set of chunk stores compressed with a given codec, as is done when chunks are loaded.
+ */
+public class ChunkDecompressBenchmark extends ChunkCompressionBenchmark {
+
+    private final CompressionCodec codec;
+    private List<byte[]> compressedData;
+
+    public ChunkDecompressBenchmark(CompressionCodec codec) {
+        super("Decompress " + CHUNK_COUNT + " chunks with " + codec.getName());
+        this.codec = codec;
+    }
+
+    @Override
+    public void setup() {
+        compressedData = Lists.newArrayList();
+        try {
+            for (byte[] data : createChunkData()) {
+                compressedData.add(CompressionCodecs.compress(codec, data));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress chunk", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (byte[] data : compressedData) {
+                CompressionCodecs.decompress(data);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decompress chunk", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.compression;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+import org.terasology.config.Config;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.utilities.compression.CompressionCodec;
+import org.terasology.utilities.compression.CompressionCodecs;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compares the chunk compression codecs, printing the compressed size of a set of chunks with each codec and then
+ * running the compression and decompression benchmarks.
+ */
+public final class CompressionBenchmark {
+
+    private static final CompressionCodec[] CODECS = {CompressionCodecs.DEFLATE, CompressionCodecs.LZ4};
+
+    private CompressionBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Required by the chunk constants
+        CoreRegistry.put(Config.class, new Config());
+
+        List<byte[]> chunkData = ChunkCompressionBenchmark.createChunkData();
+        long totalSize = 0;
+        for (byte[] data : chunkData) {
+            totalSize += data.length;
+        }
+        System.out.println("Uncompressed size of " + chunkData.size() + " chunks: " + totalSize + " bytes");
+        for (CompressionCodec codec : CODECS) {
+            long compressedSize = 0;
+            for (byte[] data : chunkData) {
+                compressedSize += CompressionCodecs.compress(codec, data).length;
+            }
+            System.out.println(String.format("Compressed size with %s: %d bytes (%.1f%%)", codec.getName(), compressedSize, 100.0 * compressedSize / totalSize));
+        }
+
+        final List<Benchmark> benchmarks = Lists.newArrayList();
+        for (CompressionCodec codec : CODECS) {
+            benchmarks.add(new ChunkCompressBenchmark(codec));
+            benchmarks.add(new ChunkDecompressBenchmark(codec));
+        }
+
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
+    }
+}
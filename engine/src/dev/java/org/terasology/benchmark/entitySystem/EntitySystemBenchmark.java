@@ -40,6 +40,10 @@ public static void main(String[] args) {
         benchmarks.add(new EntityCreateBenchmark());
         benchmarks.add(new IterateSingleComponentBenchmark());
         benchmarks.add(new IterateMultipleComponentBenchmark());
+        benchmarks.add(new LocationHierarchyBenchmark(false, false));
+        benchmarks.add(new LocationHierarchyBenchmark(true, false));
+        benchmarks.add(new LocationHierarchyBenchmark(false, true));
+        benchmarks.add(new LocationHierarchyBenchmark(true, true));
         Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
 
     }
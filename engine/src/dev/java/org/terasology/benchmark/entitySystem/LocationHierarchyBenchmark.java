@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.benchmark.entitySystem;
+
+import com.bulletphysics.linearmath.QuaternionUtil;
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.logic.location.Location;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.utilities.random.FastRandom;
+
+import javax.vecmath.Quat4f;
+import javax.vecmath.Vector3f;
+import java.util.List;
+
+/**
+ * Reads the world position of every entity in a set of deep location hierarchies (as with skeletons and held items),
+ * either through the cached world transform or by walking the parent chain as LocationComponent used to.
+ * Optionally moves every root each run, so that the cost of invalidating the cached transforms is included.
+ */
+public class LocationHierarchyBenchmark extends AbstractBenchmark {
+
+    private static final int HIERARCHIES = 100;
+    private static final int DEPTH = 24;
+
+    private final boolean cached;
+    private final boolean moveRoots;
+
+    private List<LocationComponent> roots;
+    private List<LocationComponent> locations;
+    private Vector3f rootPos = new Vector3f();
+    private Vector3f output = new Vector3f();
+
+    public LocationHierarchyBenchmark(boolean cached, boolean moveRoots) {
+        super("World position, depth " + DEPTH + (cached ? ", cached" : ", parent walk") + (moveRoots ? ", moving roots" : ""),
+                1000, new int[]{1000, 1000});
+        this.cached = cached;
+        this.moveRoots = moveRoots;
+    }
+
+    @Override
+    public void setup() {
+        FastRandom rand = new FastRandom(0L);
+        PojoEntityManager entityManager = new PojoEntityManager();
+        roots = Lists.newArrayList();
+        locations = Lists.newArrayList();
+        for (int i = 0; i < HIERARCHIES; ++i) {
+            EntityRef parent = entityManager.create(new LocationComponent(new Vector3f(rand.nextFloat(), rand.nextFloat(), rand.nextFloat())));
+            roots.add(parent.getComponent(LocationComponent.class));
+            for (int depth = 0; depth < DEPTH; ++depth) {
+                EntityRef child = entityManager.create(new LocationComponent());
+                Quat4f rot = new Quat4f(0, 0, 0, 1);
+                QuaternionUtil.setEuler(rot, rand.nextFloat(), rand.nextFloat(), rand.nextFloat());
+                Location.attachChild(parent, child, new Vector3f(0, 0.5f, 0), rot);
+                locations.add(child.getComponent(LocationComponent.class));
+                parent = child;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        if (moveRoots) {
+            for (LocationComponent root : roots) {
+                rootPos.set(root.getLocalPosition());
+                rootPos.x += 0.01f;
+                root.setLocalPosition(rootPos);
+            }
+        }
+        for (LocationComponent location : locations) {
+            if (cached) {
+                location.getWorldPosition(output);
+            } else {
+                walkWorldPosition(location, output);
+            }
+        }
+    }
+
+    private static Vector3f walkWorldPosition(LocationComponent location, Vector3f output) {
+        output.set(location.getLocalPosition());
+        LocationComponent parentLoc = location.getParent().getComponent(LocationComponent.class);
+        while (parentLoc != null) {
+            output.scale(parentLoc.getLocalScale());
+            QuaternionUtil.quatRotate(parentLoc.getLocalRotation(), output, output);
+            output.add(parentLoc.getLocalPosition());
+            parentLoc = parentLoc.getParent().getComponent(LocationComponent.class);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.benchmark.noise;
+
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.utilities.procedural.BrownianNoise3D;
+import org.terasology.utilities.procedural.Noise3D;
+import org.terasology.utilities.procedural.PerlinNoise;
+
+/**
+ * Evaluates the noise a chunk of the Perlin terrain generator needs: three terms per column of the density sample
+ * grid, two 3D terms per sample, and a 3D term for every block of each block column up to a fixed height. Either
+ * evaluates every value on its own, as the generator used to, or uses the batch noise methods with the column terms
+ * computed once per column.
+ */
+public class TerrainNoiseBenchmark extends AbstractBenchmark {
+
+    private static final int SAMPLES_XZ = 5;
+    private static final int SAMPLES_Y = 65;
+    private static final int SAMPLE_RATE = 4;
+    private static final int CHUNK_XZ = 16;
+    private static final int SOLID_HEIGHT = 96;
+
+    private final boolean batched;
+
+    private Noise3D base;
+    private Noise3D mountains;
+    private Noise3D hills;
+    private Noise3D caves;
+    private double[] output = new double[SAMPLES_XZ * SAMPLES_XZ * SAMPLES_Y];
+    private double[] column = new double[SOLID_HEIGHT];
+    private int chunkX;
+    private double sum;
+
+    public TerrainNoiseBenchmark(boolean batched) {
+        super("Terrain noise for one chunk" + (batched ? ", batched" : ", per sample"), 20, new int[]{100, 100});
+        this.batched = batched;
+    }
+
+    @Override
+    public void setup() {
+        base = new BrownianNoise3D(new PerlinNoise(1), 8);
+        mountains = new BrownianNoise3D(new PerlinNoise(2));
+        hills = new BrownianNoise3D(new PerlinNoise(3));
+        caves = new BrownianNoise3D(new PerlinNoise(4));
+    }
+
+    @Override
+    public void run() {
+        chunkX += CHUNK_XZ;
+        if (batched) {
+            runBatched();
+        } else {
+            runPerSample();
+        }
+    }
+
+    private void runPerSample() {
+        for (int i = 0; i < SAMPLES_XZ; i++) {
+            for (int k = 0; k < SAMPLES_XZ; k++) {
+                int x = chunkX + i * SAMPLE_RATE;
+                int z = k * SAMPLE_RATE;
+                for (int j = 0; j < SAMPLES_Y; j++) {
+                    int y = j * SAMPLE_RATE;
+                    sum += base.noise(0.004 * x, 0, 0.004 * z);
+                    sum += mountains.noise(x * 0.002, y * 0.001, z * 0.002);
+                    sum += hills.noise(x * 0.008, y * 0.006, z * 0.008);
+                }
+            }
+        }
+        for (int x = chunkX; x < chunkX + CHUNK_XZ; x++) {
+            for (int z = 0; z < CHUNK_XZ; z++) {
+                for (int y = 0; y < SOLID_HEIGHT; y++) {
+                    sum += caves.noise(x * 0.02, y * 0.02, z * 0.02);
+                }
+            }
+        }
+    }
+
+    private void runBatched() {
+        double[] xs = new double[SAMPLES_XZ];
+        double[] zs = new double[SAMPLES_XZ];
+        for (int i = 0; i < SAMPLES_XZ; i++) {
+            xs[i] = 0.004 * (chunkX + i * SAMPLE_RATE);
+            zs[i] = 0.004 * (i * SAMPLE_RATE);
+        }
+        base.noise(xs, new double[]{0}, zs, output);
+        sum += output[0];
+
+        double[] mountainY = new double[SAMPLES_Y];
+        double[] hillY = new double[SAMPLES_Y];
+        for (int j = 0; j < SAMPLES_Y; j++) {
+            mountainY[j] = j * SAMPLE_RATE * 0.001;
+            hillY[j] = j * SAMPLE_RATE * 0.006;
+        }
+        for (int i = 0; i < SAMPLES_XZ; i++) {
+            for (int k = 0; k < SAMPLES_XZ; k++) {
+                int x = chunkX + i * SAMPLE_RATE;
+                int z = k * SAMPLE_RATE;
+                sum += mountains.noise(new double[]{x * 0.002}, mountainY, new double[]{z * 0.002}, output)[0];
+                sum += hills.noise(new double[]{x * 0.008}, hillY, new double[]{z * 0.008}, output)[0];
+            }
+        }
+
+        double[] caveY = new double[SOLID_HEIGHT];
+        for (int y = 0; y < SOLID_HEIGHT; y++) {
+            caveY[y] = y * 0.02;
+        }
+        for (int x = chunkX; x < chunkX + CHUNK_XZ; x++) {
+            for (int z = 0; z < CHUNK_XZ; z++) {
+                sum += caves.noise(new double[]{x * 0.02}, caveY, new double[]{z * 0.02}, column)[0];
+            }
+        }
+    }
+}
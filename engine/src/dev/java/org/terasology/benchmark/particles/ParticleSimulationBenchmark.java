@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.particles;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.logic.particles.ParticlePool;
+import org.terasology.utilities.random.FastRandom;
+
+import javax.vecmath.Vector3f;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Advances a number of particle effects by one tick per run, respawning expired particles to keep the population
+ * steady. Either uses {@link ParticlePool}, or one object per particle as BlockParticleEffectComponent used to.
+ */
+public class ParticleSimulationBenchmark extends AbstractBenchmark {
+
+    private static final int EFFECTS = 50;
+    private static final int PARTICLES_PER_EFFECT = 1000;
+    private static final float DELTA = 1.0f / 60;
+
+    private final boolean pooled;
+
+    private FastRandom random;
+    private List<ParticlePool> pools;
+    private List<List<Particle>> particleLists;
+    private Vector3f targetVelocity = new Vector3f(0, -2, 0);
+    private Vector3f acceleration = new Vector3f(0.5f, 0.5f, 0.5f);
+
+    public ParticleSimulationBenchmark(boolean pooled) {
+        super("Particle simulation, " + EFFECTS + " effects of " + PARTICLES_PER_EFFECT + (pooled ? ", pooled arrays" : ", particle objects"),
+                1000, new int[]{1000, 1000});
+        this.pooled = pooled;
+    }
+
+    @Override
+    public void setup() {
+        random = new FastRandom(0L);
+        pools = Lists.newArrayList();
+        particleLists = Lists.newArrayList();
+        for (int i = 0; i < EFFECTS; ++i) {
+            if (pooled) {
+                ParticlePool pool = new ParticlePool();
+                while (pool.size() < PARTICLES_PER_EFFECT) {
+                    spawn(pool);
+                }
+                pools.add(pool);
+            } else {
+                List<Particle> particles = Lists.newArrayList();
+                while (particles.size() < PARTICLES_PER_EFFECT) {
+                    particles.add(spawn());
+                }
+                particleLists.add(particles);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        if (pooled) {
+            for (ParticlePool pool : pools) {
+                pool.age(DELTA);
+                pool.accelerate(DELTA, targetVelocity, acceleration);
+                pool.move(DELTA);
+                while (pool.size() < PARTICLES_PER_EFFECT) {
+                    spawn(pool);
+                }
+            }
+        } else {
+            for (List<Particle> particles : particleLists) {
+                Iterator<Particle> iterator = particles.iterator();
+                while (iterator.hasNext()) {
+                    Particle p = iterator.next();
+                    p.lifeRemaining -= DELTA;
+                    if (p.lifeRemaining <= 0) {
+                        iterator.remove();
+                    } else {
+                        p.velocity.x += (targetVelocity.x - p.velocity.x) * acceleration.x * DELTA;
+                        p.velocity.y += (targetVelocity.y - p.velocity.y) * acceleration.y * DELTA;
+                        p.velocity.z += (targetVelocity.z - p.velocity.z) * acceleration.z * DELTA;
+                        p.position.x += p.velocity.x * DELTA;
+                        p.position.y += p.velocity.y * DELTA;
+                        p.position.z += p.velocity.z * DELTA;
+                    }
+                }
+                while (particles.size() < PARTICLES_PER_EFFECT) {
+                    particles.add(spawn());
+                }
+            }
+        }
+    }
+
+    private void spawn(ParticlePool pool) {
+        int p = pool.add(random.nextFloat(0.5f, 2.0f), random.nextFloat(0.1f, 0.5f));
+        Vector3f velocity = random.nextVector3f();
+        pool.setVelocity(p, velocity.x, velocity.y, velocity.z);
+        pool.setPosition(p, random.nextFloat(-1, 1), random.nextFloat(-1, 1), random.nextFloat(-1, 1));
+    }
+
+    private Particle spawn() {
+        Particle p = new Particle();
+        p.lifeRemaining = random.nextFloat(0.5f, 2.0f);
+        p.size = random.nextFloat(0.1f, 0.5f);
+        p.velocity.set(random.nextVector3f());
+        p.position.set(random.nextFloat(-1, 1), random.nextFloat(-1, 1), random.nextFloat(-1, 1));
+        return p;
+    }
+
+    private static class Particle {
+        private Vector3f position = new Vector3f();
+        private Vector3f velocity = new Vector3f();
+        private float size;
+        private float lifeRemaining;
+    }
+}
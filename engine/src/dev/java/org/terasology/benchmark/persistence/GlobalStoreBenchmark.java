@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.persistence;
+
+import org.terasology.asset.AssetManager;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.config.Config;
+import org.terasology.engine.SimpleUri;
+import org.terasology.engine.module.ModuleManager;
+import org.terasology.engine.module.ModuleManagerImpl;
+import org.terasology.engine.module.ModuleSecurityManager;
+import org.terasology.engine.paths.PathManager;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.EntityInfoComponent;
+import org.terasology.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.entitySystem.metadata.EntitySystemLibrary;
+import org.terasology.entitySystem.prefab.internal.PojoPrefabManager;
+import org.terasology.logic.common.DisplayNameComponent;
+import org.terasology.logic.health.HealthComponent;
+import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
+import org.terasology.persistence.typeHandling.extensionTypes.EntityRefTypeHandler;
+import org.terasology.reflection.copy.CopyStrategyLibrary;
+import org.terasology.reflection.reflect.ReflectFactory;
+import org.terasology.reflection.reflect.ReflectionReflectFactory;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.utilities.FilesUtil;
+import org.terasology.utilities.random.FastRandom;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Base for the global store benchmarks. Sets up a save directory and an entity system, and tracks the peak heap usage of
+ * the benchmark runs.
+ */
+public abstract class GlobalStoreBenchmark extends AbstractBenchmark {
+
+    protected final int entityCount;
+    protected ModuleManager moduleManager;
+    private Path homePath;
+
+    public GlobalStoreBenchmark(String title, int entityCount) {
+        super(title + " with " + entityCount + " entities", 1, new int[]{20});
+        this.entityCount = entityCount;
+    }
+
+    @Override
+    public void setup() {
+        try {
+            homePath = Files.createTempDirectory("globalStoreBenchmark");
+            PathManager.getInstance().useOverrideHomePath(homePath);
+            PathManager.getInstance().setCurrentSaveTitle("benchmark");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create save directory", e);
+        }
+        CoreRegistry.put(Config.class, new Config());
+        moduleManager = new ModuleManagerImpl(new ModuleSecurityManager());
+        CoreRegistry.put(AssetManager.class, new AssetManager(moduleManager));
+    }
+
+    /**
+     * Resets the peak heap usage, so that it covers just the runs.
+     */
+    @Override
+    public void prerun() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return The sum of the peak usage of the heap memory pools since the last run started, in bytes. As the pools
+     * peak at different times this is an upper bound.
+     */
+    public static long getPeakHeapUsage() {
+        long result = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                result += pool.getPeakUsage().getUsed();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stops the storage managers used by the benchmark and deletes its save directory.
+     */
+    public void shutdown() {
+        shutdownStorage();
+        if (homePath != null) {
+            try {
+                FilesUtil.recursiveDelete(homePath);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete save directory", e);
+            }
+            homePath = null;
+        }
+    }
+
+    /**
+     * Stops the background threads of the storage managers used by the benchmark.
+     */
+    protected abstract void shutdownStorage();
+
+    protected PojoEntityManager createEntityManager() {
+        PojoEntityManager entityManager = new PojoEntityManager();
+        ReflectFactory reflectFactory = new ReflectionReflectFactory();
+        CopyStrategyLibrary copyStrategyLibrary = new CopyStrategyLibrary(reflectFactory);
+        TypeSerializationLibrary typeSerializationLibrary = new TypeSerializationLibrary(reflectFactory, copyStrategyLibrary);
+        typeSerializationLibrary.add(EntityRef.class, new EntityRefTypeHandler(entityManager));
+        EntitySystemLibrary library = new EntitySystemLibrary(reflectFactory, copyStrategyLibrary, typeSerializationLibrary);
+        library.getComponentLibrary().register(new SimpleUri("engine", "entityInfo"), EntityInfoComponent.class);
+        library.getComponentLibrary().register(new SimpleUri("engine", "health"), HealthComponent.class);
+        library.getComponentLibrary().register(new SimpleUri("engine", "displayName"), DisplayNameComponent.class);
+
+        entityManager.setTypeSerializerLibrary(typeSerializationLibrary);
+        entityManager.setEntitySystemLibrary(library);
+        entityManager.setPrefabManager(new PojoPrefabManager());
+        return entityManager;
+    }
+
+    protected void createEntities(PojoEntityManager entityManager) {
+        FastRandom rand = new FastRandom(0L);
+        for (int i = 0; i < entityCount; ++i) {
+            HealthComponent health = new HealthComponent(rand.nextInt(1, 100), rand.nextFloat(), rand.nextFloat());
+            DisplayNameComponent displayName = new DisplayNameComponent();
+            displayName.name = "Entity" + i;
+            displayName.description = "Description" + rand.nextInt(100);
+            entityManager.create(health, displayName);
+        }
+    }
+}
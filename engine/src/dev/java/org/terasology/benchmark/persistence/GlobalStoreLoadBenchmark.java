@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.persistence;
+
+import org.terasology.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.persistence.internal.StorageManagerInternal;
+
+import java.io.IOException;
+
+/**
+ * Measures loading all entities from the global store.
+ */
+public class GlobalStoreLoadBenchmark extends GlobalStoreBenchmark {
+
+    private StorageManagerInternal storageManager;
+
+    public GlobalStoreLoadBenchmark(int entityCount) {
+        super("Load global store", entityCount);
+    }
+
+    @Override
+    public void setup() {
+        super.setup();
+        PojoEntityManager entityManager = createEntityManager();
+        createEntities(entityManager);
+        StorageManagerInternal savingStorageManager = new StorageManagerInternal(moduleManager, entityManager, false);
+        try {
+            savingStorageManager.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save global store", e);
+        } finally {
+            savingStorageManager.shutdown();
+        }
+        storageManager = new StorageManagerInternal(moduleManager, createEntityManager(), false);
+    }
+
+    @Override
+    public void run() {
+        try {
+            storageManager.loadGlobalStore();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load global store", e);
+        }
+    }
+
+    @Override
+    protected void shutdownStorage() {
+        storageManager.shutdown();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.persistence;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+
+import java.util.List;
+
+/**
+ * Runs the global store benchmarks, reporting the peak heap usage of each alongside its time.
+ */
+public final class PersistenceBenchmark {
+
+    private static final int BYTES_PER_MB = 1024 * 1024;
+
+    private PersistenceBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final List<GlobalStoreBenchmark> benchmarks = Lists.newArrayList();
+
+        benchmarks.add(new GlobalStoreSaveBenchmark(10000));
+        benchmarks.add(new GlobalStoreLoadBenchmark(10000));
+        benchmarks.add(new GlobalStoreSaveBenchmark(100000));
+        benchmarks.add(new GlobalStoreLoadBenchmark(100000));
+
+        PrintToConsoleCallback callback = new PrintToConsoleCallback();
+        for (int i = 0; i < benchmarks.size(); ++i) {
+            Benchmarks.execute(benchmarks.get(i), i, benchmarks.size(), callback);
+            System.out.println("Peak heap usage: " + GlobalStoreBenchmark.getPeakHeapUsage() / BYTES_PER_MB + " MB");
+            benchmarks.get(i).shutdown();
+        }
+    }
+}
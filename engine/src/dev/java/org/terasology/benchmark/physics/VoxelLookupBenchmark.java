@@ -0,0 +1,388 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.physics;
+
+import com.bulletphysics.collision.shapes.BoxShape;
+import com.bulletphysics.collision.shapes.CollisionShape;
+import com.bulletphysics.collision.shapes.voxel.VoxelInfo;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.config.Config;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.math.TeraMath;
+import org.terasology.math.Vector3i;
+import org.terasology.physics.engine.PhysicsWorldWrapper;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.utilities.random.FastRandom;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.block.family.BlockFamily;
+import org.terasology.world.chunks.ChunkProvider;
+import org.terasology.world.chunks.ChunkRegionListener;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.internal.ChunkViewCore;
+
+import javax.vecmath.Vector3f;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Performs the voxel lookups the physics engine makes for a number of bodies resting on terrain: each run queries the
+ * blocks around every body, either through PhysicsWorldWrapper or in the way it used to (a world provider lookup and a
+ * new voxel info and position per query). Reports the bytes allocated per run when the JVM supports measuring it.
+ */
+public class VoxelLookupBenchmark extends AbstractBenchmark {
+
+    private static final int BODIES = 200;
+    private static final int CHUNKS = 4;
+    private static final int GROUND_LEVEL = 64;
+
+    private final boolean wrapped;
+
+    private BenchmarkChunkProvider chunkProvider;
+    private PhysicsWorldWrapper wrapper;
+    private int[] bodyPositions;
+    private long runs;
+    private long measuredRuns;
+    private long allocatedBytes;
+    private int colliding;
+
+    public VoxelLookupBenchmark(boolean wrapped) {
+        super("Physics voxel lookups, " + BODIES + " bodies" + (wrapped ? ", shared voxel info and block cursor" : ", allocating lookups"),
+                2000, new int[]{1000, 1000});
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public void setup() {
+        CoreRegistry.put(Config.class, new Config());
+        Block stone = new Block();
+        stone.setId((short) 1);
+        stone.setCollision(new Vector3f(), new BoxShape(new Vector3f(0.5f, 0.5f, 0.5f)));
+        CoreRegistry.put(BlockManager.class, new BenchmarkBlockManager(stone));
+
+        chunkProvider = new BenchmarkChunkProvider();
+        for (int x = 0; x < CHUNKS; ++x) {
+            for (int z = 0; z < CHUNKS; ++z) {
+                ChunkImpl chunk = new ChunkImpl(x, 0, z);
+                for (int blockX = 0; blockX < 16; ++blockX) {
+                    for (int blockY = 0; blockY < GROUND_LEVEL; ++blockY) {
+                        for (int blockZ = 0; blockZ < 16; ++blockZ) {
+                            chunk.setBlock(blockX, blockY, blockZ, stone);
+                        }
+                    }
+                }
+                chunk.markReady();
+                chunkProvider.chunks.put(new Vector3i(x, 0, z), chunk);
+            }
+        }
+        wrapper = new PhysicsWorldWrapper(null, chunkProvider);
+
+        FastRandom random = new FastRandom(0L);
+        bodyPositions = new int[BODIES * 3];
+        for (int i = 0; i < BODIES; ++i) {
+            bodyPositions[i * 3] = random.nextInt(1, CHUNKS * 16 - 2);
+            bodyPositions[i * 3 + 1] = GROUND_LEVEL + random.nextInt(0, 2);
+            bodyPositions[i * 3 + 2] = random.nextInt(1, CHUNKS * 16 - 2);
+        }
+    }
+
+    @Override
+    public void prerun() {
+        measuredRuns -= runs;
+        allocatedBytes -= getAllocatedBytes();
+    }
+
+    @Override
+    public void run() {
+        runs++;
+        wrapper.resetCursor();
+        for (int i = 0; i < BODIES; ++i) {
+            int bodyX = bodyPositions[i * 3];
+            int bodyY = bodyPositions[i * 3 + 1];
+            int bodyZ = bodyPositions[i * 3 + 2];
+            for (int x = bodyX - 1; x <= bodyX + 1; ++x) {
+                for (int y = bodyY - 1; y <= bodyY + 1; ++y) {
+                    for (int z = bodyZ - 1; z <= bodyZ + 1; ++z) {
+                        VoxelInfo info = (wrapped) ? wrapper.getCollisionShapeAt(x, y, z) : getCollisionShapeAt(x, y, z);
+                        if (info.isColliding()) {
+                            colliding++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void postrun() {
+        allocatedBytes += getAllocatedBytes();
+        measuredRuns += runs;
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (!aborted && measuredRuns > 0 && getAllocatedBytes() >= 0) {
+            System.out.println("Allocated " + (allocatedBytes / measuredRuns) + " bytes per run");
+        }
+    }
+
+    /**
+     * The lookup as PhysicsWorldWrapper and WorldProviderCoreImpl used to do it.
+     */
+    private VoxelInfo getCollisionShapeAt(int x, int y, int z) {
+        ChunkImpl chunk = chunkProvider.getChunk(TeraMath.calcChunkPos(x, y, z));
+        Block block = (chunk != null) ? chunk.getBlock(TeraMath.calcBlockPos(x, y, z)) : BlockManager.getAir();
+        return new AllocatedVoxelInfo(block, new Vector3i(x, y, z));
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static class AllocatedVoxelInfo implements VoxelInfo {
+        private final boolean colliding;
+        private final CollisionShape shape;
+        private final Vector3f offset;
+        private final Vector3i position;
+
+        public AllocatedVoxelInfo(Block block, Vector3i position) {
+            this.shape = block.getCollisionShape();
+            this.offset = block.getCollisionOffset();
+            this.colliding = shape != null && block.isTargetable();
+            this.position = position;
+        }
+
+        @Override
+        public boolean isColliding() {
+            return colliding;
+        }
+
+        @Override
+        public Object getUserData() {
+            return position;
+        }
+
+        @Override
+        public CollisionShape getCollisionShape() {
+            return shape;
+        }
+
+        @Override
+        public Vector3f getCollisionOffset() {
+            return offset;
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return colliding;
+        }
+    }
+
+    /**
+     * Serves a fixed set of chunks from a map, as the local chunk provider does for its loaded chunks.
+     */
+    private static class BenchmarkChunkProvider implements ChunkProvider {
+        private final Map<Vector3i, ChunkImpl> chunks = Maps.newConcurrentMap();
+
+        @Override
+        public ChunkViewCore getLocalView(Vector3i centerChunkPos) {
+            return null;
+        }
+
+        @Override
+        public ChunkViewCore getSubviewAroundBlock(Vector3i blockPos, int extent) {
+            return null;
+        }
+
+        @Override
+        public ChunkViewCore getSubviewAroundChunk(Vector3i chunkPos) {
+            return null;
+        }
+
+        @Override
+        public void setWorldEntity(EntityRef entity) {
+        }
+
+        @Override
+        public void addRelevanceEntity(EntityRef entity, int distance) {
+        }
+
+        @Override
+        public void addRelevanceEntity(EntityRef entity, int distance, ChunkRegionListener listener) {
+        }
+
+        @Override
+        public void updateRelevanceEntity(EntityRef entity, int distance) {
+        }
+
+        @Override
+        public void removeRelevanceEntity(EntityRef entity) {
+        }
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public boolean isChunkReady(Vector3i pos) {
+            return chunks.containsKey(pos);
+        }
+
+        @Override
+        public boolean isChunkRelevant(Vector3i pos) {
+            return isChunkReady(pos);
+        }
+
+        @Override
+        public ChunkImpl getChunk(int x, int y, int z) {
+            return getChunk(new Vector3i(x, y, z));
+        }
+
+        @Override
+        public ChunkImpl getChunk(Vector3i chunkPos) {
+            return chunks.get(chunkPos);
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public void purgeChunks() {
+        }
+    }
+
+    /**
+     * Knows only air and a single solid block.
+     */
+    private static class BenchmarkBlockManager extends BlockManager {
+        private final Block solid;
+
+        public BenchmarkBlockManager(Block solid) {
+            this.solid = solid;
+        }
+
+        @Override
+        public Block getBlock(short id) {
+            return (id == solid.getId()) ? solid : getAir();
+        }
+
+        @Override
+        public List<BlockUri> resolveAllBlockFamilyUri(String uri) {
+            return Lists.newArrayList();
+        }
+
+        @Override
+        public BlockUri resolveBlockFamilyUri(String name) {
+            return null;
+        }
+
+        @Override
+        public Map<String, Short> getBlockIdMap() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Iterable<BlockUri> getBlockFamiliesWithCategory(String category) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<String> getBlockCategories() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public BlockFamily getBlockFamily(String uri) {
+            return null;
+        }
+
+        @Override
+        public BlockFamily getBlockFamily(BlockUri uri) {
+            return null;
+        }
+
+        @Override
+        public Block getBlock(String uri) {
+            return getAir();
+        }
+
+        @Override
+        public Block getBlock(BlockUri uri) {
+            return getAir();
+        }
+
+        @Override
+        public Iterable<BlockUri> listRegisteredBlockUris() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<BlockFamily> listRegisteredBlockFamilies() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Iterable<BlockUri> listFreeformBlockUris() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isFreeformFamily(BlockUri familyUri) {
+            return false;
+        }
+
+        @Override
+        public Iterable<BlockFamily> listAvailableBlockFamilies() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public BlockFamily getAvailableBlockFamily(BlockUri uri) {
+            return null;
+        }
+
+        @Override
+        public Iterable<BlockUri> listAvailableBlockUris() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int getBlockFamilyCount() {
+            return 0;
+        }
+
+        @Override
+        public boolean hasBlockFamily(BlockUri uri) {
+            return false;
+        }
+
+        @Override
+        public Iterable<Block> listRegisteredBlocks() {
+            return Collections.singletonList(solid);
+        }
+    }
+}
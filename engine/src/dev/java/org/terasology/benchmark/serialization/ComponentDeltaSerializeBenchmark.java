@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.serialization;
+
+import com.google.common.collect.Lists;
+import org.terasology.entitySystem.Component;
+import org.terasology.protobuf.EntityData;
+import org.terasology.utilities.random.FastRandom;
+
+import java.util.List;
+
+/**
+ * Measures serializing the differences between components, as is done when replicating changed components to clients.
+ */
+public class ComponentDeltaSerializeBenchmark extends ComponentSerializationBenchmark {
+
+    private List<Component> changedComponents;
+
+    public ComponentDeltaSerializeBenchmark() {
+        super("Delta serialize " + COMPONENT_COUNT + " components");
+    }
+
+    @Override
+    public void setup() {
+        super.setup();
+        FastRandom rand = new FastRandom(1L);
+        changedComponents = Lists.newArrayListWithCapacity(components.size());
+        for (Component component : components) {
+            Component changed = createComponent(rand);
+            while (changed.getClass() != component.getClass()) {
+                changed = createComponent(rand);
+            }
+            changedComponents.add(changed);
+        }
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < components.size(); ++i) {
+            EntityData.Component data = componentSerializer.serialize(components.get(i), changedComponents.get(i));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.serialization;
+
+import com.google.common.collect.Lists;
+import org.terasology.entitySystem.Component;
+import org.terasology.protobuf.EntityData;
+
+import java.util.List;
+
+/**
+ * Measures deserializing components, as is done when loading entities.
+ */
+public class ComponentDeserializeBenchmark extends ComponentSerializationBenchmark {
+
+    private List<EntityData.Component> serializedComponents;
+
+    public ComponentDeserializeBenchmark() {
+        super("Deserialize " + COMPONENT_COUNT + " components");
+    }
+
+    @Override
+    public void setup() {
+        super.setup();
+        serializedComponents = Lists.newArrayListWithCapacity(components.size());
+        for (Component component : components) {
+            serializedComponents.add(componentSerializer.serialize(component));
+        }
+    }
+
+    @Override
+    public void run() {
+        for (EntityData.Component data : serializedComponents) {
+            Component component = componentSerializer.deserialize(data);
+        }
+    }
+}
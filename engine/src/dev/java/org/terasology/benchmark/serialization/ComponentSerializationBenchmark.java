@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.serialization;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.engine.SimpleUri;
+import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.metadata.ComponentLibrary;
+import org.terasology.logic.common.DisplayNameComponent;
+import org.terasology.logic.health.HealthComponent;
+import org.terasology.persistence.serializers.ComponentSerializer;
+import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
+import org.terasology.reflection.copy.CopyStrategyLibrary;
+import org.terasology.reflection.reflect.ReflectFactory;
+import org.terasology.reflection.reflect.ReflectionReflectFactory;
+import org.terasology.utilities.random.FastRandom;
+
+import java.util.List;
+
+/**
+ * Base for the component serialization benchmarks, providing a component serializer and a set of components with randomised
+ * field values.
+ */
+public abstract class ComponentSerializationBenchmark extends AbstractBenchmark {
+
+    protected static final int COMPONENT_COUNT = 1000;
+
+    protected ComponentSerializer componentSerializer;
+    protected List<Component> components;
+
+    public ComponentSerializationBenchmark(String title) {
+        super(title, 100, new int[]{100, 500});
+    }
+
+    @Override
+    public void setup() {
+        ReflectFactory reflectFactory = new ReflectionReflectFactory();
+        CopyStrategyLibrary copyStrategyLibrary = new CopyStrategyLibrary(reflectFactory);
+        ComponentLibrary componentLibrary = new ComponentLibrary(reflectFactory, copyStrategyLibrary);
+        componentLibrary.register(new SimpleUri("engine", "health"), HealthComponent.class);
+        componentLibrary.register(new SimpleUri("engine", "displayName"), DisplayNameComponent.class);
+        componentSerializer = new ComponentSerializer(componentLibrary, new TypeSerializationLibrary(reflectFactory, copyStrategyLibrary));
+
+        FastRandom rand = new FastRandom(0L);
+        components = Lists.newArrayList();
+        for (int i = 0; i < COMPONENT_COUNT; ++i) {
+            components.add(createComponent(rand));
+        }
+    }
+
+    protected Component createComponent(FastRandom rand) {
+        if (rand.nextBoolean()) {
+            HealthComponent health = new HealthComponent(rand.nextInt(1, 100), rand.nextFloat(), rand.nextFloat());
+            health.currentHealth = rand.nextInt(1, health.maxHealth);
+            health.destroyEntityOnNoHealth = rand.nextBoolean();
+            return health;
+        } else {
+            DisplayNameComponent displayName = new DisplayNameComponent();
+            displayName.name = "Name" + rand.nextInt(100);
+            displayName.description = "Description" + rand.nextInt(100);
+            return displayName;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.serialization;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.protobuf.EntityData;
+
+/**
+ * Measures serializing components in full, as is done when saving entities.
+ */
+public class ComponentSerializeBenchmark extends ComponentSerializationBenchmark {
+
+    public ComponentSerializeBenchmark() {
+        super("Serialize " + COMPONENT_COUNT + " components");
+    }
+
+    @Override
+    public void run() {
+        for (Component component : components) {
+            EntityData.Component data = componentSerializer.serialize(component);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.asset;
+
+/**
+ * A snapshot of the asset cache metrics for a single asset type.
+ */
+public final class AssetCacheStatistics {
+    private final AssetType type;
+    private final int residentCount;
+    private final long residentSize;
+    private final long budget;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public AssetCacheStatistics(AssetType type, int residentCount, long residentSize, long budget, long hits, long misses, long evictions) {
+        this.type = type;
+        this.residentCount = residentCount;
+        this.residentSize = residentSize;
+        this.budget = budget;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public AssetType getType() {
+        return type;
+    }
+
+    /**
+     * @return The number of loaded assets of this type
+     */
+    public int getResidentCount() {
+        return residentCount;
+    }
+
+    /**
+     * @return The approximate number of bytes held by the loaded assets of this type. Only assets implementing
+     * {@link SizedAsset} are counted.
+     */
+    public long getResidentSize() {
+        return residentSize;
+    }
+
+    /**
+     * @return The memory budget for this type in bytes, or 0 if it is unbounded
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public float getHitRate() {
+        long requests = hits + misses;
+        return (requests == 0) ? 0 : (float) hits / requests;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d assets, %d bytes, %d hits, %d misses, %d evictions", type, residentCount, residentSize, hits, misses, evictions);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.asset;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the usage of the cached assets: the references held through {@link AssetManager#acquire(AssetUri)},
+ * the order in which they were last used, their size and the cache hit and miss counts per asset type.
+ * <p/>
+ * Only assets that have been acquired at least once are managed, and so can be evicted once they are released. Assets
+ * that have been handed out by a plain load are pinned: they may be held anywhere, so they stay in the cache until they
+ * are disposed explicitly, even if they are also acquired and released.
+ */
+final class AssetCacheTracker {
+
+    private final Map<AssetType, TypeUsage> usageByType = Maps.newEnumMap(AssetType.class);
+
+    AssetCacheTracker() {
+        for (AssetType type : AssetType.values()) {
+            usageByType.put(type, new TypeUsage());
+        }
+    }
+
+    public synchronized void setBudget(AssetType type, long budget) {
+        usageByType.get(type).budget = budget;
+    }
+
+    public synchronized long getBudget(AssetType type) {
+        return usageByType.get(type).budget;
+    }
+
+    public synchronized void recordHit(AssetUri uri) {
+        TypeUsage usage = usageByType.get(uri.getAssetType());
+        usage.hits++;
+        // Marks the asset as most recently used
+        usage.entries.get(uri);
+    }
+
+    public synchronized void recordMiss(AssetUri uri) {
+        usageByType.get(uri.getAssetType()).misses++;
+    }
+
+    /**
+     * Starts tracking an asset that was added to the cache, or updates the size of a reloaded asset
+     */
+    public synchronized void track(AssetUri uri, Asset asset) {
+        TypeUsage usage = usageByType.get(uri.getAssetType());
+        Entry entry = usage.entries.get(uri);
+        if (entry == null) {
+            entry = new Entry();
+            usage.entries.put(uri, entry);
+        }
+        usage.residentSize -= entry.size;
+        entry.size = (asset instanceof SizedAsset) ? ((SizedAsset) asset).getResidentSize() : 0;
+        usage.residentSize += entry.size;
+        usage.modifications++;
+    }
+
+    public synchronized void untrack(AssetUri uri) {
+        TypeUsage usage = usageByType.get(uri.getAssetType());
+        Entry entry = usage.entries.remove(uri);
+        if (entry != null) {
+            usage.residentSize -= entry.size;
+            usage.modifications++;
+        }
+    }
+
+    public synchronized void acquire(AssetUri uri) {
+        Entry entry = usageByType.get(uri.getAssetType()).entries.get(uri);
+        if (entry != null) {
+            entry.managed = true;
+            entry.references++;
+        }
+    }
+
+    /**
+     * Marks an asset as held outside of the acquire/release references, so that it is never evicted
+     */
+    public synchronized void pin(AssetUri uri) {
+        Entry entry = usageByType.get(uri.getAssetType()).entries.get(uri);
+        if (entry != null) {
+            entry.pinned = true;
+        }
+    }
+
+    /**
+     * @return Whether the asset was acquired and is no longer referenced
+     */
+    public synchronized boolean release(AssetUri uri) {
+        Entry entry = usageByType.get(uri.getAssetType()).entries.get(uri);
+        if (entry != null && entry.references > 0) {
+            entry.references--;
+            return entry.references == 0;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the least recently used unreferenced and unpinned assets of the given type until the type is within its budget.
+     *
+     * @return The assets that were removed, which should be disposed by the caller
+     */
+    public synchronized List<AssetUri> evict(AssetType type) {
+        TypeUsage usage = usageByType.get(type);
+        if (usage.budget <= 0 || usage.residentSize <= usage.budget) {
+            return Collections.emptyList();
+        }
+        List<AssetUri> evicted = Lists.newArrayList();
+        Iterator<Map.Entry<AssetUri, Entry>> iterator = usage.entries.entrySet().iterator();
+        while (usage.residentSize > usage.budget && iterator.hasNext()) {
+            Map.Entry<AssetUri, Entry> candidate = iterator.next();
+            Entry entry = candidate.getValue();
+            if (entry.managed && !entry.pinned && entry.references == 0) {
+                iterator.remove();
+                usage.residentSize -= entry.size;
+                usage.evictions++;
+                usage.modifications++;
+                evicted.add(candidate.getKey());
+            }
+        }
+        return evicted;
+    }
+
+    public synchronized long getModificationCount(AssetType type) {
+        return usageByType.get(type).modifications;
+    }
+
+    public synchronized AssetCacheStatistics getStatistics(AssetType type) {
+        TypeUsage usage = usageByType.get(type);
+        return new AssetCacheStatistics(type, usage.entries.size(), usage.residentSize, usage.budget, usage.hits, usage.misses, usage.evictions);
+    }
+
+    private static final class TypeUsage {
+        // In order of last use, least recent first
+        private final Map<AssetUri, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long residentSize;
+        private long budget;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long modifications;
+    }
+
+    private static final class Entry {
+        private long size;
+        private int references;
+        private boolean managed;
+        private boolean pinned;
+    }
+}
@@ -20,7 +20,13 @@
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.asset.sources.AssetSourceCollection;
@@ -35,6 +41,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
@@ -46,6 +53,12 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 // TODO: Split out an interface, possibly two with one for loading and adding assets, the other with disposal and other more management methods
 @API
@@ -53,10 +66,22 @@ public class AssetManager {
 
     private static final Logger logger = LoggerFactory.getLogger(AssetManager.class);
 
+    /**
+     * The asset types whose loaders only read and decode their data, so the data can be loaded by the worker threads.
+     * Other loaders resolve further assets or use the entity system while loading.
+     */
+    private static final Set<AssetType> BACKGROUND_LOADABLE_TYPES = Sets.immutableEnumSet(AssetType.TEXTURE, AssetType.SOUND, AssetType.MUSIC,
+            AssetType.MESH, AssetType.SHAPE, AssetType.BLOCK_TILE, AssetType.SKELETON_MESH, AssetType.ANIMATION);
+    private static final long LOADER_KEEP_ALIVE_SECONDS = 10;
+
     private ModuleManager moduleManager;
     private Map<String, AssetSource> assetSources = Maps.newHashMap();
     private Map<AssetType, Map<String, AssetLoader>> assetLoaders = Maps.newEnumMap(AssetType.class);
-    private Map<AssetUri, Asset> assetCache = Maps.newHashMap();
+    private Map<AssetUri, Asset> assetCache = Maps.newConcurrentMap();
+    private Map<AssetUri, WeakReference<Asset>> evictedAssets = Maps.newConcurrentMap();
+    private Map<AssetUri, Future<AssetData>> preloadedData = Maps.newConcurrentMap();
+    private AssetCacheTracker cacheTracker = new AssetCacheTracker();
+    private ListeningExecutorService loaderService;
     private Map<AssetUri, AssetSource> overrides = Maps.newHashMap();
     private Map<AssetType, AssetFactory> factories = Maps.newHashMap();
     private Map<AssetType, Table<String, String, AssetUri>> uriLookup = Maps.newHashMap();
@@ -67,6 +92,11 @@ public AssetManager(ModuleManager moduleManager) {
         for (AssetType type : AssetType.values()) {
             uriLookup.put(type, HashBasedTable.<String, String, AssetUri>create());
         }
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, LOADER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("Asset-Loader-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        loaderService = MoreExecutors.listeningDecorator(executor);
     }
 
     public <T extends Asset<U>, U extends AssetData> void addResolver(AssetType assetType, AssetResolver<T, U> resolver) {
@@ -77,6 +107,31 @@ public void setAssetFactory(AssetType type, AssetFactory factory) {
         factories.put(type, factory);
     }
 
+    /**
+     * Sets the memory budget for the assets of a type. When the loaded assets of the type exceed their budget, the least
+     * recently used assets that have been acquired and released again are disposed, until the type is within its budget.
+     *
+     * @param type
+     * @param budget The budget in bytes, or 0 to keep all assets of the type
+     */
+    public void setCacheBudget(AssetType type, long budget) {
+        cacheTracker.setBudget(type, budget);
+        evictOverBudget(type);
+    }
+
+    public AssetCacheStatistics getCacheStatistics(AssetType type) {
+        return cacheTracker.getStatistics(type);
+    }
+
+    /**
+     * @param type
+     * @return A count that increases whenever an asset of the given type is added to the cache, reloaded or removed
+     * from the cache, so that data derived from the loaded assets can tell when it is out of date
+     */
+    public long getModificationCount(AssetType type) {
+        return cacheTracker.getModificationCount(type);
+    }
+
     public List<AssetUri> resolveAll(AssetType type, String name) {
         AssetUri uri = new AssetUri(type, name);
         if (uri.isValid()) {
@@ -188,6 +243,23 @@ public Asset resolveAndTryLoad(AssetType type, String name) {
         return null;
     }
 
+    /**
+     * Resolves and loads an asset like {@link #resolveAndLoad(AssetType, String)}, but without pinning it. This is for
+     * references whose users take references of their own through {@link #retain(Asset)} while they use the asset, such
+     * as the meshes of components, so the asset can still be evicted once none of them hold it.
+     *
+     * @param type
+     * @param name
+     * @return The asset, or null if it could not be resolved or loaded
+     */
+    public Asset resolveAndLoadUnpinned(AssetType type, String name) {
+        AssetUri uri = resolve(type, name);
+        if (uri != null) {
+            return loadCachedAsset(uri, true);
+        }
+        return null;
+    }
+
     public <T> T tryLoadAssetData(AssetUri uri, Class<T> type) {
         AssetData data = loadAssetData(uri, false);
         if (type.isInstance(data)) {
@@ -229,6 +301,75 @@ public void reload(Asset asset) {
         AssetData data = loadAssetData(asset.getURI(), false);
         if (data != null) {
             asset.reload(data);
+            if (assetCache.get(asset.getURI()) == asset) {
+                cacheTracker.track(asset.getURI(), asset);
+            }
+        }
+    }
+
+    /**
+     * Loads an asset and holds a reference to it until it is released. Unlike assets that are only loaded, acquired
+     * assets may be disposed to keep within the cache budget of their type once all their references are released, and
+     * are then transparently loaded again when next requested, into the same instance if it is still held anywhere. An
+     * asset that has also been handed out by one of the load methods is never disposed this way, as there is no telling
+     * who still holds it.
+     *
+     * @param uri
+     * @return The asset, or null if it could not be loaded
+     */
+    public Asset acquire(AssetUri uri) {
+        Asset asset = loadCachedAsset(uri, true);
+        if (asset != null) {
+            cacheTracker.acquire(uri);
+        }
+        return asset;
+    }
+
+    public <T extends Asset> T acquire(AssetUri uri, Class<T> assetClass) {
+        Asset result = acquire(uri);
+        if (assetClass.isInstance(result)) {
+            return assetClass.cast(result);
+        }
+        if (result != null) {
+            release(result);
+        }
+        return null;
+    }
+
+    /**
+     * Takes a reference to an asset that is already held, as {@link #acquire(AssetUri)} does. If the asset was evicted
+     * since, it is loaded again in place, so everything holding it can keep using it once it is retained.
+     *
+     * @param asset
+     * @return Whether a reference was taken, which must be released again. No reference is taken on assets that are
+     * not managed by this asset manager, such as assets that were disposed explicitly.
+     */
+    public boolean retain(Asset asset) {
+        if (assetCache.get(asset.getURI()) == asset) {
+            cacheTracker.acquire(asset.getURI());
+            return true;
+        }
+        if (asset.isDisposed()) {
+            Asset result = acquire(asset.getURI());
+            if (result == asset) {
+                return true;
+            }
+            if (result != null) {
+                release(result);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases a reference to an asset obtained through {@link #acquire(AssetUri)} or {@link #retain(Asset)}. The asset
+     * must not be used after its last reference is released, unless it is retained again.
+     *
+     * @param asset
+     */
+    public void release(Asset asset) {
+        if (assetCache.get(asset.getURI()) == asset && cacheTracker.release(asset.getURI())) {
+            evictOverBudget(asset.getURI().getAssetType());
         }
     }
 
@@ -240,7 +381,60 @@ public <T extends Asset> T loadAsset(AssetUri uri, Class<T> assetClass) {
         return null;
     }
 
+    /**
+     * Reads and decodes the data of an asset on a worker thread. The source of the asset is determined straight away,
+     * so changes to the asset sources made afterwards don't affect the load.
+     *
+     * @param uri
+     * @return A future providing the loaded data, or null if the asset could not be loaded
+     */
+    public ListenableFuture<AssetData> loadAssetDataAsync(AssetUri uri) {
+        AssetDataReader reader = createReader(uri, true);
+        if (reader == null) {
+            return Futures.immediateFuture(null);
+        }
+        return loaderService.submit(reader);
+    }
+
+    /**
+     * Starts loading the data of the given assets in parallel, so that loading them later only has to build the
+     * assets (which may need to be done on the main thread, e.g. to upload textures). Assets of types whose loaders
+     * are not safe to run in the background are left to be loaded as normal.
+     *
+     * @param uris
+     */
+    public void preload(Iterable<AssetUri> uris) {
+        for (AssetUri uri : uris) {
+            if (uri.isValid() && BACKGROUND_LOADABLE_TYPES.contains(uri.getAssetType()) && !assetCache.containsKey(uri) && !preloadedData.containsKey(uri)) {
+                preloadedData.put(uri, loadAssetDataAsync(uri));
+            }
+        }
+    }
+
     private AssetData loadAssetData(AssetUri uri, boolean logErrors) {
+        AssetDataReader reader = createReader(uri, logErrors);
+        if (reader != null) {
+            return reader.call();
+        }
+        return null;
+    }
+
+    private AssetData takeAssetData(AssetUri uri, boolean logErrors) {
+        Future<AssetData> preloaded = preloadedData.remove(uri);
+        if (preloaded != null) {
+            try {
+                return preloaded.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.error("Error loading asset: {}", uri, e.getCause());
+                return null;
+            }
+        }
+        return loadAssetData(uri, logErrors);
+    }
+
+    private AssetDataReader createReader(AssetUri uri, boolean logErrors) {
         if (!uri.isValid()) {
             return null;
         }
@@ -270,32 +464,33 @@ private AssetData loadAssetData(AssetUri uri, boolean logErrors) {
                 continue;
             }
 
-            Module module = moduleManager.getActiveModule(uri.getNormalisedModuleName());
-            try (InputStream stream = AccessController.doPrivileged(new PrivilegedOpenStream(url))) {
-                urls.remove(url);
-                urls.add(0, url);
-                return loader.load(module, stream, urls);
-            } catch (PrivilegedActionException e) {
-                logger.error("Error reading asset {}", uri, e.getCause());
-                return null;
-            } catch (IOException ioe) {
-                logger.error("Error reading asset {}", uri, ioe);
-                return null;
-            }
+            urls.remove(url);
+            urls.add(0, url);
+            return new AssetDataReader(uri, moduleManager.getActiveModule(uri.getNormalisedModuleName()), loader, urls);
         }
         logger.warn("Unable to resolve asset: {}", uri);
         return null;
     }
 
     private Asset loadAsset(AssetUri uri, boolean logErrors) {
+        Asset asset = loadCachedAsset(uri, logErrors);
+        if (asset != null) {
+            cacheTracker.pin(uri);
+        }
+        return asset;
+    }
+
+    private Asset loadCachedAsset(AssetUri uri, boolean logErrors) {
         if (!uri.isValid()) {
             return null;
         }
 
         Asset asset = assetCache.get(uri);
         if (asset != null) {
+            cacheTracker.recordHit(uri);
             return asset;
         }
+        cacheTracker.recordMiss(uri);
 
         AssetFactory factory = factories.get(uri.getAssetType());
         if (factory == null) {
@@ -306,19 +501,25 @@ private Asset loadAsset(AssetUri uri, boolean logErrors) {
         for (AssetResolver resolver : resolvers.get(uri.getAssetType())) {
             Asset result = resolver.resolve(uri, factory);
             if (result != null) {
-                assetCache.put(uri, result);
+                preloadedData.remove(uri);
+                cache(uri, result);
                 return result;
             }
         }
 
         try (ModuleContext.ContextSpan ignored = ModuleContext.setContext(moduleManager.getActiveModule(uri.getNormalisedModuleName()))) {
-            AssetData data = loadAssetData(uri, logErrors);
+            AssetData data = takeAssetData(uri, logErrors);
 
             if (data != null) {
-                asset = factory.buildAsset(uri, data);
+                asset = takeEvictedAsset(uri);
+                if (asset != null) {
+                    asset.reload(data);
+                } else {
+                    asset = factory.buildAsset(uri, data);
+                }
                 if (asset != null) {
                     logger.debug("Loaded {}", uri);
-                    assetCache.put(uri, asset);
+                    cache(uri, asset);
                 }
             }
         } catch (Exception e) {
@@ -327,22 +528,58 @@ private Asset loadAsset(AssetUri uri, boolean logErrors) {
         return asset;
     }
 
+    private void cache(AssetUri uri, Asset asset) {
+        assetCache.put(uri, asset);
+        cacheTracker.track(uri, asset);
+        evictOverBudget(uri.getAssetType());
+    }
+
+    private Asset uncache(AssetUri uri) {
+        cacheTracker.untrack(uri);
+        return assetCache.remove(uri);
+    }
+
+    private void evictOverBudget(AssetType type) {
+        for (AssetUri uri : cacheTracker.evict(type)) {
+            Asset asset = assetCache.remove(uri);
+            if (asset != null) {
+                logger.debug("Evicting {}", uri);
+                asset.dispose();
+                // Reused when the asset is next loaded, as components and the like may still refer to it
+                evictedAssets.put(uri, new WeakReference<>(asset));
+            }
+        }
+    }
+
+    private Asset takeEvictedAsset(AssetUri uri) {
+        WeakReference<Asset> reference = evictedAssets.remove(uri);
+        if (reference != null) {
+            Asset asset = reference.get();
+            if (asset != null && asset.isDisposed()) {
+                return asset;
+            }
+        }
+        return null;
+    }
+
     public void refresh() {
         List<Asset> keepAndReload = Lists.newArrayList();
         List<Asset> dispose = Lists.newArrayList();
+        preloadedData.clear();
+        evictedAssets.clear();
 
-        for (Asset asset : assetCache.values()) {
+        Iterator<Map.Entry<AssetUri, Asset>> iterator = assetCache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<AssetUri, Asset> entry = iterator.next();
+            Asset asset = entry.getValue();
             if (asset.getURI().getNormalisedModuleName().equals(TerasologyConstants.ENGINE_MODULE) && !(asset instanceof Prefab) && !(asset instanceof BehaviorTree)) {
                 keepAndReload.add(asset);
             } else {
                 dispose.add(asset);
+                iterator.remove();
+                cacheTracker.untrack(entry.getKey());
             }
         }
-        assetCache.clear();
-
-        for (Asset asset : keepAndReload) {
-            assetCache.put(asset.getURI(), asset);
-        }
 
         for (Asset asset : keepAndReload) {
             reload(asset);
@@ -356,7 +593,8 @@ public void refresh() {
 
     public void dispose(Asset asset) {
         asset.dispose();
-        assetCache.remove(asset.getURI());
+        uncache(asset.getURI());
+        evictedAssets.remove(asset.getURI());
     }
 
     public <U extends AssetData> Asset<U> generateAsset(AssetUri uri, U data) {
@@ -369,12 +607,16 @@ public <U extends AssetData> Asset<U> generateAsset(AssetUri uri, U data) {
         if (asset != null) {
             logger.debug("Reloading {} with newly generated data", uri);
             asset.reload(data);
+            cacheTracker.track(uri, asset);
         } else {
             asset = assetFactory.buildAsset(uri, data);
             if (asset != null && !asset.isDisposed()) {
-                assetCache.put(uri, asset);
+                cache(uri, asset);
             }
         }
+        if (asset != null) {
+            cacheTracker.pin(uri);
+        }
         return asset;
     }
 
@@ -398,6 +640,8 @@ public void addAssetSource(AssetSource newSource) {
     }
 
     public void removeAssetSource(AssetSource source) {
+        preloadedData.clear();
+        evictedAssets.clear();
         assetSources.remove(source.getSourceId().toLowerCase(Locale.ENGLISH));
         for (AssetUri override : source.listOverrides()) {
             if (overrides.get(override).equals(source)) {
@@ -407,9 +651,10 @@ public void removeAssetSource(AssetSource source) {
                     if (TerasologyConstants.ENGINE_MODULE.equals(override.getNormalisedModuleName())) {
                         AssetData data = loadAssetData(override, true);
                         asset.reload(data);
+                        cacheTracker.track(override, asset);
                     } else {
                         asset.dispose();
-                        assetCache.remove(override);
+                        uncache(override);
                     }
                 }
             }
@@ -417,7 +662,7 @@ public void removeAssetSource(AssetSource source) {
         for (Table<String, String, AssetUri> table : uriLookup.values()) {
             Map<String, AssetUri> columnMap = table.column(UriUtil.normalise(source.getSourceId()));
             for (AssetUri value : columnMap.values()) {
-                Asset asset = assetCache.remove(value);
+                Asset asset = uncache(value);
                 if (asset != null) {
                     asset.dispose();
                 }
@@ -427,6 +672,7 @@ public void removeAssetSource(AssetSource source) {
     }
 
     public void applyOverrides() {
+        preloadedData.clear();
         overrides.clear();
         for (AssetSource assetSource : assetSources.values()) {
             for (AssetUri overrideURI : assetSource.listOverrides()) {
@@ -459,6 +705,7 @@ public <T> Iterable<T> listLoadedAssets(final AssetType type, Class<T> assetClas
         List<T> results = Lists.newArrayList();
         for (Map.Entry<AssetUri, Asset> entry : assetCache.entrySet()) {
             if (entry.getKey().getAssetType() == type && assetClass.isInstance(entry.getValue())) {
+                cacheTracker.pin(entry.getKey());
                 results.add(assetClass.cast(entry.getValue()));
             }
         }
@@ -586,6 +833,37 @@ private void iterate() {
         }
     }
 
+    /**
+     * Reads the data of an asset from its resolved source. Doesn't touch the state of the asset manager, so it can be
+     * run on any thread.
+     */
+    private static final class AssetDataReader implements Callable<AssetData> {
+        private AssetUri uri;
+        private Module module;
+        private AssetLoader loader;
+        private List<URL> urls;
+
+        private AssetDataReader(AssetUri uri, Module module, AssetLoader loader, List<URL> urls) {
+            this.uri = uri;
+            this.module = module;
+            this.loader = loader;
+            this.urls = urls;
+        }
+
+        @Override
+        public AssetData call() {
+            try (InputStream stream = AccessController.doPrivileged(new PrivilegedOpenStream(urls.get(0)))) {
+                return loader.load(module, stream, urls);
+            } catch (PrivilegedActionException e) {
+                logger.error("Error reading asset {}", uri, e.getCause());
+                return null;
+            } catch (IOException ioe) {
+                logger.error("Error reading asset {}", uri, ioe);
+                return null;
+            }
+        }
+    }
+
     private static final class PrivilegedOpenStream implements PrivilegedExceptionAction<InputStream> {
 
         private URL url;
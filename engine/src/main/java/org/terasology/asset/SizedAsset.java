@@ -1,5 +1,5 @@
 /*
- * Copyright 2013 MovingBlocks
+ * Copyright 2014 MovingBlocks
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,16 +13,16 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
-package org.terasology.core.world.liquid;
+package org.terasology.asset;
 
 /**
- * @author Immortius
+ * Implemented by assets that can report how much memory they hold, so the asset manager can keep the assets of each
+ * type within their memory budget.
  */
-public interface LiquidSimulationTask {
-    boolean shutdownThread();
-
-    void run();
+public interface SizedAsset {
 
-    String getName();
+    /**
+     * @return The approximate number of bytes held by this asset, in main or video memory
+     */
+    long getResidentSize();
 }
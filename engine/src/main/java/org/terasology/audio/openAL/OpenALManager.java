@@ -28,6 +28,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.asset.AssetFactory;
+import org.terasology.asset.AssetManager;
 import org.terasology.asset.AssetUri;
 import org.terasology.audio.AudioEndListener;
 import org.terasology.audio.AudioManager;
@@ -42,6 +43,7 @@
 import org.terasology.audio.openAL.streamingSound.OpenALStreamingSoundPool;
 import org.terasology.config.AudioConfig;
 import org.terasology.math.Direction;
+import org.terasology.registry.CoreRegistry;
 
 import javax.vecmath.Quat4f;
 import javax.vecmath.Vector3f;
@@ -67,6 +69,11 @@ public class OpenALManager implements AudioManager {
 
     private Map<SoundSource, AudioEndListener> endListeners = Maps.newHashMap();
 
+    /**
+     * The sounds held in the asset manager while they are playing, by the source playing them
+     */
+    private Map<SoundSource, Sound> playingSounds = Maps.newHashMap();
+
     private PropertyChangeListener configListener = new PropertyChangeListener() {
         @Override
         public void propertyChange(PropertyChangeEvent evt) {
@@ -123,6 +130,10 @@ public OpenALManager(AudioConfig config) {
 
     @Override
     public void dispose() {
+        for (Sound sound : playingSounds.values()) {
+            release(sound);
+        }
+        playingSounds.clear();
         AL.destroy();
     }
 
@@ -191,6 +202,7 @@ public void playSound(Sound sound, Vector3f position, float volume, int priority
         if (position != null && !checkDistance(position)) {
             return;
         }
+        boolean retained = retain(sound);
         SoundSource source = pools.get("sfx").getSource(sound, priority);
         if (source != null) {
             source.setAbsolute(position != null);
@@ -199,10 +211,13 @@ public void playSound(Sound sound, Vector3f position, float volume, int priority
             }
             source.setGain(volume);
             source.play();
+            setPlayingSound(source, (retained) ? sound : null);
 
             if (endListener != null) {
                 endListeners.put(source, endListener);
             }
+        } else if (retained) {
+            release(sound);
         }
     }
 
@@ -221,13 +236,49 @@ public void playMusic(Sound music, AudioEndListener endListener) {
             return;
         }
 
+        boolean retained = retain(music);
         SoundSource source = pool.getSource(music);
         if (source != null) {
             source.setGain(1.0f).play();
+            setPlayingSound(source, (retained) ? music : null);
 
             if (endListener != null) {
                 endListeners.put(source, endListener);
             }
+        } else if (retained) {
+            release(music);
+        }
+    }
+
+    /**
+     * Takes a reference to a sound in the asset manager before it is played, which also loads it again if it was evicted
+     *
+     * @return Whether a reference was taken
+     */
+    private boolean retain(Sound sound) {
+        AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+        return sound != null && assetManager != null && assetManager.retain(sound);
+    }
+
+    private void release(Sound sound) {
+        AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+        if (assetManager != null) {
+            assetManager.release(sound);
+        }
+    }
+
+    /**
+     * @param source
+     * @param sound  The sound now playing on the source, if a reference to it was taken
+     */
+    private void setPlayingSound(SoundSource source, Sound sound) {
+        // Sources can be taken over by another sound before the previous one ends
+        Sound previousSound = playingSounds.remove(source);
+        if (sound != null) {
+            playingSounds.put(source, sound);
+        }
+        if (previousSound != null) {
+            release(previousSound);
         }
     }
 
@@ -267,6 +318,14 @@ public void update(float delta) {
                 entry.getValue().onAudioEnd();
             }
         }
+        Iterator<Map.Entry<SoundSource, Sound>> playingIterator = playingSounds.entrySet().iterator();
+        while (playingIterator.hasNext()) {
+            Map.Entry<SoundSource, Sound> entry = playingIterator.next();
+            if (!entry.getKey().isPlaying()) {
+                playingIterator.remove();
+                release(entry.getValue());
+            }
+        }
     }
 
     protected boolean checkDistance(Vector3f soundPosition) {
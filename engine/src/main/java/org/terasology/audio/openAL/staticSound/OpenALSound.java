@@ -18,6 +18,7 @@
 import org.lwjgl.openal.AL10;
 import org.terasology.asset.AbstractAsset;
 import org.terasology.asset.AssetUri;
+import org.terasology.asset.SizedAsset;
 import org.terasology.audio.StaticSound;
 import org.terasology.audio.StaticSoundData;
 import org.terasology.audio.openAL.OpenALException;
@@ -31,13 +32,14 @@
 import static org.lwjgl.openal.AL10.alGenBuffers;
 import static org.lwjgl.openal.AL10.alGetBufferi;
 
-public final class OpenALSound extends AbstractAsset<StaticSoundData> implements StaticSound {
+public final class OpenALSound extends AbstractAsset<StaticSoundData> implements StaticSound, SizedAsset {
 
     protected float length;
     private final OpenALManager audioManager;
 
     // TODO: Do we have proper support for unloading sounds (as mods are changed?)
     private int bufferId;
+    private int bufferSize;
 
 
     public OpenALSound(AssetUri uri, StaticSoundData data, OpenALManager audioManager) {
@@ -99,6 +101,11 @@ public boolean isDisposed() {
         return bufferId == 0;
     }
 
+    @Override
+    public long getResidentSize() {
+        return bufferSize;
+    }
+
     @Override
     public void reload(StaticSoundData data) {
         if (bufferId == 0) {
@@ -112,6 +119,7 @@ public void reload(StaticSoundData data) {
 
         int bits = data.getBufferBits();
         int size = getBufferSize();
+        bufferSize = size;
         int channels = getChannels();
         int frequency = getSamplingRate();
         length = (float) size / channels / (bits / 8) / frequency;
@@ -65,6 +65,7 @@ public class RenderingConfig {
     private boolean renderNearest = true;
     private int particleEffectLimit = 10;
     private int meshLimit = 400;
+    private boolean parallelAnimation;
     private boolean inscattering = true;
     private boolean localReflections;
     private boolean vSync;
@@ -390,6 +391,14 @@ public void setMeshLimit(int meshLimit) {
         this.meshLimit = meshLimit;
     }
 
+    public boolean isParallelAnimation() {
+        return parallelAnimation;
+    }
+
+    public void setParallelAnimation(boolean parallelAnimation) {
+        this.parallelAnimation = parallelAnimation;
+    }
+
     public boolean isVSync() {
         return this.vSync;
     }
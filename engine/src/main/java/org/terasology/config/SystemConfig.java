@@ -16,6 +16,11 @@
 
 package org.terasology.config;
 
+import com.google.common.collect.Maps;
+import org.terasology.asset.AssetType;
+
+import java.util.Map;
+
 /**
  * @author Immortius
  */
@@ -27,6 +32,11 @@ public class SystemConfig {
     private boolean debugEnabled;
     private boolean monitoringEnabled;
     private boolean reflectionsCacheEnabled;
+    private boolean textureAtlasCacheEnabled = true;
+    private boolean prefabCacheEnabled = true;
+    private boolean physicsThreadEnabled;
+    private String chunkCompression = "deflate";
+    private Map<String, Integer> assetCacheBudgetsInMb = Maps.newHashMap();
 
     public long getDayNightLengthInMs() {
         return dayNightLengthInMs;
@@ -68,6 +78,41 @@ public void setReflectionsCacheEnabled(boolean reflectionsCacheEnabled) {
         this.reflectionsCacheEnabled = reflectionsCacheEnabled;
     }
     
+    public boolean isTextureAtlasCacheEnabled() {
+        return textureAtlasCacheEnabled;
+    }
+
+    public void setTextureAtlasCacheEnabled(boolean textureAtlasCacheEnabled) {
+        this.textureAtlasCacheEnabled = textureAtlasCacheEnabled;
+    }
+
+    public boolean isPrefabCacheEnabled() {
+        return prefabCacheEnabled;
+    }
+
+    public void setPrefabCacheEnabled(boolean prefabCacheEnabled) {
+        this.prefabCacheEnabled = prefabCacheEnabled;
+    }
+
+    public boolean isPhysicsThreadEnabled() {
+        return physicsThreadEnabled;
+    }
+
+    public void setPhysicsThreadEnabled(boolean physicsThreadEnabled) {
+        this.physicsThreadEnabled = physicsThreadEnabled;
+    }
+
+    /**
+     * @return The name of the codec used to compress stored chunks, either "deflate" or "lz4"
+     */
+    public String getChunkCompression() {
+        return chunkCompression;
+    }
+
+    public void setChunkCompression(String chunkCompression) {
+        this.chunkCompression = chunkCompression;
+    }
+
     public boolean isMonitoringEnabled() {
         return monitoringEnabled;
     }
@@ -75,4 +120,17 @@ public boolean isMonitoringEnabled() {
     public void setMonitoringEnabled(boolean monitoringEnabled) {
         this.monitoringEnabled = monitoringEnabled;
     }
+
+    /**
+     * @param type
+     * @return The memory budget for the cached assets of the given type in megabytes, or 0 if it is unbounded
+     */
+    public int getAssetCacheBudgetInMb(AssetType type) {
+        Integer budget = assetCacheBudgetsInMb.get(type.getTypeId());
+        return (budget != null) ? budget : 0;
+    }
+
+    public void setAssetCacheBudgetInMb(AssetType type, int budget) {
+        assetCacheBudgetsInMb.put(type.getTypeId(), budget);
+    }
 }
@@ -27,6 +27,8 @@ public class WorldGenerationConfig {
 
     private SimpleUri defaultGenerator = new SimpleUri("core:perlin");
 
+    private boolean deterministicSecondPass;
+
     public String getWorldTitle() {
         return worldTitle;
     }
@@ -50,4 +52,17 @@ public SimpleUri getDefaultGenerator() {
     public void setDefaultGenerator(SimpleUri defaultGenerator) {
         this.defaultGenerator = defaultGenerator;
     }
+
+    /**
+     * @return Whether the second pass of generation is applied to each chunk on its own, in parallel, with the blocks
+     * it places in neighbouring chunks merged into them later. This requires second pass generators that only read
+     * the chunk being processed and are seeded from its position, as the ForestGenerator is.
+     */
+    public boolean isDeterministicSecondPass() {
+        return deterministicSecondPass;
+    }
+
+    public void setDeterministicSecondPass(boolean deterministicSecondPass) {
+        this.deterministicSecondPass = deterministicSecondPass;
+    }
 }
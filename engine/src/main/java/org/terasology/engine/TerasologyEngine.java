@@ -41,6 +41,7 @@
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.entitySystem.prefab.PrefabData;
 import org.terasology.entitySystem.prefab.internal.PojoPrefab;
+import org.terasology.entitySystem.prefab.internal.PrefabBundleCache;
 import org.terasology.game.Game;
 import org.terasology.identity.CertificateGenerator;
 import org.terasology.identity.CertificatePair;
@@ -76,6 +77,7 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ReflectPermission;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Policy;
 import java.util.Collection;
 import java.util.Deque;
@@ -347,6 +349,16 @@ private void initManagers() {
         CoreRegistry.putPermanently(TypeSerializationLibrary.class, new TypeSerializationLibrary(reflectFactory, copyStrategyLibrary));
 
         AssetManager assetManager = CoreRegistry.putPermanently(AssetManager.class, new AssetManager(moduleManager));
+        if (config.getSystem().isPrefabCacheEnabled()) {
+            String engineVersion = TerasologyVersion.getInstance().getGitCommit();
+            if (engineVersion.isEmpty()) {
+                // Without a commit there is no telling whether the prefab parsing changed since the bundles were written
+                logger.info("Not caching prefabs, as the engine build has no commit id");
+            } else {
+                Path prefabCacheRoot = PathManager.getInstance().getHomePath().resolve("cache").resolve("prefabs");
+                CoreRegistry.putPermanently(PrefabBundleCache.class, new PrefabBundleCache(prefabCacheRoot, engineVersion));
+            }
+        }
         CoreRegistry.putPermanently(CollisionGroupManager.class, new CollisionGroupManager());
         CoreRegistry.putPermanently(WorldGeneratorManager.class, new WorldGeneratorManager());
         CoreRegistry.putPermanently(ComponentSystemManager.class, new ComponentSystemManager());
@@ -354,6 +366,9 @@ private void initManagers() {
         CoreRegistry.putPermanently(Game.class, new Game(this, time));
 
         AssetType.registerAssetTypes(assetManager);
+        for (AssetType type : AssetType.values()) {
+            assetManager.setCacheBudget(type, config.getSystem().getAssetCacheBudgetInMb(type) * 1024L * 1024L);
+        }
         ClasspathSource source = new ClasspathSource(TerasologyConstants.ENGINE_MODULE,
                 getClass().getProtectionDomain().getCodeSource(), TerasologyConstants.ASSETS_SUBDIRECTORY, TerasologyConstants.OVERRIDES_SUBDIRECTORY);
         assetManager.addAssetSource(source);
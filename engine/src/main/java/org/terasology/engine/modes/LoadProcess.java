@@ -16,6 +16,8 @@
 
 package org.terasology.engine.modes;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -49,4 +51,17 @@ public interface LoadProcess {
      * @return A relative cost for this process. A small process would have a cost of 1, a large process a bigger cost.
      */
     int getExpectedCost();
+
+    /**
+     * @return The types of the load processes that must be finished before this one begins, or null if it depends on all
+     *         the load processes added before it. A type may also be an interface, matching all the processes that
+     *         implement it. Each type must match at least one of the added load processes.
+     */
+    Set<Class<? extends LoadProcess>> getDependencies();
+
+    /**
+     * @return Whether this process can run on a background thread, in parallel with other processes. This requires that
+     *         it doesn't use OpenGL or the asset manager, and only uses what its dependencies set up.
+     */
+    boolean canRunInBackground();
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.engine.modes;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs load processes in the order of their dependencies. Processes that can run in the background are started on a
+ * thread pool as soon as their dependencies are finished, while the others are stepped on the main thread, one at a
+ * time and in the order they were added, through {@link #update(long)}.
+ * <p/>
+ * The wall time of each process, from its beginning to its end, is logged and kept for {@link #getTimings()}.
+ */
+public class LoadProcessScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadProcessScheduler.class);
+
+    private final List<ScheduledProcess> processes = Lists.newArrayList();
+    private final Queue<ScheduledProcess> finishedInBackground = Queues.newConcurrentLinkedQueue();
+    private final Map<String, Long> timings = Maps.newLinkedHashMap();
+    private volatile Throwable backgroundFailure;
+    private volatile ScheduledProcess failedProcess;
+
+    private ExecutorService executor;
+    private ScheduledProcess current;
+    private int totalCost;
+    private int finishedCost;
+    private int remaining;
+    private Stopwatch totalTime;
+
+    /**
+     * Adds a process. Its dependencies are resolved against all the added processes once loading starts, so they may be
+     * added after it.
+     *
+     * @throws IllegalStateException If loading has already started
+     */
+    public void add(LoadProcess process) {
+        if (totalTime != null) {
+            throw new IllegalStateException("Cannot add " + process.getClass().getSimpleName() + " after loading started");
+        }
+        processes.add(new ScheduledProcess(process));
+        totalCost += process.getExpectedCost();
+        remaining++;
+    }
+
+    /**
+     * Runs the processes on the main thread for about the given time, and starts the background processes that are ready.
+     *
+     * @param timeBudget The time to spend running processes, in milliseconds
+     * @return Whether all the processes are finished
+     * @throws IllegalStateException If a background process failed, or on the first update if a declared dependency was
+     *                               not added or the dependencies form a cycle
+     */
+    public boolean update(long timeBudget) {
+        if (totalTime == null) {
+            resolveDependencies();
+            totalTime = Stopwatch.createStarted();
+        }
+        long endTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        do {
+            collectBackgroundProcesses();
+            startBackgroundProcesses();
+            if (current == null) {
+                current = nextMainThreadProcess();
+                if (current == null) {
+                    // Either finished or waiting for background processes
+                    break;
+                }
+                logger.debug(current.process.getMessage());
+                current.stopwatch.start();
+                current.process.begin();
+            }
+            if (current.process.step()) {
+                current.stopwatch.stop();
+                finish(current);
+                current = null;
+            }
+        } while (System.nanoTime() < endTime);
+        return isFinished();
+    }
+
+    public boolean isFinished() {
+        return remaining == 0;
+    }
+
+    /**
+     * @return The message of the process running on the main thread, or else of a process running in the background
+     */
+    public String getMessage() {
+        if (current != null) {
+            return current.process.getMessage();
+        }
+        for (ScheduledProcess scheduled : processes) {
+            if (scheduled.state == State.RUNNING) {
+                return scheduled.process.getMessage();
+            }
+        }
+        for (ScheduledProcess scheduled : processes) {
+            if (scheduled.state == State.WAITING) {
+                return scheduled.process.getMessage();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * @return The overall progress, between 0f and 1f inclusive, weighted by the expected cost of the processes
+     */
+    public float getProgress() {
+        if (totalCost == 0) {
+            return 1.0f;
+        }
+        float progress = finishedCost;
+        for (ScheduledProcess scheduled : processes) {
+            if (scheduled.state == State.RUNNING) {
+                float processProgress = scheduled.process.getProgress();
+                // Also excludes NaN, from processes that have no steps
+                if (processProgress > 0) {
+                    progress += scheduled.process.getExpectedCost() * Math.min(processProgress, 1.0f);
+                }
+            }
+        }
+        return progress / totalCost;
+    }
+
+    /**
+     * @return The wall time of each finished process in milliseconds, by process name, in the order they finished
+     */
+    public Map<String, Long> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * Stops the background threads. Background processes still running are interrupted.
+     */
+    public void dispose() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void resolveDependencies() {
+        for (int i = 0; i < processes.size(); i++) {
+            ScheduledProcess scheduled = processes.get(i);
+            Set<Class<? extends LoadProcess>> declaredDependencies = scheduled.process.getDependencies();
+            if (declaredDependencies == null) {
+                scheduled.dependencies.addAll(processes.subList(0, i));
+                continue;
+            }
+            for (Class<? extends LoadProcess> type : declaredDependencies) {
+                boolean found = false;
+                for (ScheduledProcess other : processes) {
+                    if (other != scheduled && isOfType(other.process, type)) {
+                        scheduled.dependencies.add(other);
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    throw new IllegalStateException(scheduled.getName() + " depends on " + type.getSimpleName() + ", which was not added");
+                }
+            }
+        }
+        Set<ScheduledProcess> checked = Sets.newHashSet();
+        for (ScheduledProcess scheduled : processes) {
+            checkForCycle(scheduled, Sets.<ScheduledProcess>newHashSet(), checked);
+        }
+    }
+
+    /**
+     * A process is of a dependency type if it is exactly of that class, or if the type is an interface it implements
+     */
+    private static boolean isOfType(LoadProcess process, Class<? extends LoadProcess> type) {
+        return process.getClass() == type || (type.isInterface() && type.isInstance(process));
+    }
+
+    private static void checkForCycle(ScheduledProcess scheduled, Set<ScheduledProcess> path, Set<ScheduledProcess> checked) {
+        if (checked.contains(scheduled)) {
+            return;
+        }
+        if (!path.add(scheduled)) {
+            throw new IllegalStateException("Load processes depend on each other in a cycle through " + scheduled.getName());
+        }
+        for (ScheduledProcess dependency : scheduled.dependencies) {
+            checkForCycle(dependency, path, checked);
+        }
+        path.remove(scheduled);
+        checked.add(scheduled);
+    }
+
+    private void collectBackgroundProcesses() {
+        if (backgroundFailure != null) {
+            throw new IllegalStateException("Failed to load: " + failedProcess.getName(), backgroundFailure);
+        }
+        ScheduledProcess finished = finishedInBackground.poll();
+        while (finished != null) {
+            finish(finished);
+            finished = finishedInBackground.poll();
+        }
+    }
+
+    private void startBackgroundProcesses() {
+        for (final ScheduledProcess scheduled : processes) {
+            if (scheduled.state == State.WAITING && scheduled.process.canRunInBackground() && scheduled.isReady()) {
+                scheduled.state = State.RUNNING;
+                if (executor == null) {
+                    int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+                    executor = Executors.newFixedThreadPool(threads,
+                            new ThreadFactoryBuilder().setNameFormat("Loading-%d").setDaemon(true).build());
+                }
+                logger.debug("{} (in the background)", scheduled.process.getMessage());
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            scheduled.stopwatch.start();
+                            scheduled.process.begin();
+                            while (!scheduled.process.step()) {
+                                if (Thread.currentThread().isInterrupted()) {
+                                    return;
+                                }
+                            }
+                            scheduled.stopwatch.stop();
+                            finishedInBackground.add(scheduled);
+                        } catch (Throwable e) {
+                            // Rethrown on the main thread, as if the process had run there
+                            failedProcess = scheduled;
+                            backgroundFailure = e;
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private ScheduledProcess nextMainThreadProcess() {
+        for (ScheduledProcess scheduled : processes) {
+            if (scheduled.state == State.WAITING && !scheduled.process.canRunInBackground() && scheduled.isReady()) {
+                scheduled.state = State.RUNNING;
+                return scheduled;
+            }
+        }
+        return null;
+    }
+
+    private void finish(ScheduledProcess scheduled) {
+        scheduled.state = State.FINISHED;
+        finishedCost += scheduled.process.getExpectedCost();
+        remaining--;
+        long time = scheduled.stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        timings.put(scheduled.getName(), time);
+        logger.info("{} took {}ms", scheduled.getName(), time);
+        if (remaining == 0) {
+            logger.info("Loading took {}ms", totalTime.elapsed(TimeUnit.MILLISECONDS));
+            dispose();
+        }
+    }
+
+    private enum State {
+        WAITING,
+        RUNNING,
+        FINISHED
+    }
+
+    /**
+     * The scheduling state of a process. Only the stopwatch is used by the background threads.
+     */
+    private static final class ScheduledProcess {
+        private final LoadProcess process;
+        private final List<ScheduledProcess> dependencies = Lists.newArrayList();
+        private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+        private State state = State.WAITING;
+
+        private ScheduledProcess(LoadProcess process) {
+            this.process = process;
+        }
+
+        private boolean isReady() {
+            for (ScheduledProcess dependency : dependencies) {
+                if (dependency.state != State.FINISHED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String getName() {
+            return process.getClass().getSimpleName();
+        }
+    }
+}
@@ -17,9 +17,6 @@
 package org.terasology.engine.modes;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Queues;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.terasology.engine.EngineTime;
 import org.terasology.engine.GameEngine;
 import org.terasology.engine.Time;
@@ -58,30 +55,25 @@
 import org.terasology.rendering.nui.NUIManager;
 import org.terasology.rendering.nui.layers.mainMenu.loadingScreen.LoadingScreen;
 
-import java.util.Queue;
-
 /**
  * @author Immortius
  */
 public class StateLoading implements GameState {
 
-    private static final Logger logger = LoggerFactory.getLogger(StateLoading.class);
+    // The time to spend loading per frame, in milliseconds
+    private static final long FRAME_LOAD_TIME = 20;
 
     private GameManifest gameManifest;
     private String serverAddress;
     private int serverPort;
     private NetworkMode netMode;
-    private Queue<LoadProcess> loadProcesses = Queues.newArrayDeque();
-    private LoadProcess current;
+    private LoadProcessScheduler loadProcesses = new LoadProcessScheduler();
     private JoinStatus joinStatus;
 
     private NUIManager nuiManager;
 
     private LoadingScreen loadingScreen;
 
-    private int progress;
-    private int maxProgress;
-
     /**
      * Constructor for server or single player games
      *
@@ -124,15 +116,8 @@ public void init(GameEngine engine) {
                 break;
         }
 
-        progress = 0;
-        maxProgress = 0;
-        for (LoadProcess process : loadProcesses) {
-            maxProgress += process.getExpectedCost();
-        }
-
-        popStep();
         loadingScreen = nuiManager.pushScreen("engine:loadingScreen", LoadingScreen.class);
-        loadingScreen.updateStatus(current.getMessage(), current.getProgress());
+        loadingScreen.updateStatus(loadProcesses.getMessage(), loadProcesses.getProgress());
     }
 
     private void initClient() {
@@ -141,8 +126,8 @@ private void initClient() {
         loadProcesses.add(new RegisterBlockFamilyFactories());
         loadProcesses.add(new RegisterBlocks(gameManifest));
         loadProcesses.add(new CacheBlocks());
-        loadProcesses.add(new InitialiseGraphics());
         loadProcesses.add(new InitialiseEntitySystem());
+        loadProcesses.add(new InitialiseGraphics());
         loadProcesses.add(new LoadPrefabs());
         loadProcesses.add(new ProcessBlockPrefabs());
         loadProcesses.add(new RegisterInputSystem());
@@ -163,8 +148,8 @@ private void initHost() {
         loadProcesses.add(new RegisterBlockFamilyFactories());
         loadProcesses.add(new RegisterBlocks(gameManifest));
         loadProcesses.add(new CacheBlocks());
-        loadProcesses.add(new InitialiseGraphics());
         loadProcesses.add(new InitialiseEntitySystem());
+        loadProcesses.add(new InitialiseGraphics());
         loadProcesses.add(new LoadPrefabs());
         loadProcesses.add(new ProcessBlockPrefabs());
         loadProcesses.add(new RegisterInputSystem());
@@ -186,20 +171,9 @@ private void initHost() {
         loadProcesses.add(new PrepareWorld());
     }
 
-    private void popStep() {
-        if (current != null) {
-            progress += current.getExpectedCost();
-        }
-        current = null;
-        if (!loadProcesses.isEmpty()) {
-            current = loadProcesses.remove();
-            logger.debug(current.getMessage());
-            current.begin();
-        }
-    }
-
     @Override
     public void dispose() {
+        loadProcesses.dispose();
         EngineTime time = (EngineTime) CoreRegistry.get(Time.class);
         time.setPaused(false);
     }
@@ -210,20 +184,12 @@ public void handleInput(float delta) {
 
     @Override
     public void update(float delta) {
-        EngineTime time = (EngineTime) CoreRegistry.get(Time.class);
-        long startTime = time.getRawTimeInMs();
-        while (current != null && time.getRawTimeInMs() - startTime < 20) {
-            if (current.step()) {
-                popStep();
-            }
-        }
-        if (current == null) {
+        if (loadProcesses.update(FRAME_LOAD_TIME)) {
             nuiManager.closeScreen(loadingScreen);
             nuiManager.setHUDVisible(true);
             CoreRegistry.get(GameEngine.class).changeState(new StateIngame());
         } else {
-            float progressValue = (progress + current.getExpectedCost() * current.getProgress()) / maxProgress;
-            loadingScreen.updateStatus(current.getMessage(), progressValue);
+            loadingScreen.updateStatus(loadProcesses.getMessage(), loadProcesses.getProgress());
             nuiManager.update(delta);
         }
     }
@@ -24,6 +24,8 @@
 import org.terasology.network.ClientComponent;
 import org.terasology.rendering.world.WorldRenderer;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -67,4 +69,14 @@ public float getProgress() {
     public int getExpectedCost() {
         return 10;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return null;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return false;
+    }
 }
@@ -16,11 +16,14 @@
 
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.block.family.BlockFamily;
 
 import java.util.Iterator;
+import java.util.Set;
 
 /**
  * @author Immortius
@@ -55,4 +58,9 @@ public void begin() {
     public int getExpectedCost() {
         return 1;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return ImmutableSet.<Class<? extends LoadProcess>>of(RegisterBlocks.class);
+    }
 }
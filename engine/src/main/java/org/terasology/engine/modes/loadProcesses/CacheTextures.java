@@ -16,12 +16,18 @@
 
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import org.terasology.asset.AssetManager;
 import org.terasology.asset.AssetType;
 import org.terasology.asset.AssetUri;
 import org.terasology.asset.Assets;
+import org.terasology.engine.modes.LoadProcess;
+import org.terasology.registry.CoreRegistry;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 /**
  * @author Immortius
@@ -36,8 +42,11 @@ public String getMessage() {
 
     @Override
     public void begin() {
-        uris = Assets.list(AssetType.TEXTURE).iterator();
-        setTotalSteps(Lists.newArrayList(Assets.list(AssetType.TEXTURE)).size());
+        List<AssetUri> textures = Lists.newArrayList(Assets.list(AssetType.TEXTURE));
+        // Decode the images in the background, so the steps only have to upload them
+        CoreRegistry.get(AssetManager.class).preload(textures);
+        uris = textures.iterator();
+        setTotalSteps(textures.size());
     }
 
     @Override
@@ -52,4 +61,9 @@ public boolean step() {
     public int getExpectedCost() {
         return 1;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return ImmutableSet.<Class<? extends LoadProcess>>of(ModuleSetupProcess.class);
+    }
 }
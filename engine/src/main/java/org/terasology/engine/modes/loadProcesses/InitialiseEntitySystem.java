@@ -16,13 +16,17 @@
 
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
 import org.terasology.reflection.copy.CopyStrategyLibrary;
 import org.terasology.reflection.reflect.ReflectFactory;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.engine.bootstrap.EntitySystemBuilder;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.engine.module.ModuleManager;
 import org.terasology.network.NetworkSystem;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -45,4 +49,14 @@ public int getExpectedCost() {
         return 1;
     }
 
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        // The block and block family type handlers look up the BlockManager when they are created
+        return ImmutableSet.<Class<? extends LoadProcess>>of(ModuleSetupProcess.class, RegisterBlocks.class);
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
 }
@@ -15,9 +15,11 @@
  */
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
 import org.terasology.asset.AssetType;
 import org.terasology.asset.AssetUri;
 import org.terasology.engine.TerasologyConstants;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.rendering.ShaderManager;
 import org.terasology.rendering.nui.NUIManager;
@@ -26,6 +28,7 @@
 import org.terasology.rendering.primitives.TessellatorHelper;
 
 import javax.vecmath.Vector4f;
+import java.util.Set;
 
 /**
  * @author Immortius
@@ -56,4 +59,10 @@ public boolean step() {
     public int getExpectedCost() {
         return 1;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        // Refreshing the widget library uses the reflect factory, which the entity system uses while it is set up
+        return ImmutableSet.<Class<? extends LoadProcess>>of(ModuleSetupProcess.class, InitialiseEntitySystem.class);
+    }
 }
@@ -18,6 +18,7 @@
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.config.Config;
 import org.terasology.engine.ComponentSystemManager;
 import org.terasology.reflection.copy.CopyStrategyLibrary;
 import org.terasology.reflection.reflect.ReflectFactory;
@@ -38,6 +39,8 @@
 import org.terasology.physics.engine.PhysicsEngine;
 import org.terasology.rendering.cameras.Camera;
 import org.terasology.rendering.world.WorldRenderer;
+import org.terasology.utilities.compression.CompressionCodec;
+import org.terasology.utilities.compression.CompressionCodecs;
 import org.terasology.utilities.random.FastRandom;
 import org.terasology.world.BlockEntityRegistry;
 import org.terasology.world.WorldProvider;
@@ -76,8 +79,16 @@ public boolean step() {
         CoreRegistry.put(WorldGeneratorPluginLibrary.class, new WorldGeneratorPluginLibrary(CoreRegistry.get(ModuleManager.class),
                 CoreRegistry.get(ReflectFactory.class), CoreRegistry.get(CopyStrategyLibrary.class)));
 
-        StorageManager storageManager = CoreRegistry.put(StorageManager.class,
-                new StorageManagerInternal(CoreRegistry.get(ModuleManager.class), (EngineEntityManager) CoreRegistry.get(EntityManager.class)));
+        StorageManagerInternal storageManagerInternal = new StorageManagerInternal(CoreRegistry.get(ModuleManager.class),
+                (EngineEntityManager) CoreRegistry.get(EntityManager.class));
+        String chunkCompression = CoreRegistry.get(Config.class).getSystem().getChunkCompression();
+        CompressionCodec chunkCodec = CompressionCodecs.getCodec(chunkCompression);
+        if (chunkCodec != null) {
+            storageManagerInternal.setChunkCompression(chunkCodec);
+        } else {
+            logger.warn("Unknown chunk compression '{}', using the default", chunkCompression);
+        }
+        StorageManager storageManager = CoreRegistry.put(StorageManager.class, storageManagerInternal);
         WorldInfo worldInfo = gameManifest.getWorldInfo(TerasologyConstants.MAIN_WORLD);
         if (worldInfo.getSeed() == null || worldInfo.getSeed().isEmpty()) {
             FastRandom random = new FastRandom();
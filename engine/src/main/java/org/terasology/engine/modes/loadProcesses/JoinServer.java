@@ -35,11 +35,12 @@
 import org.terasology.world.internal.WorldInfo;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Immortius
  */
-public class JoinServer implements LoadProcess {
+public class JoinServer implements ModuleSetupProcess {
     private static final Logger logger = LoggerFactory.getLogger(JoinServer.class);
 
     private NetworkSystem networkSystem = CoreRegistry.get(NetworkSystem.class);
@@ -120,4 +121,14 @@ public float getProgress() {
     public int getExpectedCost() {
         return 10;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return null;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return false;
+    }
 }
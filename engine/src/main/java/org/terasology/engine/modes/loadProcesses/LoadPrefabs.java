@@ -16,15 +16,20 @@
 
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.asset.AssetType;
 import org.terasology.asset.AssetUri;
 import org.terasology.asset.Assets;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.entitySystem.prefab.Prefab;
+import org.terasology.entitySystem.prefab.internal.PrefabBundleCache;
+import org.terasology.registry.CoreRegistry;
 
 import java.util.Iterator;
+import java.util.Set;
 
 /**
  * @author Immortius
@@ -45,7 +50,14 @@ public boolean step() {
             Assets.get(prefabs.next(), Prefab.class);
             stepDone();
         }
-        return !prefabs.hasNext();
+        if (!prefabs.hasNext()) {
+            PrefabBundleCache bundleCache = CoreRegistry.get(PrefabBundleCache.class);
+            if (bundleCache != null) {
+                bundleCache.save();
+            }
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -58,4 +70,9 @@ public void begin() {
     public int getExpectedCost() {
         return 1;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return ImmutableSet.<Class<? extends LoadProcess>>of(InitialiseEntitySystem.class);
+    }
 }
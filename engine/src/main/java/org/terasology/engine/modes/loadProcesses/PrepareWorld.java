@@ -24,6 +24,8 @@
 import org.terasology.engine.modes.LoadProcess;
 import org.terasology.rendering.world.WorldRenderer;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -65,4 +67,13 @@ public int getExpectedCost() {
         return 5;
     }
 
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return null;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return false;
+    }
 }
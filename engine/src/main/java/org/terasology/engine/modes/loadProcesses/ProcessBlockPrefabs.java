@@ -15,12 +15,16 @@
  */
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.block.internal.BlockManagerImpl;
 import org.terasology.world.block.internal.BlockPrefabManager;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -42,4 +46,9 @@ public boolean step() {
     public int getExpectedCost() {
         return 1;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return ImmutableSet.<Class<? extends LoadProcess>>of(RegisterBlocks.class, LoadPrefabs.class);
+    }
 }
@@ -16,9 +16,11 @@
 
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
 import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.engine.module.Module;
 import org.terasology.engine.module.ModuleManager;
@@ -81,4 +83,14 @@ private void loadFamilies(DefaultBlockFamilyFactoryRegistry registry, Reflection
     public int getExpectedCost() {
         return 1;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return ImmutableSet.<Class<? extends LoadProcess>>of(ModuleSetupProcess.class);
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
 }
@@ -16,7 +16,9 @@
 
 package org.terasology.engine.modes.loadProcesses;
 
+import com.google.common.collect.ImmutableSet;
 import org.terasology.config.Config;
+import org.terasology.engine.modes.LoadProcess;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.game.GameManifest;
 import org.terasology.network.NetworkSystem;
@@ -26,6 +28,8 @@
 import org.terasology.world.block.loader.WorldAtlas;
 import org.terasology.world.block.loader.WorldAtlasImpl;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -45,7 +49,8 @@ public String getMessage() {
     @Override
     public boolean step() {
         NetworkSystem networkSystem = CoreRegistry.get(NetworkSystem.class);
-        WorldAtlas atlas = new WorldAtlasImpl(CoreRegistry.get(Config.class).getRendering().getMaxTextureAtlasResolution());
+        Config config = CoreRegistry.get(Config.class);
+        WorldAtlas atlas = new WorldAtlasImpl(config.getRendering().getMaxTextureAtlasResolution(), config.getSystem().isTextureAtlasCacheEnabled());
         CoreRegistry.put(WorldAtlas.class, atlas);
 
         BlockManagerImpl blockManager;
@@ -66,4 +71,8 @@ public int getExpectedCost() {
         return 1;
     }
 
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return ImmutableSet.<Class<? extends LoadProcess>>of(ModuleSetupProcess.class, RegisterBlockFamilyFactories.class);
+    }
 }
@@ -28,7 +28,7 @@
 /**
  * @author Immortius
  */
-public class RegisterMods extends SingleStepLoadProcess {
+public class RegisterMods extends SingleStepLoadProcess implements ModuleSetupProcess {
 
     private GameManifest gameManifest;
 
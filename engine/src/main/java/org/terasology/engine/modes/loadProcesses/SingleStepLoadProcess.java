@@ -17,6 +17,8 @@
 
 import org.terasology.engine.modes.LoadProcess;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -30,4 +32,14 @@ public void begin() {
     public float getProgress() {
         return 0;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return null;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return false;
+    }
 }
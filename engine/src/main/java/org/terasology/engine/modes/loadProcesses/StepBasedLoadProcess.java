@@ -17,6 +17,8 @@
 
 import org.terasology.engine.modes.LoadProcess;
 
+import java.util.Set;
+
 /**
  * @author Immortius
  */
@@ -37,4 +39,14 @@ protected void setTotalSteps(int amount) {
     public final float getProgress() {
         return (float) Math.min(totalSteps, stepsComplete) / totalSteps;
     }
+
+    @Override
+    public Set<Class<? extends LoadProcess>> getDependencies() {
+        return null;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return false;
+    }
 }
@@ -43,6 +43,9 @@ public class ExtensionModule implements Module {
     private ClassLoader inactiveClassLoader;
     private ClassLoader activeClassLoader;
     private Reflections reflections;
+    // The scan of the module's code, which doesn't depend on the classloader and is kept when it changes
+    private Reflections scan;
+    private ModuleReflectionsCache reflectionsCache;
     private String id;
     private Version version;
 
@@ -66,20 +69,31 @@ void disable() {
     }
 
     URL getModuleClasspathUrl() {
-        try {
-            if (Files.isDirectory(moduleRoot)) {
-                Path classesDir = moduleRoot.resolve("build/classes");
-                if (Files.isDirectory(classesDir)) {
-                    return classesDir.toUri().toURL();
-                }
-            } else if (Files.isRegularFile(moduleRoot)) {
-                String extension = com.google.common.io.Files.getFileExtension(moduleRoot.getFileName().toString());
-                if (extension.equals("jar")) {
-                    return moduleRoot.toUri().toURL();
-                }
+        Path codePath = getModuleCodePath();
+        if (codePath != null) {
+            try {
+                return codePath.toUri().toURL();
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The jar or class folder holding the code of the module, or null if it has no code
+     */
+    private Path getModuleCodePath() {
+        if (Files.isDirectory(moduleRoot)) {
+            Path classesDir = moduleRoot.resolve("build/classes");
+            if (Files.isDirectory(classesDir)) {
+                return classesDir;
+            }
+        } else if (Files.isRegularFile(moduleRoot)) {
+            String extension = com.google.common.io.Files.getFileExtension(moduleRoot.getFileName().toString());
+            if (extension.equals("jar")) {
+                return moduleRoot;
             }
-        } catch (MalformedURLException e) {
-            return null;
         }
         return null;
     }
@@ -97,20 +111,48 @@ public Version getVersion() {
     @Override
     public Reflections getReflections() {
         if (reflections == null) {
-            URL url = getModuleClasspathUrl();
-            if (url != null) {
-                ConfigurationBuilder configurationBuilder = new ConfigurationBuilder().addUrls(url).setScanners(new TypeAnnotationsScanner(), new SubTypesScanner());
+            Reflections moduleScan = loadScan();
+            if (moduleScan != null) {
+                ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
                 if (activeClassLoader != null) {
                     configurationBuilder.addClassLoader(activeClassLoader);
                 } else {
                     configurationBuilder.addClassLoader(inactiveClassLoader);
                 }
+                // We don't submit any urls as we don't want to scan again (merging in the scan instead)
                 reflections = new Reflections(configurationBuilder);
+                reflections.merge(moduleScan);
             }
         }
         return reflections;
     }
 
+    /**
+     * Scans the code of the module, or reads the scan from the reflections cache if it is up to date. This may be called
+     * from any thread, so that the modules can be scanned in parallel.
+     *
+     * @return The scan of the module's code, or null if it has no code
+     */
+    synchronized Reflections loadScan() {
+        if (scan == null) {
+            Path codePath = getModuleCodePath();
+            URL url = getModuleClasspathUrl();
+            if (codePath != null && url != null) {
+                String cacheName = id + "-" + version;
+                if (reflectionsCache != null) {
+                    scan = reflectionsCache.load(cacheName, codePath);
+                }
+                if (scan == null) {
+                    scan = new Reflections(new ConfigurationBuilder().addUrls(url).setScanners(new TypeAnnotationsScanner(), new SubTypesScanner()));
+                    if (reflectionsCache != null) {
+                        reflectionsCache.save(cacheName, codePath, scan);
+                    }
+                }
+            }
+        }
+        return scan;
+    }
+
     @Override
     public boolean isCodeModule() {
         return getModuleClasspathUrl() != null;
@@ -125,6 +167,10 @@ void setInactiveClassLoader(ClassLoader inactiveClassLoader) {
         this.inactiveClassLoader = inactiveClassLoader;
     }
 
+    void setReflectionsCache(ModuleReflectionsCache reflectionsCache) {
+        this.reflectionsCache = reflectionsCache;
+    }
+
     @Override
     public ModuleInfo getModuleInfo() {
         return moduleInfo;
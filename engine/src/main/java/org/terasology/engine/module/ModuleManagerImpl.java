@@ -27,6 +27,7 @@
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
@@ -72,6 +73,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -99,6 +105,7 @@ public class ModuleManagerImpl implements ModuleManager {
 
     private ClassLoader[] engineClassLoaders;
     private Config config;
+    private ModuleReflectionsCache moduleReflectionsCache;
 
     public ModuleManagerImpl(ModuleSecurityManager moduleSecurityManager) {
         this(moduleSecurityManager, ModuleManagerImpl.class.getClassLoader());
@@ -109,6 +116,12 @@ private ModuleManagerImpl(ModuleSecurityManager moduleSecurityManager, ClassLoad
         this.moduleSecurityManager = moduleSecurityManager;
 
         config = CoreRegistry.get(Config.class);
+        String engineVersion = TerasologyVersion.getInstance().getGitCommit();
+        if (config.getSystem().isReflectionsCacheEnabled() && !engineVersion.isEmpty()) {
+            // Without a commit there is no telling whether the scanning changed since the cache files were written
+            Path moduleCacheRoot = PathManager.getInstance().getHomePath().resolve("cache").resolve("modules");
+            moduleReflectionsCache = new ModuleReflectionsCache(moduleCacheRoot, engineVersion);
+        }
 
         String filename = "engine-reflections";
 
@@ -250,34 +263,17 @@ public void disableModule(Module module) {
     @Override
     public Reflections loadInactiveReflections() {
         if (allReflections == null) {
-            String filename = "all-reflections";
-
-            allReflections = loadReflectionsFromCacheFile(filename);
-            
-            if (allReflections == null) {
-                List<URL> urls = Lists.newArrayList();
-                for (ExtensionModule module : getExtensionModules()) {
-                    if (module.isCodeModule()) {
-                        urls.add(module.getModuleClasspathUrl());
-                    }
-                }
-    
-                ConfigurationBuilder builder = new ConfigurationBuilder()
-                        .addUrls(urls)
-                        .addClassLoader(allModuleClassLoader);
-                for (ClassLoader engineLoader : engineClassLoaders) {
-                    builder.addClassLoader(engineLoader)
-                            .addUrls(ClasspathHelper.forPackage("org.terasology", engineLoader));
+            ConfigurationBuilder builder = new ConfigurationBuilder().addClassLoader(allModuleClassLoader);
+            for (ClassLoader engineLoader : engineClassLoaders) {
+                builder.addClassLoader(engineLoader);
+            }
+            // We don't submit any urls as we don't want to scan (going to merge in from previous scans)
+            allReflections = new Reflections(builder);
+            allReflections.merge(getEngineReflections());
+            for (Module module : getModules()) {
+                if (module.isCodeModule()) {
+                    allReflections.merge(module.getReflections());
                 }
-                allReflections = new Reflections(builder);
-                allReflections.merge(getEngineReflections());
-                for (Module module : getModules()) {
-                    if (module.isCodeModule()) {
-                        allReflections.merge(module.getReflections());
-                    }
-                }
-                
-                saveReflectionsToCacheFile(allReflections, filename);
             }
         }
         return allReflections;
@@ -341,6 +337,7 @@ public ModuleClassLoader run() {
         for (ExtensionModule module : getExtensionModules()) {
             module.setInactiveClassLoader(allModuleClassLoader);
         }
+        loadModuleScans();
 
         if (activeModuleClassLoader != null) {
             try {
@@ -352,6 +349,46 @@ public ModuleClassLoader run() {
         allReflections = null;
     }
 
+    /**
+     * Scans the code of all the modules in parallel, or reads the scans from the reflections cache where they are up to date.
+     * The scans are needed as soon as modules are listed or enabled.
+     */
+    private void loadModuleScans() {
+        List<Callable<Reflections>> tasks = Lists.newArrayList();
+        for (final ExtensionModule module : getExtensionModules()) {
+            if (module.isCodeModule()) {
+                tasks.add(new Callable<Reflections>() {
+                    @Override
+                    public Reflections call() {
+                        return module.loadScan();
+                    }
+                });
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        Stopwatch sw = Stopwatch.createStarted();
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("Module-Scan-%d").setDaemon(true).build());
+        try {
+            for (Future<Reflections> result : executor.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    // The module is scanned again when its reflections are first used
+                    logger.error("Failed to scan module", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("Loaded the reflections of {} modules in {}ms", tasks.size(), sw.elapsed(TimeUnit.MILLISECONDS));
+    }
+
     private void processModArchive(Path modulePath, Gson gson) {
         try (ZipFile zipFile = new ZipFile(modulePath.toFile())) {
             ZipEntry modInfoEntry = zipFile.getEntry("module.txt");
@@ -391,6 +428,7 @@ private void processModuleInfo(ModuleInfo moduleInfo, Path modulePath, AssetSour
         if (version != null) {
             if (!modules.contains(moduleId, version)) {
                 ExtensionModule module = new ExtensionModule(modulePath, moduleInfo, version, source);
+                module.setReflectionsCache(moduleReflectionsCache);
                 modules.put(moduleId, version, module);
                 logger.info("Discovered module: {}:{} (hasCode = {})", moduleInfo.getDisplayName(), moduleInfo.getVersion(), module.isCodeModule());
             } else {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.engine.module;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.reflections.Reflections;
+import org.reflections.util.ConfigurationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Stores the Reflections scan of each code module in a cache folder, so that a module is only scanned again when its
+ * code or the engine changes. The cache files are named after the module id and version, and a hash of the module's
+ * code, the engine version and {@link #FORMAT_VERSION}. Only the latest cache file of each module version is kept. The
+ * engine version must identify the engine's code, so builds without one (such as source builds) shouldn't use the cache.
+ * <p/>
+ * The cached scans are read without a classloader; they are meant to be merged into a Reflections that has one.
+ */
+class ModuleReflectionsCache {
+    /**
+     * Must be increased whenever the scanning of modules changes, so that the cached scans are discarded
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final Logger logger = LoggerFactory.getLogger(ModuleReflectionsCache.class);
+
+    private final Path cacheRoot;
+    private final String engineVersion;
+
+    /**
+     * @param cacheRoot     The folder to store the cache files in
+     * @param engineVersion The version of the engine, which invalidates all the cache files when it changes. Must not be
+     *                      empty.
+     */
+    ModuleReflectionsCache(Path cacheRoot, String engineVersion) {
+        Preconditions.checkArgument(!engineVersion.isEmpty(), "The engine version must be known to cache reflections");
+        this.cacheRoot = cacheRoot;
+        this.engineVersion = engineVersion;
+    }
+
+    /**
+     * @param moduleName The id and version of the module
+     * @param codePath   The jar or class folder of the module
+     * @return The cached scan of the module's code, or null if there is no cache file for the current code
+     */
+    Reflections load(String moduleName, Path codePath) {
+        Path path;
+        try {
+            path = getCachePath(moduleName, codePath);
+        } catch (IOException e) {
+            logger.warn("Failed to hash the code of module {}", moduleName, e);
+            return null;
+        }
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        Stopwatch sw = Stopwatch.createStarted();
+        try (InputStream is = Files.newInputStream(path, StandardOpenOption.READ)) {
+            Reflections reflections = new Reflections(new ConfigurationBuilder());
+            reflections.collect(is);
+            logger.debug("Read cached reflections of module {} in {}ms", moduleName, sw.elapsed(TimeUnit.MILLISECONDS));
+            return reflections;
+        } catch (IOException | RuntimeException e) {
+            // The serializer wraps parse errors of damaged files in runtime exceptions
+            logger.warn("Failed to read cached reflections of module {}", moduleName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the scan of a module's code, replacing any previous cache file of the module.
+     *
+     * @param moduleName The id and version of the module
+     * @param codePath   The jar or class folder of the module
+     */
+    void save(String moduleName, Path codePath, Reflections reflections) {
+        try {
+            Path path = getCachePath(moduleName, codePath);
+            Files.createDirectories(cacheRoot);
+            Pattern cacheFilePattern = Pattern.compile(Pattern.quote(moduleName) + "-[0-9a-f]{40}\\.xml");
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheRoot)) {
+                for (Path oldPath : stream) {
+                    if (cacheFilePattern.matcher(oldPath.getFileName().toString()).matches() && !oldPath.equals(path)) {
+                        Files.delete(oldPath);
+                    }
+                }
+            }
+            reflections.save(path.toString());
+        } catch (IOException e) {
+            logger.warn("Failed to cache reflections of module {}", moduleName, e);
+        }
+    }
+
+    Path getCachePath(String moduleName, Path codePath) throws IOException {
+        final Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putInt(FORMAT_VERSION);
+        hasher.putString(engineVersion, Charsets.UTF_8);
+        if (Files.isDirectory(codePath)) {
+            // Class folders are only found in development, where hashing the size and date of the files is enough
+            final Path root = codePath;
+            Files.walkFileTree(codePath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    hasher.putString(root.relativize(file).toString(), Charsets.UTF_8);
+                    hasher.putLong(attrs.size());
+                    hasher.putLong(attrs.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } else {
+            hasher.putBytes(com.google.common.io.Files.hash(codePath.toFile(), Hashing.sha1()).asBytes());
+        }
+        return cacheRoot.resolve(moduleName + "-" + hasher.hash().toString() + ".xml");
+    }
+}
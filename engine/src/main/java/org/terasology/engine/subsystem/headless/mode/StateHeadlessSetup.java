@@ -26,6 +26,7 @@
 import org.terasology.game.GameManifest;
 import org.terasology.network.NetworkMode;
 import org.terasology.registry.CoreRegistry;
+import org.terasology.world.chunks.pregeneration.PregenerationRequest;
 import org.terasology.world.internal.WorldInfo;
 import org.terasology.world.time.WorldTime;
 
@@ -40,12 +41,25 @@
  */
 public class StateHeadlessSetup extends StateSetup {
 
+    private PregenerationRequest pregenerationRequest;
+
     public StateHeadlessSetup() {
     }
 
+    /**
+     * @param pregenerationRequest The region of the world to generate and save once the game has started, or null
+     */
+    public StateHeadlessSetup(PregenerationRequest pregenerationRequest) {
+        this.pregenerationRequest = pregenerationRequest;
+    }
+
     @Override
     public void init(GameEngine gameEngine) {
         super.init(gameEngine);
+        if (pregenerationRequest != null) {
+            // Registered permanently to survive the change to the loading state, and removed once the world has started
+            CoreRegistry.putPermanently(PregenerationRequest.class, pregenerationRequest);
+        }
 
         GameManifest gameManifest = new GameManifest();
 
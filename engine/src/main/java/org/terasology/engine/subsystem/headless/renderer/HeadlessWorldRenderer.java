@@ -68,7 +68,7 @@ public class HeadlessWorldRenderer implements WorldRenderer {
     public HeadlessWorldRenderer(WorldProvider worldProvider, ChunkProvider chunkProvider, LocalPlayerSystem localPlayerSystem) {
         this.worldProvider = worldProvider;
         this.chunkProvider = chunkProvider;
-        bulletPhysics = new BulletPhysics(worldProvider);
+        bulletPhysics = new BulletPhysics(worldProvider, CoreRegistry.get(Config.class).getSystem().isPhysicsThreadEnabled());
 
         localPlayerSystem.setPlayerCamera(noCamera);
         config = CoreRegistry.get(Config.class);
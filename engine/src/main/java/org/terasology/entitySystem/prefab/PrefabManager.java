@@ -59,4 +59,12 @@ public interface PrefabManager {
      */
     Collection<Prefab> listPrefabs(Class<? extends Component> withComponent);
 
+    /**
+     * Returns all loaded prefabs that include every one of the supplied Components (which may result in an empty set).
+     *
+     * @param withComponents the Components to filter by
+     * @return Collection containing all prefabs that include all of the supplied Components
+     */
+    Collection<Prefab> listPrefabs(Collection<Class<? extends Component>> withComponents);
+
 }
@@ -15,7 +15,9 @@
  */
 package org.terasology.entitySystem.prefab.internal;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.collect.SetMultimap;
 import org.terasology.asset.AssetManager;
 import org.terasology.asset.AssetType;
 import org.terasology.asset.Assets;
@@ -25,6 +27,7 @@
 import org.terasology.entitySystem.prefab.PrefabManager;
 
 import java.util.Collection;
+import java.util.Set;
 
 /**
  * Basic implementation of PrefabManager.
@@ -35,6 +38,10 @@
  */
 public class PojoPrefabManager implements PrefabManager {
 
+    // Index of the loaded prefabs by the components they include, rebuilt whenever the loaded prefabs change
+    private final SetMultimap<Class<? extends Component>, Prefab> prefabsByComponent = HashMultimap.create();
+    private long indexedModificationCount = -1;
+
     /**
      * {@inheritDoc}
      */
@@ -67,15 +74,57 @@ public Iterable<Prefab> listPrefabs() {
      * {@inheritDoc}
      */
     @Override
-    public Collection<Prefab> listPrefabs(Class<? extends Component> comp) {
-        Collection<Prefab> prefabs = Sets.newHashSet();
+    public synchronized Collection<Prefab> listPrefabs(Class<? extends Component> comp) {
+        return Sets.newHashSet(getPrefabsByComponent().get(comp));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Collection<Prefab> listPrefabs(Collection<Class<? extends Component>> withComponents) {
+        if (withComponents.isEmpty()) {
+            // Prefabs without components are not in the index
+            return Sets.newHashSet(listPrefabs());
+        }
+        SetMultimap<Class<? extends Component>, Prefab> index = getPrefabsByComponent();
 
-        for (Prefab p : CoreRegistry.get(AssetManager.class).listLoadedAssets(AssetType.PREFAB, Prefab.class)) {
-            if (p.getComponent(comp) != null) {
-                prefabs.add(p);
+        // Filter the smallest set of candidates by the other components
+        Set<Prefab> candidates = null;
+        for (Class<? extends Component> comp : withComponents) {
+            Set<Prefab> prefabs = index.get(comp);
+            if (candidates == null || prefabs.size() < candidates.size()) {
+                candidates = prefabs;
+            }
+        }
+        Collection<Prefab> result = Sets.newHashSet();
+        for (Prefab prefab : candidates) {
+            boolean matches = true;
+            for (Class<? extends Component> comp : withComponents) {
+                if (!prefab.hasComponent(comp)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                result.add(prefab);
             }
         }
+        return result;
+    }
 
-        return prefabs;
+    private SetMultimap<Class<? extends Component>, Prefab> getPrefabsByComponent() {
+        AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+        long modificationCount = assetManager.getModificationCount(AssetType.PREFAB);
+        if (modificationCount != indexedModificationCount) {
+            prefabsByComponent.clear();
+            for (Prefab prefab : assetManager.listLoadedAssets(AssetType.PREFAB, Prefab.class)) {
+                for (Component component : prefab.iterateComponents()) {
+                    prefabsByComponent.put(component.getClass(), prefab);
+                }
+            }
+            indexedModificationCount = modificationCount;
+        }
+        return prefabsByComponent;
     }
 }
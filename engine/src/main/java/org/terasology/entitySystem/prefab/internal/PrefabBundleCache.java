@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.prefab.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.protobuf.EntityData;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the prefab data parsed from the json prefab files of each module in a binary bundle per module, so that later
+ * startups can decode the protobuf form of a prefab instead of parsing its json again. The prefabs are keyed by a hash
+ * of the content of their json file, so changed prefabs are parsed again. Bundles written by another engine version or
+ * with another {@link #FORMAT_VERSION} are discarded, as the json format or its parsing may have changed. The engine
+ * version must identify the engine's code, so builds without one (such as source builds) shouldn't use the cache.
+ * <p/>
+ * Bundles are written by {@link #save()}, and then only contain the prefabs that were used since they were read.
+ */
+public class PrefabBundleCache {
+    private static final Logger logger = LoggerFactory.getLogger(PrefabBundleCache.class);
+
+    /**
+     * Must be increased whenever the parsing of json prefabs changes, so that bundles of parsed prefabs are discarded
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String BUNDLE_EXTENSION = ".prefabs";
+
+    private final Path cacheRoot;
+    private final String engineVersion;
+    private final Map<String, Bundle> bundles = Maps.newHashMap();
+
+    /**
+     * @param cacheRoot     The folder to store the bundles in
+     * @param engineVersion The version of the engine, which invalidates all the bundles when it changes. Must not be empty.
+     */
+    public PrefabBundleCache(Path cacheRoot, String engineVersion) {
+        Preconditions.checkArgument(!engineVersion.isEmpty(), "The engine version must be known to cache prefabs");
+        this.cacheRoot = cacheRoot;
+        this.engineVersion = engineVersion;
+    }
+
+    /**
+     * @param moduleId The module providing the prefab
+     * @param hash     The hash of the prefab's json
+     * @return The cached prefab data, or null if the prefab hasn't been cached
+     */
+    public synchronized EntityData.Prefab get(String moduleId, HashCode hash) {
+        Bundle bundle = getBundle(moduleId);
+        EntityData.Prefab prefab = bundle.prefabs.get(hash);
+        if (prefab != null) {
+            bundle.used.add(hash);
+        }
+        return prefab;
+    }
+
+    public synchronized void put(String moduleId, HashCode hash, EntityData.Prefab prefab) {
+        Bundle bundle = getBundle(moduleId);
+        bundle.prefabs.put(hash, prefab);
+        bundle.used.add(hash);
+        bundle.changed = true;
+    }
+
+    /**
+     * Writes the bundles that gained prefabs or contain prefabs that are no longer used.
+     */
+    public synchronized void save() {
+        for (Map.Entry<String, Bundle> entry : bundles.entrySet()) {
+            Bundle bundle = entry.getValue();
+            if (!bundle.changed && bundle.used.size() == bundle.prefabs.size()) {
+                continue;
+            }
+            bundle.prefabs.keySet().retainAll(bundle.used);
+            try {
+                writeBundle(getBundlePath(entry.getKey()), bundle);
+                bundle.changed = false;
+            } catch (IOException e) {
+                logger.warn("Failed to write prefab bundle of module {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    Path getBundlePath(String moduleId) {
+        return cacheRoot.resolve(moduleId + BUNDLE_EXTENSION);
+    }
+
+    private Bundle getBundle(String moduleId) {
+        Bundle bundle = bundles.get(moduleId);
+        if (bundle == null) {
+            bundle = new Bundle();
+            Path path = getBundlePath(moduleId);
+            if (Files.isRegularFile(path)) {
+                try {
+                    readBundle(path, bundle);
+                } catch (IOException e) {
+                    logger.warn("Failed to read prefab bundle of module {}, discarding it", moduleId, e);
+                    bundle.prefabs.clear();
+                }
+            }
+            bundles.put(moduleId, bundle);
+        }
+        return bundle;
+    }
+
+    private void readBundle(Path path, Bundle bundle) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(Files.readAllBytes(path));
+        input.setSizeLimit(Integer.MAX_VALUE);
+        if (input.readRawVarint32() != FORMAT_VERSION || !engineVersion.equals(input.readString())) {
+            logger.debug("Discarding prefab bundle {} of another engine or format version", path);
+            return;
+        }
+        int count = input.readRawVarint32();
+        for (int i = 0; i < count; ++i) {
+            HashCode hash = HashCode.fromBytes(input.readBytes().toByteArray());
+            bundle.prefabs.put(hash, input.readMessage(EntityData.Prefab.PARSER, null));
+        }
+    }
+
+    private void writeBundle(Path path, Bundle bundle) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (OutputStream stream = Files.newOutputStream(path)) {
+            CodedOutputStream output = CodedOutputStream.newInstance(stream);
+            output.writeRawVarint32(FORMAT_VERSION);
+            output.writeStringNoTag(engineVersion);
+            output.writeRawVarint32(bundle.prefabs.size());
+            for (Map.Entry<HashCode, EntityData.Prefab> entry : bundle.prefabs.entrySet()) {
+                output.writeBytesNoTag(ByteString.copyFrom(entry.getKey().asBytes()));
+                output.writeMessageNoTag(entry.getValue());
+            }
+            output.flush();
+        }
+    }
+
+    private static final class Bundle {
+        private final Map<HashCode, EntityData.Prefab> prefabs = Maps.newHashMap();
+        private final Set<HashCode> used = Sets.newHashSet();
+        private boolean changed;
+    }
+}
@@ -16,6 +16,9 @@
 package org.terasology.entitySystem.prefab.internal;
 
 import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import org.terasology.asset.AssetLoader;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.engine.module.Module;
@@ -26,6 +29,7 @@
 import org.terasology.protobuf.EntityData;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -42,8 +46,21 @@ public PrefabLoader() {
 
     @Override
     public PrefabData load(Module module, InputStream stream, List<URL> urls) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, Charsets.UTF_8));
-        EntityData.Prefab prefabData = EntityDataJSONFormat.readPrefab(reader);
+        byte[] content = ByteStreams.toByteArray(stream);
+        PrefabBundleCache bundleCache = CoreRegistry.get(PrefabBundleCache.class);
+        HashCode hash = null;
+        EntityData.Prefab prefabData = null;
+        if (bundleCache != null && module != null) {
+            hash = Hashing.sha1().hashBytes(content);
+            prefabData = bundleCache.get(module.getId(), hash);
+        }
+        if (prefabData == null) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), Charsets.UTF_8));
+            prefabData = EntityDataJSONFormat.readPrefab(reader);
+            if (prefabData != null && hash != null) {
+                bundleCache.put(module.getId(), hash, prefabData);
+            }
+        }
         if (prefabData != null) {
             EngineEntityManager entityManager = CoreRegistry.get(EngineEntityManager.class);
             return new PrefabSerializer(entityManager.getComponentLibrary(), entityManager.getTypeSerializerLibrary()).deserialize(prefabData);
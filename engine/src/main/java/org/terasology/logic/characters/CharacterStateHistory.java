@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.logic.characters;
+
+import org.terasology.entitySystem.entity.EntityRef;
+
+/**
+ * A fixed size history of the states of a character, oldest first. Once full, adding a state drops the oldest one.
+ * <p/>
+ * The states are held in flat primitive arrays rather than as events, and as their times never decrease, the states
+ * around a point in time are found by binary search.
+ */
+public class CharacterStateHistory {
+
+    private final int capacity;
+    private int start;
+    private int size;
+
+    private final long[] times;
+    private final int[] sequenceNumbers;
+    // Three floats per state
+    private final float[] positions;
+    private final float[] velocities;
+    // Four floats per state (x, y, z, w)
+    private final float[] rotations;
+    private final MovementMode[] modes;
+    private final boolean[] grounded;
+    private final float[] yaws;
+    private final float[] pitches;
+    private final float[] footstepDeltas;
+
+    private CharacterStateEvent last;
+
+    // Scratch states, to reuse the state application methods of CharacterStateEvent
+    private final CharacterStateEvent previous = new CharacterStateEvent();
+    private final CharacterStateEvent next = new CharacterStateEvent();
+
+    public CharacterStateHistory(int capacity) {
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.sequenceNumbers = new int[capacity];
+        this.positions = new float[capacity * 3];
+        this.velocities = new float[capacity * 3];
+        this.rotations = new float[capacity * 4];
+        this.modes = new MovementMode[capacity];
+        this.grounded = new boolean[capacity];
+        this.yaws = new float[capacity];
+        this.pitches = new float[capacity];
+        this.footstepDeltas = new float[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The most recently added state, or null if the history is empty
+     */
+    public CharacterStateEvent getLast() {
+        return last;
+    }
+
+    public void add(CharacterStateEvent state) {
+        int slot;
+        if (size < capacity) {
+            slot = (start + size++) % capacity;
+        } else {
+            slot = start;
+            start = (start + 1) % capacity;
+        }
+        times[slot] = state.getTime();
+        sequenceNumbers[slot] = state.getSequenceNumber();
+        positions[slot * 3] = state.getPosition().x;
+        positions[slot * 3 + 1] = state.getPosition().y;
+        positions[slot * 3 + 2] = state.getPosition().z;
+        velocities[slot * 3] = state.getVelocity().x;
+        velocities[slot * 3 + 1] = state.getVelocity().y;
+        velocities[slot * 3 + 2] = state.getVelocity().z;
+        rotations[slot * 4] = state.getRotation().x;
+        rotations[slot * 4 + 1] = state.getRotation().y;
+        rotations[slot * 4 + 2] = state.getRotation().z;
+        rotations[slot * 4 + 3] = state.getRotation().w;
+        modes[slot] = state.getMode();
+        grounded[slot] = state.isGrounded();
+        yaws[slot] = state.getYaw();
+        pitches[slot] = state.getPitch();
+        footstepDeltas[slot] = state.getFootstepDelta();
+        last = state;
+    }
+
+    /**
+     * @param index The index of the state, from oldest (0) to newest (size() - 1)
+     * @return The time of the state
+     */
+    public long getTime(int index) {
+        return times[slot(index)];
+    }
+
+    /**
+     * @param time
+     * @return The index of the newest state no later than the given time, or -1 if all states are later
+     */
+    public int indexAtOrBefore(long time) {
+        int low = 0;
+        int high = size - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[slot(mid)] <= time) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sets the entity to its state at the given time: interpolated between the states around the time, or
+     * extrapolated from the newest state if the time is past it. Nothing is changed if the time precedes all states.
+     *
+     * @param entity
+     * @param time
+     * @return Whether the entity was set
+     */
+    public boolean setToTime(EntityRef entity, long time) {
+        int index = indexAtOrBefore(time);
+        if (index < 0) {
+            return false;
+        }
+        read(index, previous);
+        if (index + 1 < size) {
+            read(index + 1, next);
+            CharacterStateEvent.setToInterpolateState(entity, previous, next, time);
+        } else {
+            CharacterStateEvent.setToExtrapolateState(entity, previous, time);
+        }
+        return true;
+    }
+
+    /**
+     * Copies a stored state into the given event.
+     *
+     * @param index  The index of the state, from oldest (0) to newest (size() - 1)
+     * @param output
+     * @return The output event
+     */
+    public CharacterStateEvent read(int index, CharacterStateEvent output) {
+        int slot = slot(index);
+        output.setTime(times[slot]);
+        output.setSequenceNumber(sequenceNumbers[slot]);
+        output.getPosition().set(positions[slot * 3], positions[slot * 3 + 1], positions[slot * 3 + 2]);
+        output.getVelocity().set(velocities[slot * 3], velocities[slot * 3 + 1], velocities[slot * 3 + 2]);
+        output.getRotation().set(rotations[slot * 4], rotations[slot * 4 + 1], rotations[slot * 4 + 2], rotations[slot * 4 + 3]);
+        output.setMode(modes[slot]);
+        output.setGrounded(grounded[slot]);
+        output.setYaw(yaws[slot]);
+        output.setPitch(pitches[slot]);
+        output.setFootstepDelta(footstepDeltas[slot]);
+        return output;
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for history of size " + size);
+        }
+        return (start + index) % capacity;
+    }
+}
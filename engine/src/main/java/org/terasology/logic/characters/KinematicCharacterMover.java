@@ -94,6 +94,24 @@ public class KinematicCharacterMover implements CharacterMover {
     private WorldProvider worldProvider;
     private PhysicsEngine physics;
 
+    // Scratch vectors for the sweeps, reused between steps as a mover only ever runs on one thread
+    private final Vector3f stepDownPosition = new Vector3f();
+    private final Vector3f horizontalDelta = new Vector3f();
+    private final Vector3f upTarget = new Vector3f();
+    private final Vector3f downTarget = new Vector3f();
+    private final Vector3f downDir = new Vector3f();
+    private final Vector3f downMove = new Vector3f();
+    private final Vector3f horizontalDir = new Vector3f();
+    private final Vector3f horizontalTarget = new Vector3f();
+    private final Vector3f horizontalMove = new Vector3f();
+    private final Vector3f lastHitNormal = new Vector3f();
+    private final Vector3f newDir = new Vector3f();
+    private final Vector3f newHorizDir = new Vector3f();
+    private final Vector3f horizNormal = new Vector3f();
+    private final Vector3f modHorizDir = new Vector3f();
+    private final Vector3f reflectDir = new Vector3f();
+    private final Vector3f perpendicularDir = new Vector3f();
+
     public KinematicCharacterMover(WorldProvider wp, PhysicsEngine physicsEngine) {
         this.worldProvider = wp;
         physics = physicsEngine;
@@ -325,13 +343,11 @@ private Vector3f extractResidualMovement(Vector3f hitNormal, Vector3f direction,
         float movementLength = direction.length();
         if (movementLength > physics.getEpsilon()) {
             direction.normalize();
-            Vector3f reflectDir = Vector3fUtil.reflect(direction, hitNormal, new Vector3f());
+            Vector3fUtil.reflect(direction, hitNormal, reflectDir);
             reflectDir.normalize();
-            Vector3f perpendicularDir = Vector3fUtil.getPerpendicularComponent(reflectDir, hitNormal, new Vector3f());
+            Vector3fUtil.getPerpendicularComponent(reflectDir, hitNormal, perpendicularDir);
             if (normalMag != 0.0f) {
-                Vector3f perpComponent = new Vector3f();
-                perpComponent.scale(normalMag * movementLength, perpendicularDir);
-                direction.set(perpComponent);
+                direction.scale(normalMag * movementLength, perpendicularDir);
             }
         }
         return direction;
@@ -388,14 +404,16 @@ private MoveResult move(final Vector3f startPosition, final Vector3f moveDelta,
         if (moveDelta.y > 0) {
             hitTop = moveDelta.y - moveUp(moveDelta.y, collider, position) > physics.getEpsilon();
         }
-        hitSide = moveHorizontal(new Vector3f(moveDelta.x, 0, moveDelta.z), collider, position, slopeFactor, stepHeight);
+        horizontalDelta.set(moveDelta.x, 0, moveDelta.z);
+        hitSide = moveHorizontal(horizontalDelta, collider, position, slopeFactor, stepHeight);
         if (moveDelta.y < 0 || steppedUpDist > 0) {
             float dist = (moveDelta.y < 0) ? moveDelta.y : 0;
             dist -= steppedUpDist;
             hitBottom = moveDown(dist, slopeFactor, collider, position);
         }
         if (!hitBottom && stepHeight > 0) {
-            Vector3f tempPos = new Vector3f(position);
+            Vector3f tempPos = stepDownPosition;
+            tempPos.set(position);
             hitBottom = moveDown(-stepHeight, slopeFactor, collider, tempPos);
             // Don't apply step down if nothing to step onto
             if (hitBottom) {
@@ -407,16 +425,19 @@ private MoveResult move(final Vector3f startPosition, final Vector3f moveDelta,
 
     private boolean moveDown(float dist, float slopeFactor, CharacterCollider collider, Vector3f position) {
         float remainingDist = -dist;
-        Vector3f targetPos = new Vector3f(position);
+        Vector3f targetPos = downTarget;
+        targetPos.set(position);
         targetPos.y -= remainingDist + VERTICAL_PENETRATION_LEEWAY;
-        Vector3f normalizedDir = new Vector3f(0, -1, 0);
+        Vector3f normalizedDir = downDir;
+        normalizedDir.set(0, -1, 0);
         boolean hit = false;
         int iteration = 0;
         while (remainingDist > physics.getEpsilon() && iteration++ < 10) {
             SweepCallback callback = collider.sweep(position, targetPos, VERTICAL_PENETRATION, -1.0f);
             float actualDist = Math.max(0,
                     (remainingDist + VERTICAL_PENETRATION_LEEWAY) * callback.getClosestHitFraction() - VERTICAL_PENETRATION_LEEWAY);
-            Vector3f expectedMove = new Vector3f(targetPos);
+            Vector3f expectedMove = downMove;
+            expectedMove.set(targetPos);
             expectedMove.sub(position);
             if (expectedMove.lengthSquared() > physics.getEpsilon()) {
                 expectedMove.normalize();
@@ -428,7 +449,8 @@ private boolean moveDown(float dist, float slopeFactor, CharacterCollider collid
                 break;
             }
             if (callback.hasHit()) {
-                float originalSlope = callback.getHitNormalWorld().dot(new Vector3f(0, 1, 0));
+                // The dot product with the up vector
+                float originalSlope = callback.getHitNormalWorld().y;
                 if (originalSlope < slopeFactor) {
                     float slope = callback.calculateAverageSlope(originalSlope, CHECK_FORWARD_DIST);
                     if (slope < slopeFactor) {
@@ -480,12 +502,13 @@ private boolean moveHorizontal(Vector3f horizMove, CharacterCollider collider, V
             return false;
         }
         boolean horizontalHit = false;
-        Vector3f normalizedDir = Vector3fUtil.safeNormalize(horizMove, new Vector3f());
-        Vector3f targetPos = new Vector3f(normalizedDir);
+        Vector3f normalizedDir = Vector3fUtil.safeNormalize(horizMove, horizontalDir);
+        Vector3f targetPos = horizontalTarget;
+        targetPos.set(normalizedDir);
         targetPos.scale(dist + HORIZONTAL_PENETRATION_LEEWAY);
         targetPos.add(position);
         int iteration = 0;
-        Vector3f lastHitNormal = new Vector3f(0, 1, 0);
+        lastHitNormal.set(0, 1, 0);
         while (remainingFraction >= 0.01f && iteration++ < 10) {
             SweepCallback callback = collider.sweep(position, targetPos, HORIZONTAL_PENETRATION, slopeFactor);
 
@@ -498,14 +521,15 @@ private boolean moveHorizontal(Vector3f horizMove, CharacterCollider collider, V
             }
             if (callback.hasHit()) {
                 if (actualDist > physics.getEpsilon()) {
-                    Vector3f actualMove = new Vector3f(normalizedDir);
-                    actualMove.scale(actualDist);
-                    position.add(actualMove);
+                    horizontalMove.set(normalizedDir);
+                    horizontalMove.scale(actualDist);
+                    position.add(horizontalMove);
                 }
                 dist -= actualDist;
-                Vector3f newDir = new Vector3f(normalizedDir);
+                newDir.set(normalizedDir);
                 newDir.scale(dist);
-                float slope = callback.getHitNormalWorld().dot(new Vector3f(0, 1, 0));
+                // The dot product with the up vector
+                float slope = callback.getHitNormalWorld().y;
 
                 // We step up if we're hitting a big slope, or if we're grazing 
                 // the ground, otherwise we move up a shallow slope.
@@ -513,9 +537,8 @@ private boolean moveHorizontal(Vector3f horizMove, CharacterCollider collider, V
                     boolean stepping = checkStep(collider, position, newDir, callback, slopeFactor, stepHeight);
                     if (!stepping) {
                         horizontalHit = true;
-                        Vector3f newHorizDir = new Vector3f(newDir.x, 0, newDir.z);
-                        Vector3f horizNormal = new Vector3f(callback.getHitNormalWorld().x, 0,
-                                callback.getHitNormalWorld().z);
+                        newHorizDir.set(newDir.x, 0, newDir.z);
+                        horizNormal.set(callback.getHitNormalWorld().x, 0, callback.getHitNormalWorld().z);
                         if (horizNormal.lengthSquared() > physics.getEpsilon()) {
                             horizNormal.normalize();
                             if (lastHitNormal.dot(horizNormal) > physics.getEpsilon()) {
@@ -528,9 +551,9 @@ private boolean moveHorizontal(Vector3f horizMove, CharacterCollider collider, V
                     }
                 } else {
                     // Hitting a shallow slope, move up it
-                    Vector3f newHorizDir = new Vector3f(newDir.x, 0, newDir.z);
+                    newHorizDir.set(newDir.x, 0, newDir.z);
                     extractResidualMovement(callback.getHitNormalWorld(), newDir);
-                    Vector3f modHorizDir = new Vector3f(newDir);
+                    modHorizDir.set(newDir);
                     modHorizDir.y = 0;
                     newDir.scale(newHorizDir.length() / modHorizDir.length());
                 }
@@ -558,8 +581,8 @@ private boolean moveHorizontal(Vector3f horizMove, CharacterCollider collider, V
     }
 
     private float moveUp(float riseAmount, CharacterCollider collider, Vector3f position) {
-        Vector3f to = new Vector3f(position.x, position.y + riseAmount + VERTICAL_PENETRATION_LEEWAY, position.z);
-        SweepCallback callback = collider.sweep(position, to, VERTICAL_PENETRATION_LEEWAY, -1f);
+        upTarget.set(position.x, position.y + riseAmount + VERTICAL_PENETRATION_LEEWAY, position.z);
+        SweepCallback callback = collider.sweep(position, upTarget, VERTICAL_PENETRATION_LEEWAY, -1f);
         if (callback.hasHit()) {
             float actualDist = Math.max(0,
                     ((riseAmount + VERTICAL_PENETRATION_LEEWAY) * callback.getClosestHitFraction()) - VERTICAL_PENETRATION_LEEWAY);
@@ -16,6 +16,7 @@
 
 package org.terasology.logic.characters;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,13 +37,16 @@
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.network.NetworkSystem;
 import org.terasology.physics.engine.PhysicsEngine;
-import org.terasology.utilities.collection.CircularBuffer;
 import org.terasology.world.WorldProvider;
 
 import javax.vecmath.Vector3f;
+import java.util.List;
 import java.util.Map;
 
 /**
+ * Input received for remote characters is queued, and the queued input of all characters is stepped through together
+ * once per update (or before lag compensation), after which each character is set to its newest state only once.
+ *
  * @author Immortius
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
@@ -73,8 +77,9 @@ public class ServerCharacterPredictionSystem extends BaseComponentSystem impleme
     private NetworkSystem networkSystem;
 
     private CharacterMover characterMover;
-    private Map<EntityRef, CircularBuffer<CharacterStateEvent>> characterStates = Maps.newHashMap();
+    private Map<EntityRef, CharacterStateHistory> characterStates = Maps.newHashMap();
     private Map<EntityRef, CharacterMoveInputEvent> lastInputEvent = Maps.newHashMap();
+    private Map<EntityRef, List<CharacterMoveInputEvent>> pendingInput = Maps.newLinkedHashMap();
     private long nextSendState;
 
     @Override
@@ -86,7 +91,7 @@ public void initialise() {
     @ReceiveEvent(components = {CharacterMovementComponent.class, LocationComponent.class})
     public void onCreate(final OnActivatedComponent event, final EntityRef entity) {
         physics.getCharacterCollider(entity);
-        CircularBuffer<CharacterStateEvent> stateBuffer = CircularBuffer.create(BUFFER_SIZE);
+        CharacterStateHistory stateBuffer = new CharacterStateHistory(BUFFER_SIZE);
         stateBuffer.add(createInitialState(entity));
         characterStates.put(entity, stateBuffer);
     }
@@ -96,11 +101,13 @@ public void onDestroy(final BeforeDeactivateComponent event, final EntityRef ent
         physics.removeCharacterCollider(entity);
         characterStates.remove(entity);
         lastInputEvent.remove(entity);
+        pendingInput.remove(entity);
     }
 
     @ReceiveEvent
     public void onSetMovementModeEvent(SetMovementModeEvent event, EntityRef character, CharacterMovementComponent movementComponent) {
-        CircularBuffer<CharacterStateEvent> stateBuffer = characterStates.get(character);
+        processPendingInput();
+        CharacterStateHistory stateBuffer = characterStates.get(character);
         CharacterStateEvent lastState = stateBuffer.getLast();
         CharacterStateEvent newState = new CharacterStateEvent(lastState);
         newState.setSequenceNumber(lastState.getSequenceNumber());
@@ -119,18 +126,67 @@ public void onSetMovementModeEvent(SetMovementModeEvent event, EntityRef charact
 
     @ReceiveEvent(components = {CharacterMovementComponent.class, LocationComponent.class})
     public void onPlayerInput(CharacterMoveInputEvent input, EntityRef entity) {
+        if (entity.equals(localPlayer.getCharacterEntity())) {
+            // Don't hold back the host's own character for a frame
+            CharacterStateHistory stateBuffer = characterStates.get(entity);
+            CharacterStateEvent lastState = stateBuffer.getLast();
+            stepInput(input, entity, stateBuffer);
+            if (stateBuffer.getLast() != lastState) {
+                CharacterStateEvent.setToState(entity, stateBuffer.getLast());
+            }
+            return;
+        }
+        List<CharacterMoveInputEvent> inputs = pendingInput.get(entity);
+        if (inputs == null) {
+            inputs = Lists.newArrayList();
+            pendingInput.put(entity, inputs);
+        }
+        inputs.add(input);
+    }
+
+    /**
+     * Steps every character through its queued input, in the order received, and sets each moved character to its
+     * newest state.
+     * <p/>
+     * Stepping sends events, whose handlers may queue more input, change a movement mode (which processes the input
+     * queued so far) or destroy a character, so the queue is swapped for a fresh one before it is processed.
+     */
+    private void processPendingInput() {
+        if (pendingInput.isEmpty()) {
+            return;
+        }
+        Map<EntityRef, List<CharacterMoveInputEvent>> processing = pendingInput;
+        pendingInput = Maps.newLinkedHashMap();
+        for (Map.Entry<EntityRef, List<CharacterMoveInputEvent>> entry : processing.entrySet()) {
+            EntityRef entity = entry.getKey();
+            CharacterStateHistory stateBuffer = characterStates.get(entity);
+            if (stateBuffer == null) {
+                continue;
+            }
+            CharacterStateEvent lastState = stateBuffer.getLast();
+            for (CharacterMoveInputEvent input : entry.getValue()) {
+                if (characterStates.get(entity) != stateBuffer) {
+                    // Destroyed by the events of an earlier step
+                    break;
+                }
+                stepInput(input, entity, stateBuffer);
+            }
+            if (stateBuffer.getLast() != lastState && characterStates.get(entity) == stateBuffer) {
+                CharacterStateEvent.setToState(entity, stateBuffer.getLast());
+            }
+        }
+    }
+
+    private void stepInput(CharacterMoveInputEvent input, EntityRef entity, CharacterStateHistory stateBuffer) {
         CharacterCollider characterCollider = physics.getCharacterCollider(entity);
         if (characterCollider.isPending()) {
             logger.debug("Skipping input, collision not yet established");
             return;
         }
-        CircularBuffer<CharacterStateEvent> stateBuffer = characterStates.get(entity);
         CharacterStateEvent lastState = stateBuffer.getLast();
         if (input.getDelta() + lastState.getTime() < time.getGameTimeInMs() + MAX_INPUT_OVERFLOW) {
             CharacterStateEvent newState = stepState(input, lastState, entity);
             stateBuffer.add(newState);
-
-            CharacterStateEvent.setToState(entity, newState);
             lastInputEvent.put(entity, input);
         } else {
             logger.warn("Received too much input from {}, dropping input.", entity);
@@ -148,9 +204,10 @@ private CharacterStateEvent stepState(CharacterMoveInputEvent input, CharacterSt
 
     @Override
     public void update(float delta) {
+        processPendingInput();
         if (nextSendState < time.getGameTimeInMs()) {
             long lastSendTime = nextSendState - TIME_BETWEEN_STATE_REPLICATE;
-            for (Map.Entry<EntityRef, CircularBuffer<CharacterStateEvent>> entry : characterStates.entrySet()) {
+            for (Map.Entry<EntityRef, CharacterStateHistory> entry : characterStates.entrySet()) {
                 if (entry.getValue().size() > 0) {
                     CharacterStateEvent state = entry.getValue().getLast();
                     if (state.getTime() >= lastSendTime) {
@@ -160,7 +217,8 @@ public void update(float delta) {
                         CharacterMoveInputEvent lastInput = lastInputEvent.get(entry.getKey());
                         if (lastInput != null) {
                             CharacterMoveInputEvent newInput = new CharacterMoveInputEvent(lastInput, (int) (time.getGameTimeInMs() - state.getTime()));
-                            onPlayerInput(newInput, entry.getKey());
+                            stepInput(newInput, entry.getKey(), entry.getValue());
+                            CharacterStateEvent.setToState(entry.getKey(), entry.getValue().getLast());
                         }
                         entry.getKey().send(state);
                     }
@@ -169,42 +227,23 @@ public void update(float delta) {
             nextSendState += TIME_BETWEEN_STATE_REPLICATE;
         }
         long renderTime = time.getGameTimeInMs() - RENDER_DELAY;
-        for (Map.Entry<EntityRef, CircularBuffer<CharacterStateEvent>> entry : characterStates.entrySet()) {
+        for (Map.Entry<EntityRef, CharacterStateHistory> entry : characterStates.entrySet()) {
             if (entry.getKey().equals(localPlayer.getCharacterEntity())) {
                 continue;
             }
 
-            setToTime(renderTime, entry.getKey(), entry.getValue());
-        }
-    }
-
-    private void setToTime(long renderTime, EntityRef entity, CircularBuffer<CharacterStateEvent> buffer) {
-        CharacterStateEvent previous = null;
-        CharacterStateEvent next = null;
-        for (CharacterStateEvent state : buffer) {
-            if (state.getTime() <= renderTime) {
-                previous = state;
-            } else {
-                next = state;
-                break;
-            }
-        }
-        if (previous != null) {
-            if (next != null) {
-                CharacterStateEvent.setToInterpolateState(entity, previous, next, renderTime);
-            } else {
-                CharacterStateEvent.setToExtrapolateState(entity, previous, renderTime);
-            }
+            entry.getValue().setToTime(entry.getKey(), renderTime);
         }
     }
 
     @Override
     public void lagCompensate(EntityRef client, long timeMs) {
-        for (Map.Entry<EntityRef, CircularBuffer<CharacterStateEvent>> entry : characterStates.entrySet()) {
+        processPendingInput();
+        for (Map.Entry<EntityRef, CharacterStateHistory> entry : characterStates.entrySet()) {
             if (networkSystem.getOwnerEntity(entry.getKey()).equals(client)) {
                 CharacterStateEvent.setToState(entry.getKey(), entry.getValue().getLast());
             } else {
-                setToTime(timeMs - RENDER_DELAY, entry.getKey(), entry.getValue());
+                entry.getValue().setToTime(entry.getKey(), timeMs - RENDER_DELAY);
             }
         }
     }
@@ -212,8 +251,8 @@ public void lagCompensate(EntityRef client, long timeMs) {
     @Override
     public void restoreToPresent() {
         long renderTime = time.getGameTimeInMs() - RENDER_DELAY;
-        for (Map.Entry<EntityRef, CircularBuffer<CharacterStateEvent>> entry : characterStates.entrySet()) {
-            setToTime(renderTime, entry.getKey(), entry.getValue());
+        for (Map.Entry<EntityRef, CharacterStateHistory> entry : characterStates.entrySet()) {
+            entry.getValue().setToTime(entry.getKey(), renderTime);
         }
     }
 }
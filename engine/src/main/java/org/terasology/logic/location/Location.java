@@ -18,6 +18,9 @@
 
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.entitySystem.event.EventPriority;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterSystem;
@@ -97,6 +100,16 @@ public static void removeChild(EntityRef parent, EntityRef child) {
         }
     }
 
+    @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
+    public void onActivated(OnActivatedComponent event, EntityRef entity, LocationComponent location) {
+        location.invalidateWorldTransform();
+    }
+
+    @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
+    public void onChanged(OnChangedComponent event, EntityRef entity, LocationComponent location) {
+        location.invalidateWorldTransform();
+    }
+
     @ReceiveEvent
     public void onDestroyed(BeforeRemoveComponent event, EntityRef entity, LocationComponent location) {
         if (location.parent.exists()) {
@@ -55,6 +55,12 @@ public final class LocationComponent implements Component, ReplicationCheck {
     @Replicate
     float scale = 1.0f;
 
+    // World transform, cached from the local transform and the parent's world transform until either changes
+    private transient boolean worldTransformDirty = true;
+    private transient Vector3f worldPosition = new Vector3f();
+    private transient Quat4f worldRotation = new Quat4f(0, 0, 0, 1);
+    private transient float worldScale = 1.0f;
+
     public LocationComponent() {
     }
 
@@ -63,7 +69,8 @@ public LocationComponent(Vector3f position) {
     }
 
     /**
-     * @return The position of this component relative to any parent. Can be directly modified to update the component
+     * @return The position of this component relative to any parent. Can be directly modified to update the component,
+     *         but the world transform is only refreshed once the component is saved.
      */
     public Vector3f getLocalPosition() {
         return position;
@@ -71,18 +78,25 @@ public Vector3f getLocalPosition() {
 
     public void setLocalPosition(Vector3f newPos) {
         position.set(newPos);
+        markWorldTransformDirty();
     }
 
+    /**
+     * @return The rotation of this component relative to any parent. Can be directly modified to update the component,
+     *         but the world transform is only refreshed once the component is saved.
+     */
     public Quat4f getLocalRotation() {
         return rotation;
     }
 
     public void setLocalRotation(Quat4f newQuat) {
         rotation.set(newQuat);
+        markWorldTransformDirty();
     }
 
     public void setLocalScale(float value) {
         this.scale = value;
+        markWorldTransformDirty();
     }
 
     public float getLocalScale() {
@@ -97,14 +111,8 @@ public Vector3f getWorldPosition() {
     }
 
     public Vector3f getWorldPosition(Vector3f output) {
-        output.set(position);
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            output.scale(parentLoc.scale);
-            QuaternionUtil.quatRotate(parentLoc.getLocalRotation(), output, output);
-            output.add(parentLoc.position);
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
+        updateWorldTransform();
+        output.set(worldPosition);
         return output;
     }
 
@@ -113,23 +121,14 @@ public Quat4f getWorldRotation() {
     }
 
     public Quat4f getWorldRotation(Quat4f output) {
-        output.set(rotation);
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            output.mul(parentLoc.rotation, output);
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
+        updateWorldTransform();
+        output.set(worldRotation);
         return output;
     }
 
     public float getWorldScale() {
-        float result = scale;
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            result *= parentLoc.getLocalScale();
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
-        return result;
+        updateWorldTransform();
+        return worldScale;
     }
 
     public void setWorldPosition(Vector3f value) {
@@ -142,6 +141,7 @@ public void setWorldPosition(Vector3f value) {
             rot.inverse(parentLoc.getWorldRotation());
             QuaternionUtil.quatRotate(rot, this.position, this.position);
         }
+        markWorldTransformDirty();
     }
 
     public void setWorldRotation(Quat4f value) {
@@ -152,6 +152,7 @@ public void setWorldRotation(Quat4f value) {
             worldRot.inverse();
             this.rotation.mul(worldRot, this.rotation);
         }
+        markWorldTransformDirty();
     }
 
     public void setWorldScale(float value) {
@@ -160,6 +161,7 @@ public void setWorldScale(float value) {
         if (parentLoc != null) {
             this.scale /= parentLoc.getWorldScale();
         }
+        markWorldTransformDirty();
     }
 
     public EntityRef getParent() {
@@ -170,6 +172,56 @@ public Collection<EntityRef> getChildren() {
         return children;
     }
 
+    /**
+     * Marks the cached world transform of this location, and of all locations below it, as out of date.
+     */
+    void markWorldTransformDirty() {
+        if (!worldTransformDirty) {
+            worldTransformDirty = true;
+            markChildrenWorldTransformDirty();
+        }
+    }
+
+    /**
+     * Marks the cached world transform of this location and all locations below it as out of date, regardless of the
+     * current state of this location's cache. Used when the component may have been modified directly, or may have
+     * replaced another instance the children's transforms were derived from.
+     */
+    void invalidateWorldTransform() {
+        worldTransformDirty = true;
+        markChildrenWorldTransformDirty();
+    }
+
+    private void markChildrenWorldTransformDirty() {
+        for (EntityRef child : children) {
+            LocationComponent childLoc = child.getComponent(LocationComponent.class);
+            if (childLoc != null && childLoc != this) {
+                childLoc.markWorldTransformDirty();
+            }
+        }
+    }
+
+    private void updateWorldTransform() {
+        if (!worldTransformDirty) {
+            return;
+        }
+        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
+        if (parentLoc != null) {
+            parentLoc.updateWorldTransform();
+            worldPosition.set(position);
+            worldPosition.scale(parentLoc.worldScale);
+            QuaternionUtil.quatRotate(parentLoc.worldRotation, worldPosition, worldPosition);
+            worldPosition.add(parentLoc.worldPosition);
+            worldRotation.mul(parentLoc.worldRotation, rotation);
+            worldScale = parentLoc.worldScale * scale;
+        } else {
+            worldPosition.set(position);
+            worldRotation.set(rotation);
+            worldScale = scale;
+        }
+        worldTransformDirty = false;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -15,8 +15,6 @@
  */
 package org.terasology.logic.particles;
 
-import com.google.common.collect.Lists;
-import org.terasology.reflection.MappedContainer;
 import org.terasology.entitySystem.Component;
 import org.terasology.rendering.assets.texture.Texture;
 import org.terasology.world.block.family.BlockFamily;
@@ -24,7 +22,6 @@
 import javax.vecmath.Vector2f;
 import javax.vecmath.Vector3f;
 import javax.vecmath.Vector4f;
-import java.util.List;
 
 /**
  * @author Immortius <immortius@gmail.com>
@@ -62,17 +59,4 @@ public enum ParticleBlendMode {
     public Vector3f targetVelocity = new Vector3f();
     public Vector3f acceleration = new Vector3f();
     public boolean collideWithBlocks;
-
-    public List<Particle> particles = Lists.newArrayList();
-
-    @MappedContainer
-    public static class Particle {
-        public Vector3f velocity = new Vector3f();
-        public Vector3f position = new Vector3f();
-        public float size = 1.0f;
-        public float lifeRemaining = 1.0f;
-        public Vector2f texOffset = new Vector2f(0, 0);
-        public Vector2f texSize = new Vector2f(1, 1);
-        public Vector4f color = new Vector4f(1.0f, 1.0f, 1.0f, 1.0f);
-    }
 }
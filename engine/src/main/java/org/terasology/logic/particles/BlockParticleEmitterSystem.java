@@ -15,6 +15,7 @@
  */
 package org.terasology.logic.particles;
 
+import com.google.common.collect.Maps;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
@@ -31,7 +32,6 @@
 import org.terasology.entitySystem.systems.RenderSystem;
 import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.logic.location.LocationComponent;
-import org.terasology.logic.particles.BlockParticleEffectComponent.Particle;
 import org.terasology.registry.In;
 import org.terasology.rendering.assets.material.Material;
 import org.terasology.rendering.assets.texture.Texture;
@@ -50,37 +50,38 @@
 import javax.vecmath.Vector4f;
 import java.nio.FloatBuffer;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Map;
 
+import static org.lwjgl.opengl.GL11.GL_COLOR_ARRAY;
 import static org.lwjgl.opengl.GL11.GL_ONE;
 import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_QUADS;
 import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
-import static org.lwjgl.opengl.GL11.glBegin;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_COORD_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
 import static org.lwjgl.opengl.GL11.glBindTexture;
 import static org.lwjgl.opengl.GL11.glBlendFunc;
-import static org.lwjgl.opengl.GL11.glCallList;
-import static org.lwjgl.opengl.GL11.glDeleteLists;
+import static org.lwjgl.opengl.GL11.glColorPointer;
 import static org.lwjgl.opengl.GL11.glDisable;
+import static org.lwjgl.opengl.GL11.glDisableClientState;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
 import static org.lwjgl.opengl.GL11.glEnable;
-import static org.lwjgl.opengl.GL11.glEnd;
-import static org.lwjgl.opengl.GL11.glEndList;
-import static org.lwjgl.opengl.GL11.glGenLists;
-import static org.lwjgl.opengl.GL11.glNewList;
+import static org.lwjgl.opengl.GL11.glEnableClientState;
 import static org.lwjgl.opengl.GL11.glPopMatrix;
 import static org.lwjgl.opengl.GL11.glPushMatrix;
-import static org.lwjgl.opengl.GL11.glScalef;
+import static org.lwjgl.opengl.GL11.glTexCoordPointer;
 import static org.lwjgl.opengl.GL11.glTranslated;
-import static org.lwjgl.opengl.GL11.glTranslatef;
+import static org.lwjgl.opengl.GL11.glVertexPointer;
 
 /**
  * @author Immortius <immortius@gmail.com>
  */
 // TODO: Generalise for non-block particles
-// TODO: Dispose display lists
 @RegisterSystem(RegisterMode.CLIENT)
 public class BlockParticleEmitterSystem extends BaseComponentSystem implements UpdateSubscriberSystem, RenderSystem {
     private static final int PARTICLES_PER_UPDATE = 32;
+    // Position (3), texture coordinates (2) and color (4)
+    private static final int VERTEX_FLOATS = 9;
 
     @In
     private EntityManager entityManager;
@@ -103,46 +104,44 @@ public class BlockParticleEmitterSystem extends BaseComponentSystem implements U
 
     private Random random = new FastRandom();
     private NearestSortingList sorter = new NearestSortingList();
-    private int displayList;
+    private Map<EntityRef, ParticlePool> particlePools = Maps.newHashMap();
+
+    private FloatBuffer vertexBuffer = BufferUtils.createFloatBuffer(VERTEX_FLOATS * 4 * 256);
+    private FloatBuffer modelViewBuffer = BufferUtils.createFloatBuffer(16);
 
     public void initialise() {
-        if (displayList == 0) {
-            displayList = glGenLists(1);
-            glNewList(displayList, GL11.GL_COMPILE);
-            drawParticle();
-            glEndList();
-        }
         sorter.initialise(worldRenderer.getActiveCamera());
     }
 
     @Override
     public void shutdown() {
-        glDeleteLists(displayList, 1);
         sorter.stop();
+        particlePools.clear();
     }
 
     public void update(float delta) {
+        if (config.getRendering().isRenderNearest()) {
+            sorter.update();
+        }
         for (EntityRef entity : entityManager.getEntitiesWith(BlockParticleEffectComponent.class, LocationComponent.class)) {
             BlockParticleEffectComponent particleEffect = entity.getComponent(BlockParticleEffectComponent.class);
-            Iterator<Particle> iterator = particleEffect.particles.iterator();
-            while (iterator.hasNext()) {
-                BlockParticleEffectComponent.Particle p = iterator.next();
-                p.lifeRemaining -= delta;
-                if (p.lifeRemaining <= 0) {
-                    iterator.remove();
-                } else {
-                    updateVelocity(entity, particleEffect, p, delta);
-                    updatePosition(p, delta);
-                }
+            ParticlePool pool = getParticlePool(entity);
+
+            pool.age(delta);
+            pool.accelerate(delta, particleEffect.targetVelocity, particleEffect.acceleration);
+            if (particleEffect.collideWithBlocks) {
+                collideWithBlocks(entity, pool);
             }
+            pool.move(delta);
 
+            boolean spawned = particleEffect.spawnCount > 0;
             for (int i = 0; particleEffect.spawnCount > 0 && i < PARTICLES_PER_UPDATE; ++i) {
-                spawnParticle(particleEffect);
+                spawnParticle(particleEffect, pool);
             }
 
-            if (particleEffect.particles.size() == 0 && particleEffect.destroyEntityOnCompletion) {
+            if (pool.isEmpty() && particleEffect.destroyEntityOnCompletion) {
                 entity.destroy();
-            } else {
+            } else if (spawned) {
                 entity.saveComponent(particleEffect);
             }
         }
@@ -156,27 +155,40 @@ public void onActivated(OnActivatedComponent event, EntityRef entity) {
     @ReceiveEvent(components = {BlockParticleEffectComponent.class, LocationComponent.class})
     public void onDeactivated(BeforeDeactivateComponent event, EntityRef entity) {
         sorter.remove(entity);
+        particlePools.remove(entity);
     }
 
+    private ParticlePool getParticlePool(EntityRef entity) {
+        ParticlePool pool = particlePools.get(entity);
+        if (pool == null) {
+            pool = new ParticlePool();
+            particlePools.put(entity, pool);
+        }
+        return pool;
+    }
 
-    private void spawnParticle(BlockParticleEffectComponent particleEffect) {
+    private void spawnParticle(BlockParticleEffectComponent particleEffect, ParticlePool pool) {
+        float life = random.nextFloat() * (particleEffect.maxLifespan - particleEffect.minLifespan) + particleEffect.minLifespan;
+        float size = random.nextFloat() * (particleEffect.maxSize - particleEffect.minSize) + particleEffect.minSize;
+        int p = pool.add(life, size);
 
-        Particle p = new Particle();
-        p.lifeRemaining = random.nextFloat() * (particleEffect.maxLifespan - particleEffect.minLifespan) + particleEffect.minLifespan;
-        p.velocity = random.nextVector3f();
-        p.size = random.nextFloat() * (particleEffect.maxSize - particleEffect.minSize) + particleEffect.minSize;
-        p.position.set(
+        Vector3f velocity = random.nextVector3f();
+        pool.setVelocity(p, velocity.x, velocity.y, velocity.z);
+        pool.setPosition(p,
                 random.nextFloat(-particleEffect.spawnRange.x, particleEffect.spawnRange.x),
                 random.nextFloat(-particleEffect.spawnRange.y, particleEffect.spawnRange.y),
                 random.nextFloat(-particleEffect.spawnRange.z, particleEffect.spawnRange.z));
-        p.color = particleEffect.color;
+        pool.setColor(p, particleEffect.color);
 
         if (particleEffect.blockType != null) {
             final float tileSize = worldAtlas.getRelativeTileSize();
-            p.texSize.set(tileSize, tileSize);
+            float texSizeX = tileSize;
+            float texSizeY = tileSize;
 
             Block b = particleEffect.blockType.getArchetypeBlock();
-            p.texOffset.set(b.getPrimaryAppearance().getTextureAtlasPos(BlockPart.FRONT));
+            Vector2f texOffset = b.getPrimaryAppearance().getTextureAtlasPos(BlockPart.FRONT);
+            float texOffsetX = texOffset.x;
+            float texOffsetY = texOffset.y;
 
             if (particleEffect.randBlockTexDisplacement) {
                 final float relTileSize = worldAtlas.getRelativeTileSize();
@@ -184,43 +196,35 @@ private void spawnParticle(BlockParticleEffectComponent particleEffect) {
                         relTileSize * particleEffect.randBlockTexDisplacementScale.y,
                         relTileSize * particleEffect.randBlockTexDisplacementScale.y);
 
-                p.texSize.x *= particleEffect.randBlockTexDisplacementScale.x;
-                p.texSize.y *= particleEffect.randBlockTexDisplacementScale.y;
+                texSizeX *= particleEffect.randBlockTexDisplacementScale.x;
+                texSizeY *= particleEffect.randBlockTexDisplacementScale.y;
 
-                p.texOffset.set(
-                        p.texOffset.x + random.nextFloat() * (tileSize - particleTexSize.x),
-                        p.texOffset.y + random.nextFloat() * (tileSize - particleTexSize.y));
+                texOffsetX += random.nextFloat() * (tileSize - particleTexSize.x);
+                texOffsetY += random.nextFloat() * (tileSize - particleTexSize.y);
             }
+            pool.setTexture(p, texOffsetX, texOffsetY, texSizeX, texSizeY);
         }
 
-        //p.texSize.set(TEX_SIZE,TEX_SIZE);
-        particleEffect.particles.add(p);
         particleEffect.spawnCount--;
     }
 
-    protected void updateVelocity(EntityRef entity, BlockParticleEffectComponent particleEffect, Particle particle, float delta) {
-        Vector3f diff = new Vector3f(particleEffect.targetVelocity);
-        diff.sub(particle.velocity);
-        diff.x *= particleEffect.acceleration.x * delta;
-        diff.y *= particleEffect.acceleration.y * delta;
-        diff.z *= particleEffect.acceleration.z * delta;
-        particle.velocity.add(diff);
-        if (particleEffect.collideWithBlocks) {
-            LocationComponent location = entity.getComponent(LocationComponent.class);
-            Vector3f pos = location.getWorldPosition();
-            pos.add(particle.position);
-            if (worldProvider.getBlock(new Vector3f(pos.x, pos.y + 2 * Math.signum(particle.velocity.y) * particle.size, pos.z)).getId() != 0x0) {
-                particle.velocity.y = 0;
+    /**
+     * Stops the vertical movement of particles that are about to hit a block.
+     */
+    protected void collideWithBlocks(EntityRef entity, ParticlePool pool) {
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        Vector3f worldPos = location.getWorldPosition();
+        Vector3f pos = new Vector3f();
+        for (int i = 0; i < pool.size(); ++i) {
+            pool.getPosition(i, pos);
+            pos.add(worldPos);
+            pos.y += 2 * Math.signum(pool.getVelocityY(i)) * pool.getScale(i);
+            if (worldProvider.getBlock(pos).getId() != 0x0) {
+                pool.setVelocityY(i, 0);
             }
         }
     }
 
-    protected void updatePosition(Particle particle, float delta) {
-        particle.position.x += particle.velocity.x * delta;
-        particle.position.y += particle.velocity.y * delta;
-        particle.position.z += particle.velocity.z * delta;
-    }
-
     public void renderAlphaBlend() {
         if (config.getRendering().isRenderNearest()) {
             render(Arrays.asList(sorter.getNearest(config.getRendering().getParticleEffectLimit())));
@@ -242,6 +246,11 @@ private void render(Iterable<EntityRef> particleEntities) {
                 continue;
             }
 
+            ParticlePool pool = particlePools.get(entity);
+            if (pool == null || pool.isEmpty()) {
+                continue;
+            }
+
             Vector3f worldPos = location.getWorldPosition();
 
             if (!worldProvider.isBlockRelevant(worldPos)) {
@@ -267,11 +276,15 @@ private void render(Iterable<EntityRef> particleEntities) {
                 glBlendFunc(GL_ONE, GL_ONE);
             }
 
+            Vector4f colorMod;
             if (particleEffect.blockType != null) {
-                renderBlockParticles(worldPos, cameraPosition, particleEffect);
+                float temperature = worldProvider.getTemperature(worldPos);
+                float humidity = worldProvider.getHumidity(worldPos);
+                colorMod = particleEffect.blockType.getArchetypeBlock().calcColorOffsetFor(BlockPart.FRONT, temperature, humidity);
             } else {
-                renderParticles(worldPos, cameraPosition, particleEffect);
+                colorMod = new Vector4f(1, 1, 1, 1);
             }
+            renderParticles(worldPos, cameraPosition, pool, colorMod);
 
             if (particleEffect.blendMode == BlockParticleEffectComponent.ParticleBlendMode.ADD) {
                 glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
@@ -281,104 +294,91 @@ private void render(Iterable<EntityRef> particleEntities) {
         glEnable(GL11.GL_CULL_FACE);
     }
 
-    private void renderBlockParticles(Vector3f worldPos, Vector3f cameraPosition, BlockParticleEffectComponent particleEffect) {
-        float temperature = worldProvider.getTemperature(worldPos);
-        float humidity = worldProvider.getHumidity(worldPos);
-
-        glPushMatrix();
-        glTranslated(worldPos.x - cameraPosition.x, worldPos.y - cameraPosition.y, worldPos.z - cameraPosition.z);
-
-        for (Particle particle : particleEffect.particles) {
-            glPushMatrix();
-            glTranslatef(particle.position.x, particle.position.y, particle.position.z);
-            applyOrientation();
-            glScalef(particle.size, particle.size, particle.size);
-
-            float light = worldRenderer.getRenderingLightValueAt(new Vector3f(worldPos.x + particle.position.x,
-                    worldPos.y + particle.position.y, worldPos.z + particle.position.z));
-            renderParticle(particle, particleEffect.blockType.getArchetypeBlock(), temperature, humidity, light);
-            glPopMatrix();
-        }
-        glPopMatrix();
-    }
+    /**
+     * Renders all particles of an effect with a single draw call. The camera facing quads are built on the cpu, with
+     * the texture region, color and light of each particle baked into the vertices.
+     */
+    private void renderParticles(Vector3f worldPos, Vector3f cameraPosition, ParticlePool pool, Vector4f colorMod) {
+        Material mat = Assets.getMaterial("engine:particle");
+        mat.setFloat4("colorOffset", 1.0f, 1.0f, 1.0f, 1.0f, true);
+        mat.setFloat2("texOffset", 0.0f, 0.0f, true);
+        mat.setFloat2("texScale", 1.0f, 1.0f, true);
+        mat.setFloat("light", 1.0f, true);
 
-    private void renderParticles(Vector3f worldPos, Vector3f cameraPosition, BlockParticleEffectComponent particleEffect) {
         glPushMatrix();
         glTranslated(worldPos.x - cameraPosition.x, worldPos.y - cameraPosition.y, worldPos.z - cameraPosition.z);
 
-        for (Particle particle : particleEffect.particles) {
-            glPushMatrix();
-            glTranslatef(particle.position.x, particle.position.y, particle.position.z);
-            applyOrientation();
-            glScalef(particle.size, particle.size, particle.size);
-
-            float light = worldRenderer.getRenderingLightValueAt(new Vector3f(worldPos.x + particle.position.x,
-                    worldPos.y + particle.position.y, worldPos.z + particle.position.z));
-
-            renderParticle(particle, light);
-            glPopMatrix();
+        // The first two rows of the modelview rotation are the view's right and up axes in the effect's space
+        modelViewBuffer.clear();
+        GL11.glGetFloat(GL11.GL_MODELVIEW_MATRIX, modelViewBuffer);
+        Vector3f right = new Vector3f(modelViewBuffer.get(0), modelViewBuffer.get(4), modelViewBuffer.get(8));
+        Vector3f up = new Vector3f(modelViewBuffer.get(1), modelViewBuffer.get(5), modelViewBuffer.get(9));
+        right.normalize();
+        up.normalize();
+
+        int requiredFloats = pool.size() * 4 * VERTEX_FLOATS;
+        if (vertexBuffer.capacity() < requiredFloats) {
+            vertexBuffer = BufferUtils.createFloatBuffer(Integer.highestOneBit(requiredFloats) << 1);
         }
-        glPopMatrix();
-    }
-
-
-    private void applyOrientation() {
-        // Fetch the current modelview matrix
-        final FloatBuffer model = BufferUtils.createFloatBuffer(16);
-        GL11.glGetFloat(GL11.GL_MODELVIEW_MATRIX, model);
-
-        // And undo all rotations and scaling
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (i == j) {
-                    model.put(i * 4 + j, 1.0f);
-                } else {
-                    model.put(i * 4 + j, 0.0f);
-                }
-            }
+        vertexBuffer.clear();
+
+        Vector3f lightPos = new Vector3f();
+        for (int i = 0; i < pool.size(); ++i) {
+            float x = pool.position[i * 3];
+            float y = pool.position[i * 3 + 1];
+            float z = pool.position[i * 3 + 2];
+            float halfSize = 0.5f * pool.scale[i];
+            float rightX = right.x * halfSize;
+            float rightY = right.y * halfSize;
+            float rightZ = right.z * halfSize;
+            float upX = up.x * halfSize;
+            float upY = up.y * halfSize;
+            float upZ = up.z * halfSize;
+
+            float u0 = pool.texOffset[i * 2];
+            float v0 = pool.texOffset[i * 2 + 1];
+            float u1 = u0 + pool.texSize[i * 2];
+            float v1 = v0 + pool.texSize[i * 2 + 1];
+
+            lightPos.set(worldPos.x + x, worldPos.y + y, worldPos.z + z);
+            float light = worldRenderer.getRenderingLightValueAt(lightPos);
+            float r = pool.color[i * 4] * colorMod.x * light;
+            float g = pool.color[i * 4 + 1] * colorMod.y * light;
+            float b = pool.color[i * 4 + 2] * colorMod.z * light;
+            float a = pool.color[i * 4 + 3] * colorMod.w;
+
+            putVertex(x - rightX + upX, y - rightY + upY, z - rightZ + upZ, u0, v0, r, g, b, a);
+            putVertex(x + rightX + upX, y + rightY + upY, z + rightZ + upZ, u1, v0, r, g, b, a);
+            putVertex(x + rightX - upX, y + rightY - upY, z + rightZ - upZ, u1, v1, r, g, b, a);
+            putVertex(x - rightX - upX, y - rightY - upY, z - rightZ - upZ, u0, v1, r, g, b, a);
         }
+        vertexBuffer.flip();
 
-        GL11.glLoadMatrix(model);
-    }
-
-    protected void renderParticle(Particle particle, float light) {
-        Material mat = Assets.getMaterial("engine:particle");
+        glEnableClientState(GL_VERTEX_ARRAY);
+        glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+        glEnableClientState(GL_COLOR_ARRAY);
 
-        mat.setFloat4("colorOffset", particle.color.x, particle.color.y, particle.color.z, particle.color.w, true);
-        mat.setFloat2("texOffset", particle.texOffset.x, particle.texOffset.y, true);
-        mat.setFloat2("texScale", particle.texSize.x, particle.texSize.y, true);
-        mat.setFloat("light", light, true);
+        vertexBuffer.position(0);
+        glVertexPointer(3, VERTEX_FLOATS * 4, vertexBuffer);
+        vertexBuffer.position(3);
+        glTexCoordPointer(2, VERTEX_FLOATS * 4, vertexBuffer);
+        vertexBuffer.position(5);
+        glColorPointer(4, VERTEX_FLOATS * 4, vertexBuffer);
+        vertexBuffer.position(0);
 
-        glCallList(displayList);
-    }
-
-    protected void renderParticle(Particle particle, Block block, float temperature, float humidity, float light) {
-        Material mat = Assets.getMaterial("engine:particle");
+        glDrawArrays(GL_QUADS, 0, pool.size() * 4);
 
-        Vector4f colorMod = block.calcColorOffsetFor(BlockPart.FRONT, temperature, humidity);
-        mat.setFloat4("colorOffset", particle.color.x * colorMod.x, particle.color.y * colorMod.y, particle.color.z * colorMod.z, particle.color.w * colorMod.w, true);
+        glDisableClientState(GL_COLOR_ARRAY);
+        glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+        glDisableClientState(GL_VERTEX_ARRAY);
 
-        mat.setFloat2("texOffset", particle.texOffset.x, particle.texOffset.y, true);
-        mat.setFloat2("texScale", particle.texSize.x, particle.texSize.y, true);
-        mat.setFloat("light", light, true);
-
-        glCallList(displayList);
+        glPopMatrix();
     }
 
-    private void drawParticle() {
-        glBegin(GL_QUADS);
-        GL11.glTexCoord2f(0.0f, 0.0f);
-        GL11.glVertex3f(-0.5f, 0.5f, 0.0f);
-
-        GL11.glTexCoord2f(1.0f, 0.0f);
-        GL11.glVertex3f(0.5f, 0.5f, 0.0f);
-
-        GL11.glTexCoord2f(1.0f, 1.0f);
-        GL11.glVertex3f(0.5f, -0.5f, 0.0f);
-
-        GL11.glTexCoord2f(0.0f, 1.0f);
-        GL11.glVertex3f(-0.5f, -0.5f, 0.0f);
-        glEnd();
+    private void putVertex(float x, float y, float z, float u, float v, float r, float g, float b, float a) {
+        vertexBuffer.put(x).put(y).put(z);
+        vertexBuffer.put(u).put(v);
+        vertexBuffer.put(r).put(g).put(b).put(a);
     }
 
     public void renderOpaque() {
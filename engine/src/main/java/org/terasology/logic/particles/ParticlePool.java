@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.logic.particles;
+
+import javax.vecmath.Vector3f;
+import javax.vecmath.Vector4f;
+import java.util.Arrays;
+
+/**
+ * Holds the live particles of a single particle effect in flat primitive arrays (one array per attribute), which are
+ * reused for the lifetime of the effect. Dead particles are removed by moving the last live particle into their slot,
+ * so live particles always occupy the indices [0, size()).
+ * <p/>
+ * The simulation steps don't depend on the renderer or the world, so they can be run and benchmarked headless.
+ */
+public class ParticlePool {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private int size;
+
+    // Three floats per particle
+    float[] position = new float[INITIAL_CAPACITY * 3];
+    float[] velocity = new float[INITIAL_CAPACITY * 3];
+    // One float per particle
+    float[] scale = new float[INITIAL_CAPACITY];
+    float[] lifeRemaining = new float[INITIAL_CAPACITY];
+    // Two floats per particle
+    float[] texOffset = new float[INITIAL_CAPACITY * 2];
+    float[] texSize = new float[INITIAL_CAPACITY * 2];
+    // Four floats per particle
+    float[] color = new float[INITIAL_CAPACITY * 4];
+
+    /**
+     * @return The number of live particles
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a new particle, at the origin, without velocity and with the whole texture and a white color.
+     *
+     * @param life  The lifespan of the particle, in seconds
+     * @param scale The size of the particle
+     * @return The index of the new particle, valid until the next call to {@link #age(float)}
+     */
+    public int add(float life, float scale) {
+        if (size == lifeRemaining.length) {
+            grow(size * 2);
+        }
+        int index = size++;
+        this.lifeRemaining[index] = life;
+        this.scale[index] = scale;
+        setPosition(index, 0, 0, 0);
+        setVelocity(index, 0, 0, 0);
+        setTexture(index, 0, 0, 1, 1);
+        color[index * 4] = 1.0f;
+        color[index * 4 + 1] = 1.0f;
+        color[index * 4 + 2] = 1.0f;
+        color[index * 4 + 3] = 1.0f;
+        return index;
+    }
+
+    public void setPosition(int index, float x, float y, float z) {
+        position[index * 3] = x;
+        position[index * 3 + 1] = y;
+        position[index * 3 + 2] = z;
+    }
+
+    public void setVelocity(int index, float x, float y, float z) {
+        velocity[index * 3] = x;
+        velocity[index * 3 + 1] = y;
+        velocity[index * 3 + 2] = z;
+    }
+
+    public void setTexture(int index, float offsetX, float offsetY, float sizeX, float sizeY) {
+        texOffset[index * 2] = offsetX;
+        texOffset[index * 2 + 1] = offsetY;
+        texSize[index * 2] = sizeX;
+        texSize[index * 2 + 1] = sizeY;
+    }
+
+    public void setColor(int index, Vector4f value) {
+        color[index * 4] = value.x;
+        color[index * 4 + 1] = value.y;
+        color[index * 4 + 2] = value.z;
+        color[index * 4 + 3] = value.w;
+    }
+
+    public Vector3f getPosition(int index, Vector3f output) {
+        output.set(position[index * 3], position[index * 3 + 1], position[index * 3 + 2]);
+        return output;
+    }
+
+    public float getVelocityY(int index) {
+        return velocity[index * 3 + 1];
+    }
+
+    public void setVelocityY(int index, float value) {
+        velocity[index * 3 + 1] = value;
+    }
+
+    public float getScale(int index) {
+        return scale[index];
+    }
+
+    /**
+     * Reduces the remaining life of all particles, and removes those that have expired.
+     *
+     * @param delta
+     */
+    public void age(float delta) {
+        int i = 0;
+        while (i < size) {
+            lifeRemaining[i] -= delta;
+            if (lifeRemaining[i] <= 0) {
+                // The moved particle is aged when its new slot is visited
+                moveParticle(--size, i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Moves the velocity of all particles towards the target velocity.
+     *
+     * @param delta
+     * @param targetVelocity
+     * @param acceleration   The fraction of the difference to the target velocity, per axis, to apply per second
+     */
+    public void accelerate(float delta, Vector3f targetVelocity, Vector3f acceleration) {
+        float ax = acceleration.x * delta;
+        float ay = acceleration.y * delta;
+        float az = acceleration.z * delta;
+        int end = size * 3;
+        for (int i = 0; i < end; i += 3) {
+            velocity[i] += (targetVelocity.x - velocity[i]) * ax;
+            velocity[i + 1] += (targetVelocity.y - velocity[i + 1]) * ay;
+            velocity[i + 2] += (targetVelocity.z - velocity[i + 2]) * az;
+        }
+    }
+
+    /**
+     * Moves all particles by their velocity.
+     *
+     * @param delta
+     */
+    public void move(float delta) {
+        int end = size * 3;
+        for (int i = 0; i < end; ++i) {
+            position[i] += velocity[i] * delta;
+        }
+    }
+
+    private void moveParticle(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        System.arraycopy(position, from * 3, position, to * 3, 3);
+        System.arraycopy(velocity, from * 3, velocity, to * 3, 3);
+        scale[to] = scale[from];
+        lifeRemaining[to] = lifeRemaining[from];
+        System.arraycopy(texOffset, from * 2, texOffset, to * 2, 2);
+        System.arraycopy(texSize, from * 2, texSize, to * 2, 2);
+        System.arraycopy(color, from * 4, color, to * 4, 4);
+    }
+
+    private void grow(int capacity) {
+        position = Arrays.copyOf(position, capacity * 3);
+        velocity = Arrays.copyOf(velocity, capacity * 3);
+        scale = Arrays.copyOf(scale, capacity);
+        lifeRemaining = Arrays.copyOf(lifeRemaining, capacity);
+        texOffset = Arrays.copyOf(texOffset, capacity * 2);
+        texSize = Arrays.copyOf(texSize, capacity * 2);
+        color = Arrays.copyOf(color, capacity * 4);
+    }
+}
@@ -26,6 +26,7 @@ public class AdvancedMonitor extends JFrame {
     private final ThreadMonitorPanel threadMonitor;
     private final ChunkMonitorPanel chunkMonitor;
     private final PerformanceMonitorPanel perfMonitor;
+    private final AssetMonitorPanel assetMonitor;
 
     public AdvancedMonitor() {
         this("Advanced Monitoring Tool", 10, 10, 800, 600);
@@ -47,9 +48,13 @@ public AdvancedMonitor(String title, int x, int y, int width, int height) {
         perfMonitor = new PerformanceMonitorPanel();
         perfMonitor.setVisible(true);
 
+        assetMonitor = new AssetMonitorPanel();
+        assetMonitor.setVisible(true);
+
         tabs.add("Threads", threadMonitor);
         tabs.add("Chunks", chunkMonitor);
         tabs.add("Performance", perfMonitor);
+        tabs.add("Assets", assetMonitor);
 
         add(tabs, BorderLayout.CENTER);
     }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.gui;
+
+import com.google.common.collect.Lists;
+import org.terasology.asset.AssetCacheStatistics;
+import org.terasology.asset.AssetManager;
+import org.terasology.asset.AssetType;
+import org.terasology.registry.CoreRegistry;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.DecimalFormat;
+import java.util.List;
+
+/**
+ * Displays the asset cache metrics of each asset type: the loaded assets and their size, the cache hits and misses and
+ * the number of assets evicted to keep within the memory budget.
+ */
+@SuppressWarnings("serial")
+public class AssetMonitorPanel extends JPanel {
+
+    private static final int UPDATE_INTERVAL = 1000;
+
+    public AssetMonitorPanel() {
+        setLayout(new BorderLayout());
+        final AssetTableModel model = new AssetTableModel();
+        JTable table = new JTable(model);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        Timer timer = new Timer(UPDATE_INTERVAL, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                model.update();
+            }
+        });
+        timer.start();
+    }
+
+    private static final class AssetTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Type", "Loaded", "Size (MB)", "Budget (MB)", "Hits", "Misses", "Hit Rate", "Evictions"};
+        private static final double BYTES_PER_MB = 1024 * 1024;
+
+        private final DecimalFormat sizeFormat = new DecimalFormat("#####0.00");
+        private final DecimalFormat rateFormat = new DecimalFormat("##0.0%");
+        private List<AssetCacheStatistics> statistics = Lists.newArrayList();
+
+        public void update() {
+            AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+            if (assetManager != null) {
+                List<AssetCacheStatistics> newStatistics = Lists.newArrayList();
+                for (AssetType type : AssetType.values()) {
+                    newStatistics.add(assetManager.getCacheStatistics(type));
+                }
+                statistics = newStatistics;
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return statistics.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            AssetCacheStatistics entry = statistics.get(row);
+            switch (column) {
+                case 0:
+                    return entry.getType().getTypeId();
+                case 1:
+                    return entry.getResidentCount();
+                case 2:
+                    return sizeFormat.format(entry.getResidentSize() / BYTES_PER_MB);
+                case 3:
+                    return (entry.getBudget() > 0) ? sizeFormat.format(entry.getBudget() / BYTES_PER_MB) : "-";
+                case 4:
+                    return entry.getHits();
+                case 5:
+                    return entry.getMisses();
+                case 6:
+                    return rateFormat.format(entry.getHitRate());
+                default:
+                    return entry.getEvictions();
+            }
+        }
+    }
+}
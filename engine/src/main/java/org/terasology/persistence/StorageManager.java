@@ -77,6 +77,14 @@ public interface StorageManager {
 
     void flush() throws IOException;
 
+    /**
+     * Writes the saved chunk stores to disk, without the player and global stores. Unlike {@link #flush()} this does
+     * not read the entity system, so it is safe to call from other threads.
+     *
+     * @throws IOException
+     */
+    void flushChunks() throws IOException;
+
     void shutdown();
 
     void purgeChunks();
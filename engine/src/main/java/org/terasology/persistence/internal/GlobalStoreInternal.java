@@ -17,7 +17,6 @@
 
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.persistence.GlobalStore;
-import org.terasology.protobuf.EntityData;
 
 /**
  * @author Immortius
@@ -39,7 +38,7 @@ public void store(EntityRef entity) {
 
     @Override
     public void save() {
-        EntityData.GlobalStore globalStoreData = globalStoreSaver.save();
-        storageManager.store(globalStoreData);
+        globalStoreSaver.save();
+        storageManager.store(globalStoreSaver);
     }
 }
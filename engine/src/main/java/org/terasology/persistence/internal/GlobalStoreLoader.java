@@ -17,6 +17,8 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import org.slf4j.Logger;
@@ -40,6 +42,8 @@
 import org.terasology.persistence.serializers.PrefabSerializer;
 import org.terasology.protobuf.EntityData;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -49,6 +53,8 @@
 final class GlobalStoreLoader {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalStoreLoader.class);
+    private static final int TAG_TYPE_BITS = 3;
+    private static final int PACKED_FREED_IDS_TAG = (EntityData.GlobalStore.FREED_ENTITY_ID_FIELD_NUMBER << TAG_TYPE_BITS) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
 
     private ModuleManager moduleManager;
     private EngineEntityManager entityManager;
@@ -57,6 +63,9 @@ final class GlobalStoreLoader {
     private EntitySerializer entitySerializer;
     private PrefabSerializer prefabSerializer;
     private List<StoreMetadata> refTables;
+    private List<String> componentClasses;
+    private List<EntityData.Prefab> prefabs;
+    private boolean tablesLoaded;
 
     public GlobalStoreLoader(ModuleManager moduleManager, EngineEntityManager entityManager, PrefabSerializer prefabSerializer) {
         this.entityManager = entityManager;
@@ -67,44 +76,109 @@ public GlobalStoreLoader(ModuleManager moduleManager, EngineEntityManager entity
         this.prefabSerializer = prefabSerializer;
     }
 
-    public void load(EntityData.GlobalStore globalStore) {
+    /**
+     * Loads a global store, reading it a field at a time so the store is never held in memory as a whole.
+     * <p/>
+     * Entities are deserialized as they are read once the component and prefab tables have been read, which is the case for
+     * stores written by {@link GlobalStoreSaver}. For stores where the entities come first they are held until the tables are read.
+     *
+     * @param input The serialized GlobalStore
+     * @throws IOException
+     */
+    public void load(InputStream input) throws IOException {
         entityManager.clear();
-        entityManager.setNextId(globalStore.getNextEntityId());
-        entityManager.getFreedIds().addAll(globalStore.getFreedEntityIdList());
-
-        loadComponentMapping(globalStore);
-        loadMissingPrefabs(globalStore);
-
-        for (EntityData.Entity entityData : globalStore.getEntityList()) {
-            entitySerializer.deserialize(entityData);
-        }
-
-        refTables = Lists.newArrayListWithCapacity(globalStore.getStoreReferenceSetCount());
-        for (EntityData.EntityStoreMetadata metadataData : globalStore.getStoreReferenceSetList()) {
-            TIntSet refs = new TIntHashSet(metadataData.getReferenceList());
-            StoreId id;
-            switch (metadataData.getType()) {
-                case ChunkStoreType:
-                    id = new ChunkStoreId(new Vector3i(metadataData.getStoreIntegerId(0), metadataData.getStoreIntegerId(1), metadataData.getStoreIntegerId(2)));
+        refTables = Lists.newArrayList();
+        componentClasses = Lists.newArrayList();
+        prefabs = Lists.newArrayList();
+        List<EntityData.Entity> heldEntities = Lists.newArrayList();
+        tablesLoaded = false;
+
+        CodedInputStream in = CodedInputStream.newInstance(input);
+        in.setSizeLimit(Integer.MAX_VALUE);
+        int tag = in.readTag();
+        while (tag != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case EntityData.GlobalStore.ENTITY_FIELD_NUMBER:
+                    EntityData.Entity entityData = in.readMessage(EntityData.Entity.PARSER, null);
+                    if (componentClasses.isEmpty()) {
+                        heldEntities.add(entityData);
+                    } else {
+                        loadTables();
+                        entitySerializer.deserialize(entityData);
+                    }
+                    break;
+                case EntityData.GlobalStore.PREFAB_FIELD_NUMBER:
+                    prefabs.add(in.readMessage(EntityData.Prefab.PARSER, null));
+                    break;
+                case EntityData.GlobalStore.COMPONENT_CLASS_FIELD_NUMBER:
+                    componentClasses.add(in.readString());
+                    break;
+                case EntityData.GlobalStore.NEXT_ENTITY_ID_FIELD_NUMBER:
+                    entityManager.setNextId(in.readInt32());
+                    break;
+                case EntityData.GlobalStore.FREED_ENTITY_ID_FIELD_NUMBER:
+                    readFreedIds(tag, in);
+                    break;
+                case EntityData.GlobalStore.STOREREFERENCESET_FIELD_NUMBER:
+                    refTables.add(createStoreMetadata(in.readMessage(EntityData.EntityStoreMetadata.PARSER, null)));
                     break;
                 default:
-                    id = new PlayerStoreId(metadataData.getStoreStringId());
+                    in.skipField(tag);
                     break;
+            }
+            in.resetSizeCounter();
+            tag = in.readTag();
+        }
+
+        loadTables();
+        for (EntityData.Entity entityData : heldEntities) {
+            entitySerializer.deserialize(entityData);
+        }
+    }
 
+    private void readFreedIds(int tag, CodedInputStream in) throws IOException {
+        if (tag == PACKED_FREED_IDS_TAG) {
+            int limit = in.pushLimit(in.readRawVarint32());
+            while (in.getBytesUntilLimit() > 0) {
+                entityManager.getFreedIds().add(in.readInt32());
             }
-            StoreMetadata metadata = new StoreMetadata(id, refs);
-            refTables.add(metadata);
+            in.popLimit(limit);
+        } else {
+            entityManager.getFreedIds().add(in.readInt32());
+        }
+    }
+
+    private void loadTables() {
+        if (!tablesLoaded) {
+            loadComponentMapping();
+            loadMissingPrefabs();
+            tablesLoaded = true;
+        }
+    }
+
+    private StoreMetadata createStoreMetadata(EntityData.EntityStoreMetadata metadataData) {
+        TIntSet refs = new TIntHashSet(metadataData.getReferenceList());
+        StoreId id;
+        switch (metadataData.getType()) {
+            case ChunkStoreType:
+                id = new ChunkStoreId(new Vector3i(metadataData.getStoreIntegerId(0), metadataData.getStoreIntegerId(1), metadataData.getStoreIntegerId(2)));
+                break;
+            default:
+                id = new PlayerStoreId(metadataData.getStoreStringId());
+                break;
+
         }
+        return new StoreMetadata(id, refs);
     }
 
     public List<StoreMetadata> getStoreMetadata() {
         return refTables;
     }
 
-    private void loadMissingPrefabs(EntityData.GlobalStore globalStore) {
+    private void loadMissingPrefabs() {
         // Prefabs that still need to be created, by their name
         Map<String, EntityData.Prefab> pendingPrefabs = Maps.newHashMap();
-        for (EntityData.Prefab prefabData : globalStore.getPrefabList()) {
+        for (EntityData.Prefab prefabData : prefabs) {
             if (!prefabManager.exists(prefabData.getName())) {
                 if (!prefabData.hasParentName()) {
                     Module module = moduleManager.getActiveModule(new SimpleUri(prefabData.getName()).getNormalisedModuleName());
@@ -146,14 +220,14 @@ private Prefab createPrefab(EntityData.Prefab prefabData) {
         return prefab;
     }
 
-    private void loadComponentMapping(EntityData.GlobalStore globalStore) {
+    private void loadComponentMapping() {
         Map<Class<? extends Component>, Integer> componentIdTable = Maps.newHashMap();
-        for (int index = 0; index < globalStore.getComponentClassCount(); ++index) {
-            ComponentMetadata<?> componentMetadata = componentLibrary.resolve(globalStore.getComponentClass(index));
+        for (int index = 0; index < componentClasses.size(); ++index) {
+            ComponentMetadata<?> componentMetadata = componentLibrary.resolve(componentClasses.get(index));
             if (componentMetadata != null) {
                 componentIdTable.put(componentMetadata.getType(), index);
             } else {
-                logger.warn("Unable to resolve component '{}'", globalStore.getComponentClass(index));
+                logger.warn("Unable to resolve component '{}'", componentClasses.get(index));
             }
         }
 
@@ -15,6 +15,7 @@
  */
 package org.terasology.persistence.internal;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.procedure.TIntProcedure;
@@ -29,35 +30,63 @@
 import org.terasology.persistence.serializers.PrefabSerializer;
 import org.terasology.protobuf.EntityData;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
+ * Saves the global store. Persistent entities are serialized in batches on the given executor while further entities are
+ * being stored, and each batch is held only as serialized bytes until it is written.
+ * <p/>
+ * The store is written as a sequence of partial GlobalStore messages - a header with the component and prefab tables and
+ * the entity id information, each batch of entities, and a trailer with the ids of non-persistent entities and the store references. As protobuf merges concatenated
+ * messages, the result is read as a single GlobalStore.
+ *
  * @author Immortius
  */
 final class GlobalStoreSaver {
 
+    private static final int ENTITY_BATCH_SIZE = 256;
+
     private EngineEntityManager entityManager;
-    private EntityData.GlobalStore.Builder store;
+    private ExecutorService executor;
+    private EntityData.GlobalStore.Builder header;
+    private EntityData.GlobalStore.Builder trailer;
     private EntitySerializer entitySerializer;
 
     private TIntSet nonPersistentIds = new TIntHashSet();
+    private List<EntityRef> currentBatch = Lists.newArrayListWithCapacity(ENTITY_BATCH_SIZE);
+    private Deque<Future<byte[]>> pendingBatches = new ArrayDeque<>();
+    private boolean headerWritten;
 
-    public GlobalStoreSaver(EngineEntityManager entityManager, PrefabSerializer prefabSerializer) {
+    public GlobalStoreSaver(EngineEntityManager entityManager, PrefabSerializer prefabSerializer, ExecutorService executor) {
         this.entityManager = entityManager;
-        this.store = EntityData.GlobalStore.newBuilder();
+        this.executor = executor;
+        this.header = EntityData.GlobalStore.newBuilder();
+        this.trailer = EntityData.GlobalStore.newBuilder();
         this.entitySerializer = new EntitySerializer(entityManager);
 
         Map<Class<? extends Component>, Integer> componentIdTable = Maps.newHashMap();
         for (ComponentMetadata<?> componentMetadata : entityManager.getComponentLibrary().iterateComponentMetadata()) {
-            store.addComponentClass(componentMetadata.getUri().toString());
+            header.addComponentClass(componentMetadata.getUri().toString());
             componentIdTable.put(componentMetadata.getType(), componentIdTable.size());
+            // Create the serializers up front, so that the batches don't create them concurrently
+            entityManager.getTypeSerializerLibrary().getSerializerFor(componentMetadata);
         }
         entitySerializer.setComponentIdMapping(componentIdTable);
 
         prefabSerializer.setComponentIdMapping(componentIdTable);
         for (Prefab prefab : entityManager.getPrefabManager().listPrefabs()) {
-            store.addPrefab(prefabSerializer.serialize(prefab));
+            header.addPrefab(prefabSerializer.serialize(prefab));
         }
+        writeIdInfo();
     }
 
     public void addStoreMetadata(StoreMetadata metadata) {
@@ -71,37 +100,117 @@ public void addStoreMetadata(StoreMetadata metadata) {
         }
         if (referenceSet.getReferenceCount() > 0) {
             metadata.getId().setUpIdentity(referenceSet);
-            store.addStoreReferenceSet(referenceSet);
+            trailer.addStoreReferenceSet(referenceSet);
         }
     }
 
     public void store(EntityRef entity) {
         if (entity.isPersistent()) {
-            store.addEntity(entitySerializer.serialize(entity));
+            currentBatch.add(entity);
+            if (currentBatch.size() == ENTITY_BATCH_SIZE) {
+                submitCurrentBatch();
+            }
         } else {
             nonPersistentIds.add(entity.getId());
         }
     }
 
-    public EntityData.GlobalStore save() {
-        writeIdInfo();
+    /**
+     * Completes the store. No further entities can be stored after this.
+     */
+    public void save() {
+        submitCurrentBatch();
+        writeNonPersistentIds();
+    }
+
+    /**
+     * Writes the header and any batches of entities that have finished serializing, in order, without waiting on the remainder.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeCompletedBatches(OutputStream out) throws IOException {
+        writeHeader(out);
+        while (!pendingBatches.isEmpty() && pendingBatches.peek().isDone()) {
+            writeBatch(pendingBatches.poll(), out);
+        }
+    }
+
+    /**
+     * Writes the remainder of the store, waiting for all entities to be serialized. Must be called after {@link #save()}.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        writeHeader(out);
+        while (!pendingBatches.isEmpty()) {
+            writeBatch(pendingBatches.poll(), out);
+        }
+        trailer.build().writeTo(out);
+    }
+
+    private void writeHeader(OutputStream out) throws IOException {
+        if (!headerWritten) {
+            header.build().writeTo(out);
+            header = null;
+            headerWritten = true;
+        }
+    }
 
-        return store.build();
+    private void writeBatch(Future<byte[]> batch, OutputStream out) throws IOException {
+        try {
+            out.write(batch.get());
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to serialize entities", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while serializing entities", e);
+        }
+    }
+
+    private void submitCurrentBatch() {
+        if (!currentBatch.isEmpty()) {
+            pendingBatches.add(executor.submit(new SerializeBatchTask(entitySerializer, currentBatch)));
+            currentBatch = Lists.newArrayListWithCapacity(ENTITY_BATCH_SIZE);
+        }
     }
 
     private void writeIdInfo() {
-        store.setNextEntityId(entityManager.getNextId());
+        header.setNextEntityId(entityManager.getNextId());
         entityManager.getFreedIds().forEach(new TIntProcedure() {
             public boolean execute(int i) {
-                store.addFreedEntityId(i);
+                header.addFreedEntityId(i);
                 return true;
             }
         });
+    }
+
+    private void writeNonPersistentIds() {
         nonPersistentIds.forEach(new TIntProcedure() {
             public boolean execute(int i) {
-                store.addFreedEntityId(i);
+                trailer.addFreedEntityId(i);
                 return true;
             }
         });
     }
+
+    private static class SerializeBatchTask implements Callable<byte[]> {
+        private EntitySerializer entitySerializer;
+        private List<EntityRef> entities;
+
+        public SerializeBatchTask(EntitySerializer entitySerializer, List<EntityRef> entities) {
+            this.entitySerializer = entitySerializer;
+            this.entities = entities;
+        }
+
+        @Override
+        public byte[] call() {
+            EntityData.GlobalStore.Builder batch = EntityData.GlobalStore.newBuilder();
+            for (EntityRef entity : entities) {
+                batch.addEntity(entitySerializer.serialize(entity));
+            }
+            return batch.build().toByteArray();
+        }
+    }
 }
@@ -15,9 +15,11 @@
  */
 package org.terasology.persistence.internal;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
@@ -38,6 +40,8 @@
 import org.terasology.persistence.serializers.PrefabSerializer;
 import org.terasology.protobuf.EntityData;
 import org.terasology.utilities.FilesUtil;
+import org.terasology.utilities.compression.CompressionCodec;
+import org.terasology.utilities.compression.CompressionCodecs;
 import org.terasology.utilities.concurrency.AbstractTask;
 import org.terasology.utilities.concurrency.ShutdownTask;
 import org.terasology.utilities.concurrency.Task;
@@ -46,11 +50,10 @@
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
@@ -62,8 +65,11 @@
 import java.nio.file.spi.FileSystemProvider;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Immortius
@@ -73,7 +79,13 @@ public final class StorageManagerInternal implements StorageManager, EntityDestr
     private static final String WORLDS_PATH = "worlds";
     private static final String PLAYER_STORE_EXTENSION = ".player";
     private static final String GLOBAL_ENTITY_STORE = "global.dat";
+    private static final String GLOBAL_ENTITY_STORE_TEMP = "global.dat.tmp";
+    private static final String CHUNK_INDEX_FILE = "chunks.index";
+    private static final String CHUNK_INDEX_TEMP_FILE = "chunks.index.tmp";
+    private static final String CHUNK_EXTENSION = ".chunk";
+    private static final String CHUNK_ZIP_EXTENSION = ".chunks.zip";
     private static final int BACKGROUND_THREADS = 4;
+    private static final int GLOBAL_STORE_KEEP_ALIVE_SECONDS = 10;
     private static final int CHUNK_ZIP_DIM = 32;
     private static final ImmutableMap<String, String> CREATE_ZIP_OPTIONS = ImmutableMap.of("create", "true", "encoding", "UTF-8");
 
@@ -92,11 +104,14 @@ public final class StorageManagerInternal implements StorageManager, EntityDestr
     private Map<StoreId, StoreMetadata> storeMetadata = Maps.newHashMap();
 
     private Map<Vector3i, ChunkStoreInternal> pendingProcessingChunkStore = Maps.newConcurrentMap();
-    private Map<Vector3i, byte[]> compressedChunkStore = Maps.newConcurrentMap();
+    private ConcurrentMap<Vector3i, byte[]> compressedChunkStore = Maps.newConcurrentMap();
+    private StoredChunkIndex chunkIndex;
 
-    private EntityData.GlobalStore globalStore;
+    private GlobalStoreSaver globalStore;
+    private ExecutorService globalStoreExecutor;
 
     private boolean storeChunksInZips = true;
+    private volatile CompressionCodec chunkCompression = CompressionCodecs.DEFLATE;
 
     public StorageManagerInternal(ModuleManager moduleManager, EngineEntityManager entityManager) {
         this(moduleManager, entityManager, true);
@@ -110,11 +125,28 @@ public StorageManagerInternal(ModuleManager moduleManager, EngineEntityManager e
         entityManager.subscribe(this);
         playersPath = PathManager.getInstance().getCurrentSavePath().resolve(PLAYERS_PATH);
         storageTaskMaster = TaskMaster.createFIFOTaskMaster("Storage", BACKGROUND_THREADS);
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, GLOBAL_STORE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("Global-Store-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        globalStoreExecutor = executor;
+        chunkIndex = loadChunkIndex();
+    }
+
+    /**
+     * Sets the codec used to compress chunks when they are stored. Chunks already stored keep their codec, and
+     * chunks stored with any codec can still be loaded.
+     *
+     * @param codec
+     */
+    public void setChunkCompression(CompressionCodec codec) {
+        this.chunkCompression = Preconditions.checkNotNull(codec);
     }
 
     @Override
     public void shutdown() {
         storageTaskMaster.shutdown(new ShutdownTask(), true);
+        globalStoreExecutor.shutdown();
     }
 
     @Override
@@ -122,6 +154,7 @@ public void purgeChunks() {
         storageTaskMaster.shutdown(new ShutdownTask(), true);
         pendingProcessingChunkStore.clear();
         compressedChunkStore.clear();
+        chunkIndex.clear();
 
         try {
             FilesUtil.recursiveDelete(PathManager.getInstance().getCurrentSavePath()
@@ -135,19 +168,28 @@ public void purgeChunks() {
     }
 
     @Override
-    public void flush() throws IOException {
+    public synchronized void flush() throws IOException {
         flushPlayerStores();
         flushChunkStores();
         flushGlobalStore();
     }
 
+    @Override
+    public synchronized void flushChunks() throws IOException {
+        flushChunkStores();
+    }
+
     @Override
     public GlobalStore createGlobalStoreForSave() {
-        GlobalStoreSaver newGlobalStore = new GlobalStoreSaver(entityManager, prefabSerializer);
+        return new GlobalStoreInternal(createGlobalStoreSaver(), this);
+    }
+
+    private GlobalStoreSaver createGlobalStoreSaver() {
+        GlobalStoreSaver newGlobalStore = new GlobalStoreSaver(entityManager, prefabSerializer, globalStoreExecutor);
         for (StoreMetadata table : storeMetadata.values()) {
             newGlobalStore.addStoreMetadata(table);
         }
-        return new GlobalStoreInternal(newGlobalStore, this);
+        return newGlobalStore;
     }
 
     @Override
@@ -155,9 +197,8 @@ public void loadGlobalStore() throws IOException {
         Path globalDataFile = PathManager.getInstance().getCurrentSavePath().resolve(GLOBAL_ENTITY_STORE);
         if (Files.isRegularFile(globalDataFile)) {
             try (InputStream in = new BufferedInputStream(Files.newInputStream(globalDataFile))) {
-                EntityData.GlobalStore store = EntityData.GlobalStore.parseFrom(in);
                 GlobalStoreLoader loader = new GlobalStoreLoader(moduleManager, entityManager, prefabSerializer);
-                loader.load(store);
+                loader.load(in);
                 for (StoreMetadata refTable : loader.getStoreMetadata()) {
                     storeMetadata.put(refTable.getId(), refTable);
                     indexStoreMetadata(refTable);
@@ -166,22 +207,37 @@ public void loadGlobalStore() throws IOException {
         }
     }
 
-    public void store(EntityData.GlobalStore globalStoreData) {
+    void store(GlobalStoreSaver globalStoreData) {
         this.globalStore = globalStoreData;
     }
 
+    /**
+     * Writes the global store to a temporary file first, so a failure while serializing the entities leaves the previous
+     * store in place.
+     */
     private void flushGlobalStore() throws IOException {
-        if (globalStore == null) {
-            GlobalStore store = createGlobalStoreForSave();
-            for (EntityRef entity : entityManager.getAllEntities()) {
-                store.store(entity);
+        Path savePath = PathManager.getInstance().getCurrentSavePath();
+        Path tempPath = savePath.resolve(GLOBAL_ENTITY_STORE_TEMP);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+                if (globalStore == null) {
+                    // Write the entities out as they are serialized, rather than holding them all until the end
+                    globalStore = createGlobalStoreSaver();
+                    for (EntityRef entity : entityManager.getAllEntities()) {
+                        globalStore.store(entity);
+                        globalStore.writeCompletedBatches(out);
+                    }
+                    globalStore.save();
+                }
+                globalStore.writeTo(out);
             }
-            store.save();
-        }
-        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(PathManager.getInstance().getCurrentSavePath().resolve(GLOBAL_ENTITY_STORE)))) {
-            globalStore.writeTo(out);
+            Files.move(tempPath, savePath.resolve(GLOBAL_ENTITY_STORE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        } finally {
+            globalStore = null;
         }
-        globalStore = null;
     }
 
 
@@ -260,18 +316,20 @@ public ChunkStore loadChunkStore(Vector3i chunkPos) {
                     }
                 }
             }
+            if (chunkData == null && chunkIndex.contains(chunkPos)) {
+                logger.warn("Chunk {} is in the chunk index but is missing from the save", chunkPos);
+            }
             if (chunkData != null) {
                 TIntSet validRefs = null;
                 StoreMetadata table = storeMetadata.get(new ChunkStoreId(chunkPos));
                 if (table != null) {
                     validRefs = table.getExternalReferences();
                 }
-                ByteArrayInputStream bais = new ByteArrayInputStream(chunkData);
-                try (GZIPInputStream gzipIn = new GZIPInputStream(bais)) {
-                    EntityData.ChunkStore storeData = EntityData.ChunkStore.parseFrom(gzipIn);
+                try {
+                    EntityData.ChunkStore storeData = EntityData.ChunkStore.parseFrom(CompressionCodecs.decompress(chunkData));
                     store = new ChunkStoreInternal(storeData, validRefs, this, entityManager);
                 } catch (IOException e) {
-                    logger.error("Failed to read existing saved chunk {}", chunkPos);
+                    logger.error("Failed to read existing saved chunk {}", chunkPos, e);
                 }
             }
         }
@@ -296,22 +354,90 @@ private byte[] loadChunkZip(Vector3i chunkPos) {
 
     @Override
     public boolean containsChunkStoreFor(Vector3i chunkPos) {
-        if (pendingProcessingChunkStore.containsKey(chunkPos) || compressedChunkStore.containsKey(chunkPos)) {
-            return true;
+        return pendingProcessingChunkStore.containsKey(chunkPos) || compressedChunkStore.containsKey(chunkPos) || chunkIndex.contains(chunkPos);
+    }
+
+    /**
+     * Loads the index of the stored chunks, rebuilding it from the stored chunks if it is missing or unreadable. The
+     * index is removed while chunks are being written, so it is also rebuilt if saving was interrupted.
+     */
+    private StoredChunkIndex loadChunkIndex() {
+        Path worldPath = getWorldPath();
+        if (!Files.isDirectory(worldPath)) {
+            return new StoredChunkIndex();
         }
-        if (storeChunksInZips) {
-            Path chunkZipPath = getWorldPath().resolve(getChunkZipFilename(getChunkZipPosition(chunkPos)));
-            if (Files.isRegularFile(chunkZipPath)) {
-                try (FileSystem zip = FileSystems.newFileSystem(chunkZipPath, null)) {
-                    return Files.isRegularFile(zip.getPath(getChunkFilename(chunkPos)));
-                } catch (IOException e) {
-                    logger.error("Failed to access chunk zip {}", chunkZipPath, e);
+        Path indexPath = worldPath.resolve(CHUNK_INDEX_FILE);
+        if (Files.isRegularFile(indexPath)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(indexPath))) {
+                return StoredChunkIndex.read(in);
+            } catch (IOException e) {
+                logger.error("Failed to read chunk index, rebuilding", e);
+            }
+        }
+        StoredChunkIndex index = rebuildChunkIndex(worldPath);
+        try {
+            writeChunkIndex(index);
+        } catch (IOException e) {
+            logger.error("Failed to write chunk index", e);
+        }
+        return index;
+    }
+
+    private StoredChunkIndex rebuildChunkIndex(Path worldPath) {
+        final StoredChunkIndex index = new StoredChunkIndex();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(worldPath)) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (filename.endsWith(CHUNK_EXTENSION)) {
+                    addToChunkIndex(index, filename);
+                } else if (filename.endsWith(CHUNK_ZIP_EXTENSION)) {
+                    try (FileSystem zip = FileSystems.newFileSystem(file, null)) {
+                        for (Path root : zip.getRootDirectories()) {
+                            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                                @Override
+                                public FileVisitResult visitFile(Path chunkFile, BasicFileAttributes attrs) {
+                                    addToChunkIndex(index, chunkFile.getFileName().toString());
+                                    return FileVisitResult.CONTINUE;
+                                }
+                            });
+                        }
+                    } catch (IOException e) {
+                        logger.error("Failed to read chunk zip {}", file, e);
+                    }
                 }
             }
-            return false;
-        } else {
-            return Files.isRegularFile(getWorldPath().resolve(getChunkFilename(chunkPos)));
+        } catch (IOException e) {
+            logger.error("Failed to list stored chunks", e);
+        }
+        logger.info("Rebuilt chunk index, {} chunks stored", index.size());
+        return index;
+    }
+
+    private void addToChunkIndex(StoredChunkIndex index, String chunkFilename) {
+        if (!chunkFilename.endsWith(CHUNK_EXTENSION)) {
+            return;
+        }
+        String[] parts = chunkFilename.substring(0, chunkFilename.length() - CHUNK_EXTENSION.length()).split("\\.");
+        if (parts.length != 3) {
+            return;
+        }
+        try {
+            index.add(new Vector3i(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring unexpected file in chunk storage: {}", chunkFilename);
+        }
+    }
+
+    /**
+     * Writes the chunk index to a temporary file first, so an interrupted write leaves the previous index in place.
+     */
+    private void writeChunkIndex(StoredChunkIndex index) throws IOException {
+        Path worldPath = getWorldPath();
+        Path tempPath = worldPath.resolve(CHUNK_INDEX_TEMP_FILE);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+            index.write(out);
         }
+        Files.move(tempPath, worldPath.resolve(CHUNK_INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
     }
 
     private void flushChunkStores() throws IOException {
@@ -329,12 +455,17 @@ private void flushChunkStores() throws IOException {
         }
 
         storageTaskMaster.shutdown(new ShutdownTask(), true);
+        // Chunks may still be stored from other threads while flushing, so only the chunks compressed so far are written
+        Map<Vector3i, byte[]> chunksToFlush = Maps.newHashMap(compressedChunkStore);
         try {
             Path chunksPath = getWorldPath();
             Files.createDirectories(chunksPath);
+            if (!chunksToFlush.isEmpty()) {
+                Files.deleteIfExists(chunksPath.resolve(CHUNK_INDEX_FILE));
+            }
             if (storeChunksInZips) {
                 Map<Vector3i, FileSystem> newChunkZips = Maps.newHashMap();
-                for (Map.Entry<Vector3i, byte[]> chunkStoreEntry : compressedChunkStore.entrySet()) {
+                for (Map.Entry<Vector3i, byte[]> chunkStoreEntry : chunksToFlush.entrySet()) {
                     Vector3i chunkZipPos = getChunkZipPosition(chunkStoreEntry.getKey());
                     FileSystem zip = newChunkZips.get(chunkZipPos);
                     if (zip == null) {
@@ -374,17 +505,25 @@ public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
                     Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
                 }
             } else {
-                for (Map.Entry<Vector3i, byte[]> chunkStoreEntry : compressedChunkStore.entrySet()) {
+                for (Map.Entry<Vector3i, byte[]> chunkStoreEntry : chunksToFlush.entrySet()) {
                     Path chunkPath = chunksPath.resolve(getChunkFilename(chunkStoreEntry.getKey()));
                     try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
                         out.write(chunkStoreEntry.getValue());
                     }
                 }
             }
+            if (!chunksToFlush.isEmpty()) {
+                for (Vector3i chunkPos : chunksToFlush.keySet()) {
+                    chunkIndex.add(chunkPos);
+                }
+                writeChunkIndex(chunkIndex);
+            }
         } finally {
             storageTaskMaster.restart();
         }
-        compressedChunkStore.clear();
+        for (Map.Entry<Vector3i, byte[]> flushedChunk : chunksToFlush.entrySet()) {
+            compressedChunkStore.remove(flushedChunk.getKey(), flushedChunk.getValue());
+        }
     }
 
     private Path getWorldPath() {
@@ -407,7 +546,7 @@ private Vector3i getChunkZipPosition(Vector3i chunkPos) {
     }
 
     private String getChunkZipFilename(Vector3i pos) {
-        return String.format("%d.%d.%d.chunks.zip", pos.x, pos.y, pos.z);
+        return String.format("%d.%d.%d" + CHUNK_ZIP_EXTENSION, pos.x, pos.y, pos.z);
     }
 
     private String getChunkZipTempFilename(Vector3i pos) {
@@ -415,7 +554,7 @@ private String getChunkZipTempFilename(Vector3i pos) {
     }
 
     private String getChunkFilename(Vector3i pos) {
-        return String.format("%d.%d.%d.chunk", pos.x, pos.y, pos.z);
+        return String.format("%d.%d.%d" + CHUNK_EXTENSION, pos.x, pos.y, pos.z);
     }
 
     public void store(final ChunkStoreInternal chunkStore, TIntSet externalRefs) {
@@ -434,14 +573,12 @@ public String getName() {
                 @Override
                 public void run() {
                     EntityData.ChunkStore store = chunkStore.getStore();
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
-                        store.writeTo(gzipOut);
+                    try {
+                        byte[] b = CompressionCodecs.compress(chunkCompression, store.toByteArray());
+                        compressedChunkStore.put(chunkStore.getChunkPosition(), b);
                     } catch (IOException e) {
                         logger.error("Failed to compress chunk {} for storage.", chunkStore.getChunkPosition(), e);
                     }
-                    byte[] b = baos.toByteArray();
-                    compressedChunkStore.put(chunkStore.getChunkPosition(), b);
                     pendingProcessingChunkStore.remove(chunkStore.getChunkPosition());
                 }
             });
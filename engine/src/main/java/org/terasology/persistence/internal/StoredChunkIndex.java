@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.Maps;
+import org.terasology.math.Vector3i;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * The positions of the chunks stored in a world, as a bitmap per cubic region of chunks. Lets the existence of a
+ * stored chunk be checked in memory rather than by opening the chunk files.
+ * <p/>
+ * Within a region chunks are ordered by y last, so a region of a world that is a single chunk high only takes
+ * REGION_SIZE * REGION_SIZE bits.
+ */
+final class StoredChunkIndex {
+    private static final int MAGIC = 0x54434958;
+    private static final int VERSION = 1;
+
+    private static final int REGION_POWER = 5;
+    private static final int REGION_SIZE = 1 << REGION_POWER;
+    private static final int REGION_MASK = REGION_SIZE - 1;
+
+    private final Map<Vector3i, BitSet> regions = Maps.newHashMap();
+    private int size;
+
+    public synchronized boolean contains(Vector3i chunkPos) {
+        BitSet region = regions.get(getRegionPosition(chunkPos));
+        return region != null && region.get(getBitIndex(chunkPos));
+    }
+
+    public synchronized void add(Vector3i chunkPos) {
+        Vector3i regionPos = getRegionPosition(chunkPos);
+        BitSet region = regions.get(regionPos);
+        if (region == null) {
+            region = new BitSet();
+            regions.put(regionPos, region);
+        }
+        int bitIndex = getBitIndex(chunkPos);
+        if (!region.get(bitIndex)) {
+            region.set(bitIndex);
+            size++;
+        }
+    }
+
+    public synchronized void clear() {
+        regions.clear();
+        size = 0;
+    }
+
+    /**
+     * @return The number of chunks in the index
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void write(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(regions.size());
+        for (Map.Entry<Vector3i, BitSet> region : regions.entrySet()) {
+            dataOut.writeInt(region.getKey().x);
+            dataOut.writeInt(region.getKey().y);
+            dataOut.writeInt(region.getKey().z);
+            long[] bits = region.getValue().toLongArray();
+            dataOut.writeInt(bits.length);
+            for (long word : bits) {
+                dataOut.writeLong(word);
+            }
+        }
+        dataOut.flush();
+    }
+
+    /**
+     * @param in
+     * @return The index read from the stream
+     * @throws IOException If the stream does not hold an index of this version
+     */
+    public static StoredChunkIndex read(InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC) {
+            throw new IOException("Not a chunk index");
+        }
+        int version = dataIn.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported chunk index version " + version);
+        }
+        StoredChunkIndex index = new StoredChunkIndex();
+        int regionCount = dataIn.readInt();
+        for (int i = 0; i < regionCount; ++i) {
+            Vector3i regionPos = new Vector3i(dataIn.readInt(), dataIn.readInt(), dataIn.readInt());
+            int wordCount = dataIn.readInt();
+            if (wordCount < 0 || wordCount > REGION_SIZE * REGION_SIZE * REGION_SIZE / Long.SIZE) {
+                throw new IOException("Invalid chunk index region size " + wordCount);
+            }
+            long[] bits = new long[wordCount];
+            for (int j = 0; j < wordCount; ++j) {
+                bits[j] = dataIn.readLong();
+            }
+            BitSet region = BitSet.valueOf(bits);
+            index.regions.put(regionPos, region);
+            index.size += region.cardinality();
+        }
+        return index;
+    }
+
+    private static Vector3i getRegionPosition(Vector3i chunkPos) {
+        return new Vector3i(chunkPos.x >> REGION_POWER, chunkPos.y >> REGION_POWER, chunkPos.z >> REGION_POWER);
+    }
+
+    private static int getBitIndex(Vector3i chunkPos) {
+        return (chunkPos.x & REGION_MASK) | ((chunkPos.z & REGION_MASK) << REGION_POWER) | ((chunkPos.y & REGION_MASK) << (2 * REGION_POWER));
+    }
+}
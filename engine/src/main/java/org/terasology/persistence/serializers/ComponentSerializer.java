@@ -20,7 +20,7 @@
 import com.google.common.collect.BiMap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
+import com.google.common.collect.MapMaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.module.Module;
@@ -28,12 +28,9 @@
 import org.terasology.entitySystem.metadata.ComponentLibrary;
 import org.terasology.entitySystem.metadata.ComponentMetadata;
 import org.terasology.entitySystem.metadata.ReplicatedFieldMetadata;
-import org.terasology.persistence.typeHandling.DeserializationContext;
-import org.terasology.persistence.typeHandling.PersistedData;
-import org.terasology.persistence.typeHandling.Serializer;
 import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
 import org.terasology.persistence.typeHandling.protobuf.ProtobufDeserializationContext;
-import org.terasology.persistence.typeHandling.protobuf.ProtobufPersistedData;
+import org.terasology.persistence.typeHandling.protobuf.ProtobufSerializer;
 import org.terasology.persistence.typeHandling.protobuf.ProtobufSerializationContext;
 import org.terasology.protobuf.EntityData;
 import org.terasology.reflection.metadata.FieldMetadata;
@@ -61,6 +58,7 @@ public class ComponentSerializer {
     private TypeSerializationLibrary typeSerializationLibrary;
     private ProtobufSerializationContext serializationContext;
     private ProtobufDeserializationContext deserializationContext;
+    private Map<ComponentMetadata<?>, ProtobufSerializer> serializers = new MapMaker().weakKeys().makeMap();
 
     /**
      * Creates the component serializer.
@@ -184,9 +182,7 @@ public Component deserializeOnto(Component target, EntityData.Component componen
 
     private <T extends Component> Component deserializeOnto(Component targetComponent, EntityData.Component componentData,
                                                             ComponentMetadata<T> componentMetadata, FieldSerializeCheck<Component> fieldCheck) {
-        Serializer serializer = typeSerializationLibrary.getSerializerFor(componentMetadata);
-        DeserializationContext context = new ProtobufDeserializationContext(typeSerializationLibrary);
-        Map<FieldMetadata<?, ?>, PersistedData> dataMap = Maps.newHashMapWithExpectedSize(componentData.getFieldCount());
+        ProtobufSerializer serializer = getSerializerFor(componentMetadata);
         for (EntityData.NameValue field : componentData.getFieldList()) {
             FieldMetadata<?, ?> fieldInfo = null;
             if (field.hasNameIndex()) {
@@ -195,12 +191,13 @@ private <T extends Component> Component deserializeOnto(Component targetComponen
                 fieldInfo = componentMetadata.getField(field.getName());
             }
             if (fieldInfo != null) {
-                dataMap.put(fieldInfo, new ProtobufPersistedData(field.getValue()));
+                if (fieldCheck.shouldDeserialize(componentMetadata, fieldInfo)) {
+                    serializer.deserializeOnto(targetComponent, fieldInfo, field.getValue());
+                }
             } else if (field.hasNameIndex()) {
                 logger.warn("Cannot deserialize unknown field '{}' onto '{}'", field.getName(), componentMetadata.getUri());
             }
         }
-        serializer.deserializeOnto(targetComponent, dataMap, context, fieldCheck);
         return targetComponent;
     }
 
@@ -231,12 +228,11 @@ public EntityData.Component serialize(Component component, FieldSerializeCheck<C
         EntityData.Component.Builder componentMessage = EntityData.Component.newBuilder();
         serializeComponentType(componentMetadata, componentMessage);
 
-        Serializer serializer = typeSerializationLibrary.getSerializerFor(componentMetadata);
+        ProtobufSerializer serializer = getSerializerFor(componentMetadata);
         for (ReplicatedFieldMetadata field : componentMetadata.getFields()) {
             if (check.shouldSerializeField(field, component)) {
-                PersistedData result = serializer.serialize(field, component, serializationContext);
-                if (!result.isNull()) {
-                    EntityData.Value itemValue = ((ProtobufPersistedData) result).getValue();
+                EntityData.Value itemValue = serializer.serialize(field, component);
+                if (itemValue != null) {
                     if (usingFieldIds) {
                         componentMessage.addField(EntityData.NameValue.newBuilder().setNameIndex(field.getId()).setValue(itemValue));
                     } else {
@@ -249,6 +245,16 @@ public EntityData.Component serialize(Component component, FieldSerializeCheck<C
         return componentMessage.build();
     }
 
+    private ProtobufSerializer getSerializerFor(ComponentMetadata<?> componentMetadata) {
+        ProtobufSerializer serializer = serializers.get(componentMetadata);
+        if (serializer == null) {
+            serializer = new ProtobufSerializer(componentMetadata, typeSerializationLibrary.getSerializerFor(componentMetadata),
+                    serializationContext, deserializationContext);
+            serializers.put(componentMetadata, serializer);
+        }
+        return serializer;
+    }
+
     private void serializeComponentType(ComponentMetadata<?> componentMetadata, EntityData.Component.Builder componentMessage) {
         Integer compId = idTable.get(componentMetadata.getType());
         if (compId != null) {
@@ -287,7 +293,7 @@ public EntityData.Component serialize(Component base, Component delta, FieldSeri
         EntityData.Component.Builder componentMessage = EntityData.Component.newBuilder();
         serializeComponentType(componentMetadata, componentMessage);
 
-        Serializer serializer = typeSerializationLibrary.getSerializerFor(componentMetadata);
+        ProtobufSerializer serializer = getSerializerFor(componentMetadata);
         boolean changed = false;
         for (ReplicatedFieldMetadata field : componentMetadata.getFields()) {
             if (check.shouldSerializeField(field, delta)) {
@@ -295,9 +301,8 @@ public EntityData.Component serialize(Component base, Component delta, FieldSeri
                 Object deltaValue = field.getValue(delta);
 
                 if (!Objects.equal(origValue, deltaValue)) {
-                    PersistedData value = serializer.serializeValue(field, deltaValue, serializationContext);
-                    if (!value.isNull()) {
-                        EntityData.Value dataValue = ((ProtobufPersistedData) value).getValue();
+                    EntityData.Value dataValue = serializer.serializeValue(field, deltaValue);
+                    if (dataValue != null) {
                         if (usingFieldIds) {
                             componentMessage.addField(EntityData.NameValue.newBuilder().setNameIndex(field.getId()).setValue(dataValue).build());
                         } else {
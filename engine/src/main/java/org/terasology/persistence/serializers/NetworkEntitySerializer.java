@@ -20,6 +20,7 @@
 import com.google.common.collect.BiMap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.protobuf.ByteString;
@@ -34,12 +35,10 @@
 import org.terasology.entitySystem.metadata.ComponentMetadata;
 import org.terasology.entitySystem.metadata.ReplicatedFieldMetadata;
 import org.terasology.entitySystem.prefab.Prefab;
-import org.terasology.persistence.typeHandling.PersistedData;
-import org.terasology.persistence.typeHandling.Serializer;
 import org.terasology.persistence.typeHandling.TypeSerializationLibrary;
 import org.terasology.persistence.typeHandling.protobuf.ProtobufDeserializationContext;
-import org.terasology.persistence.typeHandling.protobuf.ProtobufPersistedData;
 import org.terasology.persistence.typeHandling.protobuf.ProtobufSerializationContext;
+import org.terasology.persistence.typeHandling.protobuf.ProtobufSerializer;
 import org.terasology.protobuf.EntityData;
 
 import java.util.Map;
@@ -57,6 +56,7 @@ public class NetworkEntitySerializer {
     private TypeSerializationLibrary typeSerializationLibrary;
     private ProtobufSerializationContext serializationContext;
     private ProtobufDeserializationContext deserializationContext;
+    private Map<ComponentMetadata<?>, ProtobufSerializer> serializers = new MapMaker().weakKeys().makeMap();
     private BiMap<Class<? extends Component>, Integer> idTable = ImmutableBiMap.<Class<? extends Component>, Integer>builder().build();
 
     public NetworkEntitySerializer(EngineEntityManager entityManager, ComponentLibrary componentLibrary, TypeSerializationLibrary typeSerializationLibrary) {
@@ -152,16 +152,16 @@ private void serializeComponentDelta(Component oldComponent, Component newCompon
         }
 
         byte fieldCount = 0;
-        Serializer serializer = typeSerializationLibrary.getSerializerFor(componentMetadata);
+        ProtobufSerializer serializer = getSerializerFor(componentMetadata);
         for (ReplicatedFieldMetadata field : componentMetadata.getFields()) {
             if (fieldCheck.shouldSerializeField(field, newComponent, componentInitial)) {
                 Object oldValue = field.getValue(oldComponent);
                 Object newValue = field.getValue(newComponent);
                 if (!Objects.equal(oldValue, newValue)) {
-                    PersistedData data = serializer.serializeValue(field, newValue, serializationContext);
-                    if (!data.isNull()) {
+                    EntityData.Value data = serializer.serializeValue(field, newValue);
+                    if (data != null) {
                         entityFieldIds.write(field.getId());
-                        entityData.addFieldValue(((ProtobufPersistedData) data).getValue());
+                        entityData.addFieldValue(data);
                         fieldCount++;
                     } else {
                         logger.error("Exception serializing component type: {}, field: {} - returned null", componentMetadata, field);
@@ -176,6 +176,16 @@ private void serializeComponentDelta(Component oldComponent, Component newCompon
         }
     }
 
+    private ProtobufSerializer getSerializerFor(ComponentMetadata<?> componentMetadata) {
+        ProtobufSerializer serializer = serializers.get(componentMetadata);
+        if (serializer == null) {
+            serializer = new ProtobufSerializer(componentMetadata, typeSerializationLibrary.getSerializerFor(componentMetadata),
+                    serializationContext, deserializationContext);
+            serializers.put(componentMetadata, serializer);
+        }
+        return serializer;
+    }
+
     private void serializeComponentFull(Component component, boolean ignoreIfNoFields, FieldSerializeCheck<Component> fieldCheck,
                                         EntityData.PackedEntity.Builder entityData, ByteString.Output entityFieldIds, ByteString.Output componentFieldCounts,
                                         boolean componentInitial) {
@@ -185,15 +195,15 @@ private void serializeComponentFull(Component component, boolean ignoreIfNoField
             return;
         }
 
-        Serializer serializer = typeSerializationLibrary.getSerializerFor(componentMetadata);
+        ProtobufSerializer serializer = getSerializerFor(componentMetadata);
         byte fieldCount = 0;
         for (ReplicatedFieldMetadata field : componentMetadata.getFields()) {
             if (fieldCheck.shouldSerializeField(field, component, componentInitial)) {
-                PersistedData fieldValue = serializer.serialize(field, component, serializationContext);
-                if (!fieldValue.isNull()) {
+                EntityData.Value fieldValue = serializer.serialize(field, component);
+                if (fieldValue != null) {
                     entityFieldIds.write(field.getId());
 
-                    entityData.addFieldValue(((ProtobufPersistedData) fieldValue).getValue());
+                    entityData.addFieldValue(fieldValue);
                     fieldCount++;
                 }
             }
@@ -230,13 +240,13 @@ public void deserializeOnto(MutableComponentContainer entity, EntityData.PackedE
                 createdNewComponent = true;
                 component = metadata.newInstance();
             }
-            Serializer serializer = typeSerializationLibrary.getSerializerFor(metadata);
+            ProtobufSerializer serializer = getSerializerFor(metadata);
             for (int fieldIndex = 0; fieldIndex < UnsignedBytes.toInt(entityData.getComponentFieldCounts().byteAt(componentIndex)); ++fieldIndex) {
                 byte fieldId = entityData.getFieldIds().byteAt(fieldPos);
                 ReplicatedFieldMetadata fieldMetadata = metadata.getField(fieldId);
                 if (fieldMetadata != null && fieldCheck.shouldDeserialize(metadata, fieldMetadata)) {
                     logger.trace("Deserializing field {} of component {} as value {}", fieldMetadata, metadata, entityData.getFieldValue(fieldPos));
-                    serializer.deserializeOnto(component, fieldMetadata, new ProtobufPersistedData(entityData.getFieldValue(fieldPos)), deserializationContext);
+                    serializer.deserializeOnto(component, fieldMetadata, entityData.getFieldValue(fieldPos));
                 }
                 fieldPos++;
             }
@@ -17,9 +17,11 @@
 package org.terasology.persistence.typeHandling.extensionTypes;
 
 import org.terasology.asset.Asset;
+import org.terasology.asset.AssetManager;
 import org.terasology.asset.AssetType;
 import org.terasology.asset.Assets;
 import org.terasology.persistence.typeHandling.StringRepresentationTypeHandler;
+import org.terasology.registry.CoreRegistry;
 
 /**
  * @author Immortius
@@ -27,10 +29,22 @@
 public class AssetTypeHandler<T extends Asset> extends StringRepresentationTypeHandler<T> {
     private Class<T> assetClass;
     private AssetType type;
+    private boolean pinned;
 
     public AssetTypeHandler(AssetType type, Class<T> assetClass) {
+        this(type, assetClass, true);
+    }
+
+    /**
+     * @param type
+     * @param assetClass
+     * @param pinned     Whether the loaded assets are pinned in the asset cache. Assets of types whose users retain
+     *                   them while they use them need not be, so they can be evicted once no longer in use.
+     */
+    public AssetTypeHandler(AssetType type, Class<T> assetClass, boolean pinned) {
         this.type = type;
         this.assetClass = assetClass;
+        this.pinned = pinned;
     }
 
     @Override
@@ -40,7 +54,8 @@ public String getAsString(T item) {
 
     @Override
     public T getFromString(String representation) {
-        Asset asset = Assets.resolve(type, representation);
+        Asset asset = (pinned) ? Assets.resolve(type, representation)
+                : CoreRegistry.get(AssetManager.class).resolveAndLoadUnpinned(type, representation);
         if (asset != null && assetClass.isAssignableFrom(asset.getClass())) {
             return assetClass.cast(asset);
         }
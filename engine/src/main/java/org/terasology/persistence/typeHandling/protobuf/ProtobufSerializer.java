@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.typeHandling.protobuf;
+
+import com.google.common.collect.Maps;
+import org.terasology.persistence.typeHandling.PersistedData;
+import org.terasology.persistence.typeHandling.Serializer;
+import org.terasology.persistence.typeHandling.TypeHandler;
+import org.terasology.persistence.typeHandling.coreTypes.BooleanTypeHandler;
+import org.terasology.persistence.typeHandling.coreTypes.DoubleTypeHandler;
+import org.terasology.persistence.typeHandling.coreTypes.FloatTypeHandler;
+import org.terasology.persistence.typeHandling.coreTypes.IntTypeHandler;
+import org.terasology.persistence.typeHandling.coreTypes.StringTypeHandler;
+import org.terasology.protobuf.EntityData;
+import org.terasology.reflection.metadata.ClassMetadata;
+import org.terasology.reflection.metadata.FieldMetadata;
+
+import java.util.Map;
+
+/**
+ * Serializes the fields of a type straight to and from protobuf values.
+ * <p/>
+ * Fields handled by the standard boolean, integer, float, double and string type handlers are written and read directly,
+ * skipping the type handler and the PersistedData wrapping. The values produced are the same as those of the type handlers.
+ * All other fields, and values that aren't in the form the direct path writes, go through the field's type handler.
+ */
+public class ProtobufSerializer {
+
+    private Serializer serializer;
+    private ProtobufSerializationContext serializationContext;
+    private ProtobufDeserializationContext deserializationContext;
+    private Map<FieldMetadata<?, ?>, DirectCodec> directCodecs = Maps.newIdentityHashMap();
+
+    public ProtobufSerializer(ClassMetadata<?, ?> classMetadata, Serializer serializer,
+                              ProtobufSerializationContext serializationContext, ProtobufDeserializationContext deserializationContext) {
+        this.serializer = serializer;
+        this.serializationContext = serializationContext;
+        this.deserializationContext = deserializationContext;
+        for (FieldMetadata<?, ?> field : classMetadata.getFields()) {
+            DirectCodec codec = DirectCodec.forHandler(serializer.getHandlerFor(field));
+            if (codec != null) {
+                directCodecs.put(field, codec);
+            }
+        }
+    }
+
+    /**
+     * @param field     The field to serialize
+     * @param container The object containing the field
+     * @return The serialized value of the field, or null if the field is null or could not be serialized
+     */
+    public EntityData.Value serialize(FieldMetadata<?, ?> field, Object container) {
+        Object rawValue = field.getValue(container);
+        if (rawValue != null) {
+            return serializeValue(field, rawValue);
+        }
+        return null;
+    }
+
+    /**
+     * @param field    The field the value was obtained from
+     * @param rawValue The value to serialize
+     * @return The serialized value, or null if it could not be serialized
+     */
+    public EntityData.Value serializeValue(FieldMetadata<?, ?> field, Object rawValue) {
+        DirectCodec codec = directCodecs.get(field);
+        if (codec != null && rawValue != null) {
+            return codec.write(rawValue);
+        }
+        PersistedData data = serializer.serializeValue(field, rawValue, serializationContext);
+        if (data.isNull()) {
+            return null;
+        }
+        return ((ProtobufPersistedData) data).getValue();
+    }
+
+    /**
+     * Deserializes a value onto a field of the target. The field is left unchanged if the value cannot be deserialized.
+     *
+     * @param target The object to deserialize the field onto
+     * @param field  The field to deserialize
+     * @param value  The serialized value of the field
+     */
+    @SuppressWarnings("unchecked")
+    public void deserializeOnto(Object target, FieldMetadata<?, ?> field, EntityData.Value value) {
+        DirectCodec codec = directCodecs.get(field);
+        if (codec != null) {
+            Object result = codec.read(value);
+            if (result != null) {
+                ((FieldMetadata<Object, Object>) field).setValue(target, result);
+                return;
+            }
+        }
+        serializer.deserializeOnto(target, field, new ProtobufPersistedData(value), deserializationContext);
+    }
+
+    private enum DirectCodec {
+        BOOLEAN {
+            @Override
+            public EntityData.Value write(Object value) {
+                return EntityData.Value.newBuilder().addBoolean((Boolean) value).build();
+            }
+
+            @Override
+            public Object read(EntityData.Value value) {
+                return (value.getBooleanCount() == 1) ? value.getBoolean(0) : null;
+            }
+        },
+        INTEGER {
+            @Override
+            public EntityData.Value write(Object value) {
+                return EntityData.Value.newBuilder().addInteger((Integer) value).build();
+            }
+
+            @Override
+            public Object read(EntityData.Value value) {
+                return (value.getIntegerCount() == 1) ? value.getInteger(0) : null;
+            }
+        },
+        FLOAT {
+            @Override
+            public EntityData.Value write(Object value) {
+                return EntityData.Value.newBuilder().addFloat((Float) value).build();
+            }
+
+            @Override
+            public Object read(EntityData.Value value) {
+                return (value.getFloatCount() == 1) ? value.getFloat(0) : null;
+            }
+        },
+        DOUBLE {
+            @Override
+            public EntityData.Value write(Object value) {
+                return EntityData.Value.newBuilder().addDouble((Double) value).build();
+            }
+
+            @Override
+            public Object read(EntityData.Value value) {
+                return (value.getDoubleCount() == 1) ? value.getDouble(0) : null;
+            }
+        },
+        STRING {
+            @Override
+            public EntityData.Value write(Object value) {
+                return EntityData.Value.newBuilder().addString((String) value).build();
+            }
+
+            @Override
+            public Object read(EntityData.Value value) {
+                return (value.getStringCount() == 1) ? value.getString(0) : null;
+            }
+        };
+
+        public abstract EntityData.Value write(Object value);
+
+        /**
+         * @return The deserialized value, or null if the value should be deserialized by the type handler
+         */
+        public abstract Object read(EntityData.Value value);
+
+        public static DirectCodec forHandler(TypeHandler<?> handler) {
+            if (handler == null) {
+                return null;
+            }
+            Class<?> handlerClass = handler.getClass();
+            if (handlerClass == BooleanTypeHandler.class) {
+                return BOOLEAN;
+            } else if (handlerClass == IntTypeHandler.class) {
+                return INTEGER;
+            } else if (handlerClass == FloatTypeHandler.class) {
+                return FLOAT;
+            } else if (handlerClass == DoubleTypeHandler.class) {
+                return DOUBLE;
+            } else if (handlerClass == StringTypeHandler.class) {
+                return STRING;
+            }
+            return null;
+        }
+    }
+}
@@ -48,6 +48,8 @@
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import gnu.trove.iterator.TFloatIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,8 +57,11 @@
 import org.terasology.logic.characters.CharacterMovementComponent;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.math.AABB;
+import org.terasology.math.TeraMath;
 import org.terasology.math.Vector3i;
 import org.terasology.monitoring.PerformanceMonitor;
+import org.terasology.monitoring.ThreadActivity;
+import org.terasology.monitoring.ThreadMonitor;
 import org.terasology.physics.CollisionGroup;
 import org.terasology.physics.HitResult;
 import org.terasology.physics.StandardCollisionGroup;
@@ -76,6 +81,7 @@
 import org.terasology.registry.CoreRegistry;
 import org.terasology.world.BlockEntityRegistry;
 import org.terasology.world.WorldProvider;
+import org.terasology.world.chunks.ChunkProvider;
 
 import javax.vecmath.Matrix3f;
 import javax.vecmath.Matrix4f;
@@ -83,15 +89,24 @@
 import javax.vecmath.Vector3f;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Physics engine implementation using TeraBullet (a customised version of JBullet)
+ * <p/>
+ * The world is either stepped inline by {@link #update(float)}, or on a dedicated thread at a fixed time step.
+ * In the latter case all changes to bodies and triggers are queued as commands and applied by the physics thread
+ * before its next step, and the results of each step are published through the {@link EntityMotionState}s of the
+ * bodies, which the main thread interpolates between. Queries that need an immediate answer (ray traces, area scans
+ * and character sweeps) lock the world, so they wait for a step in progress to complete.
  *
  * @author Benjamin Glatzel <benjamin.glatzel@me.com>
  */
@@ -99,6 +114,18 @@ public class BulletPhysics implements PhysicsEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(BulletPhysics.class);
 
+    /**
+     * The length of a simulation step when stepping on the physics thread.
+     */
+    private static final float FIXED_TIME_STEP = 1.0f / 60.0f;
+    private static final int MAX_STEPS_PER_UPDATE = 8;
+    private static final long SHUTDOWN_TIMEOUT_MS = 1000;
+
+    /**
+     * How often to check whether bodies and triggers lie in a relevant chunk, in seconds.
+     */
+    private static final float RELEVANCE_CHECK_INTERVAL = 1.0f;
+
     private final Deque<RigidBodyRequest> insertionQueue = Lists.newLinkedList();
     private final Deque<BulletRigidBody> removalQueue = Lists.newLinkedList();
 
@@ -108,12 +135,47 @@ public class BulletPhysics implements PhysicsEngine {
     private final BlockEntityRegistry blockEntityRegistry;
     private final PhysicsWorldWrapper wrapper;
     private final PhysicsLiquidWrapper liquidWrapper;
+    private final ChunkProvider chunkProvider;
     private Map<EntityRef, BulletRigidBody> entityRigidBodies = Maps.newHashMap();
     private Map<EntityRef, BulletCharacterMoverCollider> entityColliders = Maps.newHashMap();
     private Map<EntityRef, PairCachingGhostObject> entityTriggers = Maps.newHashMap();
     private List<PhysicsSystem.CollisionPair> collisions = new ArrayList<>();
 
+    private final boolean threaded;
+    // Held while stepping, and by queries from other threads when threaded
+    private final Object worldLock = new Object();
+    // Guards the command and collision buffers handed between the threads
+    private final Object bufferLock = new Object();
+    private List<Runnable> pendingCommands = Lists.newArrayList();
+    private List<Runnable> executingCommands = Lists.newArrayList();
+
+    // Only used by the thread stepping the world
+    private final Set<BulletRigidBody> worldBodies = Sets.newLinkedHashSet();
+    private final Set<PairCachingGhostObject> worldTriggers = Sets.newLinkedHashSet();
+    private final Transform publishTransform = new Transform();
+
+    private ExecutorService physicsThread;
+    private final Semaphore stepPermits = new Semaphore(0);
+    private volatile boolean running;
+    private float accumulator;
+
+    // Bodies and triggers taken out of the world because they lie outside of every relevance region
+    private final Set<EntityRef> parkedBodies = Sets.newHashSet();
+    private final Set<EntityRef> parkedTriggers = Sets.newHashSet();
+    private final Vector3f relevancePosition = new Vector3f();
+    private final Vector3i relevanceChunkPos = new Vector3i();
+    private float timeSinceRelevanceCheck;
+
     public BulletPhysics(WorldProvider world) {
+        this(world, false);
+    }
+
+    /**
+     * @param world
+     * @param threaded Whether to step the world on a dedicated thread, at a fixed time step
+     */
+    public BulletPhysics(WorldProvider world, boolean threaded) {
+        this.threaded = threaded;
         broadphase = new DbvtBroadphase();
         broadphase.getOverlappingPairCache().setInternalGhostPairCallback(new GhostPairCallback());
         CollisionConfiguration defaultCollisionConfiguration = new DefaultCollisionConfiguration();
@@ -123,41 +185,68 @@ public BulletPhysics(WorldProvider world) {
         discreteDynamicsWorld.setGravity(new Vector3f(0f, -15f, 0f));
         blockEntityRegistry = CoreRegistry.get(BlockEntityRegistry.class);
 
-        wrapper = new PhysicsWorldWrapper(world);
+        chunkProvider = CoreRegistry.get(ChunkProvider.class);
+        wrapper = new PhysicsWorldWrapper(world, chunkProvider);
         VoxelWorldShape worldShape = new VoxelWorldShape(wrapper);
 
-        liquidWrapper = new PhysicsLiquidWrapper(world);
+        liquidWrapper = new PhysicsLiquidWrapper(world, chunkProvider);
         VoxelWorldShape liquidShape = new VoxelWorldShape(liquidWrapper);
 
         Matrix3f rot = new Matrix3f();
         rot.setIdentity();
         DefaultMotionState blockMotionState = new DefaultMotionState(new Transform(new Matrix4f(rot, new Vector3f(0, 0, 0), 1.0f)));
         RigidBodyConstructionInfo blockConsInf = new RigidBodyConstructionInfo(0, blockMotionState, worldShape, new Vector3f());
-        BulletRigidBody rigidBody = new BulletRigidBody(blockConsInf);
+        BulletRigidBody rigidBody = new BulletRigidBody(this, blockConsInf);
         rigidBody.rb.setCollisionFlags(CollisionFlags.STATIC_OBJECT | rigidBody.rb.getCollisionFlags());
         short mask = (short) (~(CollisionFilterGroups.STATIC_FILTER | StandardCollisionGroup.LIQUID.getFlag()));
         discreteDynamicsWorld.addRigidBody(rigidBody.rb, combineGroups(StandardCollisionGroup.WORLD), mask);
 
         RigidBodyConstructionInfo liquidConsInfo = new RigidBodyConstructionInfo(0, blockMotionState, liquidShape, new Vector3f());
-        BulletRigidBody liquidBody = new BulletRigidBody(liquidConsInfo);
+        BulletRigidBody liquidBody = new BulletRigidBody(this, liquidConsInfo);
         liquidBody.rb.setCollisionFlags(CollisionFlags.STATIC_OBJECT | rigidBody.rb.getCollisionFlags());
         discreteDynamicsWorld.addRigidBody(liquidBody.rb, combineGroups(StandardCollisionGroup.LIQUID),
                 CollisionFilterGroups.SENSOR_TRIGGER);
+
+        if (threaded) {
+            running = true;
+            physicsThread = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("Physics").setDaemon(true).build());
+            physicsThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runPhysicsThread();
+                }
+            });
+        }
     }
 
     //*****************Physics Interface methods******************\\
 
     @Override
     public List<PhysicsSystem.CollisionPair> getCollisionPairs() {
-        List<PhysicsSystem.CollisionPair> temp = collisions;
-        collisions = new ArrayList<>();
-        return temp;
+        synchronized (bufferLock) {
+            List<PhysicsSystem.CollisionPair> temp = collisions;
+            collisions = new ArrayList<>();
+            return temp;
+        }
     }
 
     @Override
     public void dispose() {
+        if (physicsThread != null) {
+            running = false;
+            physicsThread.shutdownNow();
+            try {
+                if (!physicsThread.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    logger.warn("Timed out waiting for the physics thread to stop");
+                }
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while waiting for the physics thread to stop");
+                Thread.currentThread().interrupt();
+            }
+        }
         discreteDynamicsWorld.destroy();
         wrapper.dispose();
+        liquidWrapper.dispose();
     }
 
     @Override
@@ -183,20 +272,22 @@ public List<EntityRef> scanArea(AABB area, CollisionGroup... collisionFilter) {
     public List<EntityRef> scanArea(AABB area, Iterable<CollisionGroup> collisionFilter) {
         // TODO: Add the aabbTest method from newer versions of bullet to TeraBullet, use that instead
         BoxShape shape = new BoxShape(area.getExtents());
-        GhostObject scanObject = createCollider(area.getCenter(), shape, CollisionFilterGroups.SENSOR_TRIGGER,
-                combineGroups(collisionFilter), CollisionFlags.NO_CONTACT_RESPONSE);
-        // This in particular is overkill
-        broadphase.calculateOverlappingPairs(dispatcher);
-        List<EntityRef> result = Lists.newArrayList();
-        for (int i = 0; i < scanObject.getNumOverlappingObjects(); ++i) {
-            CollisionObject other = scanObject.getOverlappingObject(i);
-            Object userObj = other.getUserPointer();
-            if (userObj instanceof EntityRef) {
-                result.add((EntityRef) userObj);
-            }
-        }
-        removeCollider(scanObject);
-        return result;
+        synchronized (worldLock) {
+            GhostObject scanObject = createCollider(area.getCenter(), shape, CollisionFilterGroups.SENSOR_TRIGGER,
+                    combineGroups(collisionFilter), CollisionFlags.NO_CONTACT_RESPONSE);
+            // This in particular is overkill
+            broadphase.calculateOverlappingPairs(dispatcher);
+            List<EntityRef> result = Lists.newArrayList();
+            for (int i = 0; i < scanObject.getNumOverlappingObjects(); ++i) {
+                CollisionObject other = scanObject.getOverlappingObject(i);
+                Object userObj = other.getUserPointer();
+                if (userObj instanceof EntityRef) {
+                    result.add((EntityRef) userObj);
+                }
+            }
+            removeCollider(scanObject);
+            return result;
+        }
     }
 
     @Override
@@ -212,7 +303,19 @@ public HitResult rayTrace(Vector3f from, Vector3f direction, float distance, Col
         closest.collisionFilterGroup = CollisionFilterGroups.ALL_FILTER;
         closest.collisionFilterMask = filter;
 
-        discreteDynamicsWorld.rayTest(from, to, closest);
+        synchronized (worldLock) {
+            wrapper.resetCursor();
+            liquidWrapper.resetCursor();
+            // So that a hit on the world carries the position of the hit block
+            wrapper.setPositionalUserData(true);
+            liquidWrapper.setPositionalUserData(true);
+            try {
+                discreteDynamicsWorld.rayTest(from, to, closest);
+            } finally {
+                wrapper.setPositionalUserData(false);
+                liquidWrapper.setPositionalUserData(false);
+            }
+        }
         if (closest.hasHit()) {
             if (closest.userData instanceof Vector3i) { //We hit a world block
                 final EntityRef entityAt = blockEntityRegistry.getEntityAt((Vector3i) closest.userData);
@@ -230,25 +333,168 @@ public HitResult rayTrace(Vector3f from, Vector3f direction, float distance, Col
 
     @Override
     public void update(float delta) {
+        timeSinceRelevanceCheck += delta;
+        if (chunkProvider != null && timeSinceRelevanceCheck >= RELEVANCE_CHECK_INTERVAL) {
+            timeSinceRelevanceCheck = 0;
+            PerformanceMonitor.startActivity("Physics Relevance");
+            updateRelevance();
+            PerformanceMonitor.endActivity();
+        }
+
+        if (!threaded) {
+            PerformanceMonitor.startActivity("Step Simulation");
+            stepWorld(delta, MAX_STEPS_PER_UPDATE);
+            PerformanceMonitor.endActivity();
+            return;
+        }
+
+        accumulator += delta;
+        int steps = Math.min((int) (accumulator / FIXED_TIME_STEP), MAX_STEPS_PER_UPDATE);
+        // Like Bullet itself, drop time that couldn't be simulated within the step limit
+        accumulator = Math.min(accumulator - steps * FIXED_TIME_STEP, FIXED_TIME_STEP);
+        if (steps > 0 && stepPermits.availablePermits() < MAX_STEPS_PER_UPDATE) {
+            stepPermits.release(steps);
+        }
+
+        PerformanceMonitor.startActivity("Synchronize Physics");
+        float alpha = accumulator / FIXED_TIME_STEP;
+        for (Map.Entry<EntityRef, BulletRigidBody> entry : entityRigidBodies.entrySet()) {
+            if (!parkedBodies.contains(entry.getKey())) {
+                entry.getValue().motionState.synchronize(alpha);
+            }
+        }
+        PerformanceMonitor.endActivity();
+    }
+
+    /**
+     * Applies the queued changes, steps the simulation and gathers its results. Runs on the main thread,
+     * or on the physics thread when threaded.
+     */
+    private void stepWorld(float delta, int maxSubSteps) {
         processQueuedBodies();
         applyPendingImpulsesAndForces();
+        wrapper.resetCursor();
+        liquidWrapper.resetCursor();
         try {
-            PerformanceMonitor.startActivity("Step Simulation");
-            if (discreteDynamicsWorld.stepSimulation(delta, 8) != 0) {
+            int steps = threaded
+                    ? discreteDynamicsWorld.stepSimulation(delta, maxSubSteps, FIXED_TIME_STEP)
+                    : discreteDynamicsWorld.stepSimulation(delta, maxSubSteps);
+            if (steps != 0) {
                 for (BulletCharacterMoverCollider collider : entityColliders.values()) {
                     collider.pending = false;
                 }
+                if (threaded) {
+                    for (BulletRigidBody body : worldBodies) {
+                        body.motionState.publish(body.rb, publishTransform);
+                    }
+                }
             }
-            PerformanceMonitor.endActivity();
         } catch (Exception e) {
             logger.error("Error running simulation step.", e);
         }
-        collisions.addAll(getNewCollisionPairs());
+        List<PhysicsSystem.CollisionPair> newCollisions = getNewCollisionPairs();
+        synchronized (bufferLock) {
+            collisions.addAll(newCollisions);
+        }
+    }
+
+    private void runPhysicsThread() {
+        while (running) {
+            try {
+                stepPermits.acquire();
+            } catch (InterruptedException e) {
+                // Interrupted by dispose()
+                break;
+            }
+            synchronized (bufferLock) {
+                List<Runnable> temp = executingCommands;
+                executingCommands = pendingCommands;
+                pendingCommands = temp;
+            }
+            try (ThreadActivity ignored = ThreadMonitor.startThreadActivity("Step Simulation")) {
+                synchronized (worldLock) {
+                    for (Runnable command : executingCommands) {
+                        command.run();
+                    }
+                    stepWorld(FIXED_TIME_STEP, 1);
+                }
+            } catch (RuntimeException e) {
+                ThreadMonitor.addError(e);
+                logger.error("Error in the physics thread", e);
+            }
+            executingCommands.clear();
+        }
+    }
+
+    /**
+     * Takes bodies and triggers out of the world while their chunk isn't relevant to any player (so they neither cost
+     * anything nor fall into chunks that are about to be unloaded), and puts them back when it becomes relevant again.
+     * Parked bodies keep their velocity and resume with it.
+     * <p/>
+     * Character colliders are left alone, as they are swept by their movement systems regardless.
+     */
+    private void updateRelevance() {
+        for (Map.Entry<EntityRef, BulletRigidBody> entry : entityRigidBodies.entrySet()) {
+            EntityRef entity = entry.getKey();
+            boolean parked = parkedBodies.contains(entity);
+            if (isInRelevantChunk(entity) == parked) {
+                BulletRigidBody body = entry.getValue();
+                if (parked) {
+                    parkedBodies.remove(entity);
+                    queueInsertion(body.lastInsertion);
+                } else {
+                    parkedBodies.add(entity);
+                    removeRigidBody(body);
+                }
+            }
+        }
+        for (Map.Entry<EntityRef, PairCachingGhostObject> entry : entityTriggers.entrySet()) {
+            EntityRef entity = entry.getKey();
+            boolean parked = parkedTriggers.contains(entity);
+            if (isInRelevantChunk(entity) == parked) {
+                TriggerComponent trigger = entity.getComponent(TriggerComponent.class);
+                if (!parked) {
+                    parkedTriggers.add(entity);
+                    removeTriggerObject(entry.getValue());
+                } else if (trigger != null) {
+                    parkedTriggers.remove(entity);
+                    addTriggerObject(entry.getValue(), trigger);
+                }
+            }
+        }
+    }
+
+    private boolean isInRelevantChunk(EntityRef entity) {
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+        if (location == null) {
+            return true;
+        }
+        location.getWorldPosition(relevancePosition);
+        relevanceChunkPos.set(
+                TeraMath.calcChunkPosX(TeraMath.floorToInt(relevancePosition.x + 0.5f)),
+                TeraMath.calcChunkPosY(TeraMath.floorToInt(relevancePosition.y + 0.5f)),
+                TeraMath.calcChunkPosZ(TeraMath.floorToInt(relevancePosition.z + 0.5f)));
+        return chunkProvider.isChunkRelevant(relevanceChunkPos);
+    }
+
+    /**
+     * Runs a change to the physics world on the thread that steps it: immediately when stepping inline,
+     * otherwise before the next step of the physics thread.
+     */
+    private void runOnWorld(Runnable command) {
+        if (!threaded) {
+            command.run();
+            return;
+        }
+        synchronized (bufferLock) {
+            pendingCommands.add(command);
+        }
     }
 
     @Override
     public boolean removeRigidBody(EntityRef entity) {
         BulletRigidBody rigidBody = entityRigidBodies.remove(entity);
+        parkedBodies.remove(entity);
         if (rigidBody != null) {
             removeRigidBody(rigidBody);
             return true;
@@ -261,8 +507,8 @@ public boolean removeRigidBody(EntityRef entity) {
     @Override
     public boolean updateRigidBody(EntityRef entity) {
         LocationComponent location = entity.getComponent(LocationComponent.class);
-        RigidBodyComponent rb = entity.getComponent(RigidBodyComponent.class);
-        BulletRigidBody rigidBody = entityRigidBodies.get(entity);
+        final RigidBodyComponent rb = entity.getComponent(RigidBodyComponent.class);
+        final BulletRigidBody rigidBody = entityRigidBodies.get(entity);
 
         if (location == null) {
             logger.warn("Updating rigid body of entity that has no "
@@ -277,11 +523,24 @@ public boolean updateRigidBody(EntityRef entity) {
                 removeRigidBody(rigidBody);
                 newRigidBody(entity);
             } else {
-                rigidBody.rb.setAngularFactor(rb.angularFactor);
-                rigidBody.rb.setFriction(rb.friction);
+                final float angularFactor = rb.angularFactor;
+                final float friction = rb.friction;
+                runOnWorld(new Runnable() {
+                    @Override
+                    public void run() {
+                        rigidBody.rb.setAngularFactor(angularFactor);
+                        rigidBody.rb.setFriction(friction);
+                    }
+                });
             }
 
-            updateKinematicSettings(entity.getComponent(RigidBodyComponent.class), rigidBody);
+            final boolean kinematic = rb.kinematic;
+            runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    updateKinematicSettings(kinematic, rigidBody);
+                }
+            });
             return true;
         } else {
             newRigidBody(entity);
@@ -307,9 +566,10 @@ public RigidBody getRigidBody(EntityRef entity) {
 
     @Override
     public boolean removeTrigger(EntityRef entity) {
-        GhostObject ghost = entityTriggers.remove(entity);
+        PairCachingGhostObject ghost = entityTriggers.remove(entity);
+        parkedTriggers.remove(entity);
         if (ghost != null) {
-            removeCollider(ghost);
+            removeTriggerObject(ghost);
             return true;
         } else {
             return false;
@@ -320,7 +580,7 @@ public boolean removeTrigger(EntityRef entity) {
     //TODO: update if detectGroups changed
     public boolean updateTrigger(EntityRef entity) {
         LocationComponent location = entity.getComponent(LocationComponent.class);
-        PairCachingGhostObject triggerObj = entityTriggers.get(entity);
+        final PairCachingGhostObject triggerObj = entityTriggers.get(entity);
 
         if (location == null) {
             logger.warn("Trying to update or create trigger of entity that has no LocationComponent?! Entity: {}", entity);
@@ -329,10 +589,16 @@ public boolean updateTrigger(EntityRef entity) {
         if (triggerObj != null) {
             float scale = location.getWorldScale();
             if (Math.abs(triggerObj.getCollisionShape().getLocalScaling(new Vector3f()).x - scale) > BulletGlobals.SIMD_EPSILON) {
-                discreteDynamicsWorld.removeCollisionObject(triggerObj);
+                removeTriggerObject(triggerObj);
                 newTrigger(entity);
             } else {
-                triggerObj.setWorldTransform(new Transform(new Matrix4f(location.getWorldRotation(), location.getWorldPosition(), 1.0f)));
+                final Transform transform = new Transform(new Matrix4f(location.getWorldRotation(), location.getWorldPosition(), 1.0f));
+                runOnWorld(new Runnable() {
+                    @Override
+                    public void run() {
+                        triggerObj.setWorldTransform(transform);
+                    }
+                });
             }
             return true;
         } else {
@@ -348,20 +614,25 @@ public boolean hasTrigger(EntityRef entity) {
 
     @Override
     public boolean removeCharacterCollider(EntityRef entity) {
-        BulletCharacterMoverCollider toRemove = entityColliders.remove(entity);
-        if (toRemove == null) {
-            logger.warn("Trying to remove CharacterCollider of entity that has "
-                    + "no CharacterCollider in the physics engine. Entity: {}", entity);
-            return false;
-        } else {
-            removeCollider(toRemove.collider);
-            return true;
+        synchronized (worldLock) {
+            BulletCharacterMoverCollider toRemove = entityColliders.remove(entity);
+            if (toRemove == null) {
+                logger.warn("Trying to remove CharacterCollider of entity that has "
+                        + "no CharacterCollider in the physics engine. Entity: {}", entity);
+                return false;
+            } else {
+                removeCollider(toRemove.collider);
+                return true;
+            }
         }
     }
 
     @Override
     public CharacterCollider getCharacterCollider(EntityRef entity) {
-        CharacterCollider cc = entityColliders.get(entity);
+        CharacterCollider cc;
+        synchronized (worldLock) {
+            cc = entityColliders.get(entity);
+        }
         if (cc == null) {
             cc = createCharacterCollider(entity);
         }
@@ -370,7 +641,9 @@ public CharacterCollider getCharacterCollider(EntityRef entity) {
 
     @Override
     public boolean hasCharacterCollider(EntityRef entity) {
-        return entityColliders.containsKey(entity);
+        synchronized (worldLock) {
+            return entityColliders.containsKey(entity);
+        }
     }
 
     @Override
@@ -385,11 +658,16 @@ public Iterator<EntityRef> physicsEntitiesIterator() {
 
     @Override
     public void awakenArea(Vector3f pos, float radius) {
-        Vector3f min = new Vector3f(pos);
+        final Vector3f min = new Vector3f(pos);
         min.sub(new Vector3f(0.6f, 0.6f, 0.6f));
-        Vector3f max = new Vector3f(pos);
+        final Vector3f max = new Vector3f(pos);
         max.add(new Vector3f(0.6f, 0.6f, 0.6f));
-        discreteDynamicsWorld.awakenRigidBodiesInArea(min, max);
+        runOnWorld(new Runnable() {
+            @Override
+            public void run() {
+                discreteDynamicsWorld.awakenRigidBodiesInArea(min, max);
+            }
+        });
     }
 
     @Override
@@ -411,19 +689,18 @@ private boolean newTrigger(EntityRef entity) {
         if (shape != null && location != null && trigger != null) {
             float scale = location.getWorldScale();
             shape.setLocalScaling(new Vector3f(scale, scale, scale));
-            List<CollisionGroup> detectGroups = Lists.newArrayList(trigger.detectGroups);
-            PairCachingGhostObject triggerObj = createCollider(
+            PairCachingGhostObject triggerObj = createGhostObject(
                     location.getWorldPosition(),
                     shape,
-                    StandardCollisionGroup.SENSOR.getFlag(),
-                    combineGroups(detectGroups),
                     CollisionFlags.NO_CONTACT_RESPONSE);
             triggerObj.setUserPointer(entity);
+            addTriggerObject(triggerObj, trigger);
+            parkedTriggers.remove(entity);
             PairCachingGhostObject oldTrigger = entityTriggers.put(entity, triggerObj);
             if (oldTrigger != null) {
                 logger.warn("Creating a trigger for an entity that already has a trigger. " +
                         "Multiple trigger pre entity are not supported. Removing old one. Entity: {}", entity);
-                removeCollider(oldTrigger);
+                removeTriggerObject(oldTrigger);
                 return false;
             } else {
                 return true;
@@ -473,14 +750,16 @@ private RigidBody newRigidBody(EntityRef entity) {
             Vector3f fallInertia = new Vector3f();
             shape.calculateLocalInertia(rigidBody.mass, fallInertia);
 
-            RigidBodyConstructionInfo info = new RigidBodyConstructionInfo(rigidBody.mass, new EntityMotionState(entity), shape, fallInertia);
-            BulletRigidBody collider = new BulletRigidBody(info);
+            EntityMotionState motionState = threaded ? new EntityMotionState(entity, location, rigidBody.kinematic) : new EntityMotionState(entity);
+            RigidBodyConstructionInfo info = new RigidBodyConstructionInfo(rigidBody.mass, motionState, shape, fallInertia);
+            BulletRigidBody collider = new BulletRigidBody(this, info);
             collider.rb.setUserPointer(entity);
             collider.rb.setAngularFactor(rigidBody.angularFactor);
             collider.rb.setFriction(rigidBody.friction);
             collider.collidesWith = combineGroups(rigidBody.collidesWith);
-            updateKinematicSettings(rigidBody, collider);
+            updateKinematicSettings(rigidBody.kinematic, collider);
             BulletRigidBody oldBody = entityRigidBodies.put(entity, collider);
+            parkedBodies.remove(entity);
             addRigidBody(collider, Lists.<CollisionGroup>newArrayList(rigidBody.collisionGroup), rigidBody.collidesWith);
             if (oldBody != null) {
                 removeRigidBody(oldBody);
@@ -498,6 +777,27 @@ private void removeCollider(CollisionObject collider) {
         discreteDynamicsWorld.removeCollisionObject(collider);
     }
 
+    private void addTriggerObject(final PairCachingGhostObject triggerObj, TriggerComponent trigger) {
+        final short filters = combineGroups(Lists.newArrayList(trigger.detectGroups));
+        runOnWorld(new Runnable() {
+            @Override
+            public void run() {
+                discreteDynamicsWorld.addCollisionObject(triggerObj, StandardCollisionGroup.SENSOR.getFlag(), filters);
+                worldTriggers.add(triggerObj);
+            }
+        });
+    }
+
+    private void removeTriggerObject(final PairCachingGhostObject trigger) {
+        runOnWorld(new Runnable() {
+            @Override
+            public void run() {
+                discreteDynamicsWorld.removeCollisionObject(trigger);
+                worldTriggers.remove(trigger);
+            }
+        });
+    }
+
     /**
      * Creates a new Collider. Colliders are similar to rigid bodies, except
      * that they do not respond to forces from the physics engine. They collide
@@ -515,12 +815,14 @@ private void removeCollider(CollisionObject collider) {
      * @return The newly created and added to the physics engine, Collider object.
      */
     private CharacterCollider createCustomCollider(Vector3f pos, ConvexShape shape, short groups, short filters, int collisionFlags, EntityRef entity) {
-        if (entityColliders.containsKey(entity)) {
-            entityColliders.remove(entity);
+        synchronized (worldLock) {
+            if (entityColliders.containsKey(entity)) {
+                entityColliders.remove(entity);
+            }
+            final BulletCharacterMoverCollider bulletCollider = new BulletCharacterMoverCollider(pos, shape, groups, filters, collisionFlags, entity);
+            entityColliders.put(entity, bulletCollider);
+            return bulletCollider;
         }
-        final BulletCharacterMoverCollider bulletCollider = new BulletCharacterMoverCollider(pos, shape, groups, filters, collisionFlags, entity);
-        entityColliders.put(entity, bulletCollider);
-        return bulletCollider;
     }
 
     /**
@@ -536,10 +838,12 @@ private synchronized void processQueuedBodies() {
         while (!insertionQueue.isEmpty()) {
             RigidBodyRequest request = insertionQueue.poll();
             discreteDynamicsWorld.addRigidBody(request.body.rb, request.groups, request.filter);
+            worldBodies.add(request.body);
         }
         while (!removalQueue.isEmpty()) {
             BulletRigidBody body = removalQueue.poll();
             discreteDynamicsWorld.removeRigidBody(body.rb);
+            worldBodies.remove(body);
         }
     }
 
@@ -548,8 +852,7 @@ private synchronized void processQueuedBodies() {
      * the pending impulses.
      */
     private void applyPendingImpulsesAndForces() {
-        for (Map.Entry<EntityRef, BulletRigidBody> entree : entityRigidBodies.entrySet()) {
-            BulletRigidBody body = entree.getValue();
+        for (BulletRigidBody body : worldBodies) {
             body.rb.applyCentralImpulse(body.pendingImpulse);
             body.rb.applyCentralForce(body.pendingForce);
             body.pendingImpulse.x = 0;
@@ -564,19 +867,34 @@ private void applyPendingImpulsesAndForces() {
 
     private void addRigidBody(BulletRigidBody body) {
         short filter = (short) (CollisionFilterGroups.DEFAULT_FILTER | CollisionFilterGroups.STATIC_FILTER | CollisionFilterGroups.SENSOR_TRIGGER);
-        insertionQueue.add(new RigidBodyRequest(body, CollisionFilterGroups.DEFAULT_FILTER, filter));
+        queueInsertion(new RigidBodyRequest(body, CollisionFilterGroups.DEFAULT_FILTER, filter));
     }
 
     private void addRigidBody(BulletRigidBody body, List<CollisionGroup> groups, List<CollisionGroup> filter) {
-        insertionQueue.add(new RigidBodyRequest(body, combineGroups(groups), combineGroups(filter)));
+        queueInsertion(new RigidBodyRequest(body, combineGroups(groups), combineGroups(filter)));
     }
 
     private void addRigidBody(BulletRigidBody body, short groups, short filter) {
-        insertionQueue.add(new RigidBodyRequest(body, groups, (short) (filter | CollisionFilterGroups.SENSOR_TRIGGER)));
+        queueInsertion(new RigidBodyRequest(body, groups, (short) (filter | CollisionFilterGroups.SENSOR_TRIGGER)));
+    }
+
+    private void queueInsertion(final RigidBodyRequest request) {
+        request.body.lastInsertion = request;
+        runOnWorld(new Runnable() {
+            @Override
+            public void run() {
+                insertionQueue.add(request);
+            }
+        });
     }
 
-    private void removeRigidBody(BulletRigidBody body) {
-        removalQueue.add(body);
+    private void removeRigidBody(final BulletRigidBody body) {
+        runOnWorld(new Runnable() {
+            @Override
+            public void run() {
+                removalQueue.add(body);
+            }
+        });
     }
 
     /**
@@ -631,8 +949,8 @@ private ConvexShape getShapeFor(EntityRef entity) {
         throw new IllegalArgumentException("Creating physics object that requires a ShapeComponent or CharacterMovementComponent, but has neither. Entity: " + entity);
     }
 
-    private void updateKinematicSettings(RigidBodyComponent rigidBody, BulletRigidBody collider) {
-        if (rigidBody.kinematic) {
+    private void updateKinematicSettings(boolean kinematic, BulletRigidBody collider) {
+        if (kinematic) {
             collider.rb.setCollisionFlags(collider.rb.getCollisionFlags() | CollisionFlags.KINEMATIC_OBJECT);
             collider.rb.setActivationState(CollisionObject.DISABLE_DEACTIVATION);
         } else {
@@ -642,21 +960,26 @@ private void updateKinematicSettings(RigidBodyComponent rigidBody, BulletRigidBo
     }
 
     private PairCachingGhostObject createCollider(Vector3f pos, ConvexShape shape, short groups, short filters, int collisionFlags) {
+        PairCachingGhostObject result = createGhostObject(pos, shape, collisionFlags);
+        discreteDynamicsWorld.addCollisionObject(result, groups, filters);
+        return result;
+    }
+
+    private PairCachingGhostObject createGhostObject(Vector3f pos, ConvexShape shape, int collisionFlags) {
         Transform startTransform = new Transform(new Matrix4f(new Quat4f(0, 0, 0, 1), pos, 1.0f));
         PairCachingGhostObject result = new PairCachingGhostObject();
         result.setWorldTransform(startTransform);
         result.setCollisionShape(shape);
         result.setCollisionFlags(collisionFlags);
-        discreteDynamicsWorld.addCollisionObject(result, groups, filters);
         return result;
     }
 
-    private Collection<? extends PhysicsSystem.CollisionPair> getNewCollisionPairs() {
+    private List<PhysicsSystem.CollisionPair> getNewCollisionPairs() {
         List<PhysicsSystem.CollisionPair> collisionPairs = Lists.newArrayList();
 
         DynamicsWorld world = discreteDynamicsWorld;
         ObjectArrayList<PersistentManifold> manifolds = new ObjectArrayList<PersistentManifold>();
-        for (PairCachingGhostObject trigger : entityTriggers.values()) {
+        for (PairCachingGhostObject trigger : worldTriggers) {
             EntityRef entity = (EntityRef) trigger.getUserPointer();
             for (BroadphasePair initialPair : trigger.getOverlappingPairCache().getOverlappingPairArray()) {
                 EntityRef otherEntity = null;
@@ -708,93 +1031,177 @@ public RigidBodyRequest(BulletRigidBody body, short groups, short filter) {
         }
     }
 
+    /**
+     * A rigid body in the physics world. Changes are applied on the thread stepping the world, and when that is the
+     * physics thread the getters return the state published after the last completed step.
+     */
     public static class BulletRigidBody implements RigidBody {
 
         public final com.bulletphysics.dynamics.RigidBody rb;
         public short collidesWith = 0;
+        private final BulletPhysics physics;
+        private final EntityMotionState motionState;
         private final Transform temp = new Transform();
         private final Vector3f pendingImpulse = new Vector3f();
         private final Vector3f pendingForce = new Vector3f();
+        private RigidBodyRequest lastInsertion;
 
-        BulletRigidBody(RigidBodyConstructionInfo info) {
+        BulletRigidBody(BulletPhysics physics, RigidBodyConstructionInfo info) {
+            this.physics = physics;
+            this.motionState = (info.motionState instanceof EntityMotionState) ? (EntityMotionState) info.motionState : null;
             rb = new com.bulletphysics.dynamics.RigidBody(info);
         }
 
+        private boolean isBuffered() {
+            return motionState != null && motionState.isBuffered();
+        }
+
         @Override
         public void applyImpulse(Vector3f impulse) {
-            pendingImpulse.add(impulse);
+            final Vector3f value = new Vector3f(impulse);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    pendingImpulse.add(value);
+                }
+            });
         }
 
         @Override
         public void applyForce(Vector3f force) {
-            pendingForce.add(force);
+            final Vector3f value = new Vector3f(force);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    pendingForce.add(value);
+                }
+            });
         }
 
         @Override
         public void translate(Vector3f translation) {
-            rb.translate(translation);
+            final Vector3f value = new Vector3f(translation);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.translate(value);
+                }
+            });
         }
 
         @Override
         public Quat4f getOrientation(Quat4f out) {
+            if (isBuffered()) {
+                return motionState.getRotation(out);
+            }
             return rb.getOrientation(out);
         }
 
         @Override
         public Vector3f getLocation(Vector3f out) {
+            if (isBuffered()) {
+                return motionState.getPosition(out);
+            }
             return rb.getCenterOfMassPosition(out);
         }
 
         @Override
         public Vector3f getLinearVelocity(Vector3f out) {
+            if (isBuffered()) {
+                return motionState.getLinearVelocity(out);
+            }
             return rb.getLinearVelocity(out);
         }
 
         @Override
         public Vector3f getAngularVelocity(Vector3f out) {
+            if (isBuffered()) {
+                return motionState.getAngularVelocity(out);
+            }
             return rb.getAngularVelocity(out);
         }
 
         @Override
         public void setLinearVelocity(Vector3f value) {
-            rb.setLinearVelocity(value);
+            final Vector3f linear = new Vector3f(value);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.setLinearVelocity(linear);
+                }
+            });
         }
 
         @Override
         public void setAngularVelocity(Vector3f value) {
-            rb.setAngularVelocity(value);
+            final Vector3f angular = new Vector3f(value);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.setAngularVelocity(angular);
+                }
+            });
         }
 
         @Override
         public void setOrientation(Quat4f orientation) {
-            rb.getWorldTransform(temp);
-            temp.setRotation(orientation);
-            rb.proceedToTransform(temp);
+            final Quat4f value = new Quat4f(orientation);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.getWorldTransform(temp);
+                    temp.setRotation(value);
+                    rb.proceedToTransform(temp);
+                }
+            });
         }
 
         @Override
         public void setLocation(Vector3f location) {
-            rb.getWorldTransform(temp);
-            temp.origin.set(location);
-            rb.proceedToTransform(temp);
+            final Vector3f value = new Vector3f(location);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.getWorldTransform(temp);
+                    temp.origin.set(value);
+                    rb.proceedToTransform(temp);
+                }
+            });
         }
 
         @Override
         public void setVelocity(Vector3f linear, Vector3f angular) {
-            rb.setLinearVelocity(linear);
-            rb.setAngularVelocity(angular);
+            final Vector3f linearValue = new Vector3f(linear);
+            final Vector3f angularValue = new Vector3f(angular);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.setLinearVelocity(linearValue);
+                    rb.setAngularVelocity(angularValue);
+                }
+            });
         }
 
         @Override
         public void setTransform(Vector3f location, Quat4f orientation) {
-            rb.getWorldTransform(temp);
-            temp.origin.set(location);
-            temp.setRotation(orientation);
-            rb.proceedToTransform(temp);
+            final Vector3f locationValue = new Vector3f(location);
+            final Quat4f orientationValue = new Quat4f(orientation);
+            physics.runOnWorld(new Runnable() {
+                @Override
+                public void run() {
+                    rb.getWorldTransform(temp);
+                    temp.origin.set(locationValue);
+                    temp.setRotation(orientationValue);
+                    rb.proceedToTransform(temp);
+                }
+            });
         }
 
         @Override
         public boolean isActive() {
+            if (isBuffered()) {
+                return motionState.isActive();
+            }
             return rb.isActive();
         }
     }
@@ -804,6 +1211,9 @@ private final class BulletCharacterMoverCollider implements CharacterCollider {
         boolean pending = true;
 
         private final Transform temp = new Transform();
+        // Only used while holding the world lock
+        private final Transform sweepStart = new Transform();
+        private final Transform sweepEnd = new Transform();
 
         //If a class can figure out that its Collider is a BulletCollider, it 
         //is allowed to gain direct access to the bullet body:
@@ -829,25 +1239,33 @@ public boolean isPending() {
 
         @Override
         public Vector3f getLocation(Vector3f out) {
-            collider.getWorldTransform(temp);
-            return temp.origin;
+            synchronized (worldLock) {
+                collider.getWorldTransform(temp);
+                return temp.origin;
+            }
         }
 
         @Override
         public void setLocation(Vector3f loc) {
-            collider.getWorldTransform(temp);
-            temp.origin.set(loc);
-            collider.setWorldTransform(temp);
+            synchronized (worldLock) {
+                collider.getWorldTransform(temp);
+                temp.origin.set(loc);
+                collider.setWorldTransform(temp);
+            }
         }
 
         @Override
         public BulletSweepCallback sweep(Vector3f startPos, Vector3f endPos, float allowedPenetration, float slopeFactor) {
-            Transform startTransform = new Transform(new Matrix4f(new Quat4f(0, 0, 0, 1), startPos, 1.0f));
-            Transform endTransform = new Transform(new Matrix4f(new Quat4f(0, 0, 0, 1), endPos, 1.0f));
             BulletSweepCallback callback = new BulletSweepCallback(collider, new Vector3f(0, 1, 0), slopeFactor);
-            callback.collisionFilterGroup = collider.getBroadphaseHandle().collisionFilterGroup;
-            callback.collisionFilterMask = collider.getBroadphaseHandle().collisionFilterMask;
-            collider.convexSweepTest((ConvexShape) (collider.getCollisionShape()), startTransform, endTransform, callback, allowedPenetration);
+            synchronized (worldLock) {
+                sweepStart.setIdentity();
+                sweepStart.origin.set(startPos);
+                sweepEnd.setIdentity();
+                sweepEnd.origin.set(endPos);
+                callback.collisionFilterGroup = collider.getBroadphaseHandle().collisionFilterGroup;
+                callback.collisionFilterMask = collider.getBroadphaseHandle().collisionFilterMask;
+                collider.convexSweepTest((ConvexShape) (collider.getCollisionShape()), sweepStart, sweepEnd, callback, allowedPenetration);
+            }
             return callback;
         }
     }
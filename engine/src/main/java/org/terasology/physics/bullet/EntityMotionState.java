@@ -23,16 +23,39 @@
 
 import javax.vecmath.Matrix4f;
 import javax.vecmath.Quat4f;
+import javax.vecmath.Vector3f;
 
 /**
  * This motion state is used to connect rigid body entities to their rigid body in the bullet physics engine.
  * Bullet reads the initial state of the rigid body out of the entity, and then updates its location and rotation
  * as it moves under physics.
+ * <p/>
+ * When the physics world is stepped on its own thread the motion state is buffered instead: Bullet never touches the
+ * entity. After every step the physics thread publishes the body's transform and velocity into the motion state, and
+ * the main thread moves the entity to a position interpolated between the last two published steps. Kinematic bodies
+ * work the other way around, the main thread hands the entity's location to the motion state for Bullet to read.
  *
  * @author Immortius
  */
 public class EntityMotionState extends MotionState {
     private EntityRef entity;
+    private final boolean buffered;
+
+    // Only used when buffered, guarded by this
+    private final Vector3f targetPosition = new Vector3f();
+    private final Quat4f targetRotation = new Quat4f(0, 0, 0, 1);
+    private final Vector3f previousPosition = new Vector3f();
+    private final Quat4f previousRotation = new Quat4f(0, 0, 0, 1);
+    private final Vector3f currentPosition = new Vector3f();
+    private final Quat4f currentRotation = new Quat4f(0, 0, 0, 1);
+    private final Vector3f linearVelocity = new Vector3f();
+    private final Vector3f angularVelocity = new Vector3f();
+    private boolean active = true;
+    private boolean kinematic;
+
+    // Only used by the main thread
+    private final Vector3f interpolatedPosition = new Vector3f();
+    private final Quat4f interpolatedRotation = new Quat4f();
 
     /**
      * Only the BulletPhysics class is expected to create instances.
@@ -42,10 +65,40 @@ public class EntityMotionState extends MotionState {
      */
     EntityMotionState(EntityRef entity) {
         this.entity = entity;
+        this.buffered = false;
+    }
+
+    /**
+     * Creates a buffered motion state, for a physics world stepped on another thread.
+     *
+     * @param entity    The entity to relate this motion state to.
+     * @param location  The current location of the entity, which seeds the published state.
+     * @param kinematic Whether the body is moved by the entity, rather than by physics.
+     */
+    EntityMotionState(EntityRef entity, LocationComponent location, boolean kinematic) {
+        this.entity = entity;
+        this.buffered = true;
+        this.kinematic = kinematic;
+        location.getWorldPosition(targetPosition);
+        location.getWorldRotation(targetRotation);
+        previousPosition.set(targetPosition);
+        currentPosition.set(targetPosition);
+        previousRotation.set(targetRotation);
+        currentRotation.set(targetRotation);
+    }
+
+    public boolean isBuffered() {
+        return buffered;
     }
 
     @Override
     public Transform getWorldTransform(Transform transform) {
+        if (buffered) {
+            synchronized (this) {
+                transform.set(new Matrix4f(targetRotation, targetPosition, 1));
+            }
+            return transform;
+        }
         LocationComponent loc = entity.getComponent(LocationComponent.class);
         if (loc != null) {
             // NOTE: JBullet ignores scale anyway
@@ -56,6 +109,10 @@ public Transform getWorldTransform(Transform transform) {
 
     @Override
     public void setWorldTransform(Transform transform) {
+        if (buffered) {
+            // Published explicitly after each step, see publish()
+            return;
+        }
         LocationComponent loc = entity.getComponent(LocationComponent.class);
         if (loc != null) {
             Quat4f rot = new Quat4f();
@@ -68,4 +125,74 @@ public void setWorldTransform(Transform transform) {
         }
     }
 
+    /**
+     * Publishes the state of the body after a completed step. Called by the thread stepping the physics world.
+     *
+     * @param body
+     * @param temp A transform to use as scratch space
+     */
+    synchronized void publish(com.bulletphysics.dynamics.RigidBody body, Transform temp) {
+        previousPosition.set(currentPosition);
+        previousRotation.set(currentRotation);
+        body.getWorldTransform(temp);
+        currentPosition.set(temp.origin);
+        temp.getRotation(currentRotation);
+        body.getLinearVelocity(linearVelocity);
+        body.getAngularVelocity(angularVelocity);
+        active = body.isActive();
+        kinematic = body.isKinematicObject();
+    }
+
+    /**
+     * Synchronizes the entity with the published state. Dynamic bodies move the entity to the state interpolated
+     * between the last two published steps, kinematic bodies take their target transform from the entity.
+     * Called by the main thread.
+     *
+     * @param alpha How far the main thread's clock is past the last step, as a fraction of a step.
+     */
+    void synchronize(float alpha) {
+        LocationComponent loc = entity.getComponent(LocationComponent.class);
+        if (loc == null) {
+            return;
+        }
+        synchronized (this) {
+            if (kinematic) {
+                loc.getWorldPosition(targetPosition);
+                loc.getWorldRotation(targetRotation);
+                return;
+            }
+            interpolatedPosition.interpolate(previousPosition, currentPosition, alpha);
+            interpolatedRotation.interpolate(previousRotation, currentRotation, alpha);
+        }
+        if (!interpolatedPosition.equals(loc.getWorldPosition()) || !interpolatedRotation.equals(loc.getWorldRotation())) {
+            loc.setWorldPosition(interpolatedPosition);
+            loc.setWorldRotation(interpolatedRotation);
+            entity.saveComponent(loc);
+        }
+    }
+
+    synchronized Vector3f getPosition(Vector3f out) {
+        out.set(currentPosition);
+        return out;
+    }
+
+    synchronized Quat4f getRotation(Quat4f out) {
+        out.set(currentRotation);
+        return out;
+    }
+
+    synchronized Vector3f getLinearVelocity(Vector3f out) {
+        out.set(linearVelocity);
+        return out;
+    }
+
+    synchronized Vector3f getAngularVelocity(Vector3f out) {
+        out.set(angularVelocity);
+        return out;
+    }
+
+    synchronized boolean isActive() {
+        return active;
+    }
+
 }
@@ -21,43 +21,93 @@
 import org.terasology.math.Vector3i;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkBlockCursor;
+import org.terasology.world.chunks.ChunkProvider;
 
 import javax.vecmath.Vector3f;
+import java.util.Arrays;
 
 /**
+ * Provides the physics engine with the liquid blocks of the world. As with {@link PhysicsWorldWrapper}, voxel info is
+ * shared per block, unless positional user data is on for a ray test.
+ *
  * @author Immortius
  */
 public class PhysicsLiquidWrapper implements VoxelPhysicsWorld {
     private WorldProvider world;
+    private ChunkBlockCursor cursor;
+    private LiquidVoxelInfo[] voxelInfos = new LiquidVoxelInfo[256];
+    private boolean positionalUserData;
 
     public PhysicsLiquidWrapper(WorldProvider world) {
+        this(world, null);
+    }
+
+    /**
+     * @param world
+     * @param chunkProvider If not null, blocks are read directly from the chunks of this provider
+     */
+    public PhysicsLiquidWrapper(WorldProvider world, ChunkProvider chunkProvider) {
         this.world = world;
+        if (chunkProvider != null) {
+            this.cursor = new ChunkBlockCursor(chunkProvider);
+        }
     }
 
     @Override
     public VoxelInfo getCollisionShapeAt(int x, int y, int z) {
-        Block block = world.getBlock(x, y, z);
-        return new LiquidVoxelInfo(block, new Vector3i(x, y, z));
+        Block block = (cursor != null) ? cursor.getBlock(x, y, z) : world.getBlock(x, y, z);
+        if (positionalUserData) {
+            return new LiquidVoxelInfo(block, new Vector3i(x, y, z));
+        }
+        int index = block.getId() & 0xFFFF;
+        if (index >= voxelInfos.length) {
+            voxelInfos = Arrays.copyOf(voxelInfos, Math.max(index + 1, voxelInfos.length * 2));
+        }
+        LiquidVoxelInfo info = voxelInfos[index];
+        if (info == null || info.block != block) {
+            info = new LiquidVoxelInfo(block, null);
+            voxelInfos[index] = info;
+        }
+        return info;
+    }
+
+    /**
+     * @param positionalUserData Whether voxels should have their position as user data, rather than their block
+     */
+    public void setPositionalUserData(boolean positionalUserData) {
+        this.positionalUserData = positionalUserData;
+    }
+
+    /**
+     * Drops the chunk held by the block cursor, should be called before each simulation step.
+     */
+    public void resetCursor() {
+        if (cursor != null) {
+            cursor.reset();
+        }
     }
 
     public void dispose() {
         world = null;
+        cursor = null;
+        voxelInfos = new LiquidVoxelInfo[0];
     }
 
     private static class LiquidVoxelInfo implements VoxelInfo {
 
-        private boolean colliding;
-        private boolean blocking;
-        private CollisionShape shape;
-        private Vector3i position;
-        private Vector3f offset;
+        private final Block block;
+        private final boolean colliding;
+        private final CollisionShape shape;
+        private final Vector3f offset;
+        private final Vector3i position;
 
         public LiquidVoxelInfo(Block block, Vector3i position) {
+            this.block = block;
+            this.position = position;
             this.shape = block.getCollisionShape();
             this.offset = block.getCollisionOffset();
             this.colliding = block.isLiquid();
-            this.blocking = false;
-            this.position = position;
         }
 
         @Override
@@ -67,7 +117,7 @@ public boolean isColliding() {
 
         @Override
         public Object getUserData() {
-            return position;
+            return (position != null) ? position : block;
         }
 
         @Override
@@ -82,7 +132,7 @@ public Vector3f getCollisionOffset() {
 
         @Override
         public boolean isBlocking() {
-            return blocking;
+            return false;
         }
     }
 }
@@ -73,6 +73,8 @@ public class PhysicsSystem extends BaseComponentSystem implements UpdateSubscrib
     private PhysicsEngine physics;
 
     private long lastNetsync;
+    private final Vector3f linearVelocity = new Vector3f();
+    private final Vector3f angularVelocity = new Vector3f();
 
     @Override
     public void initialise() {
@@ -143,15 +145,19 @@ public void update(float delta) {
         physics.update(delta);
         PerformanceMonitor.endActivity();
 
-        //Update the velocity from physics engine bodies to Components:
+        //Update the velocity from physics engine bodies to Components, skipping bodies at rest:
         Iterator<EntityRef> iter = physics.physicsEntitiesIterator();
         while (iter.hasNext()) {
             EntityRef entity = iter.next();
             RigidBodyComponent comp = entity.getComponent(RigidBodyComponent.class);
             RigidBody body = physics.getRigidBody(entity);
-            body.getLinearVelocity(comp.velocity);
-            body.getAngularVelocity(comp.angularVelocity);
-            entity.saveComponent(comp);
+            body.getLinearVelocity(linearVelocity);
+            body.getAngularVelocity(angularVelocity);
+            if (!linearVelocity.equals(comp.velocity) || !angularVelocity.equals(comp.angularVelocity)) {
+                comp.velocity.set(linearVelocity);
+                comp.angularVelocity.set(angularVelocity);
+                entity.saveComponent(comp);
+            }
         }
 
         if (networkSystem.getMode() == NetworkMode.SERVER && time.getGameTimeInMs() - TIME_BETWEEN_NETSYNCS > lastNetsync) {
@@ -22,46 +22,100 @@
 import org.terasology.math.Vector3i;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkBlockCursor;
+import org.terasology.world.chunks.ChunkProvider;
 
 import javax.vecmath.Vector3f;
+import java.util.Arrays;
 
 /**
  * This class links Terasology's voxel world with the physics engine, providing it with the collision information for each block location.
+ * <p/>
+ * The voxel info of each block is shared between all locations of that block, so that the many voxel queries of the
+ * physics engine don't allocate. The user data of such a voxel is its block. Ray tests need to know the position of the
+ * hit block, so while {@link #setPositionalUserData(boolean)} is on each voxel gets its own info, with its position as
+ * the user data.
  *
  * @author Immortius
  */
 public class PhysicsWorldWrapper implements VoxelPhysicsWorld {
 
     private WorldProvider world;
+    private ChunkBlockCursor cursor;
+    private TeraVoxelInfo[] voxelInfos = new TeraVoxelInfo[256];
+    private boolean positionalUserData;
 
     public PhysicsWorldWrapper(WorldProvider world) {
+        this(world, null);
+    }
+
+    /**
+     * @param world
+     * @param chunkProvider If not null, blocks are read directly from the chunks of this provider
+     */
+    public PhysicsWorldWrapper(WorldProvider world, ChunkProvider chunkProvider) {
         this.world = world;
+        if (chunkProvider != null) {
+            this.cursor = new ChunkBlockCursor(chunkProvider);
+        }
     }
 
     @Override
     public VoxelInfo getCollisionShapeAt(int x, int y, int z) {
-        Block block = world.getBlock(x, y, z);
-        return new TeraVoxelInfo(block, block.isTargetable(), !block.isPenetrable(), new Vector3i(x, y, z));
+        Block block = (cursor != null) ? cursor.getBlock(x, y, z) : world.getBlock(x, y, z);
+        if (positionalUserData) {
+            return new TeraVoxelInfo(block, block.isTargetable(), !block.isPenetrable(), new Vector3i(x, y, z));
+        }
+        int index = block.getId() & 0xFFFF;
+        if (index >= voxelInfos.length) {
+            voxelInfos = Arrays.copyOf(voxelInfos, Math.max(index + 1, voxelInfos.length * 2));
+        }
+        TeraVoxelInfo info = voxelInfos[index];
+        if (info == null || info.block != block) {
+            info = new TeraVoxelInfo(block, block.isTargetable(), !block.isPenetrable(), null);
+            voxelInfos[index] = info;
+        }
+        return info;
+    }
+
+    /**
+     * @param positionalUserData Whether voxels should have their position as user data, rather than their block
+     */
+    public void setPositionalUserData(boolean positionalUserData) {
+        this.positionalUserData = positionalUserData;
+    }
+
+    /**
+     * Drops the chunk held by the block cursor, should be called before each simulation step.
+     */
+    public void resetCursor() {
+        if (cursor != null) {
+            cursor.reset();
+        }
     }
 
     public void dispose() {
         world = null;
+        cursor = null;
+        voxelInfos = new TeraVoxelInfo[0];
     }
 
     private static class TeraVoxelInfo implements VoxelInfo {
 
-        private boolean colliding;
-        private boolean blocking;
-        private CollisionShape shape;
-        private Vector3i position;
-        private Vector3f offset;
+        private final Block block;
+        private final boolean colliding;
+        private final boolean blocking;
+        private final CollisionShape shape;
+        private final Vector3f offset;
+        private final Vector3i position;
 
         public TeraVoxelInfo(Block block, boolean colliding, boolean blocking, Vector3i position) {
+            this.block = block;
+            this.position = position;
             this.shape = block.getCollisionShape();
             this.offset = block.getCollisionOffset();
             this.colliding = shape != null && colliding;
             this.blocking = shape != null && blocking;
-            this.position = position;
         }
 
         @Override
@@ -71,7 +125,7 @@ public boolean isColliding() {
 
         @Override
         public Object getUserData() {
-            return position;
+            return (position != null) ? position : block;
         }
 
         @Override
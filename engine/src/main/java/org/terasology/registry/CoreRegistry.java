@@ -96,6 +96,7 @@ public static void clear() {
 
     public static <T> void remove(Class<T> type) {
         store.remove(type);
+        permStore.remove(type);
     }
 
 }
@@ -26,11 +26,14 @@
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import org.terasology.asset.Asset;
 import org.terasology.asset.AssetLoader;
+import org.terasology.asset.AssetManager;
 import org.terasology.asset.AssetType;
 import org.terasology.asset.AssetUri;
 import org.terasology.asset.Assets;
 import org.terasology.engine.module.Module;
+import org.terasology.registry.CoreRegistry;
 import org.terasology.rendering.assets.shader.Shader;
 import org.terasology.rendering.assets.texture.Texture;
 
@@ -94,9 +97,13 @@ public MaterialMetadata deserialize(JsonElement json, Type typeOfT, JsonDeserial
                 for (Map.Entry<String, JsonElement> prop : params.entrySet()) {
                     if (prop.getValue().isJsonPrimitive()) {
                         if (prop.getValue().getAsJsonPrimitive().isString()) {
-                            Texture texture = Assets.getTexture(prop.getValue().getAsString());
-                            if (texture != null) {
-                                metadata.textures.put(prop.getKey(), texture);
+                            String textureName = prop.getValue().getAsString();
+                            if (!textureName.isEmpty()) {
+                                // Not pinned, as the material retains its textures while it uses them
+                                Asset texture = CoreRegistry.get(AssetManager.class).resolveAndLoadUnpinned(AssetType.TEXTURE, textureName);
+                                if (texture instanceof Texture) {
+                                    metadata.textures.put(prop.getKey(), (Texture) texture);
+                                }
                             }
                         } else if (prop.getValue().getAsJsonPrimitive().isNumber()) {
                             metadata.floatParams.put(prop.getKey(), prop.getValue().getAsFloat());
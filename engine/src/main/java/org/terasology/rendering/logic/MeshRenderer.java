@@ -16,12 +16,16 @@
 package org.terasology.rendering.logic;
 
 import com.bulletphysics.linearmath.Transform;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
 import org.lwjgl.BufferUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.asset.Asset;
+import org.terasology.asset.AssetManager;
 import org.terasology.config.Config;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
@@ -32,6 +36,7 @@
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
 import org.terasology.entitySystem.systems.RenderSystem;
+import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.logic.characters.CharacterComponent;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.logic.players.LocalPlayer;
@@ -51,6 +56,8 @@
 import javax.vecmath.Vector3f;
 import java.nio.FloatBuffer;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -66,7 +73,7 @@
  * @author Immortius <immortius@gmail.com>
  */
 @RegisterSystem(RegisterMode.CLIENT)
-public class MeshRenderer extends BaseComponentSystem implements RenderSystem {
+public class MeshRenderer extends BaseComponentSystem implements UpdateSubscriberSystem, RenderSystem {
     private static final Logger logger = LoggerFactory.getLogger(MeshRenderer.class);
 
     @In
@@ -81,10 +88,15 @@ public class MeshRenderer extends BaseComponentSystem implements RenderSystem {
     @In
     private WorldRenderer worldRenderer;
 
+    @In
+    private AssetManager assetManager;
+
     private SetMultimap<Material, EntityRef> opaqueMesh = HashMultimap.create();
     private SetMultimap<Material, EntityRef> translucentMesh = HashMultimap.create();
     private Map<EntityRef, Material> opaqueEntities = Maps.newHashMap();
     private Map<EntityRef, Material> translucentEntities = Maps.newHashMap();
+    // The meshes and materials held in the asset manager while their entities are rendered
+    private ListMultimap<EntityRef, Asset> retainedAssets = ArrayListMultimap.create();
 
     private NearestSortingList opaqueMeshSorter = new NearestSortingList();
     private NearestSortingList translucentMeshSorter = new NearestSortingList();
@@ -101,6 +113,16 @@ public void initialise() {
     public void shutdown() {
         opaqueMeshSorter.stop();
         translucentMeshSorter.stop();
+        release(retainedAssets.values());
+        retainedAssets.clear();
+    }
+
+    @Override
+    public void update(float delta) {
+        if (config.getRendering().isRenderNearest()) {
+            opaqueMeshSorter.update();
+            translucentMeshSorter.update();
+        }
     }
 
     @ReceiveEvent(components = {MeshComponent.class, LocationComponent.class})
@@ -118,6 +140,10 @@ private void addMesh(EntityRef entity) {
             }
         }
         if (meshComp.material != null) {
+            retain(entity, meshComp.material);
+            if (meshComp.mesh != null) {
+                retain(entity, meshComp.mesh);
+            }
             if (meshComp.translucent) {
                 translucentMesh.put(meshComp.material, entity);
                 translucentEntities.put(entity, meshComp.material);
@@ -132,14 +158,32 @@ private void addMesh(EntityRef entity) {
 
     @ReceiveEvent(components = {CharacterComponent.class, MeshComponent.class})
     public void onLocalMesh(OnChangedComponent event, EntityRef entity) {
-        removeMesh(entity);
-        addMesh(entity);
+        updateMesh(entity);
     }
 
     @ReceiveEvent(components = {MeshComponent.class})
     public void onChangeMesh(OnChangedComponent event, EntityRef entity) {
+        updateMesh(entity);
+    }
+
+    private void updateMesh(EntityRef entity) {
+        // The previous assets are released last, so the ones still in use aren't evicted in between
+        List<Asset> previousAssets = retainedAssets.removeAll(entity);
         removeMesh(entity);
         addMesh(entity);
+        release(previousAssets);
+    }
+
+    private void retain(EntityRef entity, Asset asset) {
+        if (assetManager.retain(asset)) {
+            retainedAssets.put(entity, asset);
+        }
+    }
+
+    private void release(Collection<Asset> assets) {
+        for (Asset asset : assets) {
+            assetManager.release(asset);
+        }
     }
 
     private void removeMesh(EntityRef entity) {
@@ -159,6 +203,7 @@ private void removeMesh(EntityRef entity) {
     @ReceiveEvent(components = {MeshComponent.class, LocationComponent.class})
     public void onDestroyMesh(BeforeDeactivateComponent event, EntityRef entity) {
         removeMesh(entity);
+        release(retainedAssets.removeAll(entity));
     }
 
     @Override
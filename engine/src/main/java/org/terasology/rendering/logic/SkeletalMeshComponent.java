@@ -40,9 +40,12 @@ public class SkeletalMeshComponent implements Component {
     @Range(min = -2.5f, max = 2.5f)
     public float heightOffset;
 
+    /**
+     * Entities following individual bones, for attaching other entities to. These are only created on request (see
+     * SkeletonRenderer.getBoneEntity) - the pose itself is held by the renderer.
+     */
     @Owns
     public Map<String, EntityRef> boneEntities;
-    public EntityRef rootBone = EntityRef.NULL;
     public float animationTime;
 
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.rendering.logic;
+
+import com.google.common.collect.Maps;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.terasology.rendering.assets.animation.MeshAnimation;
+import org.terasology.rendering.assets.animation.MeshAnimationFrame;
+import org.terasology.rendering.assets.skeletalmesh.Bone;
+import org.terasology.rendering.assets.skeletalmesh.SkeletalMesh;
+
+import javax.vecmath.Quat4f;
+import javax.vecmath.Vector3f;
+import java.util.Map;
+
+/**
+ * The current pose of a single skeleton, stored as flat float arrays indexed by bone index.
+ * <p/>
+ * Local transforms are relative to the parent bone, model transforms are relative to the owning entity (before
+ * the entity's world scale is applied). Positions take three floats per bone, rotations four (x, y, z, w).
+ * <p/>
+ * A pose is only ever touched by one thread at a time, so different poses may be sampled concurrently.
+ */
+public class SkeletonPose {
+
+    private static final float SLERP_EPSILON = 1.0e-6f;
+
+    private final SkeletalMesh mesh;
+    private final int boneCount;
+    private final int[] parents;
+    private final int[] evaluationOrder;
+    private final Map<String, Integer> boneIndices = Maps.newHashMap();
+
+    private final float[] localPositions;
+    private final float[] localRotations;
+    private final float[] modelPositions;
+    private final float[] modelRotations;
+
+    private MeshAnimation mappedAnimation;
+    private int[] animationBoneMapping = new int[0];
+
+    public SkeletonPose(SkeletalMesh mesh) {
+        this.mesh = mesh;
+        this.boneCount = mesh.getBones().size();
+        this.parents = new int[boneCount];
+        this.localPositions = new float[boneCount * 3];
+        this.localRotations = new float[boneCount * 4];
+        this.modelPositions = new float[boneCount * 3];
+        this.modelRotations = new float[boneCount * 4];
+
+        TIntList order = new TIntArrayList(boneCount);
+        for (Bone bone : mesh.getBones()) {
+            int index = bone.getIndex();
+            boneIndices.put(bone.getName(), index);
+            parents[index] = (bone.getParent() != null) ? bone.getParent().getIndex() : -1;
+            setLocal(index, bone.getLocalPosition(), bone.getLocalRotation());
+            if (bone.getParent() == null) {
+                addInHierarchyOrder(bone, order);
+            }
+        }
+        this.evaluationOrder = order.toArray();
+        updateModelSpace();
+    }
+
+    private static void addInHierarchyOrder(Bone bone, TIntList order) {
+        order.add(bone.getIndex());
+        for (Bone child : bone.getChildren()) {
+            addInHierarchyOrder(child, order);
+        }
+    }
+
+    public SkeletalMesh getMesh() {
+        return mesh;
+    }
+
+    public int getBoneCount() {
+        return boneCount;
+    }
+
+    /**
+     * @param boneName
+     * @return The index of the bone with the given name, or -1 if there is no such bone
+     */
+    public int getBoneIndex(String boneName) {
+        Integer index = boneIndices.get(boneName);
+        return (index != null) ? index : -1;
+    }
+
+    public int getParentIndex(int bone) {
+        return parents[bone];
+    }
+
+    /**
+     * Samples the given animation between two frames into the local pose, and recalculates the model pose.
+     * Bones not driven by the animation keep their previous local transform.
+     *
+     * @param animation
+     * @param frameA
+     * @param frameB
+     * @param interpolationVal The blend factor between frameA (0) and frameB (1)
+     */
+    public void sample(MeshAnimation animation, MeshAnimationFrame frameA, MeshAnimationFrame frameB, float interpolationVal) {
+        int[] mapping = getAnimationBoneMapping(animation);
+        for (int i = 0; i < mapping.length; ++i) {
+            int bone = mapping[i];
+            if (bone < 0) {
+                continue;
+            }
+            Vector3f posA = frameA.getPosition(i);
+            Vector3f posB = frameB.getPosition(i);
+            int p = bone * 3;
+            localPositions[p] = posA.x + (posB.x - posA.x) * interpolationVal;
+            localPositions[p + 1] = posA.y + (posB.y - posA.y) * interpolationVal;
+            localPositions[p + 2] = posA.z + (posB.z - posA.z) * interpolationVal;
+            slerp(frameA.getRotation(i), frameB.getRotation(i), interpolationVal, localRotations, bone * 4);
+        }
+        updateModelSpace();
+    }
+
+    public Vector3f getLocalPosition(int bone, Vector3f output) {
+        output.set(localPositions[bone * 3], localPositions[bone * 3 + 1], localPositions[bone * 3 + 2]);
+        return output;
+    }
+
+    public Quat4f getLocalRotation(int bone, Quat4f output) {
+        output.set(localRotations[bone * 4], localRotations[bone * 4 + 1], localRotations[bone * 4 + 2], localRotations[bone * 4 + 3]);
+        return output;
+    }
+
+    public Vector3f getModelPosition(int bone, Vector3f output) {
+        output.set(modelPositions[bone * 3], modelPositions[bone * 3 + 1], modelPositions[bone * 3 + 2]);
+        return output;
+    }
+
+    public Quat4f getModelRotation(int bone, Quat4f output) {
+        output.set(modelRotations[bone * 4], modelRotations[bone * 4 + 1], modelRotations[bone * 4 + 2], modelRotations[bone * 4 + 3]);
+        return output;
+    }
+
+    private int[] getAnimationBoneMapping(MeshAnimation animation) {
+        if (animation != mappedAnimation || animationBoneMapping.length != animation.getBoneCount()) {
+            animationBoneMapping = new int[animation.getBoneCount()];
+            for (int i = 0; i < animationBoneMapping.length; ++i) {
+                animationBoneMapping[i] = getBoneIndex(animation.getBoneName(i));
+            }
+            mappedAnimation = animation;
+        }
+        return animationBoneMapping;
+    }
+
+    private void setLocal(int bone, Vector3f position, Quat4f rotation) {
+        localPositions[bone * 3] = position.x;
+        localPositions[bone * 3 + 1] = position.y;
+        localPositions[bone * 3 + 2] = position.z;
+        localRotations[bone * 4] = rotation.x;
+        localRotations[bone * 4 + 1] = rotation.y;
+        localRotations[bone * 4 + 2] = rotation.z;
+        localRotations[bone * 4 + 3] = rotation.w;
+    }
+
+    private void updateModelSpace() {
+        for (int bone : evaluationOrder) {
+            int p = bone * 3;
+            int r = bone * 4;
+            int parent = parents[bone];
+            if (parent < 0) {
+                System.arraycopy(localPositions, p, modelPositions, p, 3);
+                System.arraycopy(localRotations, r, modelRotations, r, 4);
+                continue;
+            }
+            int pp = parent * 3;
+            int pr = parent * 4;
+            float qx = modelRotations[pr];
+            float qy = modelRotations[pr + 1];
+            float qz = modelRotations[pr + 2];
+            float qw = modelRotations[pr + 3];
+
+            // position = parentPosition + parentRotation * localPosition
+            float vx = localPositions[p];
+            float vy = localPositions[p + 1];
+            float vz = localPositions[p + 2];
+            float tx = 2 * (qy * vz - qz * vy);
+            float ty = 2 * (qz * vx - qx * vz);
+            float tz = 2 * (qx * vy - qy * vx);
+            modelPositions[p] = modelPositions[pp] + vx + qw * tx + (qy * tz - qz * ty);
+            modelPositions[p + 1] = modelPositions[pp + 1] + vy + qw * ty + (qz * tx - qx * tz);
+            modelPositions[p + 2] = modelPositions[pp + 2] + vz + qw * tz + (qx * ty - qy * tx);
+
+            // rotation = parentRotation * localRotation
+            float lx = localRotations[r];
+            float ly = localRotations[r + 1];
+            float lz = localRotations[r + 2];
+            float lw = localRotations[r + 3];
+            modelRotations[r] = qw * lx + qx * lw + qy * lz - qz * ly;
+            modelRotations[r + 1] = qw * ly + qy * lw + qz * lx - qx * lz;
+            modelRotations[r + 2] = qw * lz + qz * lw + qx * ly - qy * lx;
+            modelRotations[r + 3] = qw * lw - qx * lx - qy * ly - qz * lz;
+        }
+    }
+
+    private static void slerp(Quat4f a, Quat4f b, float t, float[] out, int offset) {
+        float bx = b.x;
+        float by = b.y;
+        float bz = b.z;
+        float bw = b.w;
+        float dot = a.x * bx + a.y * by + a.z * bz + a.w * bw;
+        if (dot < 0) {
+            dot = -dot;
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+        }
+        float scaleA;
+        float scaleB;
+        if (1.0f - dot > SLERP_EPSILON) {
+            double omega = Math.acos(dot);
+            double sinOmega = Math.sin(omega);
+            scaleA = (float) (Math.sin((1.0 - t) * omega) / sinOmega);
+            scaleB = (float) (Math.sin(t * omega) / sinOmega);
+        } else {
+            scaleA = 1.0f - t;
+            scaleB = t;
+        }
+        float x = scaleA * a.x + scaleB * bx;
+        float y = scaleA * a.y + scaleB * by;
+        float z = scaleA * a.z + scaleB * bz;
+        float w = scaleA * a.w + scaleB * bw;
+        float length = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+        if (length > 0) {
+            x /= length;
+            y /= length;
+            z /= length;
+            w /= length;
+        }
+        out[offset] = x;
+        out[offset + 1] = y;
+        out[offset + 2] = z;
+        out[offset + 3] = w;
+    }
+}
@@ -17,17 +17,24 @@
 package org.terasology.rendering.logic;
 
 import com.bulletphysics.linearmath.QuaternionUtil;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.asset.Asset;
+import org.terasology.asset.AssetManager;
 import org.terasology.asset.Assets;
 import org.terasology.config.Config;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
 import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
@@ -38,10 +45,10 @@
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.math.MatrixUtils;
 import org.terasology.registry.In;
+import org.terasology.registry.Share;
 import org.terasology.rendering.assets.animation.MeshAnimation;
 import org.terasology.rendering.assets.animation.MeshAnimationFrame;
 import org.terasology.rendering.assets.material.Material;
-import org.terasology.rendering.assets.skeletalmesh.Bone;
 import org.terasology.rendering.opengl.OpenGLSkeletalMesh;
 import org.terasology.rendering.world.WorldRenderer;
 
@@ -49,7 +56,14 @@
 import javax.vecmath.Quat4f;
 import javax.vecmath.Vector3f;
 import java.nio.FloatBuffer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.lwjgl.opengl.GL11.GL_DEPTH_TEST;
 import static org.lwjgl.opengl.GL11.glBegin;
@@ -57,18 +71,22 @@
 import static org.lwjgl.opengl.GL11.glEnable;
 import static org.lwjgl.opengl.GL11.glEnd;
 import static org.lwjgl.opengl.GL11.glLineWidth;
-import static org.lwjgl.opengl.GL11.glPopMatrix;
-import static org.lwjgl.opengl.GL11.glPushMatrix;
 import static org.lwjgl.opengl.GL11.glVertex3f;
 
 /**
  * @author Immortius
  */
 @RegisterSystem(RegisterMode.CLIENT)
+@Share(SkeletonRenderer.class)
 public class SkeletonRenderer extends BaseComponentSystem implements RenderSystem, UpdateSubscriberSystem {
 
     private static final Logger logger = LoggerFactory.getLogger(SkeletonRenderer.class);
 
+    /**
+     * The minimum number of skeletons animated in a frame before sampling is split across threads
+     */
+    private static final int MIN_PARALLEL_SAMPLES = 16;
+
     @In
     private EntityManager entityManager;
 
@@ -78,86 +96,233 @@ public class SkeletonRenderer extends BaseComponentSystem implements RenderSyste
     @In
     private Config config;
 
+    @In
+    private AssetManager assetManager;
+
+    private Map<EntityRef, SkeletonPose> poses = Maps.newHashMap();
+    // The meshes and materials held in the asset manager while their skeletons are rendered
+    private ListMultimap<EntityRef, Asset> retainedAssets = ArrayListMultimap.create();
+    private ExecutorService animationExecutor;
+
+    @Override
+    public void shutdown() {
+        if (animationExecutor != null) {
+            animationExecutor.shutdownNow();
+            animationExecutor = null;
+        }
+        poses.clear();
+        release(retainedAssets.values());
+        retainedAssets.clear();
+    }
+
     @ReceiveEvent(components = {SkeletalMeshComponent.class, LocationComponent.class})
     public void newSkeleton(OnActivatedComponent event, EntityRef entity) {
         SkeletalMeshComponent skeleton = entity.getComponent(SkeletalMeshComponent.class);
         if (skeleton.mesh == null) {
             return;
         }
+        retainAssets(entity, skeleton);
+
+        SkeletonPose pose = new SkeletonPose(skeleton.mesh);
+        poses.put(entity, pose);
+
+        if (skeleton.boneEntities != null && !skeleton.boneEntities.isEmpty()) {
+            // Attachments are parented directly to the skeleton entity, and follow the model space pose
+            Vector3f pos = new Vector3f();
+            Quat4f rot = new Quat4f();
+            for (Map.Entry<String, EntityRef> boneEntry : skeleton.boneEntities.entrySet()) {
+                int boneIndex = pose.getBoneIndex(boneEntry.getKey());
+                if (boneIndex >= 0) {
+                    Location.attachChild(entity, boneEntry.getValue(), pose.getModelPosition(boneIndex, pos), pose.getModelRotation(boneIndex, rot));
+                }
+            }
+        }
+    }
+
+    @ReceiveEvent(components = {SkeletalMeshComponent.class, LocationComponent.class})
+    public void removedSkeleton(BeforeDeactivateComponent event, EntityRef entity) {
+        poses.remove(entity);
+        release(retainedAssets.removeAll(entity));
+    }
 
+    @ReceiveEvent(components = {SkeletalMeshComponent.class, LocationComponent.class})
+    public void changedSkeleton(OnChangedComponent event, EntityRef entity) {
+        // The previous assets are released last, so the ones still in use aren't evicted in between
+        List<Asset> previousAssets = retainedAssets.removeAll(entity);
+        SkeletalMeshComponent skeleton = entity.getComponent(SkeletalMeshComponent.class);
+        if (skeleton.mesh != null) {
+            retainAssets(entity, skeleton);
+        }
+        release(previousAssets);
+    }
+
+    private void retainAssets(EntityRef entity, SkeletalMeshComponent skeleton) {
+        if (assetManager.retain(skeleton.mesh)) {
+            retainedAssets.put(entity, skeleton.mesh);
+        }
+        if (skeleton.material != null && assetManager.retain(skeleton.material)) {
+            retainedAssets.put(entity, skeleton.material);
+        }
+    }
+
+    private void release(Collection<Asset> assets) {
+        for (Asset asset : assets) {
+            assetManager.release(asset);
+        }
+    }
+
+    /**
+     * @param entity An entity with a skeletal mesh
+     * @return The current pose of the entity's skeleton, or null if it has no skeleton
+     */
+    public SkeletonPose getPose(EntityRef entity) {
+        SkeletalMeshComponent skeleton = entity.getComponent(SkeletalMeshComponent.class);
+        if (skeleton == null || skeleton.mesh == null) {
+            return null;
+        }
+        return getPose(entity, skeleton);
+    }
+
+    private SkeletonPose getPose(EntityRef entity, SkeletalMeshComponent skeleton) {
+        SkeletonPose pose = poses.get(entity);
+        if (pose == null || pose.getMesh() != skeleton.mesh) {
+            pose = new SkeletonPose(skeleton.mesh);
+            poses.put(entity, pose);
+        }
+        return pose;
+    }
+
+    /**
+     * Provides an entity that follows the given bone of a skeleton, so that other entities can be attached to it.
+     * Bone entities are only created on request, and are kept up to date while the skeleton is animated.
+     *
+     * @param entity   An entity with a skeletal mesh
+     * @param boneName The name of the bone
+     * @return The entity for the bone, or EntityRef.NULL if there is no such bone
+     */
+    public EntityRef getBoneEntity(EntityRef entity, String boneName) {
+        SkeletalMeshComponent skeleton = entity.getComponent(SkeletalMeshComponent.class);
+        if (skeleton == null || skeleton.mesh == null || !entity.hasComponent(LocationComponent.class)) {
+            return EntityRef.NULL;
+        }
         if (skeleton.boneEntities == null) {
             skeleton.boneEntities = Maps.newHashMap();
-            for (Bone bone : skeleton.mesh.getBones()) {
-                LocationComponent loc = new LocationComponent();
-                EntityRef parent = (bone.getParent() != null) ? skeleton.boneEntities.get(bone.getParent().getName()) : entity;
-                EntityRef boneEntity = entityManager.create(loc);
-                Location.attachChild(parent, boneEntity);
-                loc.setLocalPosition(bone.getLocalPosition());
-                loc.setLocalRotation(bone.getLocalRotation());
-
-                if (bone.getParent() == null) {
-                    skeleton.rootBone = boneEntity;
-                }
-                skeleton.boneEntities.put(bone.getName(), boneEntity);
-            }
-            entity.saveComponent(skeleton);
         }
+        EntityRef boneEntity = skeleton.boneEntities.get(boneName);
+        if (boneEntity != null && boneEntity.exists()) {
+            return boneEntity;
+        }
+
+        SkeletonPose pose = getPose(entity, skeleton);
+        int boneIndex = pose.getBoneIndex(boneName);
+        if (boneIndex < 0) {
+            return EntityRef.NULL;
+        }
+        boneEntity = entityManager.create(new LocationComponent());
+        Location.attachChild(entity, boneEntity, pose.getModelPosition(boneIndex, new Vector3f()), pose.getModelRotation(boneIndex, new Quat4f()));
+        skeleton.boneEntities.put(boneName, boneEntity);
+        entity.saveComponent(skeleton);
+        return boneEntity;
     }
 
     @Override
     public void update(float delta) {
+        List<PoseSample> samples = Lists.newArrayList();
         for (EntityRef entity : entityManager.getEntitiesWith(SkeletalMeshComponent.class, LocationComponent.class)) {
             SkeletalMeshComponent skeletalMeshComp = entity.getComponent(SkeletalMeshComponent.class);
-            if (skeletalMeshComp.animation != null && skeletalMeshComp.animation.getFrameCount() > 0) {
+            if (skeletalMeshComp.mesh != null && skeletalMeshComp.animation != null && skeletalMeshComp.animation.getFrameCount() > 0) {
+                MeshAnimation animation = skeletalMeshComp.animation;
+                SkeletonPose pose = getPose(entity, skeletalMeshComp);
                 skeletalMeshComp.animationTime += delta * skeletalMeshComp.animationRate;
-                float framePos = skeletalMeshComp.animationTime / skeletalMeshComp.animation.getTimePerFrame();
+                float framePos = skeletalMeshComp.animationTime / animation.getTimePerFrame();
 
                 if (skeletalMeshComp.loop) {
-                    while ((int) framePos >= skeletalMeshComp.animation.getFrameCount()) {
-                        framePos -= skeletalMeshComp.animation.getFrameCount();
-                        skeletalMeshComp.animationTime -= skeletalMeshComp.animation.getTimePerFrame() * skeletalMeshComp.animation.getFrameCount();
+                    while ((int) framePos >= animation.getFrameCount()) {
+                        framePos -= animation.getFrameCount();
+                        skeletalMeshComp.animationTime -= animation.getTimePerFrame() * animation.getFrameCount();
                     }
                     int frameId = (int) framePos;
-                    MeshAnimationFrame frameA = skeletalMeshComp.animation.getFrame(frameId);
-                    MeshAnimationFrame frameB = skeletalMeshComp.animation.getFrame((frameId + 1) % skeletalMeshComp.animation.getFrameCount());
-                    updateSkeleton(skeletalMeshComp, frameA, frameB, framePos - frameId);
+                    MeshAnimationFrame frameA = animation.getFrame(frameId);
+                    MeshAnimationFrame frameB = animation.getFrame((frameId + 1) % animation.getFrameCount());
+                    samples.add(new PoseSample(entity, skeletalMeshComp, pose, animation, frameA, frameB, framePos - frameId));
                 } else {
-                    if ((int) framePos >= skeletalMeshComp.animation.getFrameCount()) {
-                        MeshAnimationFrame frame = skeletalMeshComp.animation.getFrame(skeletalMeshComp.animation.getFrameCount() - 1);
-                        updateSkeleton(skeletalMeshComp, frame, frame, 1.0f);
-                        MeshAnimation animation = skeletalMeshComp.animation;
+                    if ((int) framePos >= animation.getFrameCount()) {
+                        MeshAnimationFrame frame = animation.getFrame(animation.getFrameCount() - 1);
+                        PoseSample sample = new PoseSample(entity, skeletalMeshComp, pose, animation, frame, frame, 1.0f);
+                        sample.finished = true;
+                        samples.add(sample);
                         skeletalMeshComp.animationTime = 0;
                         skeletalMeshComp.animation = null;
-                        entity.send(new AnimEndEvent(animation));
                     } else {
                         int frameId = (int) framePos;
-                        MeshAnimationFrame frameA = skeletalMeshComp.animation.getFrame(frameId);
-                        MeshAnimationFrame frameB = (frameId + 1 >= skeletalMeshComp.animation.getFrameCount()) ? frameA : skeletalMeshComp.animation.getFrame(frameId + 1);
-                        updateSkeleton(skeletalMeshComp, frameA, frameB, framePos - frameId);
+                        MeshAnimationFrame frameA = animation.getFrame(frameId);
+                        MeshAnimationFrame frameB = (frameId + 1 >= animation.getFrameCount()) ? frameA : animation.getFrame(frameId + 1);
+                        samples.add(new PoseSample(entity, skeletalMeshComp, pose, animation, frameA, frameB, framePos - frameId));
                     }
                 }
-                entity.saveComponent(skeletalMeshComp);
             }
         }
+
+        samplePoses(samples);
+
+        for (PoseSample sample : samples) {
+            updateBoneEntities(sample.skeleton, sample.pose);
+            if (sample.finished) {
+                sample.entity.send(new AnimEndEvent(sample.animation));
+            }
+            sample.entity.saveComponent(sample.skeleton);
+        }
     }
 
-    private void updateSkeleton(SkeletalMeshComponent skeletalMeshComp, MeshAnimationFrame frameA, MeshAnimationFrame frameB, float interpolationVal) {
-        Vector3f newPos = new Vector3f();
-        Quat4f newRot = new Quat4f();
+    private void samplePoses(List<PoseSample> samples) {
+        int threads = config.getSystem().getMaxThreads();
+        if (!config.getRendering().isParallelAnimation() || threads <= 1 || samples.size() < MIN_PARALLEL_SAMPLES) {
+            for (PoseSample sample : samples) {
+                sample.run();
+            }
+            return;
+        }
 
-        for (int i = 0; i < skeletalMeshComp.animation.getBoneCount(); ++i) {
-            EntityRef boneEntity = skeletalMeshComp.boneEntities.get(skeletalMeshComp.animation.getBoneName(i));
-            if (boneEntity == null) {
-                continue;
+        if (animationExecutor == null) {
+            animationExecutor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("Animation-%d").setDaemon(true).build());
+        }
+        List<Callable<Object>> batches = Lists.newArrayListWithCapacity(threads);
+        int batchSize = (samples.size() + threads - 1) / threads;
+        for (int start = 0; start < samples.size(); start += batchSize) {
+            final List<PoseSample> batch = samples.subList(start, Math.min(start + batchSize, samples.size()));
+            batches.add(Executors.callable(new Runnable() {
+                @Override
+                public void run() {
+                    for (PoseSample sample : batch) {
+                        sample.run();
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<Object> result : animationExecutor.invokeAll(batches)) {
+                result.get();
             }
-            LocationComponent boneLoc = boneEntity.getComponent(LocationComponent.class);
-            if (boneLoc != null) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Failed to sample skeletal animation", e.getCause());
+        }
+    }
 
-                newPos.interpolate(frameA.getPosition(i), frameB.getPosition(i), interpolationVal);
-                boneLoc.setLocalPosition(newPos);
-                newRot.interpolate(frameA.getRotation(i), frameB.getRotation(i), interpolationVal);
-                newRot.normalize();
-                boneLoc.setLocalRotation(newRot);
+    private void updateBoneEntities(SkeletalMeshComponent skeleton, SkeletonPose pose) {
+        if (skeleton.boneEntities == null || skeleton.boneEntities.isEmpty()) {
+            return;
+        }
+        Vector3f pos = new Vector3f();
+        Quat4f rot = new Quat4f();
+        for (Map.Entry<String, EntityRef> boneEntry : skeleton.boneEntities.entrySet()) {
+            int boneIndex = pose.getBoneIndex(boneEntry.getKey());
+            EntityRef boneEntity = boneEntry.getValue();
+            LocationComponent boneLoc = boneEntity.getComponent(LocationComponent.class);
+            if (boneIndex >= 0 && boneLoc != null) {
+                boneLoc.setLocalPosition(pose.getModelPosition(boneIndex, pos));
+                boneLoc.setLocalRotation(pose.getModelRotation(boneIndex, rot));
                 boneEntity.saveComponent(boneLoc);
             }
         }
@@ -213,27 +378,17 @@ public void renderOpaque() {
             skeletalMesh.material.setFloat("blockLight", worldRenderer.getBlockLightValueAt(worldPos), true);
 
             // TODO: Add frustum culling here
-            List<Vector3f> bonePositions = Lists.newArrayListWithCapacity(skeletalMesh.mesh.getVertexCount());
-            List<Quat4f> boneRotations = Lists.newArrayListWithCapacity(skeletalMesh.mesh.getVertexCount());
-            for (Bone bone : skeletalMesh.mesh.getBones()) {
-                EntityRef boneEntity = skeletalMesh.boneEntities.get(bone.getName());
-                if (boneEntity == null) {
-                    boneEntity = EntityRef.NULL;
-                }
-                LocationComponent boneLocation = boneEntity.getComponent(LocationComponent.class);
-                if (boneLocation != null) {
-                    Vector3f pos = boneLocation.getWorldPosition();
-                    pos.sub(worldPos);
-                    QuaternionUtil.quatRotate(inverseWorldRot, pos, pos);
-                    bonePositions.add(pos);
-                    Quat4f rot = new Quat4f();
-                    rot.mul(inverseWorldRot, boneLocation.getWorldRotation());
-                    boneRotations.add(rot);
-                } else {
-                    logger.warn("Unable to resolve bone \"{}\"", bone.getName());
-                    bonePositions.add(new Vector3f());
-                    boneRotations.add(new Quat4f());
-                }
+            SkeletonPose pose = getPose(entity, skeletalMesh);
+            Vector3f heightOffset = new Vector3f(0, skeletalMesh.heightOffset, 0);
+            QuaternionUtil.quatRotate(inverseWorldRot, heightOffset, heightOffset);
+            List<Vector3f> bonePositions = Lists.newArrayListWithCapacity(pose.getBoneCount());
+            List<Quat4f> boneRotations = Lists.newArrayListWithCapacity(pose.getBoneCount());
+            for (int i = 0; i < pose.getBoneCount(); ++i) {
+                Vector3f pos = pose.getModelPosition(i, new Vector3f());
+                pos.scale(worldScale);
+                pos.add(heightOffset);
+                bonePositions.add(pos);
+                boneRotations.add(pose.getModelRotation(i, new Quat4f()));
             }
             ((OpenGLSkeletalMesh) skeletalMesh.mesh).render(bonePositions, boneRotations);
         }
@@ -280,7 +435,9 @@ public void renderOverlay() {
                 material.setMatrix3("normalMatrix", tempMatrixBuffer33, true);
 
                 SkeletalMeshComponent skeletalMesh = entity.getComponent(SkeletalMeshComponent.class);
-                renderBone(skeletalMesh.rootBone, worldPos);
+                if (skeletalMesh.mesh != null) {
+                    renderBones(getPose(entity, skeletalMesh), location.getWorldRotation(), worldScale);
+                }
             }
             glEnable(GL_DEPTH_TEST);
         }
@@ -294,49 +451,54 @@ public void renderFirstPerson() {
     public void renderShadows() {
     }
 
-    private void renderBoneOrientation(EntityRef boneEntity) {
-        LocationComponent loc = boneEntity.getComponent(LocationComponent.class);
-        if (loc == null) {
-            return;
-        }
-        glPushMatrix();
-        Vector3f worldPosA = loc.getWorldPosition();
-        Quat4f worldRot = loc.getWorldRotation();
-        Vector3f offset = new Vector3f(0, 0, 0.1f);
-        QuaternionUtil.quatRotate(worldRot, offset, offset);
-        offset.add(worldPosA);
-
+    private void renderBones(SkeletonPose pose, Quat4f worldRot, float worldScale) {
+        Vector3f worldPosA = new Vector3f();
+        Vector3f worldPosB = new Vector3f();
         glBegin(GL11.GL_LINES);
-        glVertex3f(worldPosA.x, worldPosA.y, worldPosA.z);
-        glVertex3f(offset.x, offset.y, offset.z);
-        glEnd();
-
-        for (EntityRef child : loc.getChildren()) {
-            renderBoneOrientation(child);
+        for (int i = 0; i < pose.getBoneCount(); ++i) {
+            int parent = pose.getParentIndex(i);
+            if (parent >= 0) {
+                pose.getModelPosition(i, worldPosA);
+                worldPosA.scale(worldScale);
+                QuaternionUtil.quatRotate(worldRot, worldPosA, worldPosA);
+                pose.getModelPosition(parent, worldPosB);
+                worldPosB.scale(worldScale);
+                QuaternionUtil.quatRotate(worldRot, worldPosB, worldPosB);
+
+                glVertex3f(worldPosA.x, worldPosA.y, worldPosA.z);
+                glVertex3f(worldPosB.x, worldPosB.y, worldPosB.z);
+            }
         }
-        glPopMatrix();
+        glEnd();
     }
 
-    private void renderBone(EntityRef boneEntity, Vector3f centerPos) {
-        LocationComponent loc = boneEntity.getComponent(LocationComponent.class);
-        if (loc == null) {
-            return;
+    /**
+     * A pending animation sample for a single skeleton
+     */
+    private static final class PoseSample implements Runnable {
+        private final EntityRef entity;
+        private final SkeletalMeshComponent skeleton;
+        private final SkeletonPose pose;
+        private final MeshAnimation animation;
+        private final MeshAnimationFrame frameA;
+        private final MeshAnimationFrame frameB;
+        private final float interpolationVal;
+        private boolean finished;
+
+        public PoseSample(EntityRef entity, SkeletalMeshComponent skeleton, SkeletonPose pose, MeshAnimation animation,
+                          MeshAnimationFrame frameA, MeshAnimationFrame frameB, float interpolationVal) {
+            this.entity = entity;
+            this.skeleton = skeleton;
+            this.pose = pose;
+            this.animation = animation;
+            this.frameA = frameA;
+            this.frameB = frameB;
+            this.interpolationVal = interpolationVal;
         }
-        LocationComponent parentLoc = loc.getParent().getComponent(LocationComponent.class);
-        if (parentLoc != null) {
-            Vector3f worldPosA = loc.getWorldPosition();
-            worldPosA.sub(centerPos);
-            Vector3f worldPosB = parentLoc.getWorldPosition();
-            worldPosB.sub(centerPos);
-
-            glBegin(GL11.GL_LINES);
-            glVertex3f(worldPosA.x, worldPosA.y, worldPosA.z);
-            glVertex3f(worldPosB.x, worldPosB.y, worldPosB.z);
-            glEnd();
-
-            for (EntityRef child : loc.getChildren()) {
-                renderBone(child, centerPos);
-            }
+
+        @Override
+        public void run() {
+            pose.sample(animation, frameA, frameB, interpolationVal);
         }
     }
 }
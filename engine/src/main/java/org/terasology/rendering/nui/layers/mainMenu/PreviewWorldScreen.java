@@ -22,14 +22,15 @@
 import org.terasology.asset.AssetUri;
 import org.terasology.asset.Assets;
 import org.terasology.config.Config;
+import org.terasology.engine.SimpleUri;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.engine.module.Module;
 import org.terasology.engine.module.ModuleManager;
 import org.terasology.registry.In;
+import org.terasology.math.Rect2i;
 import org.terasology.math.TeraMath;
 import org.terasology.rendering.assets.texture.Texture;
 import org.terasology.rendering.assets.texture.TextureData;
-import org.terasology.rendering.nui.Color;
 import org.terasology.rendering.nui.CoreScreenLayer;
 import org.terasology.rendering.nui.UIWidget;
 import org.terasology.rendering.nui.WidgetUtil;
@@ -45,6 +46,10 @@
 import org.terasology.world.generator.WorldGenerator2DPreview;
 import org.terasology.world.generator.internal.WorldGeneratorInfo;
 import org.terasology.world.generator.internal.WorldGeneratorManager;
+import org.terasology.world.generator.preview.PreviewKey;
+import org.terasology.world.generator.preview.PreviewListener;
+import org.terasology.world.generator.preview.PreviewRendering;
+import org.terasology.world.generator.preview.WorldPreviewService;
 
 import java.nio.ByteBuffer;
 import java.util.Objects;
@@ -68,6 +73,13 @@ public class PreviewWorldScreen extends CoreScreenLayer {
     private int imageSize = 128;
 
     private WorldGenerator2DPreview previewGenerator;
+    private SimpleUri generatorUri;
+    private WorldPreviewService previewService;
+    private PreviewRendering rendering;
+
+    // Written by the preview threads, read when updating the texture
+    private final int[] pixels = new int[imageSize * imageSize];
+    private volatile boolean pixelsChanged;
 
     private SeedBinding seedBinding = new SeedBinding();
 
@@ -86,6 +98,7 @@ public void initialise() {
 
             if (worldGenerator instanceof WorldGenerator2DPreview) {
                 previewGenerator = (WorldGenerator2DPreview) worldGenerator;
+                generatorUri = info.getUri();
             } else {
                 logger.info(info.getUri().toString() + " does not support a 2d preview");
             }
@@ -128,13 +141,30 @@ public void onActivated(UIWidget button) {
     @Override
     public void update(float delta) {
         super.update(delta);
+        if (previewGenerator == null) {
+            return;
+        }
         PreviewSettings newSettings = new PreviewSettings(layerDropdown.getSelection(), TeraMath.floorToInt(zoomSlider.getValue()), seedBinding.get());
         if (currentSettings == null || !currentSettings.equals(newSettings)) {
-            Texture tex = createTexture(imageSize, imageSize, newSettings.zoom, newSettings.layer);
-            UIImage image = find("preview", UIImage.class);
-            image.setImage(tex);
+            startRendering(newSettings);
             currentSettings = newSettings;
         }
+        if (pixelsChanged) {
+            pixelsChanged = false;
+            UIImage image = find("preview", UIImage.class);
+            image.setImage(createTexture(imageSize, imageSize));
+        }
+    }
+
+    @Override
+    public void onClosed() {
+        super.onClosed();
+        cancelRendering();
+        if (previewService != null) {
+            previewService.shutdown();
+            previewService = null;
+        }
+        currentSettings = null;
     }
 
     @Override
@@ -154,18 +184,48 @@ public void setSeed(String val) {
         seedBinding.set(val);
     }
 
-    private Texture createTexture(int width, int height, int scale, String layerName) {
+    private void startRendering(PreviewSettings settings) {
+        cancelRendering();
+        if (previewService == null) {
+            previewService = new WorldPreviewService();
+        }
+        final Rect2i area = Rect2i.createFromMinAndSize(-imageSize / 2, -imageSize / 2, imageSize, imageSize);
+        PreviewKey key = new PreviewKey(generatorUri, settings.seed, settings.layer, settings.zoom);
+        // Coarse tiles show up first, and are then replaced by the refined ones
+        rendering = previewService.render(previewGenerator, key, area, new PreviewListener() {
+            @Override
+            public void onTileRendered(int tileX, int tileZ, int[] tile, boolean refined) {
+                Rect2i tileArea = Rect2i.createFromMinAndSize(tileX * WorldPreviewService.TILE_SIZE, tileZ * WorldPreviewService.TILE_SIZE,
+                        WorldPreviewService.TILE_SIZE, WorldPreviewService.TILE_SIZE);
+                Rect2i overlap = tileArea.intersect(area);
+                synchronized (pixels) {
+                    for (int z = overlap.minY(); z <= overlap.maxY(); ++z) {
+                        System.arraycopy(tile, (z - tileArea.minY()) * WorldPreviewService.TILE_SIZE + overlap.minX() - tileArea.minX(),
+                                pixels, (z - area.minY()) * imageSize + overlap.minX() - area.minX(), overlap.width());
+                    }
+                }
+                pixelsChanged = true;
+            }
+        });
+    }
+
+    /**
+     * Needs to be called before the world generator is reconfigured, so that the tiles being rendered are discarded
+     */
+    private void cancelRendering() {
+        if (rendering != null) {
+            rendering.cancel();
+            rendering = null;
+        }
+    }
+
+    private Texture createTexture(int width, int height) {
         int size = 4 * width * height;
-        final int offX = -width / 2;
-        final int offY = -height / 2;
 
         ByteBuffer buf = ByteBuffer.allocateDirect(size);
-        for (int y = 0; y < height; ++y) {
-            for (int x = 0; x < width; ++x) {
-                int px = (x + offX) * scale;
-                int py = (y + offY) * scale;
-                Color c = previewGenerator.get(layerName, px, py);
-                c.addToBuffer(buf);
+        synchronized (pixels) {
+            for (int pixel : pixels) {
+                buf.putInt(pixel);
             }
         }
         buf.flip();
@@ -177,7 +237,7 @@ private Texture createTexture(int width, int height, int scale, String layerName
         return Assets.generateAsset(uri, texData, Texture.class);
     }
 
-    private static class SeedBinding implements Binding<String> {
+    private class SeedBinding implements Binding<String> {
 
         private Binding<String> externalBinding = new DefaultBinding<>("");
         private WorldGenerator worldGenerator;
@@ -191,6 +251,7 @@ public String get() {
         public void set(String value) {
             externalBinding.set(value);
             if (worldGenerator != null) {
+                cancelRendering();
                 worldGenerator.setWorldSeed(value);
             }
         }
@@ -202,6 +263,7 @@ public Binding<String> getExternalBinding() {
         public void setExternalBinding(Binding<String> externalBinding) {
             this.externalBinding = externalBinding;
             if (worldGenerator != null) {
+                cancelRendering();
                 worldGenerator.setWorldSeed(get());
             }
         }
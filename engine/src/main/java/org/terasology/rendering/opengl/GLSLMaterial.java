@@ -17,6 +17,7 @@
 package org.terasology.rendering.opengl;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import gnu.trove.iterator.TIntIntIterator;
 import gnu.trove.map.TIntIntMap;
@@ -29,7 +30,9 @@
 import org.lwjgl.opengl.GL20;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.asset.AssetManager;
 import org.terasology.asset.AssetUri;
+import org.terasology.asset.SizedAsset;
 import org.terasology.math.MatrixUtils;
 import org.terasology.registry.CoreRegistry;
 import org.terasology.rendering.ShaderManager;
@@ -46,6 +49,7 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -53,7 +57,7 @@
  * @author Immortius
  * @author Benjamin Glatzel <benjamin.glatzel@me.com>
  */
-public class GLSLMaterial extends BaseMaterial {
+public class GLSLMaterial extends BaseMaterial implements SizedAsset {
 
     private static final Logger logger = LoggerFactory.getLogger(GLSLMaterial.class);
 
@@ -62,6 +66,8 @@ public class GLSLMaterial extends BaseMaterial {
     private TIntIntMap shaderPrograms = new TIntIntHashMap();
     private TObjectIntMap<String> bindMap = new TObjectIntHashMap<>();
     private TIntObjectMap<OpenGLTexture> textureMap = new TIntObjectHashMap<>();
+    // The textures this material holds a reference to in the asset manager, once for each slot they are bound to
+    private List<Texture> retainedTextures = Lists.newArrayList();
     private GLSLShader shader;
     private boolean activeFeaturesChanged;
     private TObjectIntMap<UniformId> uniformLocationMap = new TObjectIntHashMap<>();
@@ -70,11 +76,13 @@ public class GLSLMaterial extends BaseMaterial {
     private int activeFeaturesMask;
 
     private ShaderManager shaderManager;
+    private AssetManager assetManager;
     private ShaderParameters shaderParameters;
 
     public GLSLMaterial(AssetUri uri, MaterialData data) {
         super(uri);
         shaderManager = CoreRegistry.get(ShaderManager.class);
+        assetManager = CoreRegistry.get(AssetManager.class);
         reload(data);
     }
 
@@ -138,14 +146,23 @@ public void recompile() {
 
     @Override
     public final void reload(MaterialData data) {
+        // Keeps the current textures until the new ones are bound, so that those in both aren't evicted in between
+        List<Texture> previousTextures = retainedTextures;
+        retainedTextures = Lists.newArrayList();
         dispose();
 
         shader = (GLSLShader) data.getShader();
         recompile();
 
+        for (OpenGLTexture texture : textureMap.valueCollection()) {
+            retainTexture(texture);
+        }
         for (Map.Entry<String, Texture> entry : data.getTextures().entrySet()) {
             setTexture(entry.getKey(), entry.getValue());
         }
+        for (Texture texture : previousTextures) {
+            assetManager.release(texture);
+        }
 
         for (Map.Entry<String, Float> entry : data.getFloatParams().entrySet()) {
             setFloat(entry.getKey(), entry.getValue());
@@ -188,6 +205,11 @@ public void dispose() {
         shaderPrograms.clear();
         uniformLocationMap.clear();
         shader = null;
+
+        for (Texture texture : retainedTextures) {
+            assetManager.release(texture);
+        }
+        retainedTextures.clear();
     }
 
     @Override
@@ -195,6 +217,23 @@ public boolean isDisposed() {
         return shader == null;
     }
 
+    /**
+     * @return The size of the textures this material holds, which can only be evicted once the material is released or
+     * evicted itself
+     */
+    @Override
+    public long getResidentSize() {
+        Set<Texture> textures = Sets.newIdentityHashSet();
+        textures.addAll(retainedTextures);
+        long size = 0;
+        for (Texture texture : textures) {
+            if (texture instanceof SizedAsset) {
+                size += ((SizedAsset) texture).getResidentSize();
+            }
+        }
+        return size;
+    }
+
     @Override
     public void setTexture(String desc, Texture texture) {
         if (isDisposed()) {
@@ -218,7 +257,17 @@ public void setTexture(String desc, Texture texture) {
             bindMap.put(desc, texId);
         }
 
-        textureMap.put(texId, (OpenGLTexture) texture);
+        OpenGLTexture previousTexture = textureMap.put(texId, (OpenGLTexture) texture);
+        retainTexture(texture);
+        if (previousTexture != null && retainedTextures.remove(previousTexture)) {
+            assetManager.release(previousTexture);
+        }
+    }
+
+    private void retainTexture(Texture texture) {
+        if (assetManager != null && texture != null && assetManager.retain(texture)) {
+            retainedTextures.add(texture);
+        }
     }
 
     @Override
@@ -30,6 +30,7 @@
 import org.slf4j.LoggerFactory;
 import org.terasology.asset.AbstractAsset;
 import org.terasology.asset.AssetUri;
+import org.terasology.asset.SizedAsset;
 import org.terasology.engine.subsystem.lwjgl.GLBufferPool;
 import org.terasology.math.AABB;
 import org.terasology.rendering.VertexBufferObjectUtil;
@@ -56,7 +57,7 @@
 /**
  * @author Immortius
  */
-public class OpenGLMesh extends AbstractAsset<MeshData> implements Mesh {
+public class OpenGLMesh extends AbstractAsset<MeshData> implements Mesh, SizedAsset {
     private static final Logger logger = LoggerFactory.getLogger(OpenGLMesh.class);
 
     private static final int FLOAT_SIZE = 4;
@@ -79,6 +80,7 @@ public class OpenGLMesh extends AbstractAsset<MeshData> implements Mesh {
     private int vboVertexBuffer;
     private int vboIndexBuffer;
     private int indexCount;
+    private long bufferSize;
 
     private GLBufferPool bufferPool;
 
@@ -115,6 +117,12 @@ public boolean isDisposed() {
         return vboVertexBuffer == 0 || vboIndexBuffer == 0;
     }
 
+    @Override
+    public long getResidentSize() {
+        // The mesh data is kept in addition to the uploaded copy
+        return 2 * bufferSize;
+    }
+
     @Override
     public AABB getAABB() {
         return aabb;
@@ -282,6 +290,8 @@ private void buildMesh(MeshData newData) {
 
         createVertexBuffer(parts, partSizes, vertexCount, vertexSize);
         createIndexBuffer(newData.getIndices());
+        // Indices are ints, which are the same size as floats
+        bufferSize = (long) (vertexCount * vertexSize + indexCount) * FLOAT_SIZE;
 
         aabb = AABB.createEncompasing(newData.getVertices());
     }
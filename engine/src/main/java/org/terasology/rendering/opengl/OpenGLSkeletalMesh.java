@@ -21,6 +21,7 @@
 import org.lwjgl.opengl.GL15;
 import org.terasology.asset.AbstractAsset;
 import org.terasology.asset.AssetUri;
+import org.terasology.asset.SizedAsset;
 import org.terasology.engine.subsystem.lwjgl.GLBufferPool;
 import org.terasology.rendering.VertexBufferObjectUtil;
 import org.terasology.rendering.assets.skeletalmesh.Bone;
@@ -49,12 +50,13 @@
 /**
  * @author Immortius
  */
-public class OpenGLSkeletalMesh extends AbstractAsset<SkeletalMeshData> implements SkeletalMesh {
+public class OpenGLSkeletalMesh extends AbstractAsset<SkeletalMeshData> implements SkeletalMesh, SizedAsset {
 
     private static final int TEX_COORD_SIZE = 2;
     private static final int VECTOR3_SIZE = 3;
     private static final int STRIDE = 24;
     private static final int NORMAL_OFFSET = VECTOR3_SIZE * 4;
+    private static final int FLOAT_SIZE = 4;
 
     private SkeletalMeshData data;
 
@@ -99,6 +101,14 @@ public void reload(SkeletalMeshData newData) {
         VertexBufferObjectUtil.bufferVboData(vboUVBuffer, uvBuffer, GL15.GL_STATIC_DRAW);
     }
 
+    @Override
+    public long getResidentSize() {
+        // Indices are ints, which are the same size as floats. The posed positions and normals are uploaded each frame.
+        long bufferSize = (long) (data.getIndices().size() + TEX_COORD_SIZE * data.getUVs().size() + 2 * VECTOR3_SIZE * data.getVertexCount()) * FLOAT_SIZE;
+        // The mesh data is kept in addition to the uploaded copy
+        return 2 * bufferSize;
+    }
+
     @Override
     public void dispose() {
         if (vboIndexBuffer != 0) {
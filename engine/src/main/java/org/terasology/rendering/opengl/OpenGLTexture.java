@@ -21,12 +21,15 @@
 import org.slf4j.LoggerFactory;
 import org.terasology.asset.AbstractAsset;
 import org.terasology.asset.AssetUri;
+import org.terasology.asset.SizedAsset;
 import org.terasology.math.Rect2f;
 import org.terasology.math.Rect2i;
 import org.terasology.math.Vector2i;
 import org.terasology.rendering.assets.texture.Texture;
 import org.terasology.rendering.assets.texture.TextureData;
 
+import java.nio.ByteBuffer;
+
 import static org.lwjgl.opengl.GL11.GL_CLAMP;
 import static org.lwjgl.opengl.GL11.GL_LINEAR;
 import static org.lwjgl.opengl.GL11.GL_LINEAR_MIPMAP_LINEAR;
@@ -44,7 +47,7 @@
 /**
  * @author Immortius
  */
-public class OpenGLTexture extends AbstractAsset<TextureData> implements Texture {
+public class OpenGLTexture extends AbstractAsset<TextureData> implements Texture, SizedAsset {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenGLTexture.class);
 
@@ -214,4 +217,14 @@ public Rect2f getRegion() {
     public Rect2i getPixelRegion() {
         return Rect2i.createFromMinAndSize(0, 0, width, height);
     }
+
+    @Override
+    public long getResidentSize() {
+        long size = 0;
+        for (ByteBuffer buffer : textureData.getBuffers()) {
+            size += buffer.limit();
+        }
+        // The texture data is kept in addition to the uploaded copy
+        return 2 * size;
+    }
 }
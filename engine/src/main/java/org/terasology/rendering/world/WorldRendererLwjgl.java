@@ -188,7 +188,7 @@ public enum ChunkRenderMode {
     public WorldRendererLwjgl(WorldProvider worldProvider, ChunkProvider chunkProvider, LocalPlayerSystem localPlayerSystem, GLBufferPool bufferPool) {
         this.chunkProvider = chunkProvider;
         this.worldProvider = worldProvider;
-        bulletPhysics = new BulletPhysics(worldProvider);
+        bulletPhysics = new BulletPhysics(worldProvider, CoreRegistry.get(Config.class).getSystem().isPhysicsThreadEnabled());
         chunkTessellator = new ChunkTessellator(worldProvider, bufferPool);
         skysphere = new Skysphere(this);
         chunkUpdateManager = new ChunkUpdateManager(chunkTessellator, worldProvider);
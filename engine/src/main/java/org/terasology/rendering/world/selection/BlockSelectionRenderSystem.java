@@ -18,7 +18,9 @@
 import java.util.HashMap;
 import java.util.Map;
 
-import org.terasology.asset.Assets;
+import org.terasology.asset.AssetManager;
+import org.terasology.asset.AssetType;
+import org.terasology.asset.AssetUri;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
@@ -40,8 +42,18 @@
  */
 @RegisterSystem(RegisterMode.CLIENT)
 public class BlockSelectionRenderSystem extends BaseComponentSystem implements RenderSystem {
+    private static final AssetUri DEFAULT_TEXTURE_URI = new AssetUri(AssetType.TEXTURE, "engine:selection");
+
     @In
     private EntityManager entityManager;
+    @In
+    private AssetManager assetManager;
+
+    /**
+     * The texture used for selections that don't specify one. It is acquired when first needed and released on
+     * shutdown, so it only counts against the texture cache budget while a game is running.
+     */
+    private Texture defaultTexture;
 
     /**
      * This map will contain one reusable selection renderer per texture width/height pair.
@@ -58,7 +70,10 @@ public void renderOverlay() {
             if (blockSelectionComponent.shouldRender) {
                 Texture texture = blockSelectionComponent.texture;
                 if (null == texture) {
-                    texture = Assets.getTexture("engine:selection");
+                    texture = getDefaultTexture();
+                    if (null == texture) {
+                        continue;
+                    }
                 }
 
                 Vector2i textureDimensions = new Vector2i(texture.getWidth(), texture.getHeight());
@@ -75,6 +90,22 @@ public void renderOverlay() {
         }
     }
 
+    private Texture getDefaultTexture() {
+        if (defaultTexture == null) {
+            defaultTexture = assetManager.acquire(DEFAULT_TEXTURE_URI, Texture.class);
+        }
+        return defaultTexture;
+    }
+
+    @Override
+    public void shutdown() {
+        cachedBlockSelectionRendererByTextureDimensionsMap.clear();
+        if (defaultTexture != null) {
+            assetManager.release(defaultTexture);
+            defaultTexture = null;
+        }
+    }
+
     private void renderOverlayForOneBlockSelection(BlockSelectionComponent blockSelectionComponent,
                                                    BlockSelectionRenderer selectionRenderer) {
         selectionRenderer.beginRenderOverlay();
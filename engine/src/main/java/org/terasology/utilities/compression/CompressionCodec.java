@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.compression;
+
+import java.io.IOException;
+
+/**
+ * A block compression algorithm, used to compress whole buffers such as chunk stores.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return The identifier of the codec, which is recorded alongside the data it compresses. Must be unique and
+     *         must never change once data has been written with it.
+     */
+    byte getId();
+
+    /**
+     * @return The name of the codec, as used in the config
+     */
+    String getName();
+
+    byte[] compress(byte[] data) throws IOException;
+
+    /**
+     * @param data   The buffer holding the compressed data
+     * @param offset The start of the compressed data within the buffer
+     * @param length The length of the compressed data
+     * @return The decompressed data
+     * @throws IOException If the data is not valid for this codec
+     */
+    byte[] decompress(byte[] data, int offset, int length) throws IOException;
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.compression;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compresses data with a header recording the codec used, so data can be decompressed regardless of which codec is
+ * currently configured. Data without a header is taken to be gzip data from before codecs were recorded.
+ * <p/>
+ * The header is two magic bytes followed by the id of the codec.
+ */
+public final class CompressionCodecs {
+    public static final CompressionCodec DEFLATE = new DeflateCodec();
+    public static final CompressionCodec LZ4 = new LZ4Codec();
+
+    private static final byte[] MAGIC = {'T', 'C'};
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+
+    private static final byte GZIP_MAGIC_1 = (byte) 0x1f;
+    private static final byte GZIP_MAGIC_2 = (byte) 0x8b;
+
+    private static final Map<Byte, CompressionCodec> CODECS_BY_ID;
+    private static final Map<String, CompressionCodec> CODECS_BY_NAME;
+
+    static {
+        ImmutableMap.Builder<Byte, CompressionCodec> byId = ImmutableMap.builder();
+        ImmutableMap.Builder<String, CompressionCodec> byName = ImmutableMap.builder();
+        for (CompressionCodec codec : new CompressionCodec[]{DEFLATE, LZ4}) {
+            byId.put(codec.getId(), codec);
+            byName.put(codec.getName(), codec);
+        }
+        CODECS_BY_ID = byId.build();
+        CODECS_BY_NAME = byName.build();
+    }
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * @param name
+     * @return The codec with the given name (ignoring case), or null if there is no such codec
+     */
+    public static CompressionCodec getCodec(String name) {
+        if (name == null) {
+            return null;
+        }
+        return CODECS_BY_NAME.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Compresses the data with the given codec, prefixed with a header identifying the codec.
+     *
+     * @param codec
+     * @param data
+     * @return The header and compressed data
+     * @throws IOException
+     */
+    public static byte[] compress(CompressionCodec codec, byte[] data) throws IOException {
+        byte[] compressed = codec.compress(data);
+        byte[] result = new byte[HEADER_SIZE + compressed.length];
+        System.arraycopy(MAGIC, 0, result, 0, MAGIC.length);
+        result[MAGIC.length] = codec.getId();
+        System.arraycopy(compressed, 0, result, HEADER_SIZE, compressed.length);
+        return result;
+    }
+
+    /**
+     * Decompresses data produced by {@link #compress(CompressionCodec, byte[])}, or plain gzip data.
+     *
+     * @param data
+     * @return The decompressed data
+     * @throws IOException If the data is in an unknown format or is corrupt
+     */
+    public static byte[] decompress(byte[] data) throws IOException {
+        if (data.length >= 2 && data[0] == GZIP_MAGIC_1 && data[1] == GZIP_MAGIC_2) {
+            return DEFLATE.decompress(data, 0, data.length);
+        }
+        if (data.length < HEADER_SIZE || data[0] != MAGIC[0] || data[1] != MAGIC[1]) {
+            throw new IOException("Unknown compression format");
+        }
+        CompressionCodec codec = CODECS_BY_ID.get(data[MAGIC.length]);
+        if (codec == null) {
+            throw new IOException("Unknown compression codec " + data[MAGIC.length]);
+        }
+        return codec.decompress(data, HEADER_SIZE, data.length - HEADER_SIZE);
+    }
+}
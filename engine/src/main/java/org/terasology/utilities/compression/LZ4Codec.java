@@ -0,0 +1,223 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compresses data in the LZ4 block format, prefixed with the length of the uncompressed data. Compresses less than
+ * deflate, but compression and especially decompression are several times faster.
+ * <p/>
+ * Matches are found through a single hash table of recent positions with no chaining, and search accelerates over
+ * data that doesn't compress, as in the reference implementation's fast mode.
+ */
+public class LZ4Codec implements CompressionCodec {
+    public static final byte ID = 2;
+
+    private static final int MIN_MATCH = 4;
+    // A match may not start within the last MATCH_FIND_LIMIT bytes, and the last LAST_LITERALS bytes are always literals
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    private static final int ML_BITS = 4;
+    private static final int ML_MASK = (1 << ML_BITS) - 1;
+    private static final int RUN_MASK = (1 << (8 - ML_BITS)) - 1;
+
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_STRENGTH = 6;
+
+    private static final int LENGTH_SIZE = 4;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "lz4";
+    }
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+        int length = data.length;
+        byte[] dest = new byte[LENGTH_SIZE + length + length / 255 + 16];
+        writeInt(length, dest, 0);
+        int dp = LENGTH_SIZE;
+        int anchor = 0;
+
+        if (length > MATCH_FIND_LIMIT) {
+            int[] hashTable = new int[1 << HASH_LOG];
+            Arrays.fill(hashTable, -1);
+            int matchLimit = length - MATCH_FIND_LIMIT;
+            int matchEndLimit = length - LAST_LITERALS;
+            int searchCount = 1 << SKIP_STRENGTH;
+            int ip = 0;
+            while (ip < matchLimit) {
+                int sequence = readInt(data, ip);
+                int hash = hash(sequence);
+                int ref = hashTable[hash];
+                hashTable[hash] = ip;
+                if (ref < 0 || ip - ref > MAX_OFFSET || readInt(data, ref) != sequence) {
+                    ip += searchCount++ >>> SKIP_STRENGTH;
+                    continue;
+                }
+                searchCount = 1 << SKIP_STRENGTH;
+
+                while (ip > anchor && ref > 0 && data[ip - 1] == data[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchEnd = ip + MIN_MATCH;
+                int refEnd = ref + MIN_MATCH;
+                while (matchEnd < matchEndLimit && data[matchEnd] == data[refEnd]) {
+                    matchEnd++;
+                    refEnd++;
+                }
+
+                dp = writeSequence(data, anchor, ip - anchor, ip - ref, matchEnd - ip - MIN_MATCH, dest, dp);
+                ip = matchEnd;
+                anchor = ip;
+            }
+        }
+
+        int literalLength = length - anchor;
+        int token = dp++;
+        dp = writeLiterals(data, anchor, literalLength, dest, token, dp);
+        return Arrays.copyOf(dest, dp);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length) throws IOException {
+        if (length < LENGTH_SIZE) {
+            throw new IOException("Truncated LZ4 data");
+        }
+        int decompressedLength = readInt(data, offset);
+        if (decompressedLength < 0) {
+            throw new IOException("Invalid LZ4 length " + decompressedLength);
+        }
+        byte[] dest = new byte[decompressedLength];
+        int end = offset + length;
+        int sp = offset + LENGTH_SIZE;
+        int dp = 0;
+        try {
+            while (true) {
+                int token = data[sp++] & 0xFF;
+
+                int literalLength = token >>> ML_BITS;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = data[sp++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 0xFF);
+                }
+                System.arraycopy(data, sp, dest, dp, literalLength);
+                sp += literalLength;
+                dp += literalLength;
+                if (sp >= end) {
+                    break;
+                }
+
+                int matchOffset = (data[sp++] & 0xFF) | ((data[sp++] & 0xFF) << 8);
+                int matchLength = token & ML_MASK;
+                if (matchLength == ML_MASK) {
+                    int b;
+                    do {
+                        b = data[sp++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 0xFF);
+                }
+                matchLength += MIN_MATCH;
+
+                int ref = dp - matchOffset;
+                if (matchOffset == 0 || ref < 0) {
+                    throw new IOException("Invalid LZ4 match offset " + matchOffset + " at " + dp);
+                }
+                if (matchOffset >= matchLength) {
+                    System.arraycopy(dest, ref, dest, dp, matchLength);
+                    dp += matchLength;
+                } else {
+                    // Overlapping match, repeating the last matchOffset bytes
+                    int matchEnd = dp + matchLength;
+                    while (dp < matchEnd) {
+                        dest[dp++] = dest[ref++];
+                    }
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt LZ4 data", e);
+        }
+        if (sp != end || dp != decompressedLength) {
+            throw new IOException("LZ4 data decompressed to " + dp + " bytes, expected " + decompressedLength);
+        }
+        return dest;
+    }
+
+    private static int writeSequence(byte[] src, int anchor, int literalLength, int matchOffset, int matchLength, byte[] dest, int dp) {
+        int token = dp++;
+        int pos = writeLiterals(src, anchor, literalLength, dest, token, dp);
+        dest[pos++] = (byte) matchOffset;
+        dest[pos++] = (byte) (matchOffset >>> 8);
+        if (matchLength >= ML_MASK) {
+            dest[token] |= ML_MASK;
+            pos = writeLength(matchLength - ML_MASK, dest, pos);
+        } else {
+            dest[token] |= matchLength;
+        }
+        return pos;
+    }
+
+    private static int writeLiterals(byte[] src, int anchor, int literalLength, byte[] dest, int token, int dp) {
+        int pos = dp;
+        if (literalLength >= RUN_MASK) {
+            dest[token] = (byte) (RUN_MASK << ML_BITS);
+            pos = writeLength(literalLength - RUN_MASK, dest, pos);
+        } else {
+            dest[token] = (byte) (literalLength << ML_BITS);
+        }
+        System.arraycopy(src, anchor, dest, pos, literalLength);
+        return pos + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dp) {
+        int remaining = length;
+        int pos = dp;
+        while (remaining >= 0xFF) {
+            dest[pos++] = (byte) 0xFF;
+            remaining -= 0xFF;
+        }
+        dest[pos++] = (byte) remaining;
+        return pos;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] data, int pos) {
+        return ((data[pos] & 0xFF) << 24) | ((data[pos + 1] & 0xFF) << 16) | ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF);
+    }
+
+    private static void writeInt(int value, byte[] dest, int pos) {
+        dest[pos] = (byte) (value >>> 24);
+        dest[pos + 1] = (byte) (value >>> 16);
+        dest[pos + 2] = (byte) (value >>> 8);
+        dest[pos + 3] = (byte) value;
+    }
+}
@@ -122,5 +122,17 @@ public void setPersistence(double persistence) {
     protected double getSpectralWeight(int octave) {
         return spectralWeights[octave];
     }
+
+    /**
+     * Multiplies every position by the given factor, in the same way as the single position versions of noise() do
+     * once per octave, so that the batch versions give exactly the same values.
+     * @param positions the positions to scale
+     * @param factor the factor to scale by
+     */
+    protected static void scale(double[] positions, double factor) {
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] *= factor;
+        }
+    }
     
 }
@@ -16,6 +16,8 @@
 
 package org.terasology.utilities.procedural;
 
+import java.util.Arrays;
+
 /**
  * Computes Brownian noise based on some noise generator.
  * Originally, Brown integrates white noise, but using other noises can be sometimes useful, too.
@@ -63,5 +65,27 @@ public double noise(double x, double y) {
 
         return result;
     }
-    
+
+    @Override
+    public double[] noise(double[] xs, double[] ys, double[] output) {
+        int size = xs.length * ys.length;
+        double[] workingX = Arrays.copyOf(xs, xs.length);
+        double[] workingY = Arrays.copyOf(ys, ys.length);
+        double[] octave = new double[size];
+
+        Arrays.fill(output, 0, size, 0.0);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(workingX, workingY, octave);
+            double weight = getSpectralWeight(i);
+            for (int n = 0; n < size; n++) {
+                output[n] += octave[n] * weight;
+            }
+
+            scale(workingX, getLacunarity());
+            scale(workingY, getLacunarity());
+        }
+
+        return output;
+    }
+
 }
@@ -31,4 +31,15 @@ public interface Noise2D {
      */
     double noise(double x, double y);
 
+    /**
+     * Returns the noise values on a grid, at every combination of the given positions. The value at
+     * (xs[i], ys[j]) is stored at index i * ys.length + j of the output.
+     *
+     * @param xs     Positions on the x-axis
+     * @param ys     Positions on the y-axis
+     * @param output The array to store the values in, with room for at least xs.length * ys.length values
+     * @return The output array
+     */
+    double[] noise(double[] xs, double[] ys, double[] output);
+
 }
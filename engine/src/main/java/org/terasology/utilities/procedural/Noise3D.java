@@ -32,4 +32,17 @@ public interface Noise3D {
      */
     double noise(double x, double y, double z);
 
+    /**
+     * Returns the noise values on a grid, at every combination of the given positions. The value at
+     * (xs[i], ys[j], zs[k]) is stored at index (i * zs.length + k) * ys.length + j of the output, so the values
+     * of each column along the y-axis are contiguous.
+     *
+     * @param xs     Positions on the x-axis
+     * @param ys     Positions on the y-axis
+     * @param zs     Positions on the z-axis
+     * @param output The array to store the values in, with room for at least xs.length * ys.length * zs.length values
+     * @return The output array
+     */
+    double[] noise(double[] xs, double[] ys, double[] zs, double[] output);
+
 }
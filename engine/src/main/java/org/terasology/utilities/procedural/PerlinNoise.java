@@ -25,6 +25,11 @@
  */
 public class PerlinNoise implements Noise3D {
 
+    // The twelve gradient directions (with four repeated), indexed by the low four bits of a hash
+    private static final double[] GRADIENT_X = {1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0, 1, 0, -1, 0};
+    private static final double[] GRADIENT_Y = {1, 1, -1, -1, 0, 0, 0, 0, 1, -1, 1, -1, 1, -1, 1, -1};
+    private static final double[] GRADIENT_Z = {0, 0, 0, 0, 1, 1, -1, -1, 1, 1, -1, -1, 0, 1, 0, -1};
+
     private final int[] noisePermutations;
 
     /**
@@ -98,6 +103,88 @@ public double noise(double posX, double posY, double posZ) {
                                 grad(noisePermutations[(bb + 1)], x - 1, y - 1, z - 1))));
     }
 
+    /**
+     * Returns the noise values on a grid. The lattice cell, offset and fade curve of each position are computed once
+     * per axis rather than once per point, and the corner hashes once per lattice cell along each column. The values
+     * are identical to those of {@link #noise(double, double, double)}.
+     */
+    @Override
+    public double[] noise(double[] xs, double[] ys, double[] zs, double[] output) {
+        int[] yInts = new int[ys.length];
+        double[] yOffsets = new double[ys.length];
+        double[] yFades = new double[ys.length];
+        prepareAxis(ys, yInts, yOffsets, yFades);
+        int[] zInts = new int[zs.length];
+        double[] zOffsets = new double[zs.length];
+        double[] zFades = new double[zs.length];
+        prepareAxis(zs, zInts, zOffsets, zFades);
+
+        int index = 0;
+        for (double posX : xs) {
+            int xInt = (int) TeraMath.fastFloor(posX) & 255;
+            double x = posX - TeraMath.fastFloor(posX);
+            double u = fade(x);
+            int permX = noisePermutations[xInt];
+            int permX1 = noisePermutations[(xInt + 1)];
+
+            for (int k = 0; k < zs.length; k++) {
+                int zInt = zInts[k];
+                double z = zOffsets[k];
+                double w = zFades[k];
+
+                // The corner hashes only change when the position moves to another lattice cell
+                int cellY = -1;
+                int haa = 0;
+                int hab = 0;
+                int hba = 0;
+                int hbb = 0;
+                int haa1 = 0;
+                int hab1 = 0;
+                int hba1 = 0;
+                int hbb1 = 0;
+                for (int j = 0; j < ys.length; j++) {
+                    double y = yOffsets[j];
+                    double v = yFades[j];
+                    if (yInts[j] != cellY) {
+                        cellY = yInts[j];
+                        int a = permX + cellY;
+                        int aa = noisePermutations[a] + zInt;
+                        int ab = noisePermutations[(a + 1)] + zInt;
+                        int b = permX1 + cellY;
+                        int ba = noisePermutations[b] + zInt;
+                        int bb = noisePermutations[(b + 1)] + zInt;
+                        haa = noisePermutations[aa];
+                        hab = noisePermutations[ab];
+                        hba = noisePermutations[ba];
+                        hbb = noisePermutations[bb];
+                        haa1 = noisePermutations[(aa + 1)];
+                        hab1 = noisePermutations[(ab + 1)];
+                        hba1 = noisePermutations[(ba + 1)];
+                        hbb1 = noisePermutations[(bb + 1)];
+                    }
+
+                    output[index++] = lerp(w, lerp(v, lerp(u, grad(haa, x, y, z),
+                            grad(hba, x - 1, y, z)),
+                            lerp(u, grad(hab, x, y - 1, z),
+                                    grad(hbb, x - 1, y - 1, z))),
+                            lerp(v, lerp(u, grad(haa1, x, y, z - 1),
+                                    grad(hba1, x - 1, y, z - 1)),
+                                    lerp(u, grad(hab1, x, y - 1, z - 1),
+                                            grad(hbb1, x - 1, y - 1, z - 1))));
+                }
+            }
+        }
+        return output;
+    }
+
+    private static void prepareAxis(double[] positions, int[] ints, double[] offsets, double[] fades) {
+        for (int i = 0; i < positions.length; i++) {
+            ints[i] = (int) TeraMath.fastFloor(positions[i]) & 255;
+            offsets[i] = positions[i] - TeraMath.fastFloor(positions[i]);
+            fades[i] = fade(offsets[i]);
+        }
+    }
+
     private static double fade(double t) {
         return t * t * t * (t * (t * 6 - 15) + 10);
     }
@@ -106,11 +193,12 @@ private static double lerp(double t, double a, double b) {
         return a + t * (b - a);
     }
 
+    /**
+     * Picks the gradient from a table rather than with branches, as the hashes are too random for branch prediction.
+     */
     private static double grad(int hash, double x, double y, double z) {
         int h = hash & 15;
-        double u = h < 8 ? x : y;
-        double v = h < 4 ? y : h == 12 || h == 14 ? x : z;
-        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+        return GRADIENT_X[h] * x + GRADIENT_Y[h] * y + GRADIENT_Z[h] * z;
     }
 
 }
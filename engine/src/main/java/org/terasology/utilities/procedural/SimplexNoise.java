@@ -331,6 +331,30 @@ public double noise(double xin, double yin, double zin) {
   }
 
 
+    @Override
+    public double[] noise(double[] xs, double[] ys, double[] output) {
+        int index = 0;
+        for (double x : xs) {
+            for (double y : ys) {
+                output[index++] = noise(x, y);
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public double[] noise(double[] xs, double[] ys, double[] zs, double[] output) {
+        int index = 0;
+        for (double x : xs) {
+            for (double z : zs) {
+                for (double y : ys) {
+                    output[index++] = noise(x, y, z);
+                }
+            }
+        }
+        return output;
+    }
+
     /**
      * 4D simplex noise, better simplex rank ordering method 2012-03-09
      * @param xin the x input coordinate
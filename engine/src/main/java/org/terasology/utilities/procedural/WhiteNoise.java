@@ -44,4 +44,13 @@ public double noise(double x, double y, double z) {
         return rand.nextDouble(-1.0f, 1.0f);
     }
 
+    @Override
+    public double[] noise(double[] xs, double[] ys, double[] zs, double[] output) {
+        int size = xs.length * ys.length * zs.length;
+        for (int i = 0; i < size; i++) {
+            output[i] = rand.nextDouble(-1.0f, 1.0f);
+        }
+        return output;
+    }
+
 }
@@ -15,23 +15,103 @@
  */
 package org.terasology.world;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.logic.console.Command;
+import org.terasology.logic.console.CommandParam;
+import org.terasology.math.Vector3i;
+import org.terasology.persistence.StorageManager;
+import org.terasology.registry.CoreRegistry;
 import org.terasology.world.chunks.ChunkProvider;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.chunks.pregeneration.PregenerationRequest;
+import org.terasology.world.chunks.pregeneration.PregenerationShape;
+import org.terasology.world.chunks.pregeneration.WorldPregenerator;
+
+import java.util.Locale;
 
 /**
  * @author Immortius
  */
 public class WorldCommands extends BaseComponentSystem {
 
+    private static final Logger logger = LoggerFactory.getLogger(WorldCommands.class);
+
     private ChunkProvider chunkProvider;
+    private WorldPregenerator pregenerator;
 
     public WorldCommands(ChunkProvider chunkProvider) {
         this.chunkProvider = chunkProvider;
     }
 
+    @Override
+    public void postBegin() {
+        PregenerationRequest request = CoreRegistry.get(PregenerationRequest.class);
+        if (request != null) {
+            CoreRegistry.remove(PregenerationRequest.class);
+            logger.info(startPregeneration(request.getRadius(), request.getShape()));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (pregenerator != null) {
+            pregenerator.cancel();
+            pregenerator = null;
+        }
+    }
+
     @Command(shortDescription = "Purges all generated chunks which triggers re-generation")
     public void purgeWorld() {
         chunkProvider.purgeChunks();
     }
+
+    @Command(shortDescription = "Generates and saves the chunks around the origin of the world",
+            helpText = "Generates the chunks within the given radius (in chunks) of the origin of the world, in a square or circle shape, " +
+                    "and saves them without loading them into the world. Chunks that already exist are skipped.")
+    public String pregenerate(@CommandParam("radius") int radius, @CommandParam("shape") String shape) {
+        PregenerationShape pregenerationShape;
+        try {
+            pregenerationShape = PregenerationShape.valueOf(shape.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return "Unknown shape '" + shape + "', expected square or circle";
+        }
+        if (radius < 0) {
+            return "Radius must not be negative";
+        }
+        return startPregeneration(radius, pregenerationShape);
+    }
+
+    @Command(shortDescription = "Displays the progress of world pregeneration")
+    public String pregenerationStatus() {
+        if (pregenerator == null) {
+            return "No pregeneration started";
+        }
+        return pregenerator.getStatus();
+    }
+
+    @Command(shortDescription = "Stops world pregeneration, keeping the chunks already generated")
+    public String cancelPregeneration() {
+        if (pregenerator == null || pregenerator.isFinished()) {
+            return "No pregeneration in progress";
+        }
+        pregenerator.cancel();
+        return pregenerator.getStatus();
+    }
+
+    private String startPregeneration(int radius, PregenerationShape shape) {
+        if (pregenerator != null && !pregenerator.isFinished()) {
+            return "Pregeneration already in progress";
+        }
+        StorageManager storageManager = CoreRegistry.get(StorageManager.class);
+        if (storageManager == null || !(chunkProvider instanceof GeneratingChunkProvider)
+                || ((GeneratingChunkProvider) chunkProvider).getWorldGenerator() == null) {
+            return "Pregeneration is only available where the world is generated";
+        }
+        pregenerator = new WorldPregenerator(((GeneratingChunkProvider) chunkProvider).getWorldGenerator(), storageManager, chunkProvider,
+                Vector3i.zero(), radius, shape);
+        pregenerator.start();
+        return "Pregenerating " + pregenerator.getTotalChunks() + " chunks";
+    }
 }
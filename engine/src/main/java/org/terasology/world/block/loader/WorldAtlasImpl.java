@@ -15,13 +15,18 @@
  */
 package org.terasology.world.block.loader;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.common.math.IntMath;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import gnu.trove.procedure.TObjectIntProcedure;
-import org.newdawn.slick.opengl.PNGDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.asset.AssetManager;
@@ -46,15 +51,31 @@
 import java.awt.image.BufferedImage;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Builds the terrain texture atlases (diffuse, normal and height, with all mipmaps) from the block tiles of the active
+ * modules. Tiles are loaded and the atlas levels composited in parallel. The result can be cached on disk, keyed by a
+ * hash of the tile assets, so that later startups with the same tiles only need to read a single file.
+ *
  * @author Immortius
  */
 public class WorldAtlasImpl implements WorldAtlas {
@@ -65,6 +86,9 @@ public class WorldAtlasImpl implements WorldAtlas {
     private static final Color TRANSPARENT_COLOR = new Color(0.0f, 0.0f, 0.0f, 0.0f);
     private static final Color BLACK_COLOR = new Color(0.0f, 0.0f, 0.0f, 1.0f);
 
+    private static final int CACHE_VERSION = 1;
+    private static final String CACHE_FILE = "terrainAtlas.bin";
+
     private int maxAtlasSize = 4096;
     private int atlasSize = 256;
     private int tileSize = 16;
@@ -81,11 +105,42 @@ public class WorldAtlasImpl implements WorldAtlas {
      * @param maxAtlasSize The maximum dimensions of the atlas (both width and height, in pixels)
      */
     public WorldAtlasImpl(int maxAtlasSize) {
+        this(maxAtlasSize, false);
+    }
+
+    /**
+     * @param maxAtlasSize The maximum dimensions of the atlas (both width and height, in pixels)
+     * @param useCache     Whether to load the atlas from, and save it to, the cache directory
+     */
+    public WorldAtlasImpl(int maxAtlasSize, boolean useCache) {
         this.maxAtlasSize = maxAtlasSize;
-        for (AssetUri tile : Assets.list(AssetType.BLOCK_TILE)) {
-            indexTile(tile);
+        Stopwatch sw = Stopwatch.createStarted();
+        List<AssetUri> tileUris = Lists.newArrayList(Assets.list(AssetType.BLOCK_TILE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("Atlas-%d").setDaemon(true).build());
+        try {
+            String tilesHash = null;
+            if (useCache) {
+                tilesHash = hashTiles(tileUris);
+                AtlasLevels cached = loadFromCacheFile(tilesHash);
+                if (cached != null) {
+                    generateAtlasAssets(cached);
+                    logger.info("Loaded cached texture atlas in {}ms", sw.elapsed(TimeUnit.MILLISECONDS));
+                    return;
+                }
+            }
+
+            loadTiles(tileUris, executor);
+            AtlasLevels atlas = buildAtlas(executor);
+            if (useCache) {
+                saveToCacheFile(tilesHash, atlas);
+            }
+            generateAtlasAssets(atlas);
+            logger.info("Built texture atlas in {}ms", sw.elapsed(TimeUnit.MILLISECONDS));
+        } finally {
+            executor.shutdownNow();
         }
-        buildAtlas();
     }
 
     @Override
@@ -135,18 +190,48 @@ private int getTileIndex(AssetUri uri, boolean warnOnError) {
         return 0;
     }
 
-    private int indexTile(AssetUri uri) {
+    /**
+     * Loads the given tiles, along with their normal and height maps, in parallel and adds them to the atlas in order.
+     */
+    private void loadTiles(List<AssetUri> tileUris, ExecutorService executor) {
+        List<Future<TileData[]>> loadedTiles = Lists.newArrayListWithCapacity(tileUris.size());
+        for (final AssetUri uri : tileUris) {
+            loadedTiles.add(executor.submit(new Callable<TileData[]>() {
+                @Override
+                public TileData[] call() {
+                    AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+                    return new TileData[]{
+                            assetManager.loadAssetData(uri, TileData.class),
+                            assetManager.resolveAndTryLoadData(AssetType.BLOCK_TILE, uri.toSimpleString() + "Normal", TileData.class),
+                            assetManager.resolveAndTryLoadData(AssetType.BLOCK_TILE, uri.toSimpleString() + "Height", TileData.class)
+                    };
+                }
+            }));
+        }
+        for (int i = 0; i < tileUris.size(); ++i) {
+            try {
+                TileData[] tile = loadedTiles.get(i).get();
+                indexTile(tileUris.get(i), tile[0], tile[1], tile[2]);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while loading block tiles", e);
+            } catch (ExecutionException e) {
+                logger.error("Failed to load tile {}", tileUris.get(i), e.getCause());
+            }
+        }
+    }
+
+    private int indexTile(AssetUri uri, TileData tile, TileData normal, TileData height) {
         if (tiles.size() == MAX_TILES) {
             logger.error("Maximum tiles exceeded");
             return 0;
         }
-        TileData tile = CoreRegistry.get(AssetManager.class).loadAssetData(uri, TileData.class);
         if (tile != null) {
             if (checkTile(tile)) {
                 int index = tiles.size();
                 tiles.add(tile);
-                addNormal(uri);
-                addHeightMap(uri);
+                tilesNormal.add((normal != null) ? normal : defaultNormal);
+                tilesHeight.add((height != null) ? height : defaultHeight);
                 tileIndexes.put(uri, index);
                 return index;
             } else {
@@ -162,41 +247,38 @@ private boolean checkTile(TileData tile) {
                 && IntMath.isPowerOfTwo(tile.getImage().getWidth());
     }
 
-    private void addNormal(AssetUri uri) {
-        String name = uri.toSimpleString() + "Normal";
-        TileData tile = CoreRegistry.get(AssetManager.class).resolveAndTryLoadData(AssetType.BLOCK_TILE, name, TileData.class);
-        if (tile != null) {
-            tilesNormal.add(tile);
-        } else {
-            tilesNormal.add(defaultNormal);
-        }
-    }
-
-    private void addHeightMap(AssetUri uri) {
-        String name = uri.toSimpleString() + "Height";
-        TileData tile = CoreRegistry.get(AssetManager.class).resolveAndTryLoadData(AssetType.BLOCK_TILE, name, TileData.class);
-        if (tile != null) {
-            tilesHeight.add(tile);
-        } else {
-            tilesHeight.add(defaultHeight);
-        }
-    }
-
-    private void buildAtlas() {
+    private AtlasLevels buildAtlas(ExecutorService executor) {
         calculateAtlasSizes();
 
         int numMipMaps = getNumMipmaps();
-        ByteBuffer[] data = createAtlasMipmaps(numMipMaps, TRANSPARENT_COLOR, tiles, "tiles.png");
-        ByteBuffer[] dataNormal = createAtlasMipmaps(numMipMaps, UNIT_Z_COLOR, tilesNormal, "tilesNormal.png");
-        ByteBuffer[] dataHeight = createAtlasMipmaps(numMipMaps, BLACK_COLOR, tilesHeight, "tilesHeight.png");
+        List<Future<ByteBuffer>> data = createAtlasMipmaps(executor, numMipMaps, TRANSPARENT_COLOR, tiles, "tiles.png");
+        List<Future<ByteBuffer>> dataNormal = createAtlasMipmaps(executor, numMipMaps, UNIT_Z_COLOR, tilesNormal, "tilesNormal.png");
+        List<Future<ByteBuffer>> dataHeight = createAtlasMipmaps(executor, numMipMaps, BLACK_COLOR, tilesHeight, "tilesHeight.png");
+
+        AtlasLevels result = new AtlasLevels(numMipMaps);
+        try {
+            for (int i = 0; i < numMipMaps; ++i) {
+                result.diffuse[i] = data.get(i).get();
+                result.normal[i] = dataNormal.get(i).get();
+                result.height[i] = dataHeight.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while building the texture atlas", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to build the texture atlas", e.getCause());
+        }
+        return result;
+    }
 
-        TextureData terrainTexData = new TextureData(atlasSize, atlasSize, data, Texture.WrapMode.CLAMP, Texture.FilterMode.NEAREST);
+    private void generateAtlasAssets(AtlasLevels atlas) {
+        TextureData terrainTexData = new TextureData(atlasSize, atlasSize, atlas.diffuse, Texture.WrapMode.CLAMP, Texture.FilterMode.NEAREST);
         Texture terrainTex = Assets.generateAsset(new AssetUri(AssetType.TEXTURE, "engine:terrain"), terrainTexData, Texture.class);
 
-        TextureData terrainNormalData = new TextureData(atlasSize, atlasSize, dataNormal, Texture.WrapMode.CLAMP, Texture.FilterMode.NEAREST);
+        TextureData terrainNormalData = new TextureData(atlasSize, atlasSize, atlas.normal, Texture.WrapMode.CLAMP, Texture.FilterMode.NEAREST);
         Assets.generateAsset(new AssetUri(AssetType.TEXTURE, "engine:terrainNormal"), terrainNormalData, Texture.class);
 
-        TextureData terrainHeightData = new TextureData(atlasSize, atlasSize, dataHeight, Texture.WrapMode.CLAMP, Texture.FilterMode.NEAREST);
+        TextureData terrainHeightData = new TextureData(atlasSize, atlasSize, atlas.height, Texture.WrapMode.CLAMP, Texture.FilterMode.NEAREST);
         Assets.generateAsset(new AssetUri(AssetType.TEXTURE, "engine:terrainHeight"), terrainHeightData, Texture.class);
 
         MaterialData terrainMatData = new MaterialData(Assets.getShader("engine:block"));
@@ -234,32 +316,44 @@ public boolean execute(AssetUri tileUri, int index) {
         }
     }
 
-    private ByteBuffer[] createAtlasMipmaps(int numMipMaps, Color initialColor, List<TileData> tileImages, String screenshotName) {
-        ByteBuffer[] data = new ByteBuffer[numMipMaps];
+    private List<Future<ByteBuffer>> createAtlasMipmaps(ExecutorService executor, int numMipMaps, final Color initialColor,
+                                                       final List<TileData> tileImages, final String screenshotName) {
+        List<Future<ByteBuffer>> data = Lists.newArrayListWithCapacity(numMipMaps);
         for (int i = 0; i < numMipMaps; ++i) {
-            BufferedImage image = generateAtlas(i, tileImages, initialColor);
-            if (i == 0) {
-                try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(PathManager.getInstance().getScreenshotPath().resolve(screenshotName)))) {
-                    ImageIO.write(image, "png", stream);
-                } catch (IOException e) {
-                    logger.warn("Failed to write atlas");
+            final int mipMapLevel = i;
+            data.add(executor.submit(new Callable<ByteBuffer>() {
+                @Override
+                public ByteBuffer call() {
+                    BufferedImage image = generateAtlas(mipMapLevel, tileImages, initialColor);
+                    if (mipMapLevel == 0) {
+                        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(PathManager.getInstance().getScreenshotPath().resolve(screenshotName)))) {
+                            ImageIO.write(image, "png", stream);
+                        } catch (IOException e) {
+                            logger.warn("Failed to write atlas");
+                        }
+                    }
+                    return toRGBABuffer(image);
                 }
-            }
-
-            try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                ImageIO.write(image, "png", bos);
-                PNGDecoder decoder = new PNGDecoder(new ByteArrayInputStream(bos.toByteArray()));
-                ByteBuffer buf = ByteBuffer.allocateDirect(4 * decoder.getWidth() * decoder.getHeight());
-                decoder.decode(buf, decoder.getWidth() * 4, PNGDecoder.RGBA);
-                buf.flip();
-                data[i] = buf;
-            } catch (IOException e) {
-                logger.error("Failed to create atlas texture");
-            }
+            }));
         }
         return data;
     }
 
+    private static ByteBuffer toRGBABuffer(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        ByteBuffer buf = ByteBuffer.allocateDirect(4 * width * height);
+        for (int argb : pixels) {
+            buf.put((byte) (argb >> 16));
+            buf.put((byte) (argb >> 8));
+            buf.put((byte) argb);
+            buf.put((byte) (argb >> 24));
+        }
+        buf.flip();
+        return buf;
+    }
+
     // The atlas is configured using the following constraints...
     // 1.   The overall tile size is the size of the largest tile loaded
     // 2.   The atlas will never be larger than 4096*4096 px
@@ -305,10 +399,131 @@ private BufferedImage generateAtlas(int mipMapLevel, List<TileData> tileImages,
             int posY = (index) / tilesPerDim;
             TileData tile = tileImages.get(index);
             if (tile != null) {
-                g.drawImage(tile.getImage().getScaledInstance(textureSize, textureSize, Image.SCALE_SMOOTH), posX * textureSize, posY * textureSize, null);
+                if (tile.getImage().getWidth() == textureSize) {
+                    g.drawImage(tile.getImage(), posX * textureSize, posY * textureSize, null);
+                } else {
+                    g.drawImage(tile.getImage().getScaledInstance(textureSize, textureSize, Image.SCALE_SMOOTH), posX * textureSize, posY * textureSize, null);
+                }
             }
         }
+        g.dispose();
 
         return result;
     }
+
+    /**
+     * @return A hash over the uris and content of the given tiles, and the atlas settings
+     */
+    private String hashTiles(List<AssetUri> tileUris) {
+        List<AssetUri> sortedUris = Lists.newArrayList(tileUris);
+        Collections.sort(sortedUris, new Comparator<AssetUri>() {
+            @Override
+            public int compare(AssetUri o1, AssetUri o2) {
+                return o1.toSimpleString().compareTo(o2.toSimpleString());
+            }
+        });
+
+        AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putInt(CACHE_VERSION);
+        hasher.putInt(maxAtlasSize);
+        for (AssetUri uri : sortedUris) {
+            hasher.putString(uri.toSimpleString(), Charsets.UTF_8);
+            try (InputStream stream = assetManager.getAssetStream(uri)) {
+                if (stream != null) {
+                    hasher.putBytes(ByteStreams.toByteArray(stream));
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read tile {} for hashing", uri, e);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private Path getCacheFile() {
+        return PathManager.getInstance().getHomePath().resolve("cache").resolve(CACHE_FILE);
+    }
+
+    /**
+     * Reads the atlas from the cache file, if it was built from tiles with the given hash. Sets up the tile indexes and
+     * sizes as a side effect.
+     *
+     * @return The atlas levels, or null if there is no matching cached atlas
+     */
+    private AtlasLevels loadFromCacheFile(String tilesHash) {
+        Path path = getCacheFile();
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+            if (in.readInt() != CACHE_VERSION || !in.readUTF().equals(tilesHash)) {
+                return null;
+            }
+            tileSize = in.readInt();
+            atlasSize = in.readInt();
+            int numMipMaps = in.readInt();
+            int tileCount = in.readInt();
+            TObjectIntMap<AssetUri> cachedIndexes = new TObjectIntHashMap<>();
+            for (int i = 0; i < tileCount; ++i) {
+                cachedIndexes.put(new AssetUri(AssetType.BLOCK_TILE, in.readUTF()), in.readInt());
+            }
+            AtlasLevels result = new AtlasLevels(numMipMaps);
+            for (ByteBuffer[] levels : Arrays.asList(result.diffuse, result.normal, result.height)) {
+                for (int i = 0; i < numMipMaps; ++i) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    levels[i] = (ByteBuffer) ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+                }
+            }
+            tileIndexes = cachedIndexes;
+            return result;
+        } catch (IOException e) {
+            logger.warn("Failed to read cached texture atlas", e);
+            return null;
+        }
+    }
+
+    private void saveToCacheFile(String tilesHash, AtlasLevels atlas) {
+        Path path = getCacheFile();
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                out.writeInt(CACHE_VERSION);
+                out.writeUTF(tilesHash);
+                out.writeInt(tileSize);
+                out.writeInt(atlasSize);
+                out.writeInt(atlas.diffuse.length);
+                out.writeInt(tileIndexes.size());
+                for (AssetUri uri : tileIndexes.keySet()) {
+                    out.writeUTF(uri.toSimpleString());
+                    out.writeInt(tileIndexes.get(uri));
+                }
+                for (ByteBuffer[] levels : Arrays.asList(atlas.diffuse, atlas.normal, atlas.height)) {
+                    for (ByteBuffer level : levels) {
+                        byte[] bytes = new byte[level.remaining()];
+                        level.duplicate().get(bytes);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write texture atlas to cache", e);
+        }
+    }
+
+    /**
+     * The pixel data of the diffuse, normal and height atlases, one buffer per mipmap level.
+     */
+    private static class AtlasLevels {
+        private final ByteBuffer[] diffuse;
+        private final ByteBuffer[] normal;
+        private final ByteBuffer[] height;
+
+        public AtlasLevels(int numMipMaps) {
+            diffuse = new ByteBuffer[numMipMaps];
+            normal = new ByteBuffer[numMipMaps];
+            height = new ByteBuffer[numMipMaps];
+        }
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks;
+
+import org.terasology.math.TeraMath;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.internal.ChunkImpl;
+
+/**
+ * Reads blocks by world position, keeping hold of the last chunk it read from. Consecutive lookups within the same
+ * chunk - the common case when scanning neighbouring blocks - cost no chunk lookup and no allocation.
+ * <p/>
+ * A cursor is not thread safe, each thread should use its own.
+ */
+public class ChunkBlockCursor {
+
+    private final ChunkProvider chunkProvider;
+
+    private ChunkImpl chunk;
+    private int chunkX;
+    private int chunkZ;
+
+    public ChunkBlockCursor(ChunkProvider chunkProvider) {
+        this.chunkProvider = chunkProvider;
+    }
+
+    /**
+     * @param x
+     * @param y
+     * @param z
+     * @return The block at the given world position, or air if it is outside the world or its chunk is not available
+     */
+    public Block getBlock(int x, int y, int z) {
+        if (y >= ChunkConstants.SIZE_Y || y < 0) {
+            return BlockManager.getAir();
+        }
+        ChunkImpl current = moveTo(TeraMath.calcChunkPosX(x), TeraMath.calcChunkPosZ(z));
+        if (current == null) {
+            return BlockManager.getAir();
+        }
+        return current.getBlock(TeraMath.calcBlockPosX(x), TeraMath.calcBlockPosY(y), TeraMath.calcBlockPosZ(z));
+    }
+
+    /**
+     * Drops the held chunk, so that the next lookup fetches it from the chunk provider again.
+     */
+    public void reset() {
+        chunk = null;
+    }
+
+    private ChunkImpl moveTo(int x, int z) {
+        if (chunk != null && chunkX == x && chunkZ == z && chunk.isReady()) {
+            return chunk;
+        }
+        chunk = chunkProvider.getChunk(x, 0, z);
+        chunkX = x;
+        chunkZ = z;
+        return chunk;
+    }
+}
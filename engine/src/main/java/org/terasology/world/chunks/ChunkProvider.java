@@ -97,6 +97,12 @@ public interface ChunkProvider {
      */
     boolean isChunkReady(Vector3i pos);
 
+    /**
+     * @param pos
+     * @return Whether this chunk is ready and lies within the region of any relevance entity
+     */
+    boolean isChunkRelevant(Vector3i pos);
+
     /**
      * Returns the chunk at the given position if possible.
      *
@@ -320,6 +320,7 @@ private void checkForUnload() {
                         store.save();
 
                         chunk.dispose();
+                        pipeline.discardPendingFeatures(pos);
 
                         try {
                             unloadRequestTaskMaster.put(new ChunkUnloadRequest(chunk, this));
@@ -570,6 +571,7 @@ public void run() {
                                     logger.warn("Chunk {} is already in the near cache", getPosition());
                                 }
                                 preparingChunks.remove(getPosition());
+                                getPipeline().applyLateFeatures(chunk);
                                 if (chunk.getChunkState() == ChunkImpl.State.INTERNAL_LIGHT_GENERATION_PENDING) {
                                     InternalLightProcessor.generateInternalLighting(chunk);
                                     chunk.deflate();
@@ -594,7 +596,7 @@ public String getName() {
                         @Override
                         public void run() {
                             ChunkImpl chunk = new ChunkImpl(getPosition());
-                            generator.createChunk(chunk);
+                            getPipeline().generateChunk(chunk);
                             if (nearCache.putIfAbsent(getPosition(), chunk) != null) {
                                 logger.warn("Chunk {} is already in the near cache", getPosition());
                             }
@@ -623,6 +625,24 @@ public boolean isChunkReady(Vector3i pos) {
         return isChunkReady(nearCache.get(pos));
     }
 
+    @Override
+    public boolean isChunkRelevant(Vector3i pos) {
+        if (!isChunkReady(pos)) {
+            return false;
+        }
+        regionLock.readLock().lock();
+        try {
+            for (ChunkRelevanceRegion region : regions.values()) {
+                if (region.getRegion().encompasses(pos)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            regionLock.readLock().unlock();
+        }
+    }
+
     private boolean isChunkReady(ChunkImpl chunk) {
         return chunk != null && chunk.getChunkState() == ChunkImpl.State.COMPLETE;
     }
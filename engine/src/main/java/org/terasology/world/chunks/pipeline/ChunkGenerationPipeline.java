@@ -18,8 +18,13 @@
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.config.Config;
 import org.terasology.math.Region3i;
+import org.terasology.math.Vector3i;
+import org.terasology.registry.CoreRegistry;
 import org.terasology.utilities.concurrency.TaskMaster;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.internal.ChunkImpl;
 import org.terasology.world.chunks.internal.GeneratingChunkProvider;
 import org.terasology.world.generator.WorldGenerator;
 
@@ -38,12 +43,33 @@ public class ChunkGenerationPipeline {
 
     private WorldGenerator generator;
     private GeneratingChunkProvider provider;
+    private boolean internalLightingEnabled;
+    private PendingFeatureBuffer featureBuffer;
 
     public ChunkGenerationPipeline(GeneratingChunkProvider provider, WorldGenerator generator, Comparator<ChunkTask> taskComparator) {
+        this(provider, generator, taskComparator, NUM_TASK_THREADS, true);
+    }
+
+    /**
+     * @param provider
+     * @param generator
+     * @param taskComparator
+     * @param numTaskThreads          The number of threads generating chunks
+     * @param internalLightingEnabled Whether chunks have their internal lighting generated. If not, the provider is
+     *                                notified that a chunk is ready as soon as it and its neighbours have had their
+     *                                second pass, leaving it in the INTERNAL_LIGHT_GENERATION_PENDING state.
+     */
+    public ChunkGenerationPipeline(GeneratingChunkProvider provider, WorldGenerator generator, Comparator<ChunkTask> taskComparator,
+                                   int numTaskThreads, boolean internalLightingEnabled) {
         this.provider = provider;
         this.generator = generator;
+        this.internalLightingEnabled = internalLightingEnabled;
+        Config config = CoreRegistry.get(Config.class);
+        if (generator != null && config != null && config.getWorldGeneration().isDeterministicSecondPass()) {
+            featureBuffer = new PendingFeatureBuffer();
+        }
         chunkReviewer = TaskMaster.createPriorityTaskMaster("Chunk-Reviewer", NUM_REVIEW_THREADS, 64);
-        chunkGenerator = TaskMaster.createPriorityTaskMaster("Chunk-Generator", NUM_TASK_THREADS, 128, taskComparator);
+        chunkGenerator = TaskMaster.createPriorityTaskMaster("Chunk-Generator", numTaskThreads, 128, taskComparator);
     }
 
     public void requestReview(Region3i region) {
@@ -73,11 +99,94 @@ public void doTask(ChunkTask task) {
     public void shutdown() {
         chunkReviewer.shutdown(new ChunkRequest(this, provider, ChunkRequest.Type.EXIT, Region3i.EMPTY), false);
         chunkGenerator.shutdown(new ShutdownChunkTask(), false);
+        if (featureBuffer != null) {
+            featureBuffer.clear();
+        }
     }
 
     public WorldGenerator getWorldGenerator() {
         return generator;
     }
 
+    /**
+     * Generates a new chunk. With a deterministic second pass, the second pass is applied to the chunk straight away,
+     * leaving only the blocks placed into it by its neighbours to be merged in once they are all generated.
+     * Blocks placed into neighbours that are already past that merge are written into them directly.
+     *
+     * @param chunk
+     */
+    public void generateChunk(ChunkImpl chunk) {
+        generator.createChunk(chunk);
+        if (featureBuffer != null) {
+            FeatureChunkView view = new FeatureChunkView(chunk, featureBuffer);
+            view.lock();
+            try {
+                generator.applySecondPass(chunk.getPos(), view);
+            } finally {
+                view.unlock();
+            }
+            for (Vector3i pos : Region3i.createFromCenterExtents(chunk.getPos(), ChunkConstants.LOCAL_REGION_EXTENTS)) {
+                if (!pos.equals(chunk.getPos()) && featureBuffer.hasPendingBlocks(pos)) {
+                    ChunkImpl neighbour = provider.getChunkForProcessing(pos);
+                    if (neighbour != null) {
+                        applyLateFeatures(neighbour);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks pending for a chunk that has already had the blocks of its neighbours merged in, such as a
+     * chunk that finished generating earlier or was loaded from storage. Chunks still waiting for that merge are left
+     * alone. The chunk is marked dirty if anything was written, but its lighting is not recalculated.
+     *
+     * @param chunk
+     */
+    public void applyLateFeatures(ChunkImpl chunk) {
+        if (featureBuffer == null) {
+            return;
+        }
+        chunk.lock();
+        try {
+            if (!chunk.isDisposed() && chunk.getChunkState() != ChunkImpl.State.ADJACENCY_GENERATION_PENDING
+                    && featureBuffer.applyTo(chunk) > 0) {
+                chunk.setDirty(true);
+            }
+        } finally {
+            chunk.unlock();
+        }
+    }
+
+    /**
+     * Drops the blocks pending for a chunk that is being unloaded.
+     *
+     * @param chunkPos
+     */
+    public void discardPendingFeatures(Vector3i chunkPos) {
+        if (featureBuffer != null) {
+            featureBuffer.discard(chunkPos);
+        }
+    }
+
+    /**
+     * @return Whether the second pass is applied to each chunk as it is generated, rather than over a view of its
+     * neighbours once they are all generated
+     */
+    public boolean isDeterministicSecondPass() {
+        return featureBuffer != null;
+    }
+
+    /**
+     * @return The blocks placed into chunks by the second pass of their neighbours, if the second pass is deterministic
+     */
+    public PendingFeatureBuffer getFeatureBuffer() {
+        return featureBuffer;
+    }
+
+    public boolean isInternalLightingEnabled() {
+        return internalLightingEnabled;
+    }
+
 
 }
@@ -159,8 +159,12 @@ private void checkReadyToDoInternalLighting(ChunkImpl chunk) {
                     }
                 }
             }
-            logger.debug("Queueing for internal light generation {}", pos);
-            pipeline.doTask(new InternalLightingChunkTask(pipeline, pos, provider));
+            if (pipeline.isInternalLightingEnabled()) {
+                logger.debug("Queueing for internal light generation {}", pos);
+                pipeline.doTask(new InternalLightingChunkTask(pipeline, pos, provider));
+            } else {
+                provider.onChunkIsReady(pos);
+            }
         }
     }
 
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.Region3i;
+import org.terasology.math.TeraMath;
+import org.terasology.math.Vector3i;
+import org.terasology.world.ChunkView;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.liquid.LiquidData;
+
+/**
+ * The view used to apply the second pass of generation to a single chunk, without its neighbours. It uses the same
+ * coordinates as a view around the chunk, but only the chunk itself can be read: everything around it reads as air.
+ * Blocks placed in the neighbouring chunks are recorded in a {@link PendingFeatureBuffer}.
+ */
+public class FeatureChunkView implements ChunkView {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureChunkView.class);
+
+    private final ChunkImpl chunk;
+    private final PendingFeatureBuffer buffer;
+    private final Region3i chunkRegion;
+    private final Region3i worldRegion;
+    private boolean locked;
+
+    public FeatureChunkView(ChunkImpl chunk, PendingFeatureBuffer buffer) {
+        this.chunk = chunk;
+        this.buffer = buffer;
+        this.chunkRegion = Region3i.createFromCenterExtents(chunk.getPos(), ChunkConstants.LOCAL_REGION_EXTENTS);
+        this.worldRegion = Region3i.createFromMinAndSize(new Vector3i(-ChunkConstants.SIZE_X, 0, -ChunkConstants.SIZE_Z),
+                new Vector3i(3 * ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, 3 * ChunkConstants.SIZE_Z));
+    }
+
+    @Override
+    public Block getBlock(float x, float y, float z) {
+        return getBlock(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    @Override
+    public Block getBlock(Vector3i pos) {
+        return getBlock(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public Block getBlock(int x, int y, int z) {
+        if (!ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            return BlockManager.getAir();
+        }
+        return chunk.getBlock(x, y, z);
+    }
+
+    @Override
+    public byte getSunlight(float x, float y, float z) {
+        return getSunlight(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    @Override
+    public byte getSunlight(Vector3i pos) {
+        return getSunlight(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public byte getSunlight(int x, int y, int z) {
+        if (!ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            return 0;
+        }
+        return chunk.getSunlight(x, y, z);
+    }
+
+    @Override
+    public byte getLight(float x, float y, float z) {
+        return getLight(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    @Override
+    public byte getLight(Vector3i pos) {
+        return getLight(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public byte getLight(int x, int y, int z) {
+        if (!ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            return 0;
+        }
+        return chunk.getLight(x, y, z);
+    }
+
+    @Override
+    public void setBlock(Vector3i pos, Block type) {
+        setBlock(pos.x, pos.y, pos.z, type);
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, Block type) {
+        if (!locked) {
+            throw new IllegalStateException("Attempted to modify block though an unlocked view");
+        } else if (ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            chunk.setBlock(x, y, z, type);
+        } else if (worldRegion.encompasses(x, y, z)) {
+            Vector3i target = new Vector3i(chunk.getPos());
+            target.add(TeraMath.calcChunkPosX(x), 0, TeraMath.calcChunkPosZ(z));
+            buffer.add(target, chunk.getPos(), TeraMath.calcBlockPosX(x), y, TeraMath.calcBlockPosZ(z), type);
+        } else {
+            logger.warn("Attempt to modify block outside of the view");
+        }
+    }
+
+    @Override
+    public LiquidData getLiquid(Vector3i pos) {
+        return getLiquid(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public LiquidData getLiquid(int x, int y, int z) {
+        if (!ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            return new LiquidData();
+        }
+        return chunk.getLiquid(x, y, z);
+    }
+
+    @Override
+    public void setLiquid(Vector3i pos, LiquidData newState) {
+        setLiquid(pos.x, pos.y, pos.z, newState);
+    }
+
+    @Override
+    public void setLiquid(int x, int y, int z, LiquidData newState) {
+        if (!locked) {
+            throw new IllegalStateException("Attempted to modify liquid data though an unlocked view");
+        } else if (ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            chunk.setLiquid(x, y, z, newState);
+        } else {
+            logger.warn("Attempt to modify liquid outside of the chunk during its second pass");
+        }
+    }
+
+    @Override
+    public Vector3i toWorldPos(Vector3i localPos) {
+        return new Vector3i(localPos.x + chunk.getChunkWorldPosX(), localPos.y, localPos.z + chunk.getChunkWorldPosZ());
+    }
+
+    @Override
+    public Region3i getWorldRegion() {
+        return worldRegion;
+    }
+
+    @Override
+    public Region3i getChunkRegion() {
+        return chunkRegion;
+    }
+
+    @Override
+    public void setDirtyAround(Vector3i blockPos) {
+        chunk.setDirty(true);
+    }
+
+    @Override
+    public void setDirtyAround(Region3i blockRegion) {
+        chunk.setDirty(true);
+    }
+
+    @Override
+    public void lock() {
+        if (!locked) {
+            chunk.lock();
+            locked = true;
+        }
+    }
+
+    @Override
+    public void unlock() {
+        if (locked) {
+            locked = false;
+            chunk.unlock();
+        }
+    }
+
+    @Override
+    public boolean isLocked() {
+        return locked;
+    }
+
+    @Override
+    public boolean isValidView() {
+        return !chunk.isDisposed();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pipeline;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.terasology.math.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.internal.ChunkImpl;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the blocks that the second pass of a chunk placed into its neighbours, until those neighbours are ready to
+ * receive them. The blocks from each source chunk are kept apart and applied in order of the source position, so the
+ * result doesn't depend on the order in which the chunks were generated.
+ */
+public class PendingFeatureBuffer {
+
+    private static final Comparator<Vector3i> SOURCE_ORDER = new Comparator<Vector3i>() {
+        @Override
+        public int compare(Vector3i o1, Vector3i o2) {
+            if (o1.z != o2.z) {
+                return Integer.compare(o1.z, o2.z);
+            }
+            if (o1.x != o2.x) {
+                return Integer.compare(o1.x, o2.x);
+            }
+            return Integer.compare(o1.y, o2.y);
+        }
+    };
+
+    private final Map<Vector3i, Map<Vector3i, BlockWrites>> writesByTarget = Maps.newHashMap();
+
+    /**
+     * Records a block placed by the second pass of a chunk into a neighbouring chunk.
+     *
+     * @param target The position of the chunk the block belongs to
+     * @param source The position of the chunk whose second pass placed the block
+     * @param x      The position of the block within the target chunk
+     * @param y
+     * @param z
+     * @param block
+     */
+    public synchronized void add(Vector3i target, Vector3i source, int x, int y, int z, Block block) {
+        Map<Vector3i, BlockWrites> writesBySource = writesByTarget.get(target);
+        if (writesBySource == null) {
+            writesBySource = Maps.newHashMap();
+            writesByTarget.put(new Vector3i(target), writesBySource);
+        }
+        BlockWrites writes = writesBySource.get(source);
+        if (writes == null) {
+            writes = new BlockWrites();
+            writesBySource.put(new Vector3i(source), writes);
+        }
+        writes.add(x, y, z, block);
+    }
+
+    /**
+     * Applies all the blocks pending for the chunk and removes them from the buffer. The chunk should be locked, so
+     * that blocks added while it is being delivered to are either applied here or left for the next delivery.
+     *
+     * @param chunk
+     * @return The number of blocks applied
+     */
+    public int applyTo(ChunkImpl chunk) {
+        Map<Vector3i, BlockWrites> writesBySource;
+        synchronized (this) {
+            writesBySource = writesByTarget.remove(chunk.getPos());
+        }
+        if (writesBySource == null) {
+            return 0;
+        }
+        List<Vector3i> sources = Lists.newArrayList(writesBySource.keySet());
+        Collections.sort(sources, SOURCE_ORDER);
+        int count = 0;
+        for (Vector3i source : sources) {
+            count += writesBySource.get(source).applyTo(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * @param chunkPos
+     * @return Whether there are blocks pending for the given chunk
+     */
+    public synchronized boolean hasPendingBlocks(Vector3i chunkPos) {
+        return writesByTarget.containsKey(chunkPos);
+    }
+
+    /**
+     * Drops the blocks pending for a chunk that is no longer loaded.
+     *
+     * @param chunkPos
+     * @return Whether any blocks were dropped
+     */
+    public synchronized boolean discard(Vector3i chunkPos) {
+        return writesByTarget.remove(chunkPos) != null;
+    }
+
+    public synchronized void clear() {
+        writesByTarget.clear();
+    }
+
+    private static class BlockWrites {
+        private TIntList positions = new TIntArrayList();
+        private List<Block> blocks = Lists.newArrayList();
+
+        public void add(int x, int y, int z, Block block) {
+            positions.add(x + ChunkConstants.SIZE_X * (z + ChunkConstants.SIZE_Z * y));
+            blocks.add(block);
+        }
+
+        public int applyTo(ChunkImpl chunk) {
+            for (int i = 0; i < positions.size(); ++i) {
+                int index = positions.get(i);
+                int x = index % ChunkConstants.SIZE_X;
+                int z = (index / ChunkConstants.SIZE_X) % ChunkConstants.SIZE_Z;
+                int y = index / (ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z);
+                chunk.setBlock(x, y, z, blocks.get(i));
+            }
+            return positions.size();
+        }
+    }
+}
@@ -39,6 +39,10 @@ public String getName() {
 
     @Override
     public void run() {
+        if (getPipeline().isDeterministicSecondPass()) {
+            mergePendingFeatures();
+            return;
+        }
         ChunkView view = getProvider().getViewAround(getPosition());
         if (view == null) {
             return;
@@ -61,4 +65,21 @@ public void run() {
         }
     }
 
+    private void mergePendingFeatures() {
+        ChunkImpl chunk = getProvider().getChunkForProcessing(getPosition());
+        if (chunk == null) {
+            return;
+        }
+        chunk.lock();
+        try {
+            if (chunk.isDisposed() || chunk.getChunkState() != ChunkImpl.State.ADJACENCY_GENERATION_PENDING) {
+                return;
+            }
+            getPipeline().getFeatureBuffer().applyTo(chunk);
+            chunk.setChunkState(ChunkImpl.State.INTERNAL_LIGHT_GENERATION_PENDING);
+        } finally {
+            chunk.unlock();
+        }
+        getPipeline().requestReview(Region3i.createFromCenterExtents(getPosition(), ChunkConstants.LOCAL_REGION_EXTENTS));
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pregeneration;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Locale;
+
+/**
+ * A request to pregenerate the world around its origin, made when starting a headless server.
+ */
+public class PregenerationRequest {
+    private final int radius;
+    private final PregenerationShape shape;
+
+    public PregenerationRequest(int radius, PregenerationShape shape) {
+        Preconditions.checkArgument(radius >= 0, "Radius must not be negative");
+        this.radius = radius;
+        this.shape = Preconditions.checkNotNull(shape);
+    }
+
+    /**
+     * Parses a request of the form "radius" or "radius,shape", such as "32" or "32,circle".
+     *
+     * @param value
+     * @return The parsed request
+     * @throws IllegalArgumentException If the value is not a valid request
+     */
+    public static PregenerationRequest parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Expected radius[,shape] but got '" + value + "'");
+        }
+        PregenerationShape shape = PregenerationShape.SQUARE;
+        if (parts.length == 2) {
+            shape = PregenerationShape.valueOf(parts[1].trim().toUpperCase(Locale.ENGLISH));
+        }
+        return new PregenerationRequest(Integer.parseInt(parts[0].trim()), shape);
+    }
+
+    /**
+     * @return The radius of the region to generate, in chunks
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    public PregenerationShape getShape() {
+        return shape;
+    }
+
+    @Override
+    public String toString() {
+        return shape.name().toLowerCase(Locale.ENGLISH) + " of radius " + radius;
+    }
+}
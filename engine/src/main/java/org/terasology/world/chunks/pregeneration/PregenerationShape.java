@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pregeneration;
+
+/**
+ * The shape of a region of chunks to pregenerate, around its center chunk.
+ */
+public enum PregenerationShape {
+    SQUARE {
+        @Override
+        public boolean contains(int dx, int dz, int radius) {
+            return Math.abs(dx) <= radius && Math.abs(dz) <= radius;
+        }
+    },
+    CIRCLE {
+        @Override
+        public boolean contains(int dx, int dz, int radius) {
+            return dx * dx + dz * dz <= radius * radius;
+        }
+    };
+
+    /**
+     * @param dx     The offset of the chunk from the center chunk along the x axis
+     * @param dz     The offset of the chunk from the center chunk along the z axis
+     * @param radius The radius of the region, in chunks
+     * @return Whether the chunk is part of the region
+     */
+    public abstract boolean contains(int dx, int dz, int radius);
+}
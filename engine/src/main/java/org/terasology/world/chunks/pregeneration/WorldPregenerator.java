@@ -0,0 +1,471 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.world.chunks.pregeneration;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.math.Region3i;
+import org.terasology.math.Vector3i;
+import org.terasology.monitoring.ThreadActivity;
+import org.terasology.monitoring.ThreadMonitor;
+import org.terasology.persistence.StorageManager;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.ChunkProvider;
+import org.terasology.world.chunks.ChunkRegionListener;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.chunks.pipeline.AbstractChunkTask;
+import org.terasology.world.chunks.pipeline.ChunkGenerationPipeline;
+import org.terasology.world.chunks.pipeline.ChunkTask;
+import org.terasology.world.generator.WorldGenerator;
+import org.terasology.world.internal.ChunkViewCore;
+import org.terasology.world.internal.ChunkViewCoreImpl;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a region of the world ahead of time and saves it into chunk storage, without making any of it available
+ * to the world: no relevance regions are involved, and no block entities or chunk events are created. The chunks are
+ * stored before their internal lighting, so the game treats them as freshly generated when it first loads them.
+ * <p/>
+ * The region is processed in bands of rows along the z axis, sized so that the chunks in memory fit in a fraction of
+ * the heap. Each band is produced by its own {@link ChunkGenerationPipeline} using a thread per processor, and chunks
+ * are saved as soon as they and their neighbours have had their second pass. Rows behind the band are then dropped.
+ */
+public class WorldPregenerator implements GeneratingChunkProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorldPregenerator.class);
+
+    // Chunks generated around the region, so the outermost chunks of the region can have their second pass
+    private static final int MARGIN = 2;
+    // A generous estimate of the memory used by a generated chunk
+    private static final long CHUNK_MEMORY_ESTIMATE = 256 * 1024;
+    private static final int FLUSH_INTERVAL = 2048;
+    private static final long REPORT_INTERVAL = 5000;
+
+    private final WorldGenerator generator;
+    private final StorageManager storageManager;
+    private final ChunkProvider liveChunkProvider;
+    private final Vector3i center;
+    private final int radius;
+    private final PregenerationShape shape;
+
+    private final ConcurrentMap<Vector3i, ChunkImpl> chunks = Maps.newConcurrentMap();
+    private final Set<Vector3i> preparingChunks = Sets.newSetFromMap(Maps.<Vector3i, Boolean>newConcurrentMap());
+    private final Set<Vector3i> pendingSave = Sets.newSetFromMap(Maps.<Vector3i, Boolean>newConcurrentMap());
+    private volatile CountDownLatch bandLatch = new CountDownLatch(0);
+
+    private ChunkGenerationPipeline pipeline;
+    private Thread thread;
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+
+    private final int totalChunks;
+    private final AtomicInteger savedChunks = new AtomicInteger();
+    private final AtomicInteger skippedChunks = new AtomicInteger();
+    private volatile long startTime;
+
+    /**
+     * @param generator         The generator of the world
+     * @param storageManager    The storage to save the chunks into
+     * @param liveChunkProvider The chunk provider of the running world, whose loaded chunks are skipped. May be null.
+     * @param center            The position of the center chunk of the region
+     * @param radius            The radius of the region, in chunks
+     * @param shape             The shape of the region
+     */
+    public WorldPregenerator(WorldGenerator generator, StorageManager storageManager, ChunkProvider liveChunkProvider,
+                             Vector3i center, int radius, PregenerationShape shape) {
+        this.generator = generator;
+        this.storageManager = storageManager;
+        this.liveChunkProvider = liveChunkProvider;
+        this.center = new Vector3i(center.x, 0, center.z);
+        this.radius = radius;
+        this.shape = shape;
+
+        int count = 0;
+        for (int dz = -radius; dz <= radius; ++dz) {
+            for (int dx = -radius; dx <= radius; ++dx) {
+                if (shape.contains(dx, dz, radius)) {
+                    count++;
+                }
+            }
+        }
+        this.totalChunks = count;
+    }
+
+    /**
+     * Starts generating the region on a background thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Pregeneration already started");
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (ThreadActivity ignored = ThreadMonitor.startThreadActivity("Pregenerate World")) {
+                    generate();
+                } catch (Throwable e) {
+                    ThreadMonitor.addError(e);
+                    logger.error("Failed to pregenerate world", e);
+                } finally {
+                    finished = true;
+                }
+            }
+        }, "World-Pregenerator");
+        thread.start();
+    }
+
+    /**
+     * Stops generating, and waits for the chunks being generated to be discarded. Chunks already saved are kept.
+     */
+    public void cancel() {
+        cancelled = true;
+        Thread generatorThread;
+        synchronized (this) {
+            generatorThread = thread;
+        }
+        if (generatorThread != null) {
+            try {
+                generatorThread.join();
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted awaiting the end of pregeneration");
+            }
+        }
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return The number of chunks of the region that have been saved or were already present
+     */
+    public int getCompletedChunks() {
+        return savedChunks.get() + skippedChunks.get();
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    /**
+     * @return The average number of chunks generated per second so far
+     */
+    public float getChunksPerSecond() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        if (startTime == 0 || elapsed <= 0) {
+            return 0;
+        }
+        return savedChunks.get() * 1000f / elapsed;
+    }
+
+    /**
+     * @return A description of the progress of the pregeneration, with its rate and expected time remaining
+     */
+    public String getStatus() {
+        int completed = getCompletedChunks();
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Pregenerated %d/%d chunks", completed, totalChunks));
+        if (cancelled) {
+            builder.append(" (cancelled)");
+        } else if (finished) {
+            builder.append(" (finished)");
+        } else {
+            float rate = getChunksPerSecond();
+            builder.append(String.format(", %.1f chunks/s", rate));
+            if (rate > 0) {
+                long eta = (long) ((totalChunks - completed) / rate);
+                builder.append(String.format(", ETA %d:%02d:%02d", eta / 3600, (eta / 60) % 60, eta % 60));
+            }
+        }
+        return builder.toString();
+    }
+
+    private void generate() {
+        startTime = System.currentTimeMillis();
+        int width = 2 * radius + 1 + 2 * MARGIN;
+        long maxChunks = Runtime.getRuntime().maxMemory() / 4 / CHUNK_MEMORY_ESTIMATE;
+        int bandRows = (int) Math.max(1, maxChunks / width - 2 * MARGIN);
+        logger.info("Pregenerating {} chunks around {} in bands of {} rows", totalChunks, center, bandRows);
+
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        pipeline = new ChunkGenerationPipeline(this, generator, new RowOrderComparator(), numThreads, false);
+        try {
+            int unflushedChunks = 0;
+            long lastReport = startTime;
+            int minX = center.x - radius;
+            int maxX = center.x + radius;
+            for (int bandStart = center.z - radius; bandStart <= center.z + radius && !cancelled; bandStart += bandRows) {
+                int bandEnd = Math.min(center.z + radius, bandStart + bandRows - 1);
+                int skipped = 0;
+                for (int z = bandStart; z <= bandEnd; ++z) {
+                    for (int x = minX; x <= maxX; ++x) {
+                        if (shape.contains(x - center.x, z - center.z, radius)) {
+                            Vector3i pos = new Vector3i(x, 0, z);
+                            if (isAlreadyPresent(pos)) {
+                                skipped++;
+                            } else {
+                                pendingSave.add(pos);
+                            }
+                        }
+                    }
+                }
+                skippedChunks.addAndGet(skipped);
+                int bandChunks = pendingSave.size();
+                if (bandChunks > 0) {
+                    bandLatch = new CountDownLatch(bandChunks);
+                    pipeline.requestProduction(Region3i.createFromMinMax(new Vector3i(minX - MARGIN, 0, bandStart - MARGIN),
+                            new Vector3i(maxX + MARGIN, 0, bandEnd + MARGIN)));
+                    while (!bandLatch.await(REPORT_INTERVAL, TimeUnit.MILLISECONDS) && !cancelled) {
+                        lastReport = System.currentTimeMillis();
+                        logger.info(getStatus());
+                    }
+                }
+                evictRowsBefore(bandEnd - 1);
+
+                unflushedChunks += bandChunks;
+                if (unflushedChunks >= FLUSH_INTERVAL) {
+                    flush();
+                    unflushedChunks = 0;
+                }
+                if (System.currentTimeMillis() - lastReport > REPORT_INTERVAL) {
+                    lastReport = System.currentTimeMillis();
+                    logger.info(getStatus());
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while pregenerating world");
+        } finally {
+            pipeline.shutdown();
+            pendingSave.clear();
+            evictRowsBefore(Integer.MAX_VALUE);
+            flush();
+        }
+        finished = true;
+        logger.info(getStatus());
+    }
+
+    private boolean isAlreadyPresent(Vector3i pos) {
+        return (liveChunkProvider != null && liveChunkProvider.getChunk(pos) != null) || storageManager.containsChunkStoreFor(pos);
+    }
+
+    /**
+     * @param pos
+     * @return Whether the chunk is in the region or close enough to it to be needed for the second pass of the region
+     */
+    private boolean isInGeneratedArea(Vector3i pos) {
+        int dx = pos.x - center.x;
+        int dz = pos.z - center.z;
+        if (pos.y != 0 || Math.abs(dx) > radius + MARGIN || Math.abs(dz) > radius + MARGIN) {
+            return false;
+        }
+        for (int z = dz - MARGIN; z <= dz + MARGIN; ++z) {
+            for (int x = dx - MARGIN; x <= dx + MARGIN; ++x) {
+                if (shape.contains(x, z, radius)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void evictRowsBefore(int z) {
+        Iterator<Map.Entry<Vector3i, ChunkImpl>> iterator = chunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Vector3i, ChunkImpl> entry = iterator.next();
+            if (entry.getKey().z < z) {
+                iterator.remove();
+                entry.getValue().dispose();
+                pipeline.discardPendingFeatures(entry.getKey());
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            storageManager.flushChunks();
+        } catch (IOException e) {
+            logger.error("Failed to flush pregenerated chunks", e);
+        }
+    }
+
+    @Override
+    public void createOrLoadChunk(Vector3i chunkPos) {
+        if (chunks.containsKey(chunkPos) || !isInGeneratedArea(chunkPos) || !preparingChunks.add(chunkPos)) {
+            return;
+        }
+        pipeline.doTask(new AbstractChunkTask(pipeline, chunkPos, this) {
+            @Override
+            public String getName() {
+                return "Pregenerate Chunk";
+            }
+
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+                ChunkImpl chunk = new ChunkImpl(getPosition());
+                getPipeline().generateChunk(chunk);
+                chunks.put(getPosition(), chunk);
+                preparingChunks.remove(getPosition());
+                getPipeline().requestReview(Region3i.createFromCenterExtents(getPosition(), ChunkConstants.LOCAL_REGION_EXTENTS));
+            }
+        });
+    }
+
+    @Override
+    public void onChunkIsReady(Vector3i position) {
+        if (pendingSave.remove(position)) {
+            try {
+                // The live world may have loaded, changed and saved the chunk since the band started
+                if (isAlreadyPresent(position)) {
+                    skippedChunks.incrementAndGet();
+                } else {
+                    ChunkImpl chunk = chunks.get(position);
+                    storageManager.createChunkStoreForSave(chunk).save(false);
+                    savedChunks.incrementAndGet();
+                }
+            } finally {
+                bandLatch.countDown();
+            }
+        }
+    }
+
+    @Override
+    public ChunkImpl getChunkForProcessing(Vector3i pos) {
+        return chunks.get(pos);
+    }
+
+    @Override
+    public ChunkViewCore getViewAround(Vector3i pos) {
+        Region3i region = Region3i.createFromCenterExtents(pos, new Vector3i(1, 0, 1));
+        ChunkImpl[] viewChunks = new ChunkImpl[region.size().x * region.size().z];
+        for (Vector3i chunkPos : region) {
+            ChunkImpl chunk = chunks.get(chunkPos);
+            if (chunk == null) {
+                return null;
+            }
+            int index = (chunkPos.x - region.min().x) + region.size().x * (chunkPos.z - region.min().z);
+            viewChunks[index] = chunk;
+        }
+        return new ChunkViewCoreImpl(viewChunks, region, Vector3i.one());
+    }
+
+    @Override
+    public WorldGenerator getWorldGenerator() {
+        return generator;
+    }
+
+    // Pregenerated chunks are never made available to the world, so the remainder of the chunk provider is inert
+
+    @Override
+    public boolean isChunkReady(Vector3i pos) {
+        return false;
+    }
+
+    @Override
+    public boolean isChunkRelevant(Vector3i pos) {
+        return false;
+    }
+
+    @Override
+    public ChunkImpl getChunk(int x, int y, int z) {
+        return null;
+    }
+
+    @Override
+    public ChunkImpl getChunk(Vector3i chunkPos) {
+        return null;
+    }
+
+    @Override
+    public ChunkViewCore getLocalView(Vector3i centerChunkPos) {
+        return null;
+    }
+
+    @Override
+    public ChunkViewCore getSubviewAroundBlock(Vector3i blockPos, int extent) {
+        return null;
+    }
+
+    @Override
+    public ChunkViewCore getSubviewAroundChunk(Vector3i chunkPos) {
+        return null;
+    }
+
+    @Override
+    public void setWorldEntity(EntityRef entity) {
+    }
+
+    @Override
+    public void addRelevanceEntity(EntityRef entity, int distance) {
+    }
+
+    @Override
+    public void addRelevanceEntity(EntityRef entity, int distance, ChunkRegionListener listener) {
+    }
+
+    @Override
+    public void updateRelevanceEntity(EntityRef entity, int distance) {
+    }
+
+    @Override
+    public void removeRelevanceEntity(EntityRef entity) {
+    }
+
+    @Override
+    public void update() {
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+    }
+
+    @Override
+    public void purgeChunks() {
+    }
+
+    /**
+     * Orders tasks by row and then by column, so the band completes row by row.
+     */
+    private static class RowOrderComparator implements Comparator<ChunkTask> {
+
+        @Override
+        public int compare(ChunkTask o1, ChunkTask o2) {
+            Vector3i pos1 = o1.getPosition();
+            Vector3i pos2 = o2.getPosition();
+            if (pos1.z != pos2.z) {
+                return Integer.compare(pos1.z, pos2.z);
+            }
+            return Integer.compare(pos1.x, pos2.x);
+        }
+    }
+}
@@ -131,6 +131,12 @@ public boolean isChunkReady(Vector3i pos) {
         return chunk != null && chunk.getChunkState() == ChunkImpl.State.COMPLETE;
     }
 
+    @Override
+    public boolean isChunkRelevant(Vector3i pos) {
+        // The server only sends the chunks relevant to this client
+        return isChunkReady(pos);
+    }
+
     @Override
     public void dispose() {
         ChunkMonitor.fireChunkProviderDisposed(this);
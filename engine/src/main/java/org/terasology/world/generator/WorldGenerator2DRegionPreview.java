@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator;
+
+/**
+ * A 2D preview that can sample a whole grid of points of a layer at once. This is much faster than sampling the
+ * points one by one when the underlying noise can be computed in batches.
+ *
+ * @see org.terasology.world.generator.preview.WorldPreviewService
+ */
+public interface WorldGenerator2DRegionPreview extends WorldGenerator2DPreview {
+
+    /**
+     * Samples a layer on a grid of width x height points, starting at (x, z) and spaced step blocks apart.
+     *
+     * @param layerName the name of the layer to sample
+     * @param x         the x coordinate of the first point
+     * @param z         the z coordinate of the first point
+     * @param width     the number of points along the x-axis
+     * @param height    the number of points along the z-axis
+     * @param step      the distance between two neighbouring points, in blocks
+     * @param result    receives the rgba colors of the points, the color of point (i, j) at index j * width + i
+     */
+    void get(String layerName, int x, int z, int width, int height, int step, int[] result);
+}
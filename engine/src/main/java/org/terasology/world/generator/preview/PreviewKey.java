@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator.preview;
+
+import org.terasology.engine.SimpleUri;
+
+import java.util.Objects;
+
+/**
+ * Identifies a layer of a 2D preview, as rendered by a world generator with a given seed at a given zoom level.
+ * Tiles are cached by this key, so it needs to change whenever any of these change.
+ */
+public final class PreviewKey {
+    private final SimpleUri generatorUri;
+    private final String seed;
+    private final String layer;
+    private final int zoom;
+
+    /**
+     * @param generatorUri The uri of the world generator
+     * @param seed         The seed of the world generator
+     * @param layer        The name of the preview layer
+     * @param zoom         The number of blocks per pixel, along each axis
+     */
+    public PreviewKey(SimpleUri generatorUri, String seed, String layer, int zoom) {
+        if (zoom < 1) {
+            throw new IllegalArgumentException("Zoom must be at least 1, but was " + zoom);
+        }
+        this.generatorUri = generatorUri;
+        this.seed = seed;
+        this.layer = layer;
+        this.zoom = zoom;
+    }
+
+    public SimpleUri getGeneratorUri() {
+        return generatorUri;
+    }
+
+    public String getSeed() {
+        return seed;
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof PreviewKey) {
+            PreviewKey other = (PreviewKey) obj;
+            return zoom == other.zoom && Objects.equals(generatorUri, other.generatorUri) && Objects.equals(seed, other.seed)
+                    && Objects.equals(layer, other.layer);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(generatorUri, seed, layer, zoom);
+    }
+
+    @Override
+    public String toString() {
+        return generatorUri + " (" + seed + ") " + layer + " x" + zoom;
+    }
+}
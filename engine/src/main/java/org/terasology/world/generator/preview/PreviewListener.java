@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator.preview;
+
+/**
+ * Receives the tiles of a preview as they are rendered. It is called from the rendering threads.
+ */
+public interface PreviewListener {
+
+    /**
+     * @param tileX   The x position of the tile, in tiles
+     * @param tileZ   The z position of the tile, in tiles
+     * @param pixels  The rgba colors of the tile, row by row along the x-axis. Must not be modified.
+     * @param refined Whether this is the final version of the tile, rather than a coarse approximation of it
+     */
+    void onTileRendered(int tileX, int tileZ, int[] pixels, boolean refined);
+}
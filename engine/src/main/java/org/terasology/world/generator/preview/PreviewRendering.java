@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator.preview;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle on a preview being rendered by the {@link WorldPreviewService}.
+ */
+public final class PreviewRendering {
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger remainingTasks = new AtomicInteger();
+
+    PreviewRendering() {
+    }
+
+    /**
+     * Stops rendering the preview. Tiles that are being rendered when this is called are discarded, and are neither
+     * cached nor passed to the listener.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * @return Whether all the tiles have been refined, or the rendering has been cancelled
+     */
+    public boolean isDone() {
+        return cancelled.get() || remainingTasks.get() == 0;
+    }
+
+    void taskAdded() {
+        remainingTasks.incrementAndGet();
+    }
+
+    void taskFinished() {
+        remainingTasks.decrementAndGet();
+    }
+}
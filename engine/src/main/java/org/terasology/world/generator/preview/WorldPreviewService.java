@@ -0,0 +1,299 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator.preview;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.terasology.math.Rect2i;
+import org.terasology.math.Vector2i;
+import org.terasology.world.generator.WorldGenerator2DPreview;
+import org.terasology.world.generator.WorldGenerator2DRegionPreview;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders 2D previews of world generators, in square tiles of {@link #TILE_SIZE} pixels which are rendered in parallel
+ * and cached by {@link PreviewKey}. Pixel (x, z) of a preview shows the world at (x * zoom, z * zoom).
+ * <p/>
+ * Generators implementing {@link WorldGenerator2DRegionPreview} are sampled a whole tile at a time, others point by
+ * point. Either way the generator is sampled from several threads at once, like it is during chunk generation.
+ */
+public class WorldPreviewService {
+    public static final int TILE_POWER = 5;
+    public static final int TILE_SIZE = 1 << TILE_POWER;
+
+    // The coarse version of a tile samples one pixel out of COARSE_STEP along each axis
+    private static final int COARSE_STEP = 4;
+    // 4096 tiles of 32x32 pixels take 16MB
+    private static final int MAX_CACHED_TILES = 4096;
+
+    private final ExecutorService executor;
+    private final Cache<TileKey, int[]> tiles = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TILES).build();
+
+    public WorldPreviewService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorldPreviewService(int numThreads) {
+        executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder().setNameFormat("Preview-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Returns a tile of a preview, rendering it on the calling thread if it isn't cached.
+     *
+     * @return The rgba colors of the tile, row by row along the x-axis. Must not be modified.
+     */
+    public int[] getTile(WorldGenerator2DPreview generator, PreviewKey key, int tileX, int tileZ) {
+        TileKey tileKey = new TileKey(key, tileX, tileZ);
+        int[] pixels = tiles.getIfPresent(tileKey);
+        if (pixels == null) {
+            pixels = renderTile(generator, key, tileX, tileZ, 1);
+            tiles.put(tileKey, pixels);
+        }
+        return pixels;
+    }
+
+    /**
+     * Renders an area of a preview in the background, for progressive display. A coarse version of every tile that isn't
+     * cached is rendered first, then the tiles are refined, starting from the center of the area. The coarse version of
+     * a tile is never passed to the listener after the refined one.
+     * <p/>
+     * If the generator is reconfigured (e.g. given a new seed) the rendering needs to be cancelled first, so that
+     * no tile mixing both configurations gets cached.
+     *
+     * @param area     The area to render, in pixels
+     * @param listener Receives the tiles as they are rendered
+     * @return A handle to follow or cancel the rendering
+     */
+    public PreviewRendering render(final WorldGenerator2DPreview generator, final PreviewKey key, Rect2i area, final PreviewListener listener) {
+        final PreviewRendering rendering = new PreviewRendering();
+        List<Vector2i> tilePositions = getTilePositions(area);
+        List<Vector2i> missingTiles = Lists.newArrayList();
+        Map<Vector2i, TileProgress> progress = Maps.newHashMap();
+        for (Vector2i pos : tilePositions) {
+            if (tiles.getIfPresent(new TileKey(key, pos.x, pos.y)) == null) {
+                missingTiles.add(pos);
+            }
+            progress.put(pos, new TileProgress());
+        }
+
+        // Counted up front so that the rendering can't look done while tasks are still being submitted
+        for (int i = 0; i < missingTiles.size() + tilePositions.size(); ++i) {
+            rendering.taskAdded();
+        }
+        for (final Vector2i pos : missingTiles) {
+            final TileProgress tileProgress = progress.get(pos);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!rendering.isCancelled()) {
+                            int[] pixels = renderTile(generator, key, pos.x, pos.y, COARSE_STEP);
+                            // The refined tile may have been rendered by another thread in the meantime
+                            synchronized (tileProgress) {
+                                if (!rendering.isCancelled() && !tileProgress.refined) {
+                                    listener.onTileRendered(pos.x, pos.y, pixels, false);
+                                }
+                            }
+                        }
+                    } finally {
+                        rendering.taskFinished();
+                    }
+                }
+            });
+        }
+        for (final Vector2i pos : tilePositions) {
+            final TileProgress tileProgress = progress.get(pos);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!rendering.isCancelled()) {
+                            TileKey tileKey = new TileKey(key, pos.x, pos.y);
+                            int[] pixels = tiles.getIfPresent(tileKey);
+                            if (pixels == null) {
+                                pixels = renderTile(generator, key, pos.x, pos.y, 1);
+                                if (rendering.isCancelled()) {
+                                    return;
+                                }
+                                tiles.put(tileKey, pixels);
+                            }
+                            synchronized (tileProgress) {
+                                tileProgress.refined = true;
+                                listener.onTileRendered(pos.x, pos.y, pixels, true);
+                            }
+                        }
+                    } finally {
+                        rendering.taskFinished();
+                    }
+                }
+            });
+        }
+        return rendering;
+    }
+
+    /**
+     * Renders an area of a preview in full detail, using all the rendering threads, and waits for it to complete.
+     *
+     * @param area The area to render, in pixels
+     * @return The rgba colors of the area, row by row along the x-axis
+     * @throws InterruptedException If interrupted while waiting for the tiles
+     */
+    public int[] renderImage(final WorldGenerator2DPreview generator, final PreviewKey key, Rect2i area) throws InterruptedException {
+        List<Vector2i> tilePositions = getTilePositions(area);
+        List<Future<int[]>> results = Lists.newArrayListWithCapacity(tilePositions.size());
+        for (final Vector2i pos : tilePositions) {
+            results.add(executor.submit(new Callable<int[]>() {
+                @Override
+                public int[] call() {
+                    return getTile(generator, key, pos.x, pos.y);
+                }
+            }));
+        }
+
+        int[] image = new int[area.area()];
+        for (int i = 0; i < tilePositions.size(); ++i) {
+            int[] pixels;
+            try {
+                pixels = results.get(i).get();
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+            Vector2i pos = tilePositions.get(i);
+            Rect2i tileArea = Rect2i.createFromMinAndSize(pos.x << TILE_POWER, pos.y << TILE_POWER, TILE_SIZE, TILE_SIZE);
+            Rect2i overlap = tileArea.intersect(area);
+            for (int z = overlap.minY(); z <= overlap.maxY(); ++z) {
+                System.arraycopy(pixels, (z - tileArea.minY()) * TILE_SIZE + overlap.minX() - tileArea.minX(),
+                        image, (z - area.minY()) * area.width() + overlap.minX() - area.minX(), overlap.width());
+            }
+        }
+        return image;
+    }
+
+    public void clearCache() {
+        tiles.invalidateAll();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return The positions of the tiles overlapping the area, closest to its center first
+     */
+    private List<Vector2i> getTilePositions(Rect2i area) {
+        List<Vector2i> result = Lists.newArrayList();
+        if (area.isEmpty()) {
+            return result;
+        }
+        for (int z = area.minY() >> TILE_POWER; z <= area.maxY() >> TILE_POWER; ++z) {
+            for (int x = area.minX() >> TILE_POWER; x <= area.maxX() >> TILE_POWER; ++x) {
+                result.add(new Vector2i(x, z));
+            }
+        }
+        final float centerX = (area.minX() + area.maxX() + 1) / 2.0f / TILE_SIZE - 0.5f;
+        final float centerZ = (area.minY() + area.maxY() + 1) / 2.0f / TILE_SIZE - 0.5f;
+        Collections.sort(result, new Comparator<Vector2i>() {
+            @Override
+            public int compare(Vector2i o1, Vector2i o2) {
+                return Float.compare(distanceSquared(o1), distanceSquared(o2));
+            }
+
+            private float distanceSquared(Vector2i pos) {
+                return (pos.x - centerX) * (pos.x - centerX) + (pos.y - centerZ) * (pos.y - centerZ);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Renders a tile, sampling one pixel out of step along each axis and filling the others with its color.
+     */
+    private int[] renderTile(WorldGenerator2DPreview generator, PreviewKey key, int tileX, int tileZ, int step) {
+        int samplesPerSide = TILE_SIZE / step;
+        int zoom = key.getZoom();
+        int startX = (tileX << TILE_POWER) * zoom;
+        int startZ = (tileZ << TILE_POWER) * zoom;
+
+        int[] samples = new int[samplesPerSide * samplesPerSide];
+        if (generator instanceof WorldGenerator2DRegionPreview) {
+            ((WorldGenerator2DRegionPreview) generator).get(key.getLayer(), startX, startZ, samplesPerSide, samplesPerSide, step * zoom, samples);
+        } else {
+            for (int z = 0; z < samplesPerSide; ++z) {
+                for (int x = 0; x < samplesPerSide; ++x) {
+                    samples[z * samplesPerSide + x] = generator.get(key.getLayer(), startX + x * step * zoom, startZ + z * step * zoom).rgba();
+                }
+            }
+        }
+        if (step == 1) {
+            return samples;
+        }
+
+        int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+        for (int z = 0; z < TILE_SIZE; ++z) {
+            for (int x = 0; x < TILE_SIZE; ++x) {
+                pixels[z * TILE_SIZE + x] = samples[(z / step) * samplesPerSide + x / step];
+            }
+        }
+        return pixels;
+    }
+
+    private static final class TileProgress {
+        private boolean refined;
+    }
+
+    private static final class TileKey {
+        private final PreviewKey previewKey;
+        private final int x;
+        private final int z;
+
+        private TileKey(PreviewKey previewKey, int x, int z) {
+            this.previewKey = previewKey;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof TileKey) {
+                TileKey other = (TileKey) obj;
+                return x == other.x && z == other.z && previewKey.equals(other.previewKey);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(previewKey, x, z);
+        }
+    }
+}
@@ -233,8 +233,7 @@ public Block getBlock(int x, int y, int z) {
         Vector3i chunkPos = TeraMath.calcChunkPos(x, y, z);
         ChunkImpl chunk = chunkProvider.getChunk(chunkPos);
         if (chunk != null) {
-            Vector3i blockPos = TeraMath.calcBlockPos(x, y, z);
-            return chunk.getBlock(blockPos);
+            return chunk.getBlock(TeraMath.calcBlockPosX(x), TeraMath.calcBlockPosY(y), TeraMath.calcBlockPosZ(z));
         }
         logger.warn("Attempted to access unavailable chunk via block at {}, {}, {}", x, y, z);
         return BlockManager.getAir();
@@ -36,6 +36,7 @@ void main() {
 
     // Particles are currently renderer using forward rendering
     color.rgb *= light;
+    color *= gl_Color;
 
     gl_FragData[0].a = color.a * colorOffset.a;
     gl_FragData[0].rgb = color.rgb * colorOffset.rgb * gl_FragData[0].a;
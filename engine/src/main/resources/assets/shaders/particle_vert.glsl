@@ -25,4 +25,5 @@ void main()
 	normal = gl_NormalMatrix * vec3(0.0, 1.0, 0.0);
 
     gl_TexCoord[0] = gl_MultiTexCoord0;
+    gl_FrontColor = gl_Color;
 }
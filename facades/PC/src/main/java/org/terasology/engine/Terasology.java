@@ -28,6 +28,7 @@
 import org.terasology.engine.subsystem.lwjgl.LwjglGraphics;
 import org.terasology.engine.subsystem.lwjgl.LwjglInput;
 import org.terasology.engine.subsystem.lwjgl.LwjglTimer;
+import org.terasology.world.chunks.pregeneration.PregenerationRequest;
 
 import javax.swing.*;
 import java.nio.file.Path;
@@ -44,6 +45,7 @@ public final class Terasology {
     private static final String HOME_ARG = "-homedir=";
     private static final String LOCAL_ARG = "-homedir";
     private static final String HEADLESS_ARG = "-headless";
+    private static final String PREGENERATE_ARG = "-pregenerate=";
 
     private Terasology() {
     }
@@ -52,6 +54,7 @@ public static void main(String[] args) {
         try {
             boolean isHeadless = false;
             Path homePath = null;
+            PregenerationRequest pregenerationRequest = null;
             for (String arg : args) {
                 if (arg.startsWith(HOME_ARG)) {
                     homePath = Paths.get(arg.substring(HOME_ARG.length()));
@@ -59,6 +62,8 @@ public static void main(String[] args) {
                     homePath = Paths.get("");
                 } else if (arg.equals(HEADLESS_ARG)) {
                     isHeadless = true;
+                } else if (arg.startsWith(PREGENERATE_ARG)) {
+                    pregenerationRequest = PregenerationRequest.parse(arg.substring(PREGENERATE_ARG.length()));
                 }
             }
             if (homePath != null) {
@@ -77,7 +82,7 @@ public static void main(String[] args) {
             TerasologyEngine engine = new TerasologyEngine(subsystemList);
             engine.init();
             if (isHeadless) {
-                engine.run(new StateHeadlessSetup());
+                engine.run(new StateHeadlessSetup(pregenerationRequest));
             } else {
                 engine.run(new StateMainMenu());
             }
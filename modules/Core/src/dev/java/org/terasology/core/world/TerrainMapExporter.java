@@ -19,9 +19,14 @@
 import org.slf4j.LoggerFactory;
 import org.terasology.core.TerasologyDevelopment;
 import org.terasology.core.world.generator.chunkGenerators.PerlinTerrainGenerator;
+import org.terasology.core.world.generator.worldGenerators.PerlinWorldGenerator;
 import org.terasology.core.world.internal.WorldBiomeProviderImpl;
+import org.terasology.engine.SimpleUri;
+import org.terasology.math.Rect2i;
 import org.terasology.world.WorldBiomeProvider;
 import org.terasology.world.block.Block;
+import org.terasology.world.generator.preview.PreviewKey;
+import org.terasology.world.generator.preview.WorldPreviewService;
 
 import javax.imageio.ImageIO;
 import javax.vecmath.Vector2f;
@@ -49,11 +54,14 @@ private enum MapStyle {
     /* CONST */
     private static final int ZOOM_FACTOR = 8;
     private static final Vector2f POSITION = new Vector2f(0.0f, 0.0f);
+    private static final int PREVIEW_SIZE = 2048;
 
+    private final String seed;
     private final WorldBiomeProvider biomeProvider;
     private PerlinTerrainGenerator generator;
 
     public TerrainMapExporter(final String seed) {
+        this.seed = seed;
         biomeProvider = new WorldBiomeProviderImpl(seed);
         generator = new PerlinTerrainGenerator();
         generator.setWorldSeed(seed);
@@ -65,6 +73,39 @@ public static void main(final String[] args) {
         gen.generateMap(MapStyle.BIOMES, "Biomes.png");
         gen.generateMap(MapStyle.COLOR_LUT, "ColorLut.png");
         gen.generateMap(MapStyle.FOLIAGE_LUT, "FoliageLut.png");
+        gen.generatePreviewLayers(PREVIEW_SIZE, ZOOM_FACTOR);
+    }
+
+    /**
+     * Renders every 2D preview layer of the perlin world generator, centered on the origin. The tiles of the
+     * images are rendered in parallel, so large overviews are quick to produce.
+     *
+     * @param size The width and height of the images, in pixels
+     * @param zoom The number of blocks per pixel
+     */
+    public void generatePreviewLayers(final int size, final int zoom) {
+        PerlinWorldGenerator worldGenerator = new PerlinWorldGenerator(new SimpleUri("core:perlin"));
+        worldGenerator.setWorldSeed(seed);
+        WorldPreviewService previewService = new WorldPreviewService();
+        try {
+            Rect2i area = Rect2i.createFromMinAndSize(-size / 2, -size / 2, size, size);
+            for (String layer : worldGenerator.getLayers()) {
+                int[] pixels = previewService.renderImage(worldGenerator, new PreviewKey(worldGenerator.getUri(), seed, layer, zoom), area);
+                for (int i = 0; i < pixels.length; i++) {
+                    // rgba to rgb
+                    pixels[i] >>>= 8;
+                }
+                final BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+                image.setRGB(0, 0, size, size, pixels, 0, size);
+                ImageIO.write(image, "png", TerasologyDevelopment.getOutputFolder(layer + "Preview.png"));
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException e) {
+            logger.error("Failed to write terrain preview", e);
+        } finally {
+            previewService.shutdown();
+        }
     }
 
     public void generateMap(final MapStyle mapStyle, final String fileName) {
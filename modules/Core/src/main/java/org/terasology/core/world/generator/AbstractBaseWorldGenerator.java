@@ -32,7 +32,7 @@
 import org.terasology.world.generator.SecondPassGenerator;
 import org.terasology.world.generator.WorldConfigurator;
 import org.terasology.world.generator.WorldGenerator;
-import org.terasology.world.generator.WorldGenerator2DPreview;
+import org.terasology.world.generator.WorldGenerator2DRegionPreview;
 
 import java.util.Arrays;
 import java.util.List;
@@ -40,11 +40,11 @@
 /**
  * @author Immortius
  */
-public abstract class AbstractBaseWorldGenerator implements WorldGenerator, WorldGenerator2DPreview {
+public abstract class AbstractBaseWorldGenerator implements WorldGenerator, WorldGenerator2DRegionPreview {
     private static final Logger logger = LoggerFactory.getLogger(AbstractBaseWorldGenerator.class);
 
     private String worldSeed;
-    private WorldBiomeProvider biomeProvider;
+    private WorldBiomeProviderImpl biomeProvider;
     private final List<FirstPassGenerator> firstPassGenerators = Lists.newArrayList();
     private final List<SecondPassGenerator> secondPassGenerators = Lists.newArrayList();
     private final SimpleUri uri;
@@ -124,9 +124,24 @@ public float getHumidity(float x, float y, float z) {
 
     @Override
     public Color get(String layerName, int x, int z) {
+        return getColor(layerName, biomeProvider.getTemperatureAt(x, z), biomeProvider.getHumidityAt(x, z));
+    }
+
+    @Override
+    public void get(String layerName, int x, int z, int width, int height, int step, int[] result) {
+        int size = width * height;
+        float[] temperature = new float[size];
+        float[] humidity = new float[size];
+        biomeProvider.getClimate(x, z, width, height, step, temperature, humidity);
+        for (int i = 0; i < size; i++) {
+            result[i] = getColor(layerName, temperature[i], humidity[i]).rgba();
+        }
+    }
+
+    private Color getColor(String layerName, float temp, float hum) {
         switch (layerName) {
             case "Biome":
-                WorldBiomeProvider.Biome biome = biomeProvider.getBiomeAt(x, z);
+                WorldBiomeProvider.Biome biome = WorldBiomeProviderImpl.getBiome(temp, hum);
                 switch (biome) {
                     case DESERT:
                         return Color.YELLOW;
@@ -142,10 +157,8 @@ public Color get(String layerName, int x, int z) {
                         return Color.GREY;
                 }
             case "Humidity":
-                float hum = biomeProvider.getHumidityAt(x, z);
                 return new Color(hum * 0.2f, hum * 0.2f, hum);
             case "Temperature":
-                float temp = biomeProvider.getTemperatureAt(x, z);
                 return new Color(temp, temp * 0.2f, temp * 0.2f);
             default:
                 return new Color();
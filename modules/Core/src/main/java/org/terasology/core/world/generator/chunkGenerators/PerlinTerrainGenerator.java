@@ -100,13 +100,7 @@ public void generateChunk(Chunk chunk) {
         /*
          * Create the density map at a lower sample rate.
          */
-        for (int x = 0; x <= chunk.getChunkSizeX(); x += SAMPLE_RATE_3D_HOR) {
-            for (int z = 0; z <= chunk.getChunkSizeZ(); z += SAMPLE_RATE_3D_HOR) {
-                for (int y = 0; y <= chunk.getChunkSizeY(); y += SAMPLE_RATE_3D_VERT) {
-                    densityMap[x][y][z] = calcDensity(chunk.getBlockWorldPosX(x), y, chunk.getBlockWorldPosZ(z));
-                }
-            }
-        }
+        calcDensitySamples(chunk, densityMap);
 
         /*
          * Trilinear interpolate the missing values.
@@ -119,6 +113,7 @@ public void generateChunk(Chunk chunk) {
         for (int x = 0; x < chunk.getChunkSizeX(); x++) {
             for (int z = 0; z < chunk.getChunkSizeZ(); z++) {
                 WorldBiomeProvider.Biome type = biomeProvider.getBiomeAt(chunk.getBlockWorldPosX(x), chunk.getBlockWorldPosZ(z));
+                double[] caveDensity = calcCaveDensityColumn(chunk.getBlockWorldPosX(x), chunk.getBlockWorldPosZ(z), densityMap[x], z);
                 int firstBlockHeight = -1;
 
                 for (int y = chunk.getChunkSizeY() - 1; y >= 0; y--) {
@@ -149,7 +144,7 @@ public void generateChunk(Chunk chunk) {
                             firstBlockHeight = y;
                         }
 
-                        if (calcCaveDensity(chunk.getBlockWorldPosX(x), y, chunk.getBlockWorldPosZ(z)) > -0.7) {
+                        if (caveDensity[y] > -0.7) {
                             generateOuterLayer(x, y, z, firstBlockHeight, chunk, type);
                         } else {
                             chunk.setBlock(x, y, z, air);
@@ -163,7 +158,7 @@ public void generateChunk(Chunk chunk) {
                             firstBlockHeight = y;
                         }
 
-                        if (calcCaveDensity(chunk.getBlockWorldPosX(x), y, chunk.getBlockWorldPosZ(z)) > -0.6) {
+                        if (caveDensity[y] > -0.6) {
                             generateInnerLayer(x, y, z, chunk, type);
                         } else {
                             chunk.setBlock(x, y, z, air);
@@ -261,57 +256,146 @@ private void triLerpDensityMap(double[][][] densityMap) {
     }
 
     public double calcDensity(int x, int y, int z) {
-        double height = calcBaseTerrain(x, z);
-        double ocean = calcOceanTerrain(x, z);
-        double river = calcRiverTerrain(x, z);
+        double height = calcBaseTerrain(pGen1.noise(0.004 * x, 0, 0.004 * z));
+        double ocean = calcOceanTerrain(pGen2.noise(0.0009 * x, 0, 0.0009 * z));
+        double river = calcRiverTerrain(pGen3.noise(0.0008 * x, 0, 0.0008 * z));
 
-        float temp = biomeProvider.getTemperatureAt(x, z);
-        float humidity = biomeProvider.getHumidityAt(x, z) * temp;
+        double mIntens = calcMountainIntensity(x, z);
+        double densityMountains = calcMountainDensity(pGen4.noise(x * 0.002, y * 0.001, z * 0.002)) * mIntens;
+        double densityHills = calcHillDensity(pGen5.noise(x * 0.008, y * 0.006, z * 0.008)) * (1.0 - mIntens);
 
-        Vector2f distanceToMountainBiome = new Vector2f(temp - 0.25f, humidity - 0.35f);
+        return calcDensity(y, calcTerrain(height, ocean, river), densityMountains, densityHills);
+    }
 
-        double mIntens = TeraMath.clamp(1.0 - distanceToMountainBiome.length() * 3.0);
-        double densityMountains = calcMountainDensity(x, y, z) * mIntens;
-        double densityHills = calcHillDensity(x, y, z) * (1.0 - mIntens);
+    /**
+     * Fills in the density map at the sample points, giving the same values as {@link #calcDensity(int, int, int)}.
+     * The terms that only depend on the column - the base, ocean and river terrain and the mountain intensity - are
+     * computed once per column rather than once per sample, and the noise is generated in batches.
+     */
+    private void calcDensitySamples(Chunk chunk, double[][][] densityMap) {
+        int samplesX = chunk.getChunkSizeX() / SAMPLE_RATE_3D_HOR + 1;
+        int samplesY = chunk.getChunkSizeY() / SAMPLE_RATE_3D_VERT + 1;
+        int samplesZ = chunk.getChunkSizeZ() / SAMPLE_RATE_3D_HOR + 1;
+
+        double[] baseX = new double[samplesX];
+        double[] oceanX = new double[samplesX];
+        double[] riverX = new double[samplesX];
+        for (int i = 0; i < samplesX; i++) {
+            int x = chunk.getBlockWorldPosX(i * SAMPLE_RATE_3D_HOR);
+            baseX[i] = 0.004 * x;
+            oceanX[i] = 0.0009 * x;
+            riverX[i] = 0.0008 * x;
+        }
+        double[] baseZ = new double[samplesZ];
+        double[] oceanZ = new double[samplesZ];
+        double[] riverZ = new double[samplesZ];
+        for (int k = 0; k < samplesZ; k++) {
+            int z = chunk.getBlockWorldPosZ(k * SAMPLE_RATE_3D_HOR);
+            baseZ[k] = 0.004 * z;
+            oceanZ[k] = 0.0009 * z;
+            riverZ[k] = 0.0008 * z;
+        }
+        double[] zero = new double[]{0};
+        double[] baseNoise = pGen1.noise(baseX, zero, baseZ, new double[samplesX * samplesZ]);
+        double[] oceanNoise = pGen2.noise(oceanX, zero, oceanZ, new double[samplesX * samplesZ]);
+        double[] riverNoise = pGen3.noise(riverX, zero, riverZ, new double[samplesX * samplesZ]);
+
+        double[] mountainY = new double[samplesY];
+        double[] hillY = new double[samplesY];
+        for (int j = 0; j < samplesY; j++) {
+            int y = j * SAMPLE_RATE_3D_VERT;
+            mountainY[j] = y * 0.001;
+            hillY[j] = y * 0.006;
+        }
+        double[] mountainNoise = new double[samplesY];
+        double[] hillNoise = new double[samplesY];
+
+        for (int i = 0; i < samplesX; i++) {
+            int x = chunk.getBlockWorldPosX(i * SAMPLE_RATE_3D_HOR);
+            for (int k = 0; k < samplesZ; k++) {
+                int z = chunk.getBlockWorldPosZ(k * SAMPLE_RATE_3D_HOR);
+                int column = i * samplesZ + k;
+                double terrain = calcTerrain(calcBaseTerrain(baseNoise[column]), calcOceanTerrain(oceanNoise[column]),
+                        calcRiverTerrain(riverNoise[column]));
+                double mIntens = calcMountainIntensity(x, z);
+
+                // A zero intensity zeroes the term anyway, so skip its noise
+                if (mIntens > 0) {
+                    pGen4.noise(new double[]{x * 0.002}, mountainY, new double[]{z * 0.002}, mountainNoise);
+                }
+                if (1.0 - mIntens > 0) {
+                    pGen5.noise(new double[]{x * 0.008}, hillY, new double[]{z * 0.008}, hillNoise);
+                }
 
+                for (int j = 0; j < samplesY; j++) {
+                    double densityMountains = (mIntens > 0) ? calcMountainDensity(mountainNoise[j]) * mIntens : 0;
+                    double densityHills = (1.0 - mIntens > 0) ? calcHillDensity(hillNoise[j]) * (1.0 - mIntens) : 0;
+                    densityMap[i * SAMPLE_RATE_3D_HOR][j * SAMPLE_RATE_3D_VERT][k * SAMPLE_RATE_3D_HOR] =
+                            calcDensity(j * SAMPLE_RATE_3D_VERT, terrain, densityMountains, densityHills);
+                }
+            }
+        }
+    }
+
+    private double calcDensity(int y, double terrain, double densityMountains, double densityHills) {
         int plateauArea = (int) (ChunkConstants.SIZE_Y * 0.10);
         double flatten = TeraMath.clamp(((ChunkConstants.SIZE_Y - 16) - y) / plateauArea);
 
-        return -y + (((32.0 + height * 32.0) * TeraMath.clamp(river + 0.25) * TeraMath.clamp(ocean + 0.25)) + densityMountains * 1024.0 + densityHills * 128.0) * flatten;
+        return -y + (terrain + densityMountains * 1024.0 + densityHills * 128.0) * flatten;
     }
 
-    private double calcBaseTerrain(double x, double z) {
-        return TeraMath.clamp((pGen1.noise(0.004 * x, 0, 0.004 * z) + 1.0) / 2.0);
+    private double calcTerrain(double height, double ocean, double river) {
+        return (32.0 + height * 32.0) * TeraMath.clamp(river + 0.25) * TeraMath.clamp(ocean + 0.25);
     }
 
-    private double calcOceanTerrain(double x, double z) {
-        return TeraMath.clamp(pGen2.noise(0.0009 * x, 0, 0.0009 * z) * 8.0);
+    private double calcMountainIntensity(int x, int z) {
+        float temp = biomeProvider.getTemperatureAt(x, z);
+        float humidity = biomeProvider.getHumidityAt(x, z) * temp;
+
+        Vector2f distanceToMountainBiome = new Vector2f(temp - 0.25f, humidity - 0.35f);
+
+        return TeraMath.clamp(1.0 - distanceToMountainBiome.length() * 3.0);
     }
 
-    private double calcRiverTerrain(double x, double z) {
-        return TeraMath.clamp((java.lang.Math.sqrt(java.lang.Math.abs(pGen3.noise(0.0008 * x, 0, 0.0008 * z))) - 0.1) * 7.0);
+    private double calcBaseTerrain(double noise) {
+        return TeraMath.clamp((noise + 1.0) / 2.0);
     }
 
-    private double calcMountainDensity(double x, double y, double z) {
-        double x1 = x * 0.002;
-        double y1 = y * 0.001;
-        double z1 = z * 0.002;
+    private double calcOceanTerrain(double noise) {
+        return TeraMath.clamp(noise * 8.0);
+    }
 
-        double result = pGen4.noise(x1, y1, z1);
-        return result > 0.0 ? result : 0;
+    private double calcRiverTerrain(double noise) {
+        return TeraMath.clamp((java.lang.Math.sqrt(java.lang.Math.abs(noise)) - 0.1) * 7.0);
     }
 
-    private double calcHillDensity(double x, double y, double z) {
-        double x1 = x * 0.008;
-        double y1 = y * 0.006;
-        double z1 = z * 0.008;
+    private double calcMountainDensity(double noise) {
+        return noise > 0.0 ? noise : 0;
+    }
 
-        double result = pGen5.noise(x1, y1, z1) - 0.1;
+    private double calcHillDensity(double noise) {
+        double result = noise - 0.1;
         return result > 0.0 ? result : 0;
     }
 
-    private double calcCaveDensity(double x, double y, double z) {
-        return pGen8.noise(x * 0.02, y * 0.02, z * 0.02);
+    /**
+     * Computes the cave density of a column of blocks, up to the highest block that is solid in the density map, in one
+     * batch. The entries of blocks above are left at zero.
+     */
+    private double[] calcCaveDensityColumn(int x, int z, double[][] densityColumns, int localZ) {
+        int top = 0;
+        for (int y = densityColumns.length - 2; y > 0; y--) {
+            if (densityColumns[y][localZ] >= 0) {
+                top = y;
+                break;
+            }
+        }
+        double[] ys = new double[top + 1];
+        for (int y = 0; y <= top; y++) {
+            ys[y] = y * 0.02;
+        }
+        double[] result = new double[densityColumns.length];
+        return pGen8.noise(new double[]{x * 0.02}, ys, new double[]{z * 0.02}, result);
     }
 
     @Override
@@ -16,36 +16,56 @@
 
 package org.terasology.core.world.internal;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.terasology.math.TeraMath;
+import org.terasology.math.Vector2i;
 import org.terasology.utilities.procedural.BrownianNoise3D;
 import org.terasology.utilities.procedural.Noise3D;
 import org.terasology.utilities.procedural.PerlinNoise;
 import org.terasology.world.WorldBiomeProvider;
 
 /**
+ * The temperature and humidity are computed for a square tile of columns at a time, and the most recently used tiles are
+ * kept. The world generators and the renderer ask about the same columns over and over, and a tile is filled with one
+ * batch of noise for far less than the cost of its columns one by one. The cache is shared by all the threads.
+ *
  * @author Immortius
  */
 // TODO: Evolve this class into a world description provider (density, height, etc) to feed into the world generators
 public class WorldBiomeProviderImpl implements WorldBiomeProvider {
 
+    private static final int TILE_POWER = 5;
+    private static final int TILE_SIZE = 1 << TILE_POWER;
+    private static final int TILE_FILTER = TILE_SIZE - 1;
+    // 512 tiles of 32x32 columns take about 4MB, and cover well over the loaded area at the largest view distance
+    private static final int MAX_TILES = 512;
+
     private final Noise3D temperatureNoise;
     private final Noise3D humidityNoise;
 
+    private final LoadingCache<Vector2i, ClimateTile> tiles;
+
     public WorldBiomeProviderImpl(String worldSeed) {
         temperatureNoise = new BrownianNoise3D(new PerlinNoise(worldSeed.hashCode() + 5));
         humidityNoise = new BrownianNoise3D(new PerlinNoise(worldSeed.hashCode() + 6));
+        tiles = CacheBuilder.newBuilder().maximumSize(MAX_TILES).build(new CacheLoader<Vector2i, ClimateTile>() {
+            @Override
+            public ClimateTile load(Vector2i tilePos) {
+                return new ClimateTile(tilePos);
+            }
+        });
     }
 
     @Override
     public float getHumidityAt(int x, int z) {
-        double result = humidityNoise.noise(x * 0.0005, 0, 0.0005 * z);
-        return (float) TeraMath.clamp((result + 1.0f) / 2.0f);
+        return getTile(x, z).humidity[index(x, z)];
     }
 
     @Override
     public float getTemperatureAt(int x, int z) {
-        double result = temperatureNoise.noise(x * 0.0005, 0, 0.0005 * z);
-        return (float) TeraMath.clamp((result + 1.0f) / 2.0f);
+        return getTile(x, z).temperature[index(x, z)];
     }
 
     @Override
@@ -55,24 +75,107 @@ public float getFogAt(float x, float y, float z) {
 
     @Override
     public WorldBiomeProvider.Biome getBiomeAt(int x, int z) {
-        double temp = getTemperatureAt(x, z);
-        double humidity = getHumidityAt(x, z) * temp;
+        ClimateTile tile = getTile(x, z);
+        return getBiome(tile.temperature[index(x, z)], tile.humidity[index(x, z)]);
+    }
 
-        if (temp >= 0.5 && humidity < 0.3) {
+    @Override
+    public Biome getBiomeAt(float x, float z) {
+        return getBiomeAt(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    /**
+     * Computes the temperature and humidity on a grid of width x height columns, starting at (x, z) and spaced step
+     * blocks apart. The values are computed directly rather than through the tiles, as a sparse grid such as a map
+     * preview would only use a few columns of each tile.
+     *
+     * @param temperature Receives the temperature of column (i, j) at index j * width + i
+     * @param humidity    Receives the humidity of column (i, j) at index j * width + i
+     */
+    public void getClimate(int x, int z, int width, int height, int step, float[] temperature, float[] humidity) {
+        double[] xs = new double[width];
+        double[] zs = new double[height];
+        for (int i = 0; i < width; i++) {
+            xs[i] = (x + i * step) * 0.0005;
+        }
+        for (int j = 0; j < height; j++) {
+            zs[j] = 0.0005 * (z + j * step);
+        }
+        double[] ys = new double[]{0};
+        double[] noise = new double[width * height];
+
+        // The noise is laid out along the z-axis first, the results along the x-axis first
+        temperatureNoise.noise(xs, ys, zs, noise);
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                temperature[j * width + i] = toClimateValue(noise[i * height + j]);
+            }
+        }
+        humidityNoise.noise(xs, ys, zs, noise);
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                humidity[j * width + i] = toClimateValue(noise[i * height + j]);
+            }
+        }
+    }
+
+    /**
+     * @return The biome of a column with the given temperature and humidity
+     */
+    public static Biome getBiome(float temperature, float humidity) {
+        double temp = temperature;
+        double relativeHumidity = humidity * temp;
+
+        if (temp >= 0.5 && relativeHumidity < 0.3) {
             return Biome.DESERT;
-        } else if (humidity >= 0.3 && humidity <= 0.6 && temp >= 0.5) {
+        } else if (relativeHumidity >= 0.3 && relativeHumidity <= 0.6 && temp >= 0.5) {
             return Biome.PLAINS;
-        } else if (temp <= 0.3 && humidity > 0.5) {
+        } else if (temp <= 0.3 && relativeHumidity > 0.5) {
             return Biome.SNOW;
-        } else if (humidity >= 0.2 && humidity <= 0.6 && temp < 0.5) {
+        } else if (relativeHumidity >= 0.2 && relativeHumidity <= 0.6 && temp < 0.5) {
             return Biome.MOUNTAINS;
         }
 
         return Biome.FOREST;
     }
 
-    @Override
-    public Biome getBiomeAt(float x, float z) {
-        return getBiomeAt(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    private ClimateTile getTile(int x, int z) {
+        return tiles.getUnchecked(new Vector2i(x >> TILE_POWER, z >> TILE_POWER));
+    }
+
+    private static int index(int x, int z) {
+        return (x & TILE_FILTER) * TILE_SIZE + (z & TILE_FILTER);
+    }
+
+    private static float toClimateValue(double noise) {
+        return (float) TeraMath.clamp((noise + 1.0f) / 2.0f);
+    }
+
+    /**
+     * The temperature and humidity of a tile of columns, indexed by {@link #index(int, int)}
+     */
+    private final class ClimateTile {
+        private final float[] temperature = new float[TILE_SIZE * TILE_SIZE];
+        private final float[] humidity = new float[TILE_SIZE * TILE_SIZE];
+
+        private ClimateTile(Vector2i tilePos) {
+            double[] xs = new double[TILE_SIZE];
+            double[] zs = new double[TILE_SIZE];
+            for (int i = 0; i < TILE_SIZE; i++) {
+                xs[i] = ((tilePos.x << TILE_POWER) + i) * 0.0005;
+                zs[i] = 0.0005 * ((tilePos.y << TILE_POWER) + i);
+            }
+            double[] ys = new double[]{0};
+            double[] noise = new double[TILE_SIZE * TILE_SIZE];
+
+            temperatureNoise.noise(xs, ys, zs, noise);
+            for (int i = 0; i < noise.length; i++) {
+                temperature[i] = toClimateValue(noise[i]);
+            }
+            humidityNoise.noise(xs, ys, zs, noise);
+            for (int i = 0; i < noise.length; i++) {
+                humidity[i] = toClimateValue(noise[i]);
+            }
+        }
     }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.core.world.liquid;
+
+import com.google.common.collect.Maps;
+import org.terasology.math.TeraMath;
+import org.terasology.math.Vector3i;
+import org.terasology.world.chunks.ChunkConstants;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of block positions awaiting liquid simulation, held as a bitset per chunk. Adding a position that is already
+ * in the set does nothing, so the set never holds more than one entry per block no matter how often a block is
+ * activated.
+ * <p/>
+ * Chunks are polled in the order they were activated, and a chunk that is only partially polled moves to the back,
+ * so a single busy chunk cannot starve the others.
+ */
+public class ActiveLiquidCells {
+
+    private static final int CHUNK_VOLUME = ChunkConstants.SIZE_X * ChunkConstants.SIZE_Y * ChunkConstants.SIZE_Z;
+
+    private final Map<Vector3i, BitSet> chunks = Maps.newLinkedHashMap();
+    private final Vector3i lookup = new Vector3i();
+    private int size;
+
+    /**
+     * @return The number of active positions
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of chunks with active positions
+     */
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Activates a position. Positions above or below the world are ignored.
+     *
+     * @param x
+     * @param y
+     * @param z
+     * @return Whether the position was not already active
+     */
+    public boolean add(int x, int y, int z) {
+        if (y < 0 || y >= ChunkConstants.SIZE_Y) {
+            return false;
+        }
+        lookup.set(TeraMath.calcChunkPosX(x), TeraMath.calcChunkPosY(y), TeraMath.calcChunkPosZ(z));
+        BitSet cells = chunks.get(lookup);
+        if (cells == null) {
+            cells = new BitSet(CHUNK_VOLUME);
+            chunks.put(new Vector3i(lookup), cells);
+        }
+        int index = index(TeraMath.calcBlockPosX(x), TeraMath.calcBlockPosY(y), TeraMath.calcBlockPosZ(z));
+        if (cells.get(index)) {
+            return false;
+        }
+        cells.set(index);
+        size++;
+        return true;
+    }
+
+    public boolean add(Vector3i pos) {
+        return add(pos.x, pos.y, pos.z);
+    }
+
+    /**
+     * Activates a position and its six neighbours.
+     *
+     * @param pos
+     */
+    public void addWithNeighbours(Vector3i pos) {
+        add(pos.x, pos.y, pos.z);
+        add(pos.x + 1, pos.y, pos.z);
+        add(pos.x - 1, pos.y, pos.z);
+        add(pos.x, pos.y + 1, pos.z);
+        add(pos.x, pos.y - 1, pos.z);
+        add(pos.x, pos.y, pos.z + 1);
+        add(pos.x, pos.y, pos.z - 1);
+    }
+
+    /**
+     * Activates every position of another set, leaving the other set unchanged.
+     *
+     * @param other
+     */
+    public void addAll(ActiveLiquidCells other) {
+        for (Map.Entry<Vector3i, BitSet> entry : other.chunks.entrySet()) {
+            BitSet cells = chunks.get(entry.getKey());
+            if (cells == null) {
+                chunks.put(new Vector3i(entry.getKey()), (BitSet) entry.getValue().clone());
+                size += entry.getValue().cardinality();
+            } else {
+                size -= cells.cardinality();
+                cells.or(entry.getValue());
+                size += cells.cardinality();
+            }
+        }
+    }
+
+    public boolean contains(int x, int y, int z) {
+        if (y < 0 || y >= ChunkConstants.SIZE_Y) {
+            return false;
+        }
+        lookup.set(TeraMath.calcChunkPosX(x), TeraMath.calcChunkPosY(y), TeraMath.calcChunkPosZ(z));
+        BitSet cells = chunks.get(lookup);
+        return cells != null && cells.get(index(TeraMath.calcBlockPosX(x), TeraMath.calcBlockPosY(y), TeraMath.calcBlockPosZ(z)));
+    }
+
+    /**
+     * @return The position of the chunk that should be polled next, or null if the set is empty
+     */
+    public Vector3i nextChunk() {
+        Iterator<Vector3i> iterator = chunks.keySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Moves a chunk to the back of the polling order, without changing its active positions.
+     *
+     * @param chunkPos
+     */
+    public void deferChunk(Vector3i chunkPos) {
+        BitSet cells = chunks.remove(chunkPos);
+        if (cells != null) {
+            chunks.put(chunkPos, cells);
+        }
+    }
+
+    /**
+     * Removes up to max active positions from a chunk.
+     *
+     * @param chunkPos
+     * @param max
+     * @param output   The list to add the world positions of the removed entries to
+     * @return The number of positions removed
+     */
+    public int poll(Vector3i chunkPos, int max, List<Vector3i> output) {
+        BitSet cells = chunks.remove(chunkPos);
+        if (cells == null) {
+            return 0;
+        }
+        int offsetX = chunkPos.x * ChunkConstants.SIZE_X;
+        int offsetY = chunkPos.y * ChunkConstants.SIZE_Y;
+        int offsetZ = chunkPos.z * ChunkConstants.SIZE_Z;
+        int count = 0;
+        for (int index = cells.nextSetBit(0); index >= 0 && count < max; index = cells.nextSetBit(index + 1)) {
+            cells.clear(index);
+            int x = index % ChunkConstants.SIZE_X;
+            int z = (index / ChunkConstants.SIZE_X) % ChunkConstants.SIZE_Z;
+            int y = index / (ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z);
+            output.add(new Vector3i(offsetX + x, offsetY + y, offsetZ + z));
+            count++;
+        }
+        size -= count;
+        if (!cells.isEmpty()) {
+            chunks.put(chunkPos, cells);
+        }
+        return count;
+    }
+
+    /**
+     * Drops all active positions of a chunk.
+     *
+     * @param chunkPos
+     */
+    public void removeChunk(Vector3i chunkPos) {
+        BitSet cells = chunks.remove(chunkPos);
+        if (cells != null) {
+            size -= cells.cardinality();
+        }
+    }
+
+    public void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    private static int index(int x, int y, int z) {
+        return x + ChunkConstants.SIZE_X * (z + ChunkConstants.SIZE_Z * y);
+    }
+}
@@ -15,20 +15,15 @@
  */
 package org.terasology.core.world.liquid;
 
-import com.google.common.collect.Queues;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
-import org.terasology.entitySystem.systems.ComponentSystem;
-import org.terasology.registry.In;
-import org.terasology.math.Region3i;
+import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.math.Side;
-import org.terasology.math.TeraMath;
 import org.terasology.math.Vector3i;
-import org.terasology.monitoring.ThreadActivity;
-import org.terasology.monitoring.ThreadMonitor;
+import org.terasology.registry.In;
 import org.terasology.world.ChunkView;
 import org.terasology.world.OnChangedBlock;
 import org.terasology.world.WorldComponent;
@@ -37,31 +32,35 @@
 import org.terasology.world.block.BlockComponent;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.event.BeforeChunkUnload;
 import org.terasology.world.chunks.event.OnChunkLoaded;
 import org.terasology.world.liquid.LiquidData;
 import org.terasology.world.liquid.LiquidType;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Rough draft of Minecraft-like behavior of liquids. Will be replaced with some
  * more fancy stuff later on.
+ * <p/>
+ * The liquid is simulated as a cellular automaton, advanced in fixed ticks on the update thread. Only the active
+ * blocks - those next to a change - are simulated, and each is held once however often it is activated. A tick
+ * simulates at most a fixed number of blocks, computing all their new states before writing any of them back to the
+ * world, and blocks left over wait for the next tick. Loaded chunks are reviewed a few at a time, activating the
+ * blocks around any liquid in them.
  *
  * @author Benjamin Glatzel <benjamin.glatzel@me.com>
  */
 // TODO: Fix this for changes to world
-// TODO: Also just fix it, it is terribly broken
 //@RegisterSystem(RegisterMode.AUTHORITY)
-public class LiquidSimulator extends BaseComponentSystem {
+public class LiquidSimulator extends BaseComponentSystem implements UpdateSubscriberSystem {
 
-    private static final int NUM_THREADS = 2;
     private static final byte MAX_LIQUID_DEPTH = 0x7;
-    private static final int PROPAGATION_DELAY = 200;
-
-    private static final Logger logger = LoggerFactory.getLogger(LiquidSimulator.class);
+    private static final float TICK_LENGTH = 0.2f;
+    private static final int BLOCKS_PER_TICK = 4096;
+    private static final int CHUNK_REVIEWS_PER_TICK = 2;
 
     /**
      * Map of outgoing amounts of water, by number of available spaces (0-4) and depth (0-7)
@@ -89,8 +88,15 @@ public class LiquidSimulator extends BaseComponentSystem {
     private Block dirt;
     private Block water;
     private Block lava;
-    private BlockingQueue<LiquidSimulationTask> blockQueue;
-    private ExecutorService executor;
+
+    // Blocks to simulate, and blocks activated since the current tick started
+    private ActiveLiquidCells active = new ActiveLiquidCells();
+    private ActiveLiquidCells activated = new ActiveLiquidCells();
+    private Set<Vector3i> chunksToReview = Sets.newLinkedHashSet();
+    private float timeSinceTick;
+
+    private List<Vector3i> polled = Lists.newArrayList();
+    private List<LiquidChange> changes = Lists.newArrayList();
 
     @Override
     public void initialise() {
@@ -100,70 +106,35 @@ public void initialise() {
         dirt = blockManager.getBlock("core:Dirt");
         water = blockManager.getBlock("core:water");
         lava = blockManager.getBlock("core:lava");
-
-        blockQueue = Queues.newLinkedBlockingQueue();
-
-        executor = Executors.newFixedThreadPool(NUM_THREADS);
-        for (int i = 0; i < NUM_THREADS; ++i) {
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
-                    while (true) {
-                        try {
-                            LiquidSimulationTask task = blockQueue.take();
-                            if (task.shutdownThread()) {
-                                break;
-                            }
-                            try (ThreadActivity ignored = ThreadMonitor.startThreadActivity(task.getName())) {
-                                task.run();
-                            }
-                        } catch (InterruptedException e) {
-                            ThreadMonitor.addError(e);
-                            logger.debug("Interrupted");
-                        } catch (Exception e) {
-                            ThreadMonitor.addError(e);
-                            logger.error("Error in water simulation", e);
-                        }
-                    }
-                }
-            });
-        }
     }
 
     @Override
     public void shutdown() {
-        executor.shutdown();
-        for (int i = 0; i < NUM_THREADS; ++i) {
-            blockQueue.offer(new LiquidSimulationTask() {
-                @Override
-                public boolean shutdownThread() {
-                    return true;
-                }
-
-                @Override
-                public void run() {
-                }
+        active.clear();
+        activated.clear();
+        chunksToReview.clear();
+    }
 
-                @Override
-                public String getName() {
-                    return "Shutdown";
-                }
-            });
-        }
-        try {
-            executor.awaitTermination(1, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("Interrupted awaiting shutdown");
-        }
-        if (blockQueue.isEmpty()) {
-            executor.shutdownNow();
+    @Override
+    public void update(float delta) {
+        timeSinceTick += delta;
+        if (timeSinceTick >= TICK_LENGTH) {
+            // Never more than one tick per update, falling behind rather than stalling the game
+            timeSinceTick = Math.min(timeSinceTick - TICK_LENGTH, TICK_LENGTH);
+            tick();
         }
     }
 
     @ReceiveEvent(components = WorldComponent.class)
     public void chunkReady(OnChunkLoaded event, EntityRef worldEntity) {
-        blockQueue.offer(new ReviewChunk(event.getChunkPos()));
+        chunksToReview.add(new Vector3i(event.getChunkPos()));
+    }
+
+    @ReceiveEvent(components = WorldComponent.class)
+    public void chunkUnloading(BeforeChunkUnload event, EntityRef worldEntity) {
+        chunksToReview.remove(event.getChunkPos());
+        active.removeChunk(event.getChunkPos());
+        activated.removeChunk(event.getChunkPos());
     }
 
     @ReceiveEvent(components = BlockComponent.class)
@@ -173,51 +144,111 @@ public void blockChanged(OnChangedBlock event, EntityRef blockEntity) {
             if (currentState.getDepth() > 0) {
                 world.setLiquid(event.getBlockPosition(), new LiquidData(), currentState);
             }
-            if (event.getNewType().isPenetrable()) {
-                blockQueue.offer(new SimulateBlock(event.getBlockPosition(), world.getTime().getMilliseconds() + PROPAGATION_DELAY));
-            }
-            for (Side side : Side.values()) {
-                Vector3i adjPos = new Vector3i(event.getBlockPosition());
-                adjPos.add(side.getVector3i());
-                blockQueue.offer(new SimulateBlock(adjPos, world.getTime().getMilliseconds() + PROPAGATION_DELAY));
-            }
         } else {
             LiquidData currentState = world.getLiquid(event.getBlockPosition());
             if (currentState.getDepth() == 0) {
                 LiquidData newState = new LiquidData((water.equals(event.getNewType())) ? LiquidType.WATER : LiquidType.LAVA, MAX_LIQUID_DEPTH);
                 world.setLiquid(event.getBlockPosition(), newState, currentState);
             }
-
-            for (Side side : Side.values()) {
-                Vector3i adjPos = new Vector3i(event.getBlockPosition());
-                adjPos.add(side.getVector3i());
-                blockQueue.offer(new SimulateBlock(adjPos, world.getTime().getMilliseconds() + PROPAGATION_DELAY));
-            }
         }
+        activated.addWithNeighbours(event.getBlockPosition());
     }
 
-    public void simulate(Vector3i blockPos, ChunkView view) {
-        LiquidData current = view.getLiquid(blockPos);
-        LiquidData newState = calcStateFor(blockPos, view);
-        if (!newState.equals(current)) {
+    /**
+     * Advances the simulation by one tick.
+     */
+    private void tick() {
+        reviewChunks();
+
+        active.addAll(activated);
+        activated.clear();
+
+        // Compute the new state of every polled block before applying any, so the order blocks are visited in
+        // doesn't matter
+        int budget = BLOCKS_PER_TICK;
+        int chunksLeft = active.chunkCount();
+        while (budget > 0 && chunksLeft-- > 0) {
+            Vector3i chunkPos = active.nextChunk();
+            ChunkView view = world.getWorldViewAround(chunkPos);
+            if (view == null || !view.isValidView()) {
+                // Wait for the chunks around it to be ready
+                active.deferChunk(chunkPos);
+                continue;
+            }
+            polled.clear();
+            budget -= active.poll(chunkPos, budget, polled);
+            view.lock();
             try {
-                view.lock();
-                if (view.isValidView() && world.setLiquid(blockPos, newState, current)) {
-                    if (newState.getDepth() > 0) {
-                        world.setBlock(blockPos, ((newState.getType() == LiquidType.WATER) ? water : lava));
-                        Vector3i belowBlockPos = new Vector3i(blockPos.x, blockPos.y - 1, blockPos.z);
-                        Block belowType = world.getBlock(belowBlockPos);
-                        if (grass.equals(belowType) || snow.equals(belowType)) {
-                            world.setBlock(belowBlockPos, dirt);
-                        }
-                    } else {
-                        world.setBlock(blockPos, air);
+                for (Vector3i pos : polled) {
+                    LiquidData current = view.getLiquid(pos);
+                    LiquidData newState = calcStateFor(pos, view);
+                    if (!newState.equals(current)) {
+                        changes.add(new LiquidChange(pos, current, newState));
                     }
                 }
             } finally {
                 view.unlock();
             }
         }
+
+        for (LiquidChange change : changes) {
+            apply(change);
+        }
+        changes.clear();
+    }
+
+    private void reviewChunks() {
+        int reviews = 0;
+        Iterator<Vector3i> iterator = chunksToReview.iterator();
+        while (reviews < CHUNK_REVIEWS_PER_TICK && iterator.hasNext()) {
+            Vector3i chunkPos = iterator.next();
+            ChunkView view = world.getWorldViewAround(chunkPos);
+            if (view != null && view.isValidView()) {
+                iterator.remove();
+                reviews++;
+                review(chunkPos, view);
+            }
+        }
+    }
+
+    private void review(Vector3i chunkPos, ChunkView view) {
+        int minX = chunkPos.x * ChunkConstants.SIZE_X;
+        int minZ = chunkPos.z * ChunkConstants.SIZE_Z;
+        Vector3i pos = new Vector3i();
+        view.lock();
+        try {
+            for (int y = 0; y < ChunkConstants.SIZE_Y; ++y) {
+                for (int z = minZ; z < minZ + ChunkConstants.SIZE_Z; ++z) {
+                    for (int x = minX; x < minX + ChunkConstants.SIZE_X; ++x) {
+                        if (view.getLiquid(x, y, z).getDepth() > 0) {
+                            pos.set(x, y, z);
+                            activated.addWithNeighbours(pos);
+                        }
+                    }
+                }
+            }
+        } finally {
+            view.unlock();
+        }
+    }
+
+    private void apply(LiquidChange change) {
+        if (!world.setLiquid(change.pos, change.newState, change.oldState)) {
+            // Changed since the state was computed, which has activated it again
+            return;
+        }
+        if (change.newState.getDepth() > 0) {
+            world.setBlock(change.pos, ((change.newState.getType() == LiquidType.WATER) ? water : lava));
+            Vector3i belowBlockPos = new Vector3i(change.pos.x, change.pos.y - 1, change.pos.z);
+            Block belowType = world.getBlock(belowBlockPos);
+            if (grass.equals(belowType) || snow.equals(belowType)) {
+                world.setBlock(belowBlockPos, dirt);
+            }
+        } else {
+            world.setBlock(change.pos, air);
+        }
+        // Changes of depth alone don't change the block, so activate the neighbours here too
+        activated.addWithNeighbours(change.pos);
     }
 
     public static LiquidData calcStateFor(Vector3i pos, ChunkView chunkView) {
@@ -298,76 +329,15 @@ private static boolean isLiquidBlocking(Block block) {
         return !block.isPenetrable();
     }
 
-    private class SimulateBlock implements LiquidSimulationTask {
-
-        private Vector3i blockPos;
-        private long waitForTime;
-
-        public SimulateBlock(Vector3i blockPos, long time) {
-            this.blockPos = blockPos;
-            this.waitForTime = time;
-        }
+    private static final class LiquidChange {
+        private final Vector3i pos;
+        private final LiquidData oldState;
+        private final LiquidData newState;
 
-        @Override
-        public boolean shutdownThread() {
-            return false;
-        }
-
-        @Override
-        public void run() {
-            if (world.getTime().getMilliseconds() < waitForTime) {
-                blockQueue.offer(this);
-            } else if (world.isBlockRelevant(blockPos)) {
-                ChunkView view = world.getWorldViewAround(TeraMath.calcChunkPos(blockPos));
-                if (view != null && view.isValidView()) {
-                    simulate(blockPos, view);
-                }
-            }
-        }
-
-        @Override
-        public String getName() {
-            return "Simulate";
-        }
-    }
-
-    private class ReviewChunk implements LiquidSimulationTask {
-        private Vector3i chunkPos;
-
-        public ReviewChunk(Vector3i chunkPos) {
-            this.chunkPos = chunkPos;
-        }
-
-        @Override
-        public boolean shutdownThread() {
-            return false;
-        }
-
-        @Override
-        public void run() {
-            ChunkView view = world.getLocalView(chunkPos);
-            if (view != null) {
-                for (Vector3i pos : Region3i.createFromMinAndSize(new Vector3i(-1, 0, -1),
-                        new Vector3i(ChunkConstants.SIZE_X + 2, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z + 2))) {
-                    view.lock();
-                    try {
-                        LiquidData state = view.getLiquid(pos);
-                        LiquidData newState = calcStateFor(pos, view);
-                        if (!newState.equals(state)) {
-                            blockQueue.offer(new SimulateBlock(view.toWorldPos(pos), 0));
-                        }
-                    } finally {
-                        view.unlock();
-                    }
-
-                }
-            }
-        }
-
-        @Override
-        public String getName() {
-            return "Review";
+        private LiquidChange(Vector3i pos, LiquidData oldState, LiquidData newState) {
+            this.pos = pos;
+            this.oldState = oldState;
+            this.newState = newState;
         }
     }
-
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.terasology.core.world.internal;
+
+import org.junit.Test;
+import org.terasology.math.TeraMath;
+import org.terasology.utilities.procedural.BrownianNoise3D;
+import org.terasology.utilities.procedural.Noise3D;
+import org.terasology.utilities.procedural.PerlinNoise;
+
+import static org.junit.Assert.assertEquals;
+
+public class WorldBiomeProviderImplTest {
+
+    private static final String SEED = "biomes";
+
+    @Test
+    public void cachedClimateMatchesNoise() {
+        WorldBiomeProviderImpl biomeProvider = new WorldBiomeProviderImpl(SEED);
+        Noise3D temperatureNoise = new BrownianNoise3D(new PerlinNoise(SEED.hashCode() + 5));
+        Noise3D humidityNoise = new BrownianNoise3D(new PerlinNoise(SEED.hashCode() + 6));
+
+        int[] positions = {-1000, -33, -32, -31, -1, 0, 1, 31, 32, 100, 12345};
+        for (int x : positions) {
+            for (int z : positions) {
+                float temperature = (float) TeraMath.clamp((temperatureNoise.noise(x * 0.0005, 0, 0.0005 * z) + 1.0f) / 2.0f);
+                float humidity = (float) TeraMath.clamp((humidityNoise.noise(x * 0.0005, 0, 0.0005 * z) + 1.0f) / 2.0f);
+                assertEquals(temperature, biomeProvider.getTemperatureAt(x, z), 0.0f);
+                assertEquals(humidity, biomeProvider.getHumidityAt(x, z), 0.0f);
+            }
+        }
+    }
+}
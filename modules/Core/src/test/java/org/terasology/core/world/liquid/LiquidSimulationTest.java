@@ -16,6 +16,7 @@
 
 package org.terasology.core.world.liquid;
 
+import com.google.common.collect.Lists;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,7 +36,11 @@
 import org.terasology.world.liquid.LiquidData;
 import org.terasology.world.liquid.LiquidType;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Immortius
@@ -108,4 +113,77 @@ public void calcStateWhenAnnexed() {
         view.setLiquid(new Vector3i(0, 2, 0), new LiquidData());
         assertEquals(new LiquidData(), LiquidSimulator.calcStateFor(new Vector3i(0, 1, 0), view));
     }
+
+    @Test
+    public void activeCellsAreDeduplicated() {
+        ActiveLiquidCells cells = new ActiveLiquidCells();
+        assertTrue(cells.add(1, 2, 3));
+        assertFalse(cells.add(1, 2, 3));
+        cells.addWithNeighbours(new Vector3i(1, 2, 3));
+        cells.addWithNeighbours(new Vector3i(1, 2, 3));
+        assertEquals(7, cells.size());
+    }
+
+    @Test
+    public void activeCellsAreHeldPerChunk() {
+        ActiveLiquidCells cells = new ActiveLiquidCells();
+        cells.addWithNeighbours(new Vector3i(0, 1, 0));
+        assertEquals(7, cells.size());
+        assertEquals(3, cells.chunkCount());
+        assertTrue(cells.contains(-1, 1, 0));
+        assertTrue(cells.contains(0, 1, -1));
+    }
+
+    @Test
+    public void activeCellsOutsideWorldIgnored() {
+        ActiveLiquidCells cells = new ActiveLiquidCells();
+        assertFalse(cells.add(0, -1, 0));
+        assertFalse(cells.add(0, ChunkConstants.SIZE_Y, 0));
+        assertTrue(cells.isEmpty());
+    }
+
+    @Test
+    public void pollActiveCellsWithinBudget() {
+        ActiveLiquidCells cells = new ActiveLiquidCells();
+        for (int x = 0; x < 10; ++x) {
+            cells.add(-ChunkConstants.SIZE_X + x, 5, 3);
+        }
+        List<Vector3i> polled = Lists.newArrayList();
+        Vector3i chunkPos = new Vector3i(-1, 0, 0);
+        assertEquals(chunkPos, cells.nextChunk());
+        assertEquals(4, cells.poll(chunkPos, 4, polled));
+        assertEquals(4, polled.size());
+        assertEquals(6, cells.size());
+        for (Vector3i pos : polled) {
+            assertEquals(5, pos.y);
+            assertEquals(3, pos.z);
+            assertFalse(cells.contains(pos.x, pos.y, pos.z));
+        }
+        assertEquals(6, cells.poll(chunkPos, 100, polled));
+        assertTrue(cells.isEmpty());
+        assertEquals(null, cells.nextChunk());
+    }
+
+    @Test
+    public void mergeActiveCells() {
+        ActiveLiquidCells cells = new ActiveLiquidCells();
+        cells.add(0, 1, 0);
+        cells.add(0, 2, 0);
+        ActiveLiquidCells other = new ActiveLiquidCells();
+        other.add(0, 2, 0);
+        other.add(ChunkConstants.SIZE_X, 2, 0);
+        cells.addAll(other);
+        assertEquals(3, cells.size());
+        assertEquals(2, cells.chunkCount());
+        assertEquals(2, other.size());
+    }
+
+    @Test
+    public void removeChunkOfActiveCells() {
+        ActiveLiquidCells cells = new ActiveLiquidCells();
+        cells.addWithNeighbours(new Vector3i(0, 1, 0));
+        cells.removeChunk(new Vector3i(0, 0, 0));
+        assertEquals(2, cells.size());
+        assertFalse(cells.contains(0, 1, 0));
+    }
 }